@@ -23,13 +23,37 @@
  */
 package moe.reno.littlenebo;
 
+import moe.reno.littlenebo.announce.Announcer;
 import moe.reno.littlenebo.chat.ChatManager;
+import moe.reno.littlenebo.chat.IgnoreStore;
+import moe.reno.littlenebo.commands.ChannelCommand;
+import moe.reno.littlenebo.commands.IgnoreCommand;
 import moe.reno.littlenebo.commands.LittleNeboCommand;
+import moe.reno.littlenebo.commands.MessageCommand;
+import moe.reno.littlenebo.commands.OptionalCommand;
+import moe.reno.littlenebo.commands.ReplyCommand;
+import moe.reno.littlenebo.commands.SocialSpyCommand;
+import moe.reno.littlenebo.config.AnnouncementConfig;
+import moe.reno.littlenebo.config.ChatLogConfig;
 import moe.reno.littlenebo.config.ConfigManager;
+import moe.reno.littlenebo.config.RelayConfig;
+import moe.reno.littlenebo.config.WebhookConfig;
+import moe.reno.littlenebo.export.WebhookExporter;
+import moe.reno.littlenebo.log.ChatLogWriter;
+import moe.reno.littlenebo.metrics.MetricsExporter;
+import moe.reno.littlenebo.relay.RelayPublisher;
+import moe.reno.littlenebo.relay.RelayReceiver;
+import moe.reno.littlenebo.relay.RelayTransport;
+import moe.reno.littlenebo.relay.TcpRelayHub;
+import moe.reno.littlenebo.relay.TcpRelayTransport;
+import moe.reno.littlenebo.util.DebugTracer;
 
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.IOException;
+import java.util.function.Supplier;
+
 /**
  * Main plugin class for Little Nebo.
  * <p>
@@ -39,11 +63,23 @@ import org.bukkit.plugin.java.JavaPlugin;
 public class LittleNebo extends JavaPlugin {
     private ConfigManager configManager;
     private ChatManager chatManager;
+    private MetricsExporter metricsExporter;
+    private ChatLogWriter chatLog;
+    private TcpRelayHub relayHub;
+    private RelayTransport relayTransport;
+    private RelayPublisher relayPublisher;
+    private WebhookExporter webhookExporter;
+    private IgnoreStore ignoreStore;
+    private Announcer announcer;
+    private DebugTracer tracer;
 
     @Override
     public void onEnable() {
+        tracer = new DebugTracer(getLogger(), 256);
         configManager = new ConfigManager(this);
+        long loadStart = System.nanoTime();
         configManager.loadConfig();
+        long loadNanos = System.nanoTime() - loadStart;
         chatManager = new ChatManager(this, configManager);
         String version = Bukkit.getBukkitVersion();
         if (version.startsWith("1.19.0") || !version.matches("^(1\\.(19|2\\d|[3-9]\\d)|([2-9]\\d+)\\.\\d+).*")) {
@@ -74,17 +110,255 @@ public class LittleNebo extends JavaPlugin {
             return;
         }
         getServer().getPluginManager().registerEvents(chatManager, this);
+        getServer().getPluginManager().registerEvents(chatManager.getChannelManager(), this);
+        getServer().getPluginManager().registerEvents(chatManager.getMentionEngine(), this);
 
         getCommand("littlenebo").setExecutor(new LittleNeboCommand(this));
+        getCommand("channel").setExecutor(new ChannelCommand(this));
+        getCommand("ignore").setExecutor(new IgnoreCommand(this));
+        getCommand("socialspy").setExecutor(new SocialSpyCommand(this));
+        // Only claimed when turned on, so with messaging off /msg and /r stay whoever else's they are
+        if (configManager.getMessaging().enabled()) {
+            getServer().getCommandMap().register("littlenebo", new OptionalCommand(this, "msg",
+                    "Send a private message", "/msg <player> <message>", "littlenebo.msg", new MessageCommand(this)));
+            getServer().getCommandMap().register("littlenebo", new OptionalCommand(this, "reply",
+                    "Reply to your last private message", "/reply <message>", "littlenebo.msg", new ReplyCommand(this)));
+        }
+
+        ignoreStore = new IgnoreStore(getDataFolder().toPath().resolve("ignores"), getLogger());
+        chatManager.setIgnoreStore(ignoreStore);
+
+        // Bukkit has no permission change event, so re-check channel audiences, spies and the
+        // formats cached on chat sessions every few seconds.
+        // Nickname changes have no event either, so the mention names get re-checked at the same time.
+        getServer().getScheduler().runTaskTimer(this, () -> {
+            chatManager.getChannelManager().refreshAll(getServer().getOnlinePlayers());
+            chatManager.getSessions().pruneSpies(SocialSpyCommand.PERMISSION);
+            chatManager.getSessions().refreshAll(configManager);
+            chatManager.getMentionEngine().markDirty();
+        }, 100L, 100L);
+        // Joins and quits only flag the mention automaton, it gets rebuilt here at most once a second
+        getServer().getScheduler().runTaskTimer(this,
+                () -> chatManager.getMentionEngine().rebuildIfDirty(getServer().getOnlinePlayers()), 20L, 20L);
+        // Local chat reads positions from a snapshot instead of reacting to every move event.
+        // The interval is only read here, changing it needs a restart.
+        long proximityTicks = configManager.getProximityUpdateTicks();
+        getServer().getScheduler().runTaskTimer(this,
+                () -> chatManager.getChannelManager().updateProximity(getServer().getOnlinePlayers()),
+                proximityTicks, proximityTicks);
+
+        metricsExporter = new MetricsExporter(chatManager.getMetrics());
+        long applyStart = System.nanoTime();
+        applyConfig();
+        chatManager.getMetrics().recordReload(loadNanos + System.nanoTime() - applyStart);
+
+        // Get parsers, caches and the JIT going before the first real message arrives
+        getServer().getScheduler().runTaskAsynchronously(this, () -> {
+            try {
+                long nanos = chatManager.warmUp();
+                getLogger().info(String.format("Formatting pipeline warmed up in %.1fms", nanos / 1_000_000.0));
+            } catch (Exception e) {
+                getLogger().warning("Formatting warm-up failed: " + e.getMessage());
+            }
+        });
 
         getLogger().info("Little Nebo enabled.");
     }
 
     @Override
     public void onDisable() {
+        if (metricsExporter != null) {
+            metricsExporter.stop();
+        }
+        closeChatLog();
+        closeRelay();
+        closeWebhook();
+        closeAnnouncer();
+        if (ignoreStore != null) {
+            ignoreStore.close();
+        }
         getLogger().info("Little Nebo disabled.");
     }
 
+    /**
+     * Reloads config.yml and re-applies everything built from it, timing the whole
+     * thing into the reload histogram.
+     */
+    public void reload() {
+        long start = System.nanoTime();
+        configManager.loadConfig();
+        applyConfig();
+        chatManager.getMetrics().recordReload(System.nanoTime() - start);
+    }
+
+    /**
+     * Re-applies settings that live outside ConfigManager after a load or reload.
+     */
+    public void applyConfig() {
+        tracer.configure(configManager.getDebugSampleRate(), configManager.getDebugBufferSize(),
+                configManager.isDebugLogToConsole());
+        chatManager.reload();
+        refreshMetricsExporter();
+        refreshChatLog();
+        refreshRelay();
+        refreshWebhook();
+        refreshAnnouncer();
+    }
+
+    /**
+     * Replaces the chat log writer to match the current config.
+     * <p>
+     *     The old writer is detached first and then closed, which writes out
+     *     anything it still had queued before the new one opens the file.
+     * </p>
+     */
+    private void refreshChatLog() {
+        closeChatLog();
+        ChatLogConfig config = configManager.getChatLog();
+        if (!config.enabled()) {
+            return;
+        }
+        chatLog = new ChatLogWriter(getDataFolder().toPath().resolve(config.directory()), config,
+                chatManager.getMetrics(), getLogger());
+        chatManager.addSink(chatLog);
+    }
+
+    /**
+     * Tears down and rebuilds the cross-server relay to match the current config.
+     * <p>
+     *     A relay reconnect on reload is cheap, and rebuilding keeps the server id,
+     *     hub address and batching settings trivially consistent.
+     * </p>
+     */
+    private void refreshRelay() {
+        closeRelay();
+        RelayConfig config = configManager.getRelay();
+        if (!config.enabled()) {
+            return;
+        }
+        if (config.runHub()) {
+            relayHub = new TcpRelayHub(getLogger());
+            try {
+                relayHub.start(config.host(), config.port());
+                getLogger().info("Chat relay hub listening on " + config.host() + ":" + config.port());
+            } catch (IOException e) {
+                getLogger().warning("Could not start chat relay hub on " + config.host() + ":" + config.port()
+                        + ": " + e.getMessage());
+                relayHub = null;
+            }
+        }
+        relayTransport = new TcpRelayTransport(config.host(), config.port(), getLogger());
+        try {
+            relayTransport.start(new RelayReceiver(this, config.serverId()));
+        } catch (IOException e) {
+            getLogger().warning("Could not start chat relay: " + e.getMessage());
+            closeRelay();
+            return;
+        }
+        relayPublisher = new RelayPublisher(relayTransport, config, chatManager.getMetrics());
+        chatManager.addSink(relayPublisher);
+    }
+
+    /**
+     * Replaces the chat webhook exporter to match the current config.
+     */
+    private void refreshWebhook() {
+        closeWebhook();
+        WebhookConfig config = configManager.getWebhook();
+        if (!config.enabled()) {
+            return;
+        }
+        try {
+            webhookExporter = new WebhookExporter(config, chatManager.getMetrics(), getLogger());
+        } catch (IllegalArgumentException e) {
+            getLogger().warning("Invalid webhook.url '" + config.url() + "': " + e.getMessage());
+            return;
+        }
+        chatManager.addSink(webhookExporter);
+    }
+
+    /**
+     * Replaces the announcer to match the current config. Runs after the chat manager
+     * reload, so announcements pick up the new format fragments.
+     */
+    private void refreshAnnouncer() {
+        closeAnnouncer();
+        AnnouncementConfig config = configManager.getAnnouncements();
+        if (!config.enabled()) {
+            return;
+        }
+        announcer = new Announcer(this, config, chatManager.getFragments(),
+                chatManager.isPlaceholdersEnabled(), chatManager.getMetrics());
+        announcer.start();
+    }
+
+    private void closeAnnouncer() {
+        if (announcer == null) {
+            return;
+        }
+        announcer.close();
+        announcer = null;
+    }
+
+    private void closeWebhook() {
+        if (webhookExporter == null) {
+            return;
+        }
+        chatManager.removeSink(webhookExporter);
+        webhookExporter.close();
+        webhookExporter = null;
+    }
+
+    private void closeRelay() {
+        if (relayPublisher != null) {
+            chatManager.removeSink(relayPublisher);
+            relayPublisher.close();
+            relayPublisher = null;
+        }
+        if (relayTransport != null) {
+            relayTransport.close();
+            relayTransport = null;
+        }
+        if (relayHub != null) {
+            relayHub.close();
+            relayHub = null;
+        }
+    }
+
+    private void closeChatLog() {
+        if (chatLog == null) {
+            return;
+        }
+        chatManager.removeSink(chatLog);
+        chatLog.close();
+        chatLog = null;
+    }
+
+    /**
+     * Starts or stops the metrics exporter to match the current config.
+     * <p>
+     *     Always restarts a running exporter so bind address and port changes
+     *     are picked up on reload.
+     * </p>
+     */
+    private void refreshMetricsExporter() {
+        if (metricsExporter == null) {
+            return;
+        }
+        metricsExporter.stop();
+        if (!configManager.isMetricsEnabled()) {
+            return;
+        }
+        String address = configManager.getMetricsBindAddress();
+        int port = configManager.getMetricsPort();
+        try {
+            metricsExporter.start(address, port);
+            getLogger().info("Metrics exporter listening on " + address + ":" + port);
+        } catch (IOException | IllegalArgumentException e) {
+            getLogger().warning("Could not start metrics exporter on " + address + ":" + port + ": " + e.getMessage());
+        }
+    }
+
     /**
      * Gets the ConfigManager to access plugin settings
      *
@@ -104,13 +378,47 @@ public class LittleNebo extends JavaPlugin {
     }
 
     /**
-     * Logs a message at INFO, but only if debug mode is enabled in config.
+     * Gets the chat log writer, for searching the log it is writing.
+     *
+     * @return the active ChatLogWriter, or null if the chat log is off
+     */
+    public ChatLogWriter getChatLog() {
+        return chatLog;
+    }
+
+    /**
+     * Gets the debug tracer holding recent debug output.
+     *
+     * @return the active DebugTracer instance
+     */
+    public DebugTracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * Records a debug trace, but only if debug mode is enabled in config.
+     * <p>
+     *     Prefer {@link #debug(Supplier)} on hot paths, this overload still
+     *     pays for building the string at the call site.
+     * </p>
      *
      * @param message the debug text to log
      */
     public void debug(String message) {
         if (configManager.isDebugEnabled()) {
-            getLogger().info("[DEBUG] " + message);
+            tracer.record(message);
+        }
+    }
+
+    /**
+     * Records a debug trace if debug mode is enabled and the trace is sampled.
+     * The supplier is only called if the trace is kept.
+     *
+     * @param message supplies the debug text
+     */
+    public void debug(Supplier<String> message) {
+        if (configManager.isDebugEnabled()) {
+            tracer.trace(message);
         }
     }
 }
\ No newline at end of file
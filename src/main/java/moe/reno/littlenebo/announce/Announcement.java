@@ -0,0 +1,233 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.announce;
+
+import moe.reno.littlenebo.chat.FormatFragments;
+import moe.reno.littlenebo.util.ColorUtil;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.ComponentLike;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One announcement, parsed once when the config is loaded.
+ * <p>
+ *     The MiniMessage is parsed a single time with PlaceholderAPI placeholders left in
+ *     as text. Sending it only fills those placeholders into the ready-made tree, and
+ *     players whose placeholders come out the same share one render. An announcement
+ *     without placeholders is the same component for everyone.
+ * </p>
+ * <p>
+ *     Placeholders inside a tag, like {@code <click:run_command:'/warp %player_name%'>} or
+ *     {@code <color:%rank_color%>}, can't be filled into a parsed tree. Templates with those
+ *     are filled in as text first and then parsed, once per distinct set of values.
+ * </p>
+ */
+public final class Announcement {
+    private static final Pattern PLACEHOLDER = Pattern.compile("%[^%\\s]+%");
+
+    private final Component template;
+    private final String[] placeholders;
+    // Only set when a placeholder sits inside a tag and has to be filled before parsing
+    private final String source;
+    private final TagResolver resolver;
+
+    private Announcement(Component template, String[] placeholders, String source, TagResolver resolver) {
+        this.template = template;
+        this.placeholders = placeholders;
+        this.source = source;
+        this.resolver = resolver;
+    }
+
+    /**
+     * Parses an announcement.
+     *
+     * @param text the MiniMessage template
+     * @param fragments format fragments it may use
+     * @return the compiled announcement
+     */
+    public static Announcement compile(String text, FormatFragments fragments) {
+        String inlined = fragments.inline(text);
+        TagResolver resolver = fragments.resolver();
+        String[] placeholders = placeholders(inlined);
+        Component template = ColorUtil.parseMiniMessage(inlined, resolver);
+        return placeholders.length > 0 && hasPlaceholderInTag(inlined)
+                ? new Announcement(template, placeholders, inlined, resolver)
+                : new Announcement(template, placeholders, null, null);
+    }
+
+    /**
+     * Checks whether any placeholder sits inside a tag, arguments included.
+     */
+    static boolean hasPlaceholderInTag(String text) {
+        for (int i = text.indexOf('<'); i >= 0; i = text.indexOf('<', i + 1)) {
+            int end = tagEnd(text, i);
+            if (end > 0 && PLACEHOLDER.matcher(text).region(i, end).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the end of a tag in a trusted template. Unlike chat, tag arguments here can be
+     * quoted and hold spaces, e.g. {@code <hover:show_text:'Click me'>}.
+     *
+     * @return index just past the closing {@code >}, or -1 if there isn't one
+     */
+    private static int tagEnd(String text, int start) {
+        char quote = 0;
+        for (int i = start + 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quote != 0) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '>') {
+                return i + 1;
+            } else if (c == '<' || c == '\n') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the distinct placeholders in a template, in order of first use.
+     */
+    static String[] placeholders(String text) {
+        Set<String> found = new LinkedHashSet<>();
+        Matcher matcher = PLACEHOLDER.matcher(text);
+        while (matcher.find()) {
+            found.add(matcher.group());
+        }
+        return found.toArray(new String[0]);
+    }
+
+    /**
+     * @return true if every player gets the same component
+     */
+    public boolean isShared() {
+        return placeholders.length == 0;
+    }
+
+    /**
+     * @return the parsed template, with placeholders still in it as text
+     */
+    public Component template() {
+        return template;
+    }
+
+    /**
+     * @return the distinct placeholders, e.g. {@code %player_name%}; don't modify
+     */
+    String[] placeholders() {
+        return placeholders;
+    }
+
+    /**
+     * Renders the announcement for one set of placeholder values.
+     *
+     * @param values what each of {@link #placeholders()} came out as for this player
+     * @param renders renders already made for this send, keyed by values; shared between players
+     * @return the render
+     */
+    public Component render(List<String> values, Map<List<String>, Component> renders) {
+        if (isShared()) {
+            return template;
+        }
+        return renders.computeIfAbsent(values, filled -> fillText(filled(filled), filled));
+    }
+
+    /**
+     * The template for these values: the parsed one, or with in-tag placeholders filled and
+     * then parsed.
+     */
+    private Component filled(List<String> values) {
+        if (source == null) {
+            return template;
+        }
+        StringBuilder out = new StringBuilder(source.length() + 32);
+        int copied = 0;
+        for (int i = source.indexOf('<'); i >= 0; i = source.indexOf('<', i + 1)) {
+            int end = tagEnd(source, i);
+            if (end < 0) {
+                continue;
+            }
+            out.append(source, copied, i);
+            Matcher matcher = PLACEHOLDER.matcher(source).region(i, end);
+            int tagCopied = i;
+            while (matcher.find()) {
+                out.append(source, tagCopied, matcher.start());
+                out.append(tagValue(values.get(indexOf(matcher.group()))));
+                tagCopied = matcher.end();
+            }
+            out.append(source, tagCopied, end);
+            copied = end;
+            i = end - 1;
+        }
+        out.append(source, copied, source.length());
+        return ColorUtil.parseMiniMessage(out.toString(), resolver);
+    }
+
+    /**
+     * Fills the placeholders left as text in a parsed tree.
+     */
+    private Component fillText(Component parsed, List<String> values) {
+        return parsed.replaceText(builder -> builder
+                .match(PLACEHOLDER)
+                .replacement((match, text) -> {
+                    int index = indexOf(match.group());
+                    return index >= 0 ? value(values.get(index)) : text;
+                }));
+    }
+
+    private int indexOf(String placeholder) {
+        for (int i = 0; i < placeholders.length; i++) {
+            if (placeholders[i].equals(placeholder)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A value going into a tag argument: colour codes and anything that could end the
+     * argument or the tag are dropped, so a placeholder can't add tags of its own.
+     */
+    static String tagValue(String value) {
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '§') {
+                i++;
+            } else if (c != '<' && c != '>' && c != '\'' && c != '"' && c != '\\') {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Placeholders often come back with section sign colours (rank prefixes), keep those.
+     */
+    private static ComponentLike value(String value) {
+        return value.indexOf('§') >= 0
+                ? LegacyComponentSerializer.legacySection().deserialize(value)
+                : Component.text(value);
+    }
+}
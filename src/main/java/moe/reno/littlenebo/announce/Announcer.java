@@ -0,0 +1,155 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.announce;
+
+import me.clip.placeholderapi.PlaceholderAPI;
+import moe.reno.littlenebo.LittleNebo;
+import moe.reno.littlenebo.chat.FormatFragments;
+import moe.reno.littlenebo.config.AnnouncementConfig;
+import moe.reno.littlenebo.metrics.ChatMetrics;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the configured announcements on a timer.
+ * <p>
+ *     Everything happens off the main thread. Templates are parsed once when this is
+ *     created; each send only fills in placeholders, a batch of players per tick so a
+ *     full server doesn't turn into one long PlaceholderAPI burst.
+ * </p>
+ */
+public class Announcer {
+    private final LittleNebo plugin;
+    private final ChatMetrics metrics;
+    private final boolean placeholdersEnabled;
+    private final boolean random;
+    private final int batchSize;
+    private final long intervalTicks;
+    private final List<Announcement> announcements;
+    private final AtomicInteger next = new AtomicInteger();
+    private BukkitTask task;
+
+    /**
+     * @param plugin the plugin
+     * @param config announcement settings
+     * @param fragments format fragments the announcements may use
+     * @param placeholdersEnabled whether PlaceholderAPI is installed
+     * @param metrics where sends are counted
+     */
+    public Announcer(LittleNebo plugin, AnnouncementConfig config, FormatFragments fragments,
+                     boolean placeholdersEnabled, ChatMetrics metrics) {
+        this.plugin = plugin;
+        this.metrics = metrics;
+        this.placeholdersEnabled = placeholdersEnabled;
+        this.random = config.random();
+        this.batchSize = Math.max(1, config.batchSize());
+        this.intervalTicks = Math.max(1, config.intervalSeconds()) * 20L;
+        List<Announcement> compiled = new ArrayList<>(config.messages().size());
+        for (String message : config.messages()) {
+            compiled.add(Announcement.compile(message, fragments));
+        }
+        this.announcements = List.copyOf(compiled);
+    }
+
+    /**
+     * Starts the timer. Does nothing without announcements.
+     */
+    public void start() {
+        if (announcements.isEmpty() || task != null) {
+            return;
+        }
+        task = plugin.getServer().getScheduler()
+                .runTaskTimerAsynchronously(plugin, this::announceNext, intervalTicks, intervalTicks);
+    }
+
+    /**
+     * Stops the timer. A send already in progress finishes its batches.
+     */
+    public void close() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * @return number of announcements
+     */
+    public int size() {
+        return announcements.size();
+    }
+
+    private void announceNext() {
+        int index = random
+                ? ThreadLocalRandom.current().nextInt(announcements.size())
+                : Math.floorMod(next.getAndIncrement(), announcements.size());
+        announce(announcements.get(index));
+    }
+
+    /**
+     * Sends an announcement to everyone online. Safe to call from any thread.
+     *
+     * @param announcement the announcement
+     */
+    public void announce(Announcement announcement) {
+        List<Player> online = List.copyOf(plugin.getServer().getOnlinePlayers());
+        if (online.isEmpty()) {
+            return;
+        }
+        if (announcement.isShared()) {
+            Component shared = announcement.template();
+            for (Player player : online) {
+                player.sendMessage(shared);
+            }
+            metrics.recordAnnouncement(online.size(), 1);
+            return;
+        }
+        Map<List<String>, Component> renders = new ConcurrentHashMap<>();
+        for (int from = 0, tick = 0; from < online.size(); from += batchSize, tick++) {
+            List<Player> batch = online.subList(from, Math.min(online.size(), from + batchSize));
+            if (tick == 0) {
+                sendBatch(announcement, batch, renders);
+            } else {
+                plugin.getServer().getScheduler().runTaskLaterAsynchronously(plugin,
+                        () -> sendBatch(announcement, batch, renders), tick);
+            }
+        }
+    }
+
+    private void sendBatch(Announcement announcement, List<Player> batch, Map<List<String>, Component> renders) {
+        int before = renders.size();
+        int sent = 0;
+        for (Player player : batch) {
+            if (!player.isOnline()) {
+                continue;
+            }
+            player.sendMessage(announcement.render(values(announcement, player), renders));
+            sent++;
+        }
+        metrics.recordAnnouncement(sent, renders.size() - before);
+    }
+
+    private List<String> values(Announcement announcement, Player player) {
+        String[] placeholders = announcement.placeholders();
+        if (!placeholdersEnabled) {
+            // Without PlaceholderAPI they stay as typed, and everyone shares one render
+            return List.of(placeholders);
+        }
+        String[] values = new String[placeholders.length];
+        for (int i = 0; i < placeholders.length; i++) {
+            values[i] = PlaceholderAPI.setPlaceholders(player, placeholders[i]);
+        }
+        return List.of(values);
+    }
+}
@@ -0,0 +1,230 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import moe.reno.littlenebo.config.ChannelConfig;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps every channel's audience in sync with the server and tracks which
+ * channel each player is talking in.
+ * <p>
+ *     Audiences change on join, quit and world change, plus a periodic
+ *     {@link #refreshAll(Collection)} to catch permission changes, since Bukkit has no
+ *     event for those. Local channels read positions from a {@link ProximityIndex}
+ *     that is rebuilt on a schedule via {@link #updateProximity(Collection)} rather
+ *     than on every move. The chat path only ever reads precomputed state.
+ * </p>
+ */
+public class ChannelManager implements Listener {
+    private final ProximityIndex<Player> proximity = new ProximityIndex<>();
+    private volatile Map<String, ChatChannel> channels = Collections.emptyMap();
+    private volatile double proximityCellSize = 0;
+    private volatile ChatChannel defaultChannel;
+    private final Map<UUID, String> selected = new ConcurrentHashMap<>();
+    // Player UUID to world UID, written on the main thread from join and world change events
+    private final Map<UUID, UUID> worlds = new ConcurrentHashMap<>();
+
+    /**
+     * Replaces all channels and rebuilds their audiences.
+     * <p>
+     *     Players keep their selected channel if it still exists.
+     *     Should be called on the main thread.
+     * </p>
+     *
+     * @param configs the channels from config, in order
+     * @param online the currently online players
+     */
+    public void load(List<ChannelConfig> configs, Collection<? extends Player> online) {
+        Map<String, ChatChannel> loaded = new LinkedHashMap<>();
+        ChatChannel fallback = null;
+        double cellSize = 0;
+        for (ChannelConfig config : configs) {
+            ChatChannel channel = new ChatChannel(config, proximity, worlds);
+            loaded.put(channel.getName(), channel);
+            if (channel.getScope() == ChatChannel.Scope.LOCAL) {
+                cellSize = Math.max(cellSize, channel.getRadius());
+            }
+            if (fallback == null || config.isDefault()) {
+                fallback = channel;
+            }
+        }
+        for (Player player : online) {
+            worlds.put(player.getUniqueId(), player.getWorld().getUID());
+        }
+        for (ChatChannel channel : loaded.values()) {
+            for (Player player : online) {
+                if (channel.canUse(player)) {
+                    channel.add(player);
+                }
+            }
+        }
+        channels = Collections.unmodifiableMap(loaded);
+        defaultChannel = fallback;
+        proximityCellSize = cellSize;
+        updateProximity(online);
+        selected.values().removeIf(name -> !loaded.containsKey(name));
+    }
+
+    /**
+     * Checks if any channels are configured.
+     *
+     * @return false if chat is plain global chat
+     */
+    public boolean isEnabled() {
+        return !channels.isEmpty();
+    }
+
+    /**
+     * Gets the channel a player is currently talking in.
+     *
+     * @param player the player
+     * @return their channel, the default channel, or null if no channels are configured
+     */
+    public ChatChannel getActiveChannel(Player player) {
+        String name = selected.get(player.getUniqueId());
+        if (name != null) {
+            ChatChannel channel = channels.get(name);
+            if (channel != null && channel.isMember(player)) {
+                return channel;
+            }
+        }
+        return defaultChannel;
+    }
+
+    /**
+     * Switches the channel a player talks in.
+     *
+     * @param player the player
+     * @param name the channel name
+     * @return true if the player is allowed in that channel and it was selected
+     */
+    public boolean setActiveChannel(Player player, String name) {
+        ChatChannel channel = channels.get(name);
+        if (channel == null || !channel.canUse(player)) {
+            return false;
+        }
+        channel.add(player);
+        selected.put(player.getUniqueId(), channel.getName());
+        return true;
+    }
+
+    /**
+     * @param name a channel name
+     * @return the channel, or null if there is none by that name
+     */
+    public ChatChannel getChannel(String name) {
+        return channels.get(name);
+    }
+
+    /**
+     * @return every configured channel, in config order
+     */
+    public Collection<ChatChannel> getChannels() {
+        return channels.values();
+    }
+
+    /**
+     * Re-checks a player's permission for every channel and updates audiences to match.
+     *
+     * @param player the player to refresh
+     */
+    public void refresh(Player player) {
+        for (ChatChannel channel : channels.values()) {
+            if (channel.canUse(player)) {
+                channel.add(player);
+            } else {
+                channel.remove(player);
+            }
+        }
+    }
+
+    /**
+     * Refreshes every online player. Scheduled periodically to pick up permission changes.
+     *
+     * @param online the currently online players
+     */
+    public void refreshAll(Collection<? extends Player> online) {
+        for (Player player : online) {
+            refresh(player);
+        }
+    }
+
+    /**
+     * Snapshots player positions into the proximity index. Does nothing if there
+     * are no local channels. Must be called on the main thread.
+     *
+     * @param online the currently online players
+     */
+    public void updateProximity(Collection<? extends Player> online) {
+        double cellSize = proximityCellSize;
+        if (cellSize <= 0) {
+            return;
+        }
+        ProximityIndex.Builder<Player> builder = proximity.rebuild(cellSize);
+        for (Player player : online) {
+            Location location = player.getLocation();
+            builder.add(player, location.getWorld().getUID(), location.getX(), location.getY(), location.getZ());
+        }
+        builder.publish();
+    }
+
+    /**
+     * Adds a joining player to every channel they may use.
+     *
+     * @param event the PlayerJoinEvent
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        worlds.put(player.getUniqueId(), player.getWorld().getUID());
+        refresh(player);
+    }
+
+    /**
+     * Removes a quitting player from every audience.
+     *
+     * @param event the PlayerQuitEvent
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        Player player = event.getPlayer();
+        for (ChatChannel channel : channels.values()) {
+            channel.remove(player);
+        }
+        selected.remove(player.getUniqueId());
+        worlds.remove(player.getUniqueId());
+    }
+
+    /**
+     * Moves a player between per-world audiences.
+     *
+     * @param event the PlayerChangedWorldEvent
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        Player player = event.getPlayer();
+        worlds.put(player.getUniqueId(), player.getWorld().getUID());
+        for (ChatChannel channel : channels.values()) {
+            channel.changeWorld(player, event.getFrom().getUID());
+        }
+    }
+}
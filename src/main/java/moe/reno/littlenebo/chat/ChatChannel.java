@@ -0,0 +1,206 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import moe.reno.littlenebo.config.ChannelConfig;
+import moe.reno.littlenebo.config.FormatConfig;
+import org.bukkit.entity.Player;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A chat channel and its live audience.
+ * <p>
+ *     The audience is kept up to date by {@link ChannelManager} as players join, quit,
+ *     change world or gain/lose the channel permission, so sending a message never has
+ *     to filter the online player list. World channels keep one audience per world, picked
+ *     by the world {@link ChannelManager} last saw the player in, so chat never asks the
+ *     entity mid-teleport. Local channels intersect their members with a
+ *     {@link ProximityIndex} query.
+ * </p>
+ */
+public class ChatChannel {
+    /**
+     * Who a message sent to this channel reaches.
+     */
+    public enum Scope {
+        /** Every member of the channel. */
+        GLOBAL,
+        /** Members in the same world as the sender. */
+        WORLD,
+        /** Members within the channel radius of the sender. */
+        LOCAL;
+
+        /**
+         * Parses a scope from config, defaulting to {@link #GLOBAL}.
+         *
+         * @param value the configured value; may be null
+         * @return the matching scope
+         */
+        public static Scope fromConfig(String value) {
+            if (value == null) {
+                return GLOBAL;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return GLOBAL;
+            }
+        }
+    }
+
+    private final String name;
+    private final Scope scope;
+    private final String permission;
+    private final FormatConfig format;
+    private final double radius;
+    private final ProximityIndex<Player> proximity;
+    private final Map<UUID, UUID> worlds;
+    private final Set<Player> members = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Set<Player>> membersByWorld = new ConcurrentHashMap<>();
+
+    /**
+     * @param config the channel settings from config.yml
+     * @param proximity position index used by local channels
+     * @param worlds the world each online player is in, by player UUID; kept up to date by the caller
+     */
+    public ChatChannel(ChannelConfig config, ProximityIndex<Player> proximity, Map<UUID, UUID> worlds) {
+        this.name = config.name();
+        this.scope = Scope.fromConfig(config.scope());
+        this.permission = config.hasPermission() ? config.permission() : "";
+        this.format = config.format();
+        this.radius = Math.max(1.0, config.radius());
+        this.proximity = proximity;
+        this.worlds = worlds;
+    }
+
+    /** @return the channel name */
+    public String getName() {
+        return name;
+    }
+
+    /** @return who messages in this channel reach */
+    public Scope getScope() {
+        return scope;
+    }
+
+    /** @return how far local messages reach, in blocks */
+    public double getRadius() {
+        return radius;
+    }
+
+    /** @return the channel's format, or null to use the sender's permission format */
+    public FormatConfig getFormat() {
+        return format;
+    }
+
+    /**
+     * Checks if a player is allowed in this channel.
+     * This is a permission check, so keep it off the per-message path.
+     *
+     * @param player the player
+     * @return true if the player may see and talk in the channel
+     */
+    public boolean canUse(Player player) {
+        return permission.isEmpty() || player.hasPermission(permission);
+    }
+
+    /**
+     * Checks if this channel reaches everyone online, in which case the
+     * default chat audience can be left alone.
+     *
+     * @return true for an unrestricted global channel
+     */
+    public boolean isOpenToEveryone() {
+        return scope == Scope.GLOBAL && permission.isEmpty();
+    }
+
+    /**
+     * Checks current membership without a permission check.
+     *
+     * @param player the player
+     * @return true if the player is in the channel's audience
+     */
+    public boolean isMember(Player player) {
+        return members.contains(player);
+    }
+
+    /**
+     * Gets the players a message from {@code sender} should reach.
+     *
+     * @param sender the player sending the message
+     * @return a read-only view of the audience; live except for local channels
+     */
+    public Set<Player> audienceFor(Player sender) {
+        if (scope == Scope.LOCAL) {
+            Set<Player> nearby = new HashSet<>();
+            if (!proximity.collectNearby(sender, radius, nearby)) {
+                // Not in the last snapshot yet (just joined), they still see their own message
+                nearby.add(sender);
+            }
+            nearby.retainAll(members);
+            return Collections.unmodifiableSet(nearby);
+        }
+        if (scope == Scope.WORLD) {
+            UUID worldId = worlds.get(sender.getUniqueId());
+            Set<Player> world = worldId != null ? membersByWorld.get(worldId) : null;
+            return world != null ? Collections.unmodifiableSet(world) : Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(members);
+    }
+
+    /**
+     * Adds a player to the audience for their current world.
+     *
+     * @param player the player to add
+     */
+    void add(Player player) {
+        members.add(player);
+        if (scope == Scope.WORLD) {
+            UUID world = worlds.get(player.getUniqueId());
+            if (world != null) {
+                membersByWorld.computeIfAbsent(world, id -> ConcurrentHashMap.newKeySet()).add(player);
+            }
+        }
+    }
+
+    /**
+     * Removes a player from the audience entirely.
+     *
+     * @param player the player to remove
+     */
+    void remove(Player player) {
+        if (members.remove(player) && scope == Scope.WORLD) {
+            for (Set<Player> world : membersByWorld.values()) {
+                world.remove(player);
+            }
+        }
+    }
+
+    /**
+     * Moves a player between per-world audiences after a world change. The new world
+     * must already be in the shared world map.
+     *
+     * @param player the player who changed world
+     * @param from the UID of the world they left
+     */
+    void changeWorld(Player player, UUID from) {
+        if (scope != Scope.WORLD || !members.contains(player)) {
+            return;
+        }
+        Set<Player> old = membersByWorld.get(from);
+        if (old != null) {
+            old.remove(player);
+        }
+        add(player);
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size ring of recent chat messages for staff to look back through.
+ * <p>
+ *     Everything is preallocated: message text is stored as UTF-8 in one byte arena
+ *     with a fixed slot per entry, and the other fields live in primitive arrays, so
+ *     recording a message allocates nothing. Writers claim a slot with a single atomic
+ *     increment and publish it through a per-slot sequence number (a seqlock), so async
+ *     chat threads never block each other. Readers copy a slot and re-check its sequence,
+ *     skipping anything that was overwritten while they read it. Strings are only built
+ *     on read.
+ * </p>
+ */
+public class ChatHistory {
+    /**
+     * A decoded history entry.
+     *
+     * @param timeMillis when the message was sent
+     * @param player the sender's UUID
+     * @param channel the channel it was sent in, or null without channels
+     * @param message the processed message text, possibly truncated
+     */
+    public record Entry(long timeMillis, UUID player, String channel, String message) {}
+
+    private final int capacity;
+    private final int slotBytes;
+    private final byte[] arena;
+    private final int[] lengths;
+    private final long[] times;
+    private final long[] uuidMost;
+    private final long[] uuidLeast;
+    private final int[] channels;
+    // 2 * ticket + 1 while slot is being written, 2 * ticket + 2 once complete
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final Map<String, Integer> channelIds = new ConcurrentHashMap<>();
+    private final List<String> channelNames = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param capacity how many messages to keep
+     * @param slotBytes the most UTF-8 bytes kept per message, longer messages are truncated
+     */
+    public ChatHistory(int capacity, int slotBytes) {
+        this.capacity = Math.max(1, capacity);
+        this.slotBytes = Math.max(16, slotBytes);
+        this.arena = new byte[this.capacity * this.slotBytes];
+        this.lengths = new int[this.capacity];
+        this.times = new long[this.capacity];
+        this.uuidMost = new long[this.capacity];
+        this.uuidLeast = new long[this.capacity];
+        this.channels = new int[this.capacity];
+        this.sequences = new AtomicLongArray(this.capacity);
+    }
+
+    /**
+     * Records a message. Safe to call from any thread.
+     *
+     * @param timeMillis when the message was sent
+     * @param player the sender's UUID
+     * @param channel the channel name, or null
+     * @param message the processed message text
+     */
+    public void record(long timeMillis, UUID player, String channel, String message) {
+        int channelId = channelId(channel);
+        long ticket = head.getAndIncrement();
+        int slot = (int) (ticket % capacity);
+
+        sequences.setRelease(slot, 2 * ticket + 1);
+        VarHandle.storeStoreFence();
+        times[slot] = timeMillis;
+        uuidMost[slot] = player.getMostSignificantBits();
+        uuidLeast[slot] = player.getLeastSignificantBits();
+        channels[slot] = channelId;
+        lengths[slot] = encode(message, arena, slot * slotBytes, slotBytes);
+        sequences.setRelease(slot, 2 * ticket + 2);
+    }
+
+    /**
+     * Reads recent messages, newest last.
+     *
+     * @param player only return this player's messages, or null for everyone
+     * @param limit the most entries to return
+     * @return up to {@code limit} entries, oldest first
+     */
+    public List<Entry> recent(UUID player, int limit) {
+        long newest = head.get() - 1;
+        long oldest = Math.max(0, newest - capacity + 1);
+        byte[] copy = new byte[slotBytes];
+        List<Entry> out = new ArrayList<>(Math.min(limit, capacity));
+        for (long ticket = newest; ticket >= oldest && out.size() < limit; ticket--) {
+            int slot = (int) (ticket % capacity);
+            long expected = 2 * ticket + 2;
+            if (sequences.getAcquire(slot) != expected) {
+                continue; // still being written, or already overwritten
+            }
+            long time = times[slot];
+            long most = uuidMost[slot];
+            long least = uuidLeast[slot];
+            int channelId = channels[slot];
+            int length = Math.min(lengths[slot], slotBytes);
+            System.arraycopy(arena, slot * slotBytes, copy, 0, length);
+            VarHandle.loadLoadFence();
+            if (sequences.getAcquire(slot) != expected) {
+                continue; // overwritten while we were copying
+            }
+            if (player != null && (player.getMostSignificantBits() != most || player.getLeastSignificantBits() != least)) {
+                continue;
+            }
+            String channel = channelId >= 0 && channelId < channelNames.size() ? channelNames.get(channelId) : null;
+            out.add(new Entry(time, new UUID(most, least), channel, new String(copy, 0, length, StandardCharsets.UTF_8)));
+        }
+        Collections.reverse(out);
+        return out;
+    }
+
+    /**
+     * @return how many messages the ring holds
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the most UTF-8 bytes kept per message
+     */
+    public int slotBytes() {
+        return slotBytes;
+    }
+
+    private int channelId(String channel) {
+        if (channel == null) {
+            return -1;
+        }
+        Integer id = channelIds.get(channel);
+        if (id != null) {
+            return id;
+        }
+        synchronized (channelNames) {
+            return channelIds.computeIfAbsent(channel, name -> {
+                channelNames.add(name);
+                return channelNames.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * Encodes text as UTF-8 straight into the arena, stopping before a code point
+     * that wouldn't fit.
+     *
+     * @return number of bytes written
+     */
+    static int encode(String text, byte[] out, int offset, int max) {
+        if (text == null) {
+            return 0;
+        }
+        int pos = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            int c = text.charAt(i);
+            if (Character.isHighSurrogate((char) c) && i + 1 < n && Character.isLowSurrogate(text.charAt(i + 1))) {
+                c = Character.toCodePoint((char) c, text.charAt(++i));
+            } else if (Character.isSurrogate((char) c)) {
+                c = '?';
+            }
+            int needed = c < 0x80 ? 1 : c < 0x800 ? 2 : c < 0x10000 ? 3 : 4;
+            if (pos + needed > max) {
+                break;
+            }
+            int at = offset + pos;
+            switch (needed) {
+                case 1 -> out[at] = (byte) c;
+                case 2 -> {
+                    out[at] = (byte) (0xc0 | (c >> 6));
+                    out[at + 1] = (byte) (0x80 | (c & 0x3f));
+                }
+                case 3 -> {
+                    out[at] = (byte) (0xe0 | (c >> 12));
+                    out[at + 1] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                    out[at + 2] = (byte) (0x80 | (c & 0x3f));
+                }
+                default -> {
+                    out[at] = (byte) (0xf0 | (c >> 18));
+                    out[at + 1] = (byte) (0x80 | ((c >> 12) & 0x3f));
+                    out[at + 2] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                    out[at + 3] = (byte) (0x80 | (c & 0x3f));
+                }
+            }
+            pos += needed;
+        }
+        return pos;
+    }
+}
@@ -7,17 +7,37 @@ package moe.reno.littlenebo.chat;
 
 import moe.reno.littlenebo.LittleNebo;
 import moe.reno.littlenebo.config.ConfigManager;
+import moe.reno.littlenebo.config.FilterConfig;
 import moe.reno.littlenebo.config.FormatConfig;
+import moe.reno.littlenebo.config.MessagingConfig;
+import moe.reno.littlenebo.metrics.ChatMetrics;
 import moe.reno.littlenebo.util.ColorUtil;
+import moe.reno.littlenebo.util.InputBudget;
+import moe.reno.littlenebo.util.Messages;
 import io.papermc.paper.event.player.AsyncChatEvent;
 import me.clip.placeholderapi.PlaceholderAPI;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.sound.Sound;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import static org.bukkit.Bukkit.getServer;
 
 /**
@@ -29,15 +49,44 @@ import static org.bukkit.Bukkit.getServer;
  * </p>
  */
 public class ChatManager implements Listener {
+    private static final int MAX_TEMPLATE_CACHE_SIZE = 256;
+    private static final String DEFAULT_CONSOLE_FORMAT = "{display_name}: {message}";
+    private static final String[] WARM_UP_MESSAGES = {
+            "Hello everyone!",
+            "&aLegacy &lcolours&r and <red>MiniMessage</red>",
+            "<gradient:#e50000:#770088>A warm-up gradient</gradient> <rainbow>and a rainbow</rainbow>",
+            "<bold><italic>nested</italic></bold> \\<escaped> &#ff8d00hex"
+    };
+
     private final LittleNebo plugin;
     private final ConfigManager configManager;
+    private final ChatSessions sessions = new ChatSessions();
     private final NeboChatRenderer chatRenderer;
+    private final ChannelManager channelManager = new ChannelManager();
+    private final MentionEngine mentionEngine = new MentionEngine();
+    private final RateLimiter rateLimiter = new RateLimiter(5, 1.0);
+    private final DuplicateFilter duplicateFilter = new DuplicateFilter(5, 30_000, 0.75);
+    private final ChatMetrics metrics = new ChatMetrics();
+    private final SlowMessageLog slowMessages = new SlowMessageLog(50);
+    private final Map<String, Component> templateCache = new ConcurrentHashMap<>();
+    private final List<ChatSink> sinks = new CopyOnWriteArrayList<>();
+    private final IgnoreList ignores = new IgnoreList();
     private final boolean placeholdersEnabled;
+    private volatile WordFilter wordFilter = WordFilter.EMPTY;
+    private volatile EmojiExpander emojis = EmojiExpander.EMPTY;
+    private volatile LinkDetector links = LinkDetector.DISABLED;
+    private volatile FormatFragments fragments = FormatFragments.EMPTY;
+    private volatile ConsoleFormat consoleFormat = ConsoleFormat.compile(DEFAULT_CONSOLE_FORMAT, false);
+    private volatile ChatHistory history;
+    private volatile IgnoreStore ignoreStore;
+    private volatile Component blockedNotice = Component.empty();
+    private volatile Component rateLimitNotice = Component.empty();
+    private volatile Component duplicateNotice = Component.empty();
 
     public ChatManager(LittleNebo plugin, ConfigManager configManager) {
         this.plugin = plugin;
         this.configManager = configManager;
-        this.chatRenderer = new NeboChatRenderer(plugin);
+        this.chatRenderer = new NeboChatRenderer(plugin, metrics);
 
         // Safely check if PlaceholderAPI is enabled
         boolean placeholdersAvailable = false;
@@ -54,8 +103,10 @@ public class ChatManager implements Listener {
     /**
      * Event handler for when a player sends a chat message.
      * <p>
-     *     Sets the last message for the player in the chat renderer,
-     *     and applies the configured format to the message.
+     *     Narrows the audience to the player's channel, and hands the event a renderer
+     *     for this message that applies the configured format. The message's record is
+     *     built here but only handed to history and sinks by {@link #onChatDelivered},
+     *     once no other plugin can cancel it.
      * </p>
      *
      * @param event the AsyncChatEvent
@@ -63,43 +114,371 @@ public class ChatManager implements Listener {
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onChat(AsyncChatEvent event) {
         Player player = event.getPlayer();
+        metrics.recordMessage();
+        ChatSession session = sessions.find(player.getUniqueId());
+        if (session == null || !session.isOpen()) {
+            // Sent just before they quit; their session is already gone, so is the message
+            event.setCancelled(true);
+            return;
+        }
+        // Anything left over belongs to an earlier message that was cancelled after us
+        session.takeOutgoing();
+        if (session.format() == null) {
+            sessions.refresh(session, configManager);
+        }
+
+        // Floods are dropped before any conversion or parsing is paid for
+        if (rateLimited(player, session)) {
+            event.setCancelled(true);
+            return;
+        }
 
         Component originalMessage = event.message();
 
-        event.renderer(chatRenderer);
+        ChatChannel channel = channelManager.getActiveChannel(player);
+        if (channel != null && !channel.isOpenToEveryone()) {
+            // Swap the default everyone-online audience for the channel's precomputed one
+            Set<Audience> viewers = event.viewers();
+            viewers.clear();
+            viewers.addAll(channel.audienceFor(player));
+            viewers.add(getServer().getConsoleSender());
+        }
+        // Done once here, before rendering, so ignorers never get a copy built for them
+        Set<Audience> audience = event.viewers();
+        // Sessions, not the server, since this is the async chat thread
+        ignores.forEachIgnorer(player.getUniqueId(), id -> {
+            ChatSession ignorer = sessions.find(id);
+            if (ignorer != null) {
+                audience.remove(ignorer.player());
+            }
+        });
 
-        String messageStr = ColorUtil.componentToString(originalMessage);
-        messageStr = ColorUtil.prideTagToGradient(messageStr);
-        chatRenderer.setLastMessage(player, messageStr);
+        final String rawMessage = ColorUtil.componentToString(originalMessage);
+        final String messageStr = screen(session, rawMessage);
+        if (messageStr == null) {
+            event.setCancelled(true);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        String channelName = channel != null ? channel.getName() : null;
+        // Parsed once, then shared by the console line and every player render
+        ParsedMessage parsed = parse(messageStr);
+        // Rendered once here and shared by the console viewer and every sink
+        Component console = formatConsole(player, parsed.body(), channelName);
+        FormatConfig playerFormat = session.format();
+        FormatConfig format = channel != null && channel.getFormat() != null ? channel.getFormat() : playerFormat;
+        LegacyComponentSerializer legacy = format != null ? format.legacySerializer() : null;
+        // The legacy string needs the full render anyway, so make it now and hand it to the renderer
+        Component rendered = null;
+        String legacyText = null;
+        if (legacy != null) {
+            metrics.recordRender(false);
+            rendered = formatChat(session, messageStr, parsed, format);
+            legacyText = legacy.serialize(rendered);
+        }
+        if (!sinks.isEmpty() || history != null) {
+            String formatKey = configManager.getFormatKey(playerFormat);
+            session.setOutgoing(new ChatRecord(now, player.getUniqueId(), player.getName(),
+                    session.displayNameText(), channelName, formatKey, messageStr,
+                    ColorUtil.componentToString(console), legacyText));
+        }
+        Set<Player> mentioned = configManager.isMentionsEnabled()
+                ? mentionEngine.findMentions(player, messageStr)
+                : Collections.emptySet();
+        if (!mentioned.isEmpty()) {
+            notifyMentioned(mentioned, event.viewers());
+        }
+        event.renderer(chatRenderer.prepare(session, messageStr, parsed,
+                channel != null ? channel.getFormat() : null, mentioned, console, rendered));
 
-        if(configManager.isDebugEnabled()) {
-            plugin.debug("Chat event processed for " + player.getName());
-            plugin.debug("Original message: " + ColorUtil.componentToString(originalMessage));
+        // Only built if the trace is actually kept, so serialising costs nothing otherwise
+        plugin.debug(() -> "Chat event processed for " + player.getName()
+                + " | original: " + rawMessage
+                + " | processed: " + ColorUtil.serialiseMiniMessage(parsed.body()));
+    }
 
-            if(configManager.isPlayerLegacyColorsEnabled()) {
-                plugin.debug("Processed message: " + ColorUtil.serialiseMiniMessage(ColorUtil.parseMixedFormattingComponent(messageStr)));
-            } else plugin.debug("Processed message: " + messageStr);
+    /**
+     * Hands a delivered message's record to chat history and every sink (log, relay,
+     * webhook). Runs after every other listener, so a message another plugin cancels is
+     * never logged, relayed or exported.
+     *
+     * @param event the AsyncChatEvent
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onChatDelivered(AsyncChatEvent event) {
+        ChatSession session = sessions.find(event.getPlayer().getUniqueId());
+        ChatRecord record = session != null ? session.takeOutgoing() : null;
+        if (record == null) {
+            return;
+        }
+        ChatHistory currentHistory = history;
+        if (currentHistory != null) {
+            currentHistory.record(record.timeMillis(), record.playerId(), record.channel(), record.message());
+        }
+        for (ChatSink sink : sinks) {
+            sink.accept(record);
+        }
+    }
+
+    /**
+     * Tells staff with the notify permission about a blocked or flagged message.
+     * Sent from the main thread, since chat events are async.
+     *
+     * @param player the sender
+     * @param result what the filter caught
+     * @param rawMessage the message as typed
+     */
+    private void notifyFilterStaff(Player player, WordFilter.Result result, String rawMessage) {
+        Component notice = Component.text("[Filter] " + result.action().label() + " '" + result.matched()
+                + "' from " + player.getName() + ": ", NamedTextColor.GOLD)
+                .append(Component.text(rawMessage, NamedTextColor.GRAY));
+        String permission = configManager.getFilter().notifyPermission();
+        getServer().getScheduler().runTask(plugin, () -> getServer().broadcast(notice, permission));
+    }
+
+    /**
+     * Counts mentions and plays the mention sound to mentioned players who will see the message.
+     *
+     * @param mentioned the players mentioned
+     * @param viewers the message's audience
+     */
+    private void notifyMentioned(Set<Player> mentioned, Set<Audience> viewers) {
+        metrics.recordMentions(mentioned.size());
+        Sound sound = configManager.getMentionSound();
+        if (sound == null) {
+            return;
+        }
+        for (Player target : mentioned) {
+            if (viewers.contains(target)) {
+                target.playSound(sound);
+            }
+        }
+    }
 
+    /**
+     * Checks a player's rate limit, taking a token if there is one, and tells them if there isn't.
+     *
+     * @return true if the message should be dropped
+     */
+    private boolean rateLimited(Player player, ChatSession session) {
+        if (configManager.isRateLimitEnabled()
+                && !session.isRateLimitBypass()
+                && !rateLimiter.tryAcquire(session.rateBucket(), System.nanoTime())) {
+            player.sendMessage(rateLimitNotice);
+            metrics.recordRateLimited();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * The moderation every player message goes through, public or private: the repeat
+     * check, pride tags, then the word filter. A blocked message is counted and the sender
+     * is told why, and staff hear about blocked or flagged ones. The rate limit isn't part
+     * of it, callers check that first so floods cost nothing.
+     *
+     * @param session the sender's session
+     * @param rawMessage the message as typed
+     * @return the text to send on, or null if the message must be dropped
+     */
+    private String screen(ChatSession session, String rawMessage) {
+        Player player = session.player();
+        if (configManager.isDuplicatesEnabled()
+                && duplicateFilter.isDuplicate(session.duplicates(), rawMessage, System.currentTimeMillis())) {
+            player.sendMessage(duplicateNotice);
+            metrics.recordDuplicate();
+            return null;
+        }
+        String converted = ColorUtil.prideTagToGradient(rawMessage);
+        WordFilter.Result filtered = wordFilter.apply(converted);
+        if (filtered == null) {
+            return converted;
+        }
+        metrics.recordFilter(filtered.action().label());
+        if (filtered.action() == WordFilter.Action.BLOCK) {
+            player.sendMessage(blockedNotice);
+            notifyFilterStaff(player, filtered, rawMessage);
+            return null;
+        }
+        if (filtered.action() == WordFilter.Action.FLAG) {
+            notifyFilterStaff(player, filtered, rawMessage);
+        }
+        return filtered.text();
+    }
+
+    /**
+     * Sends a private message and points both players' reply slots at each other.
+     * <p>
+     *     The message goes through the same rate limit and {@link #screen} as public chat, and
+     *     is parsed once for all views. The sender's and receiver's views are each
+     *     rendered once with the cached templates. Social spies, if there are any,
+     *     share a single spy render. Placeholders in the templates are the sender's.
+     * </p>
+     *
+     * @param sender the player sending
+     * @param receiver the player receiving
+     * @param rawMessage the message as typed
+     * @return true if it was sent, false if the receiver ignores the sender, or the rate limit,
+     *         repeat check or filter stopped it
+     */
+    public boolean sendPrivate(Player sender, Player receiver, String rawMessage) {
+        ChatSession from = sessions.get(sender);
+        if (from.format() == null) {
+            sessions.refresh(from, configManager);
+        }
+        if (rateLimited(sender, from)) {
+            return false;
+        }
+        if (ignores.isIgnoring(receiver.getUniqueId(), sender.getUniqueId())) {
+            sender.sendMessage(Messages.error(receiver.getName() + " isn't taking messages from you."));
+            return false;
+        }
+        String converted = screen(from, rawMessage);
+        if (converted == null) {
+            return false;
+        }
+        metrics.recordPrivateMessage();
+        MessagingConfig config = configManager.getMessaging();
+        Component body = parseMessage(converted, configManager.isPlayerLegacyColorsEnabled(), links, true);
+        ChatSession to = sessions.get(receiver);
+        String senderName = from.displayNameText();
+        String receiverName = to.displayNameText();
+
+        sender.sendMessage(formatPrivate(config.senderFormat(), from, senderName, receiverName, body));
+        receiver.sendMessage(formatPrivate(config.receiverFormat(), from, senderName, receiverName, body));
+
+        from.setReplyTarget(to);
+        to.setReplyTarget(from);
+
+        Component spyView = null;
+        for (ChatSession spy : sessions.spies()) {
+            if (spy == from || spy == to) {
+                continue;
+            }
+            if (spyView == null) {
+                spyView = formatPrivate(config.spyFormat(), from, senderName, receiverName, body);
+            }
+            spy.player().sendMessage(spyView);
+        }
+        return true;
+    }
+
+    /**
+     * Renders one view of a private message with the template cache, and the sender's
+     * placeholder snapshot shared with their public chat.
+     */
+    private Component formatPrivate(String template, ChatSession sender, String senderName, String receiverName,
+                                    Component body) {
+        String text = fragments.inline(template);
+        if (placeholdersEnabled) {
+            text = fillPlaceholders(sender.player(), sender, text);
+        }
+        return compileTemplate(text)
+                .replaceText(builder -> builder.matchLiteral("{sender}").replacement(senderName))
+                .replaceText(builder -> builder.matchLiteral("{receiver}").replacement(receiverName))
+                .replaceText(builder -> builder.matchLiteral("{message}").replacement(body));
+    }
+
+    /**
+     * Formats a message for a viewer it mentions, with their name highlighted.
+     * <p>
+     *     Only the message body is highlighted, before it goes into the template, so the
+     *     viewer's name in the format's prefix, display name or hover text is left alone.
+     *     Not counted in the render metrics, the shared render already was.
+     * </p>
+     *
+     * @param session the sender's session
+     * @param message the raw message text
+     * @param parsed the message already parsed by {@link #parse}, or null to parse it here
+     * @param format the format to use, or null for the session's permission format
+     * @param viewer the mentioned viewer
+     * @return the viewer's render of the message
+     */
+    public Component formatMention(ChatSession session, String message, ParsedMessage parsed, FormatConfig format,
+                                   Player viewer) {
+        final long start = System.nanoTime();
+        if (format == null) {
+            format = session.format() != null ? session.format() : configManager.getFormatForPlayer(session.player());
         }
+        Component body = mentionEngine.highlight(
+                parsed != null
+                        ? parsed.body()
+                        : parseMessage(message, configManager.isPlayerLegacyColorsEnabled(), links, false),
+                viewer, configManager.getMentionColor());
+        Player player = session.player();
+        return render(player, session, player.getName(), session.displayNameText(), message, body, 0, format, start,
+                false);
+    }
+
+    /**
+     * Event handler for when a player joins the server.
+     * Starts loading their ignore list in the background.
+     *
+     * @param event the PlayerJoinEvent
+     */
+    @EventHandler
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        sessions.refresh(sessions.open(event.getPlayer()), configManager);
+        loadIgnores(event.getPlayer().getUniqueId());
     }
 
     /**
      * Event handler for when a player quits the server.
-     * Removes the last message from the chat renderer.
+     * Closes their session, which drops their rate limit bucket, repeat history and cached state with it.
      *
      * @param event the PlayerQuitEvent
      */
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
-        // Honestly unless you have an insane influx of players joining and leaving,
-        // this probably isn't needed. But it's here for completeness.
-        chatRenderer.removeLastMessage(event.getPlayer());
+        // Closed first, so async chat still on its way from them is dropped (see onChat)
+        sessions.close(event.getPlayer());
+        ignores.unload(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Sets where ignore lists are kept, and loads them for everyone already online.
+     *
+     * @param store the store, or null to keep lists in memory only
+     */
+    public void setIgnoreStore(IgnoreStore store) {
+        ignoreStore = store;
+        for (Player online : getServer().getOnlinePlayers()) {
+            loadIgnores(online.getUniqueId());
+        }
+    }
+
+    private void loadIgnores(UUID viewer) {
+        IgnoreStore store = ignoreStore;
+        if (store == null) {
+            ignores.load(viewer, List.of());
+            return;
+        }
+        store.load(viewer, ignored -> {
+            // They may have left while the file was being read
+            if (sessions.find(viewer) != null) {
+                ignores.load(viewer, ignored);
+            }
+        });
+    }
+
+    /**
+     * Queues a player's current ignore list to be written to disk.
+     *
+     * @param viewer the player
+     */
+    public void saveIgnores(UUID viewer) {
+        IgnoreStore store = ignoreStore;
+        if (store != null) {
+            store.save(viewer, ignores.ignored(viewer));
+        }
     }
 
     /**
      * Format a chat message.
      * <p>
      *     Chooses and applies a format based on player permissions and conf,
+     *     and captures the message in the slow message log if it took longer
+     *     than the configured threshold.
      * </p>
      *
      * @param player  the player who sent the chat
@@ -107,29 +486,572 @@ public class ChatManager implements Listener {
      * @return a formatted {@link Component}
      */
     public Component formatMessage(Player player, String message) {
+        return formatMessage(player, message, null);
+    }
+
+    /**
+     * Format a chat message with a specific format, e.g. a channel's format.
+     *
+     * @param player  the player who sent the chat
+     * @param message the raw message text
+     * @param format  the format to use, or null to choose one based on permissions
+     * @return a formatted {@link Component}
+     */
+    public Component formatMessage(Player player, String message, FormatConfig format) {
+        final long start = System.nanoTime();
         final String displayName = player != null ? 
             ColorUtil.componentToString(player.displayName()) : "Console";
        
-        FormatConfig format = configManager.getFormatForPlayer(player);
+        if (format == null) {
+            format = configManager.getFormatForPlayer(player);
+        }
+        return render(player, null, player != null ? player.getName() : "Console", displayName, message, null, 0,
+                format, start, true);
+    }
+
+    /**
+     * Format a chat message from a player's session, using the format, display name and
+     * placeholders cached on it. This is what chat itself renders with.
+     *
+     * @param session the sender's session
+     * @param message the raw message text
+     * @param format  the format to use, or null for the session's permission format
+     * @return a formatted {@link Component}
+     */
+    public Component formatChat(ChatSession session, String message, FormatConfig format) {
+        return formatChat(session, message, null, format);
+    }
+
+    /**
+     * Format a chat message from a player's session, reusing a body that was already parsed.
+     *
+     * @param session the sender's session
+     * @param message the raw message text
+     * @param parsed the message already parsed by {@link #parse}, or null to parse it here
+     * @param format  the format to use, or null for the session's permission format
+     * @return a formatted {@link Component}
+     */
+    public Component formatChat(ChatSession session, String message, ParsedMessage parsed, FormatConfig format) {
+        final long start = System.nanoTime();
+        if (format == null) {
+            format = session.format() != null ? session.format() : configManager.getFormatForPlayer(session.player());
+        }
+        Player player = session.player();
+        return render(player, session, player.getName(), session.displayNameText(), message,
+                parsed != null ? parsed.body() : null, parsed != null ? parsed.parseNanos() : 0, format, start, true);
+    }
+
+    /**
+     * Parses a player message once, so the console line and every render of it can
+     * share the result instead of each running MiniMessage again. Counted in the parse
+     * metrics.
+     *
+     * @param message the processed message text
+     * @return the parsed body and how long it took
+     */
+    public ParsedMessage parse(String message) {
+        final long start = System.nanoTime();
+        Component body = parseMessage(message, configManager.isPlayerLegacyColorsEnabled(), links, true);
+        return new ParsedMessage(body, System.nanoTime() - start);
+    }
+
+    /**
+     * Fills in PlaceholderAPI placeholders, reusing the player's last snapshot while it's fresh.
+     */
+    private String fillPlaceholders(Player player, ChatSession session, String template) {
+        long cacheMillis = configManager.getPlaceholderCacheMillis();
+        if (session == null || cacheMillis <= 0) {
+            return PlaceholderAPI.setPlaceholders(player, template);
+        }
+        long now = System.nanoTime();
+        String filled = session.placeholders(template, now);
+        if (filled == null) {
+            filled = PlaceholderAPI.setPlaceholders(player, template);
+            session.snapshotPlaceholders(template, filled, now + cacheMillis * 1_000_000L);
+        }
+        return filled;
+    }
+
+    /**
+     * Format a chat message relayed from another server, with this server's templates.
+     * <p>
+     *     There is no local player, so PlaceholderAPI placeholders in the template are
+     *     left as they are.
+     * </p>
+     *
+     * @param senderName  the sender's name
+     * @param displayName the sender's display name, as sent by their server
+     * @param message     the raw message text
+     * @param format      the format to use, or null for the default format
+     * @return a formatted {@link Component}
+     */
+    public Component formatRemote(String senderName, String displayName, String message, FormatConfig format) {
+        final long start = System.nanoTime();
+        if (format == null) {
+            format = configManager.getFormatForPlayer(null);
+        }
+        return render(null, null, senderName, displayName, message, null, 0, format, start, true);
+    }
+
+    /**
+     * The shared formatting pipeline behind {@link #formatMessage} and {@link #formatRemote}.
+     * A body parsed beforehand is used as is, and {@code parseNanos} says how long that
+     * took so the latency and slow log still include it.
+     */
+    private Component render(Player player, ChatSession session, String senderName, String displayName,
+                             String message, Component body, long parseNanos, FormatConfig format, long start,
+                             boolean record) {
+        final long lookedUp = System.nanoTime();
         
-        final Component processedMessage = configManager.isPlayerLegacyColorsEnabled()
-                ? ColorUtil.parseMixedFormattingComponent(message)
-                : ColorUtil.parseSafeMiniMessage(message);
+        final Component processedMessage = body != null
+                ? body
+                : parseMessage(message, configManager.isPlayerLegacyColorsEnabled(), links, record);
+        final long parsed = System.nanoTime();
 
-        String formatTemplate = format.format();
+        // Fragments with placeholders go in as text first, so PlaceholderAPI sees them
+        String formatTemplate = fragments.inline(format.format());
 
         if(placeholdersEnabled && player != null) {
-            formatTemplate = PlaceholderAPI.setPlaceholders(player, formatTemplate);
+            formatTemplate = fillPlaceholders(player, session, formatTemplate);
         }
+        final long placeheld = System.nanoTime();
 
-        Component baseFormat = ColorUtil.parseMiniMessage(formatTemplate);
+        Component baseFormat = compileTemplate(formatTemplate, record);
+        final long templated = System.nanoTime();
 
-        return baseFormat
+        Component result = baseFormat
                 .replaceText(builder -> builder
                         .matchLiteral("{display_name}")
                         .replacement(Component.text(displayName)))
                 .replaceText(builder -> builder
                         .matchLiteral("{message}")
                         .replacement(processedMessage));
+        final long end = System.nanoTime();
+        if (!record) {
+            return result;
+        }
+
+        long total = end - start + (body != null ? parseNanos : 0);
+        metrics.recordRenderLatency(total);
+        long thresholdMs = configManager.getSlowMessageThresholdMs();
+        if (thresholdMs > 0 && total > thresholdMs * 1_000_000L) {
+            slowMessages.record(new SlowMessageLog.SlowMessage(
+                    System.currentTimeMillis(),
+                    senderName,
+                    configManager.getFormatKey(format),
+                    message,
+                    new long[] {lookedUp - start, body != null ? parseNanos : parsed - lookedUp,
+                            placeheld - parsed, templated - placeheld, end - templated},
+                    total,
+                    ColorUtil.countComponents(result, 100_000)));
+        }
+        return result;
+    }
+
+    /**
+     * Parses a player message: links, emoji, then the player's own formatting, all in one
+     * MiniMessage parse.
+     *
+     * @param message the player message; may be null
+     * @param legacyColors whether legacy codes will be translated
+     * @param linkDetector finds clickable links, {@link LinkDetector#DISABLED} for none
+     * @param count whether to record parse metrics
+     * @return the parsed message
+     */
+    private Component parseMessage(String message, boolean legacyColors, LinkDetector linkDetector, boolean count) {
+        final EmojiExpander currentEmojis = emojis;
+        // Links are taken out first so shortcodes inside URLs are left alone
+        final LinkDetector.Links found = linkDetector.detect(message);
+        // Same instance back means no links or shortcodes, so the plain fast path still applies
+        final String expanded = currentEmojis.expand(found == null ? message : found.text());
+        if (expanded == message && ColorUtil.isPlainText(message, legacyColors)) {
+            // Plain chat is the common case, no need to spin up the MiniMessage parser
+            if (count) {
+                metrics.recordParse(true);
+            }
+            return Component.text(message);
         }
+        if (!withinBudget(message, legacyColors)) {
+            // Too complex to be worth parsing, show it exactly as typed
+            if (count) {
+                metrics.recordBudgetRejection();
+            }
+            return Component.text(message);
+        }
+        if (count) {
+            metrics.recordParse(false);
+        }
+        final TagResolver resolver = found == null
+                ? currentEmojis.resolver()
+                : TagResolver.resolver(currentEmojis.resolver(), found.resolver());
+        return legacyColors
+                ? ColorUtil.parseMixedFormattingComponent(expanded, resolver)
+                : ColorUtil.parseSafeMiniMessage(expanded, resolver);
+    }
+
+    /**
+     * Renders a message for the console with the console template.
+     * <p>
+     *     The console can't hover or click, so this skips everything the player render
+     *     has for that: no PlaceholderAPI, and any click or hover in the template was
+     *     stripped when it was compiled. The body is the one players get, dropped into the
+     *     template as is rather than parsed again. In plain mode the result is a single
+     *     text component with no styling at all.
+     * </p>
+     *
+     * @param player the sender
+     * @param body the message as parsed for players by {@link #parse}; its links just show as text
+     * @param channel the channel name, or null without channels
+     * @return the console line
+     */
+    public Component formatConsole(Player player, Component body, String channel) {
+        ConsoleFormat console = consoleFormat;
+        String name = player.getName();
+        String displayName = ColorUtil.componentToString(player.displayName());
+        String channelName = channel != null ? channel : "";
+        if (console.template() == null) {
+            return Component.text(fillConsole(console.plain(), name, displayName, channelName,
+                    ColorUtil.componentToString(body)));
+        }
+        return console.template()
+                .replaceText(builder -> builder.matchLiteral("{name}").replacement(name))
+                .replaceText(builder -> builder.matchLiteral("{display_name}").replacement(displayName))
+                .replaceText(builder -> builder.matchLiteral("{channel}").replacement(channelName))
+                .replaceText(builder -> builder.matchLiteral("{message}").replacement(body));
+    }
+
+    /**
+     * Fills the console placeholders in one pass, so a name containing
+     * {@code {message}} can't pull in anything else.
+     */
+    static String fillConsole(String template, String name, String displayName, String channel, String message) {
+        StringBuilder out = new StringBuilder(template.length() + name.length() + message.length() + 16);
+        int i = 0;
+        while (i < template.length()) {
+            char c = template.charAt(i);
+            if (c == '{') {
+                if (template.startsWith("{name}", i)) {
+                    out.append(name);
+                    i += 6;
+                    continue;
+                }
+                if (template.startsWith("{display_name}", i)) {
+                    out.append(displayName);
+                    i += 14;
+                    continue;
+                }
+                if (template.startsWith("{channel}", i)) {
+                    out.append(channel);
+                    i += 9;
+                    continue;
+                }
+                if (template.startsWith("{message}", i)) {
+                    out.append(message);
+                    i += 9;
+                    continue;
+                }
+            }
+            out.append(c);
+            i++;
+        }
+        return out.toString();
+    }
+
+    /**
+     * Checks a player message against the configured input budget.
+     *
+     * @param message the player message; may be null
+     * @param legacyColors whether legacy codes will be translated
+     * @return true if the message may be parsed
+     */
+    private boolean withinBudget(String message, boolean legacyColors) {
+        InputBudget budget = configManager.getInputBudget();
+        return message == null || budget == null || budget.allows(message, legacyColors);
+    }
+
+    /**
+     * Parses a format template, reusing the result if this exact template
+     * (after placeholder expansion) has been seen before.
+     * <p>
+     *     Components are immutable, so the cached tree is safe to share.
+     *     The cache is simply dropped when it fills up, since templates with
+     *     fast-changing placeholders (health, coordinates...) would never hit anyway.
+     * </p>
+     *
+     * @param template the trusted MiniMessage template
+     * @return the parsed template
+     */
+    private Component compileTemplate(String template) {
+        return compileTemplate(template, true);
+    }
+
+    private Component compileTemplate(String template, boolean record) {
+        Component cached = templateCache.get(template);
+        if (cached != null) {
+            if (record) {
+                metrics.recordTemplateCache(true);
+            }
+            return cached;
+        }
+        if (record) {
+            metrics.recordTemplateCache(false);
+        }
+        Component compiled = ColorUtil.parseMiniMessage(template, fragments.resolver());
+        if (!record && placeholdersEnabled && template.indexOf('%') >= 0) {
+            // Warm-up has no player to fill placeholders for, and real keys are built after
+            // PlaceholderAPI runs, so this entry would never be hit
+            return compiled;
+        }
+        if (templateCache.size() >= MAX_TEMPLATE_CACHE_SIZE) {
+            templateCache.clear();
+        }
+        templateCache.put(template, compiled);
+        return compiled;
+    }
+
+    /**
+     * Runs the formatting pipeline over every configured format and a handful of
+     * representative messages, so class loading, MiniMessage setup and JIT warm-up
+     * happen before the first real player chats.
+     * <p>
+     *     Safe to call off the main thread. Templates without placeholders end up
+     *     in the template cache, ready for the first message; ones with placeholders
+     *     are only parsed, since their cache key depends on the player. None of it is counted
+     *     in the metrics or the slow message log.
+     * </p>
+     *
+     * @return how long the warm-up took, in nanoseconds
+     */
+    public long warmUp() {
+        long start = System.nanoTime();
+        boolean legacyColors = configManager.isPlayerLegacyColorsEnabled();
+        for (FormatConfig format : configManager.getFormats().values()) {
+            compileTemplate(fragments.inline(format.format()), false);
+        }
+        FormatConfig defaultFormat = configManager.getFormatForPlayer(null);
+        InputBudget budget = configManager.getInputBudget();
+        for (String sample : WARM_UP_MESSAGES) {
+            String processed = ColorUtil.prideTagToGradient(sample);
+            ColorUtil.isPlainText(processed, legacyColors);
+            if (budget != null) {
+                budget.allows(processed, legacyColors);
+            }
+            ColorUtil.parseMixedFormattingComponent(processed);
+            ColorUtil.parseSafeMiniMessage(processed);
+            if (defaultFormat != null) {
+                // Not recorded: cold samples in the latency histogram or slow log would only mislead
+                ColorUtil.componentToString(render(null, null, "Console", "Console", processed, null, 0,
+                        defaultFormat, System.nanoTime(), false));
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Re-applies config-dependent state after the config has been (re)loaded.
+     */
+    public void reload() {
+        slowMessages.setCapacity(configManager.getSlowMessageKeep());
+        List<String> invalidFragments = new ArrayList<>();
+        fragments = FormatFragments.compile(configManager.getFragments(), invalidFragments);
+        if (!invalidFragments.isEmpty()) {
+            plugin.getLogger().warning("Skipping format fragments with unsupported names: " + invalidFragments);
+        }
+        // Cached templates have the old fragments baked in
+        templateCache.clear();
+        channelManager.load(configManager.getChannels(), getServer().getOnlinePlayers());
+        mentionEngine.setBareNames(configManager.isMentionBareNames());
+        links = new LinkDetector(configManager.getLinks());
+        consoleFormat = ConsoleFormat.compile(configManager.getConsoleFormat(), configManager.isConsolePlain());
+        List<String> invalidShortcodes = new ArrayList<>();
+        emojis = EmojiExpander.compile(configManager.getEmojiShortcodes(), invalidShortcodes);
+        if (!invalidShortcodes.isEmpty()) {
+            plugin.getLogger().warning("Skipping emoji shortcodes with unsupported names: " + invalidShortcodes);
+        }
+        mentionEngine.rebuildIfDirty(getServer().getOnlinePlayers());
+
+        rateLimiter.configure(configManager.getRateLimitBurst(), configManager.getRateLimitPerSecond());
+        // Players online before the plugin loaded never joined as far as we know
+        for (Player online : getServer().getOnlinePlayers()) {
+            if (sessions.find(online.getUniqueId()) == null) {
+                sessions.open(online);
+            }
+        }
+        // Formats and bypass permissions may have changed under everyone's sessions
+        sessions.refreshAll(configManager);
+        String rateLimitMessage = configManager.getRateLimitMessage();
+        rateLimitNotice = rateLimitMessage == null || rateLimitMessage.isEmpty()
+                ? Component.text("You're sending messages too fast, slow down a little.", NamedTextColor.RED)
+                : ColorUtil.parseMiniMessage(rateLimitMessage);
+        int historySize = configManager.getHistorySize();
+        int historyBytes = configManager.getHistoryMessageBytes();
+        ChatHistory currentHistory = history;
+        if (historySize <= 0) {
+            history = null;
+        } else if (currentHistory == null || currentHistory.capacity() != historySize
+                || currentHistory.slotBytes() != historyBytes) {
+            // Only reallocated when the size changes, so a reload keeps history
+            history = new ChatHistory(historySize, historyBytes);
+        }
+        duplicateFilter.configure(configManager.getDuplicateHistory(), configManager.getDuplicateWindowMillis(),
+                configManager.getDuplicateSimilarity());
+        String duplicateMessage = configManager.getDuplicateMessage();
+        duplicateNotice = duplicateMessage == null || duplicateMessage.isEmpty()
+                ? Component.text("You just said that, try something new!", NamedTextColor.RED)
+                : ColorUtil.parseMiniMessage(duplicateMessage);
+
+        FilterConfig filter = configManager.getFilter();
+        blockedNotice = filter.blockedMessage() == null || filter.blockedMessage().isEmpty()
+                ? Component.text("Your message was blocked by the chat filter.", NamedTextColor.RED)
+                : ColorUtil.parseMiniMessage(filter.blockedMessage());
+        // Big word lists take a moment to compile, keep that off the main thread.
+        // The old filter stays in place until the new one is ready.
+        getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            long start = System.nanoTime();
+            WordFilter compiled = WordFilter.compile(filter);
+            wordFilter = compiled;
+            plugin.debug(() -> String.format("Compiled %d filter words in %.1fms",
+                    compiled.size(), (System.nanoTime() - start) / 1_000_000.0));
+        });
+    }
+
+    /**
+     * Adds a sink that receives every message that makes it through the pipeline.
+     *
+     * @param sink the sink
+     */
+    public void addSink(ChatSink sink) {
+        sinks.add(sink);
+    }
+
+    /**
+     * Removes a sink. Does not close it.
+     *
+     * @param sink the sink
+     */
+    public void removeSink(ChatSink sink) {
+        sinks.remove(sink);
+    }
+
+    /**
+     * Gets the recent chat history.
+     *
+     * @return the history, or null if it is turned off
+     */
+    public ChatHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Gets the ignore lists of online players.
+     *
+     * @return the ignore lists
+     */
+    public IgnoreList getIgnores() {
+        return ignores;
+    }
+
+    /**
+     * Gets the compiled emoji shortcodes currently in use.
+     *
+     * @return the emoji expander, {@link EmojiExpander#EMPTY} if there are none
+     */
+    public EmojiExpander getEmojis() {
+        return emojis;
+    }
+
+    /**
+     * Gets the compiled word filter currently in use.
+     *
+     * @return the word filter, {@link WordFilter#EMPTY} if filtering is off
+     */
+    public WordFilter getWordFilter() {
+        return wordFilter;
+    }
+
+    /**
+     * Gets the mention engine that tracks online names.
+     *
+     * @return the mention engine
+     */
+    public MentionEngine getMentionEngine() {
+        return mentionEngine;
+    }
+
+    /**
+     * Gets the channel manager that tracks channel audiences.
+     *
+     * @return the channel manager
+     */
+    public ChannelManager getChannelManager() {
+        return channelManager;
+    }
+
+    /**
+     * Gets the log of messages that exceeded the slow message threshold.
+     *
+     * @return the slow message log
+     */
+    public SlowMessageLog getSlowMessages() {
+        return slowMessages;
+    }
+
+    /**
+     * Gets the chat sessions of everyone online.
+     *
+     * @return the session registry
+     */
+    public ChatSessions getSessions() {
+        return sessions;
+    }
+
+    /**
+     * Gets the compiled format fragments.
+     *
+     * @return the fragments from the last reload
+     */
+    public FormatFragments getFragments() {
+        return fragments;
+    }
+
+    /**
+     * Checks if PlaceholderAPI is installed and used.
+     *
+     * @return true if placeholders are filled in
+     */
+    public boolean isPlaceholdersEnabled() {
+        return placeholdersEnabled;
+    }
+
+    /**
+     * Gets the chat pipeline metrics.
+     *
+     * @return the metrics recorded by this ChatManager
+     */
+    public ChatMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * A message body parsed once and shared by every render of that message.
+     *
+     * @param body the parsed message
+     * @param parseNanos how long parsing took, so renders reusing it still report it
+     */
+    public record ParsedMessage(Component body, long parseNanos) {
+    }
+
+    /**
+     * The compiled console template.
+     *
+     * @param template the styled template without click or hover, or null in plain mode
+     * @param plain the template as plain text, used in plain mode
+     */
+    private record ConsoleFormat(Component template, String plain) {
+        static ConsoleFormat compile(String format, boolean plainOnly) {
+            Component parsed = ColorUtil.withoutEvents(ColorUtil.parseMiniMessage(
+                    format != null ? format : DEFAULT_CONSOLE_FORMAT));
+            return new ConsoleFormat(plainOnly ? null : parsed, ColorUtil.componentToString(parsed));
+        }
+    }
 }
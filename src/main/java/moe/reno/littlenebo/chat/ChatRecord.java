@@ -0,0 +1,175 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import java.util.UUID;
+
+/**
+ * One chat message as handed to {@link ChatSink}s.
+ * <p>
+ *     Built once per message after filtering, and shared by every sink, so sinks
+ *     must treat it as read-only.
+ * </p>
+ * <p>
+ *     Serialised forms are computed on first use and kept, so a message is turned into
+ *     JSON once no matter how many sinks export it.
+ * </p>
+ */
+public final class ChatRecord {
+    private final long timeMillis;
+    private final UUID playerId;
+    private final String playerName;
+    private final String displayName;
+    private final String channel;
+    private final String formatKey;
+    private final String message;
+    private final String consoleText;
+    private final String legacyText;
+    // Racy single-check like String.hashCode: worst case two threads both build the same string
+    private String json;
+
+    /**
+     * @param timeMillis when the message was sent
+     * @param playerId the sender's UUID
+     * @param playerName the sender's name
+     * @param displayName the sender's display name as plain/MiniMessage text
+     * @param channel the channel it was sent in, or null without channels
+     * @param formatKey the config key of the sender's permission format, or null if unknown
+     * @param message the processed message text (after filtering, before formatting)
+     * @param consoleText the whole line as rendered for the console, as plain text, or null if it wasn't rendered
+     * @param legacyText the whole formatted line as a legacy string, or null if the format has no legacy output
+     */
+    public ChatRecord(long timeMillis, UUID playerId, String playerName, String displayName, String channel,
+                      String formatKey, String message, String consoleText, String legacyText) {
+        this.timeMillis = timeMillis;
+        this.playerId = playerId;
+        this.playerName = playerName;
+        this.displayName = displayName;
+        this.channel = channel;
+        this.formatKey = formatKey;
+        this.message = message;
+        this.consoleText = consoleText;
+        this.legacyText = legacyText;
+    }
+
+    /** @return when the message was sent, in epoch milliseconds */
+    public long timeMillis() {
+        return timeMillis;
+    }
+
+    /** @return the sender's UUID */
+    public UUID playerId() {
+        return playerId;
+    }
+
+    /** @return the sender's name */
+    public String playerName() {
+        return playerName;
+    }
+
+    /** @return the sender's display name */
+    public String displayName() {
+        return displayName;
+    }
+
+    /** @return the channel name, or null without channels */
+    public String channel() {
+        return channel;
+    }
+
+    /** @return the sender's permission format key, or null if unknown */
+    public String formatKey() {
+        return formatKey;
+    }
+
+    /** @return the processed message text */
+    public String message() {
+        return message;
+    }
+
+    /**
+     * Gets the line as the console showed it, e.g. {@code "Alice: hello"}. Rendered once
+     * per message and shared, so sinks wanting readable text don't format it again.
+     *
+     * @return the console line as plain text, or null if it wasn't rendered
+     */
+    public String consoleText() {
+        return consoleText;
+    }
+
+    /**
+     * Gets the formatted line as a legacy string, e.g. {@code "§7<§fAlice§7> §fhi"}, for
+     * bridges and proxies that can't take components. Serialised once per message, only
+     * when the sender's format sets {@code legacy-format}.
+     *
+     * @return the legacy string, or null if the format has no legacy output
+     */
+    public String legacyText() {
+        return legacyText;
+    }
+
+    /**
+     * Gets the message as a JSON object, e.g.
+     * {@code {"time":1700000000000,"uuid":"…","name":"Alice","display_name":"Alice","channel":null,"format":"default","message":"hi","text":"Alice: hi","legacy":null}}.
+     *
+     * @return the JSON, built on first call and then shared
+     */
+    public String json() {
+        String cached = json;
+        if (cached == null) {
+            StringBuilder out = new StringBuilder(96 + message.length());
+            out.append("{\"time\":").append(timeMillis);
+            out.append(",\"uuid\":\"").append(playerId).append('"');
+            out.append(",\"name\":");
+            quote(playerName, out);
+            out.append(",\"display_name\":");
+            quote(displayName, out);
+            out.append(",\"channel\":");
+            quote(channel, out);
+            out.append(",\"format\":");
+            quote(formatKey, out);
+            out.append(",\"message\":");
+            quote(message, out);
+            out.append(",\"text\":");
+            quote(consoleText, out);
+            out.append(",\"legacy\":");
+            quote(legacyText, out);
+            out.append('}');
+            cached = out.toString();
+            json = cached;
+        }
+        return cached;
+    }
+
+    /**
+     * Appends a JSON string literal, or {@code null}.
+     */
+    private static void quote(String value, StringBuilder out) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+}
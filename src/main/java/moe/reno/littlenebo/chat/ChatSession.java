@@ -0,0 +1,197 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import moe.reno.littlenebo.config.FormatConfig;
+import moe.reno.littlenebo.util.ColorUtil;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Chat state for one online player, from join until quit.
+ * <p>
+ *     Things that belong to a player are fields here, so code that already has the
+ *     session reads them directly instead of looking the player up again. The reply
+ *     slot points straight at the other player's session.
+ * </p>
+ * <p>
+ *     It also caches what chat would otherwise work out again for every message: the
+ *     permission format and rate limit bypass (refreshed by {@link ChatSessions#refresh}
+ *     on reload and on a timer, since Bukkit has no permission change event), the display
+ *     name as text, the rate limit bucket, recent message fingerprints for the
+ *     {@link DuplicateFilter}, and short-lived snapshots of the templates
+ *     (chat format, private message formats) with placeholders filled in.
+ * </p>
+ */
+public final class ChatSession {
+    // Direct-mapped by template hash; a player only uses a handful of templates
+    private static final int PLACEHOLDER_SLOTS = 4;
+
+    private final Player player;
+    private final AtomicLong rateBucket = RateLimiter.newBucket();
+    private final DuplicateFilter.History duplicates = DuplicateFilter.newHistory();
+    // The record of the message going through chat right now, waiting to see if it's delivered
+    private final AtomicReference<ChatRecord> outgoing = new AtomicReference<>();
+    private volatile ChatSession replyTarget;
+    private volatile boolean socialSpy;
+    private volatile boolean open = true;
+    private volatile FormatConfig format;
+    private volatile boolean rateLimitBypass;
+    private volatile DisplayName displayName;
+    private final AtomicReferenceArray<PlaceholderSnapshot> placeholders =
+            new AtomicReferenceArray<>(PLACEHOLDER_SLOTS);
+
+    ChatSession(Player player) {
+        this.player = player;
+    }
+
+    /**
+     * @return the player this session belongs to
+     */
+    public Player player() {
+        return player;
+    }
+
+    /**
+     * Gets who {@code /reply} goes to: whoever this player last messaged or was messaged by.
+     *
+     * @return their session, or null if there is nobody or they've left
+     */
+    public ChatSession replyTarget() {
+        ChatSession target = replyTarget;
+        return target != null && target.open ? target : null;
+    }
+
+    void setReplyTarget(ChatSession target) {
+        replyTarget = target;
+    }
+
+    /**
+     * @return true if this player sees other players' private messages
+     */
+    public boolean isSocialSpy() {
+        return socialSpy;
+    }
+
+    void setSocialSpy(boolean socialSpy) {
+        this.socialSpy = socialSpy;
+    }
+
+    /**
+     * @return false once the player has left
+     */
+    public boolean isOpen() {
+        return open;
+    }
+
+    void close() {
+        open = false;
+        replyTarget = null;
+        for (int i = 0; i < PLACEHOLDER_SLOTS; i++) {
+            placeholders.set(i, null);
+        }
+    }
+
+    /**
+     * @return the player's permission format as of the last refresh, or null before the first one
+     */
+    public FormatConfig format() {
+        return format;
+    }
+
+    /**
+     * @return whether the player could skip the rate limit as of the last refresh
+     */
+    public boolean isRateLimitBypass() {
+        return rateLimitBypass;
+    }
+
+    void cachePermissions(FormatConfig format, boolean rateLimitBypass) {
+        this.rateLimitBypass = rateLimitBypass;
+        this.format = format;
+    }
+
+    /**
+     * @return this player's rate limit bucket
+     */
+    AtomicLong rateBucket() {
+        return rateBucket;
+    }
+
+    /**
+     * @return this player's recent message fingerprints
+     */
+    DuplicateFilter.History duplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Holds a message's record until its chat event is final. Paper runs one player's
+     * chat events one after another, so there is only ever one.
+     *
+     * @param record the record, or null for none
+     */
+    void setOutgoing(ChatRecord record) {
+        outgoing.set(record);
+    }
+
+    /**
+     * @return the held record, or null; either way nothing is held afterwards
+     */
+    ChatRecord takeOutgoing() {
+        return outgoing.getAndSet(null);
+    }
+
+    /**
+     * Gets the display name as plain text.
+     * <p>
+     *     Only serialised again when the display name component changes, which is
+     *     checked by identity, since Paper keeps the same component until it's set.
+     * </p>
+     *
+     * @return the display name text
+     */
+    public String displayNameText() {
+        Component current = player.displayName();
+        DisplayName cached = displayName;
+        if (cached == null || cached.source() != current) {
+            cached = new DisplayName(current, ColorUtil.componentToString(current));
+            displayName = cached;
+        }
+        return cached.text();
+    }
+
+    /**
+     * Gets the template with placeholders filled in, if it was filled in recently enough.
+     *
+     * @param template the template before placeholders
+     * @param nowNanos the current {@link System#nanoTime()}
+     * @return the filled in template, or null if there's no fresh snapshot of it
+     */
+    String placeholders(String template, long nowNanos) {
+        PlaceholderSnapshot snapshot = placeholders.get(slot(template));
+        if (snapshot == null || snapshot.expiresAt() - nowNanos < 0 || !snapshot.template().equals(template)) {
+            return null;
+        }
+        return snapshot.filled();
+    }
+
+    void snapshotPlaceholders(String template, String filled, long expiresAtNanos) {
+        placeholders.set(slot(template), new PlaceholderSnapshot(template, filled, expiresAtNanos));
+    }
+
+    private static int slot(String template) {
+        return template.hashCode() & (PLACEHOLDER_SLOTS - 1);
+    }
+
+    private record DisplayName(Component source, String text) {}
+
+    private record PlaceholderSnapshot(String template, String filled, long expiresAt) {}
+}
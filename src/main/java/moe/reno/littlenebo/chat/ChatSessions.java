@@ -0,0 +1,153 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import moe.reno.littlenebo.config.ConfigManager;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * The {@link ChatSession}s of everyone online, opened on join and closed on quit.
+ * <p>
+ *     Social spies are also kept as their own small set, so sending a private message
+ *     never walks the whole server to find them.
+ * </p>
+ */
+public final class ChatSessions {
+    private final Map<UUID, ChatSession> sessions = new ConcurrentHashMap<>();
+    private final Set<ChatSession> spies = new CopyOnWriteArraySet<>();
+
+    /**
+     * Finds a player's session without opening one.
+     *
+     * @param player the player's UUID
+     * @return their session, or null if they don't have one
+     */
+    public ChatSession find(UUID player) {
+        return sessions.get(player);
+    }
+
+    /**
+     * Gets a player's session, opening one if they don't have one yet.
+     * <p>
+     *     Main thread only. Async chat uses {@link #find} instead, so a message still in
+     *     flight when its sender quits can't open a session nobody will ever close.
+     * </p>
+     *
+     * @param player an online player
+     * @return their session
+     */
+    public ChatSession get(Player player) {
+        ChatSession session = sessions.get(player.getUniqueId());
+        if (session != null) {
+            return session;
+        }
+        return sessions.computeIfAbsent(player.getUniqueId(), id -> new ChatSession(player));
+    }
+
+    /**
+     * Opens a fresh session for a player who just joined.
+     *
+     * @param player the player
+     * @return the new session
+     */
+    public ChatSession open(Player player) {
+        ChatSession session = new ChatSession(player);
+        ChatSession old = sessions.put(player.getUniqueId(), session);
+        if (old != null) {
+            closeSession(old);
+        }
+        return session;
+    }
+
+    /**
+     * Closes a player's session when they leave.
+     *
+     * @param player the player
+     */
+    public void close(Player player) {
+        ChatSession session = sessions.remove(player.getUniqueId());
+        if (session != null) {
+            closeSession(session);
+        }
+    }
+
+    private void closeSession(ChatSession session) {
+        spies.remove(session);
+        session.close();
+    }
+
+    /**
+     * Turns social spy on or off for a session.
+     *
+     * @param session the session
+     * @param spy whether they should see other players' private messages
+     */
+    public void setSocialSpy(ChatSession session, boolean spy) {
+        session.setSocialSpy(spy);
+        if (spy && session.isOpen()) {
+            spies.add(session);
+        } else {
+            spies.remove(session);
+        }
+    }
+
+    /**
+     * @return sessions with social spy on; don't modify
+     */
+    public Set<ChatSession> spies() {
+        return spies;
+    }
+
+    /**
+     * Turns social spy off for anyone who has lost the permission for it.
+     * Bukkit has no permission change event, so this runs on a timer.
+     *
+     * @param permission the social spy permission
+     */
+    public void pruneSpies(String permission) {
+        for (ChatSession spy : spies) {
+            if (!spy.player().hasPermission(permission)) {
+                setSocialSpy(spy, false);
+            }
+        }
+    }
+
+    /**
+     * Works out a session's permission format and rate limit bypass again.
+     *
+     * @param session the session
+     * @param config the current config
+     */
+    public void refresh(ChatSession session, ConfigManager config) {
+        Player player = session.player();
+        String bypass = config.getRateLimitBypassPermission();
+        session.cachePermissions(config.getFormatForPlayer(player), bypass != null && player.hasPermission(bypass));
+    }
+
+    /**
+     * Refreshes every session, after a reload or on the permission timer.
+     *
+     * @param config the current config
+     */
+    public void refreshAll(ConfigManager config) {
+        for (ChatSession session : sessions.values()) {
+            refresh(session, config);
+        }
+    }
+
+    /**
+     * @return number of open sessions
+     */
+    public int size() {
+        return sessions.size();
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+/**
+ * Receives every chat message that makes it through the pipeline, e.g. to log it.
+ * <p>
+ *     Called from async chat threads. Implementations must be thread-safe and must
+ *     not block; anything slow (disk, network) belongs on the sink's own thread.
+ * </p>
+ */
+public interface ChatSink {
+    /**
+     * Hands over a message.
+     *
+     * @param record the message, shared with other sinks
+     */
+    void accept(ChatRecord record);
+
+    /**
+     * Flushes and releases anything the sink holds. Called when the sink is removed.
+     */
+    default void close() {
+    }
+}
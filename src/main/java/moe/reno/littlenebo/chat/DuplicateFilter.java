@@ -0,0 +1,219 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import java.util.Arrays;
+
+/**
+ * Catches players repeating the same message, or small variations of it.
+ * <p>
+ *     Messages are normalised on the fly (case and leetspeak folded, punctuation dropped)
+ *     and reduced to a 64-bit hash plus a small MinHash signature over 4-character
+ *     shingles. The hash keeps doubled letters, so "good" and "god" differ but "goooood"
+ *     is still "good"; the shingles collapse every run, so stretched spam still lands
+ *     close. Each shingle is just the last four characters packed into a long, so the
+ *     "rolling" hash is a shift.
+ * </p>
+ * <p>
+ *     Short messages ("gg", "ok", "ty") get said again all the time, so below
+ *     {@link #SHORT_MESSAGE} characters only exact repeats within a few seconds count.
+ * </p>
+ * <p>
+ *     The last few fingerprints live in a {@link History} on each player's
+ *     {@link ChatSession}, in fixed arrays, and go away with it; no message text is
+ *     ever stored.
+ * </p>
+ */
+public class DuplicateFilter {
+    static final int SIGNATURE_SIZE = 16;
+    private static final int SHINGLE = 4;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long[] SEEDS = new long[SIGNATURE_SIZE];
+    /** Messages with fewer normalised characters than this only count as exact repeats. */
+    static final int SHORT_MESSAGE = 8;
+    /** How long a short message counts as recent, if the window is longer. */
+    static final long SHORT_WINDOW_MILLIS = 5_000;
+
+    static {
+        long seed = 0x4c6974746c654e65L;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            seed += 0x9e3779b97f4a7c15L;
+            SEEDS[i] = mix(seed);
+        }
+    }
+
+    private volatile Settings settings;
+
+    /**
+     * @param history how many recent messages to remember per player
+     * @param windowMillis how long a message counts as recent
+     * @param similarity fraction of matching signature slots that counts as a near repeat
+     */
+    public DuplicateFilter(int history, long windowMillis, double similarity) {
+        configure(history, windowMillis, similarity);
+    }
+
+    /**
+     * Changes the settings. Remembered messages are forgotten if the history size changes,
+     * the next time each player chats.
+     *
+     * @param history how many recent messages to remember per player
+     * @param windowMillis how long a message counts as recent
+     * @param similarity fraction of matching signature slots that counts as a near repeat, 0 to 1
+     */
+    public void configure(int history, long windowMillis, double similarity) {
+        int slots = Math.max(1, history) + 1;
+        int minMatches = (int) Math.ceil(Math.max(0.0, Math.min(1.0, similarity)) * SIGNATURE_SIZE);
+        settings = new Settings(slots, windowMillis, Math.max(1, minMatches));
+    }
+
+    /**
+     * Checks a message against the player's recent messages and remembers it if it's new.
+     *
+     * @param history the player's history, from {@link #newHistory()}
+     * @param message the raw message
+     * @param nowMillis the current time in milliseconds
+     * @return true if this repeats a recent message and should be dropped
+     */
+    public boolean isDuplicate(History history, String message, long nowMillis) {
+        if (message == null) {
+            return false;
+        }
+        Settings current = settings;
+        // Two messages from one player racing here take turns on the same history
+        synchronized (history) {
+            if (history.times.length != current.slots) {
+                history.resize(current.slots);
+            }
+            return history.checkAndRecord(message, nowMillis, current);
+        }
+    }
+
+    /**
+     * @return an empty history, sized on first use
+     */
+    public static History newHistory() {
+        return new History(0);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @param slots ring size, one more than the configured history so the newest
+     *              message never overwrites one it should be compared with
+     * @param windowMillis how long a message counts as recent
+     * @param minMatches signature slots that must match for a near repeat
+     */
+    private record Settings(int slots, long windowMillis, int minMatches) {}
+
+    /**
+     * Ring of recent fingerprints for one player. Only touched while holding its lock.
+     */
+    public static final class History {
+        private long[] times;
+        private long[] exact;
+        private int[] signatures;
+        private int next;
+
+        private History(int slots) {
+            resize(slots);
+        }
+
+        private void resize(int slots) {
+            times = new long[slots];
+            exact = new long[slots];
+            signatures = new int[slots * SIGNATURE_SIZE];
+            next = 0;
+        }
+
+        /**
+         * Fingerprints the message straight into the next slot, compares it to the
+         * others, and only keeps it if it isn't a repeat.
+         */
+        private boolean checkAndRecord(String message, long now, Settings settings) {
+            int slot = next;
+            int base = slot * SIGNATURE_SIZE;
+            Arrays.fill(signatures, base, base + SIGNATURE_SIZE, Integer.MAX_VALUE);
+
+            long hash = FNV_OFFSET;
+            long shingle = 0;
+            int length = 0;
+            int characters = 0;
+            char previous = 0;
+            int run = 0;
+            for (int i = 0, n = message.length(); i < n; i++) {
+                char c = WordFilter.fold(message.charAt(i));
+                if (!Character.isLetterOrDigit(c)) {
+                    continue;
+                }
+                if (c == previous) {
+                    // Doubles stay in the exact hash, longer runs don't
+                    if (++run == 2) {
+                        hash = (hash ^ c) * FNV_PRIME;
+                        characters++;
+                    }
+                    continue;
+                }
+                previous = c;
+                run = 1;
+                hash = (hash ^ c) * FNV_PRIME;
+                characters++;
+                shingle = (shingle << 16) | c;
+                if (++length >= SHINGLE) {
+                    addShingle(base, shingle);
+                }
+            }
+            if (length == 0) {
+                // Nothing but punctuation or emoji, nothing meaningful to compare
+                return false;
+            }
+            if (length < SHINGLE) {
+                addShingle(base, shingle);
+            }
+
+            boolean brief = characters < SHORT_MESSAGE;
+            long window = brief ? Math.min(SHORT_WINDOW_MILLIS, settings.windowMillis) : settings.windowMillis;
+            times[slot] = now;
+            exact[slot] = hash;
+            for (int other = 0; other < times.length; other++) {
+                if (other == slot || times[other] == 0 || now - times[other] > window) {
+                    continue;
+                }
+                if (exact[other] == hash
+                        || (!brief && matches(other * SIGNATURE_SIZE, base) >= settings.minMatches)) {
+                    times[slot] = 0;
+                    return true;
+                }
+            }
+            next = (slot + 1) % times.length;
+            return false;
+        }
+
+        private void addShingle(int base, long shingle) {
+            for (int i = 0; i < SIGNATURE_SIZE; i++) {
+                int value = (int) mix(shingle ^ SEEDS[i]);
+                if (value < signatures[base + i]) {
+                    signatures[base + i] = value;
+                }
+            }
+        }
+
+        private int matches(int a, int b) {
+            int count = 0;
+            for (int i = 0; i < SIGNATURE_SIZE; i++) {
+                if (signatures[a + i] == signatures[b + i]) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
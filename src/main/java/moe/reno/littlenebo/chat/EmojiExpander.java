@@ -0,0 +1,181 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import moe.reno.littlenebo.util.AhoCorasick;
+import moe.reno.littlenebo.util.ColorUtil;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.tag.Tag;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Expands {@code :shortcode:} emoji in player messages.
+ * <p>
+ *     The table from config is compiled once into an {@link AhoCorasick} automaton over
+ *     the {@code :name:} forms, and each replacement (a trusted MiniMessage snippet) is
+ *     parsed once into an immutable {@link Component}. A message is scanned in a single
+ *     pass; text without a {@code :} isn't scanned at all, and an unknown shortcode just
+ *     walks a few automaton states.
+ * </p>
+ * <p>
+ *     Matches are swapped for an internal {@code <nebo_emoji:N>} tag, so the cached
+ *     component is dropped into the tree by the same MiniMessage parse that handles the
+ *     player's own formatting. Shortcodes inside a tag, like the colours in
+ *     {@code <gradient:red:blue>}, are left alone.
+ * </p>
+ */
+public final class EmojiExpander {
+    /** An expander with no shortcodes. */
+    public static final EmojiExpander EMPTY = new EmojiExpander(AhoCorasick.empty(), new Component[0]);
+
+    static final String TAG = "nebo_emoji";
+    private static final Pattern VALID_NAME = Pattern.compile("[a-z0-9_+\\-]+");
+
+    private final AhoCorasick automaton;
+    private final Component[] glyphs;
+    private final TagResolver resolver;
+
+    private EmojiExpander(AhoCorasick automaton, Component[] glyphs) {
+        this.automaton = automaton;
+        this.glyphs = glyphs;
+        this.resolver = TagResolver.resolver(TAG, (args, context) -> {
+            int id = args.popOr("emoji id expected").asInt().orElse(-1);
+            if (id < 0 || id >= glyphs.length) {
+                throw context.newException("Unknown emoji " + id, args);
+            }
+            return Tag.selfClosingInserting(glyphs[id]);
+        });
+    }
+
+    /**
+     * Compiles a shortcode table.
+     *
+     * @param shortcodes shortcode name (without colons) to MiniMessage replacement
+     * @param invalid receives names that were skipped because they aren't
+     *                lowercase letters, digits, {@code _}, {@code +} or {@code -}; may be null
+     * @return the expander, {@link #EMPTY} if nothing usable was given
+     */
+    public static EmojiExpander compile(Map<String, String> shortcodes, List<String> invalid) {
+        AhoCorasick.Builder builder = AhoCorasick.builder();
+        List<Component> glyphs = new ArrayList<>();
+        for (Map.Entry<String, String> entry : shortcodes.entrySet()) {
+            String name = entry.getKey().toLowerCase();
+            if (!VALID_NAME.matcher(name).matches() || entry.getValue() == null) {
+                if (invalid != null) {
+                    invalid.add(entry.getKey());
+                }
+                continue;
+            }
+            builder.add(':' + name + ':');
+            glyphs.add(ColorUtil.parseMiniMessage(entry.getValue()));
+        }
+        if (glyphs.isEmpty()) {
+            return EMPTY;
+        }
+        return new EmojiExpander(builder.build(), glyphs.toArray(new Component[0]));
+    }
+
+    /**
+     * @return number of shortcodes
+     */
+    public int size() {
+        return glyphs.length;
+    }
+
+    /**
+     * Swaps shortcodes for internal emoji tags.
+     *
+     * @param message the player message; may be null
+     * @return the expanded message, or {@code message} itself if there was nothing to expand
+     */
+    public String expand(String message) {
+        if (message == null || automaton.isEmpty() || message.indexOf(':') < 0) {
+            return message;
+        }
+        Expansion expansion = new Expansion(message);
+        automaton.scan(message, expansion);
+        return expansion.finish();
+    }
+
+    /**
+     * @return the resolver for the tags {@link #expand} inserts; pass it to the parse
+     */
+    public TagResolver resolver() {
+        return resolver;
+    }
+
+    /**
+     * One left-to-right pass over a message, copying text between matches.
+     */
+    private static final class Expansion implements AhoCorasick.MatchListener {
+        private final String message;
+        private StringBuilder out;
+        // Everything before this has been copied (or replaced)
+        private int copied;
+        // How far tag tracking has got, and where the last tag found ends
+        private int tracked;
+        private int tagUntil;
+
+        Expansion(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public boolean onMatch(int id, int start, int end) {
+            if (start < copied || insideTag(start) || (start > 0 && message.charAt(start - 1) == '\\')) {
+                // Overlaps the previous shortcode, is part of a tag like <gradient:red:blue>,
+                // or follows a backslash that would escape the tag we'd insert
+                return true;
+            }
+            if (out == null) {
+                out = new StringBuilder(message.length() + 16);
+            }
+            out.append(message, copied, start).append('<').append(TAG).append(':').append(id).append('>');
+            copied = end;
+            return true;
+        }
+
+        private boolean insideTag(int position) {
+            if (position < tagUntil) {
+                return true;
+            }
+            while (tracked < position) {
+                char c = message.charAt(tracked);
+                if (c == '\\') {
+                    // Escaped character, e.g. \< isn't a tag
+                    tracked += 2;
+                } else if (c == '<') {
+                    // Only a real tag counts, so "i <3 you :heart:" still expands
+                    int end = ColorUtil.tagEnd(message, tracked);
+                    if (end < 0) {
+                        tracked++;
+                        continue;
+                    }
+                    tagUntil = end;
+                    tracked = end;
+                    if (position < end) {
+                        return true;
+                    }
+                } else {
+                    tracked++;
+                }
+            }
+            return false;
+        }
+
+        String finish() {
+            if (out == null) {
+                return message;
+            }
+            return out.append(message, copied, message.length()).toString();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import moe.reno.littlenebo.util.ColorUtil;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.tag.Tag;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Named pieces of MiniMessage that formats pull in with {@code <fragment:name>}.
+ * <p>
+ *     A fragment is parsed once, on reload, into an immutable {@link Component}. Every
+ *     format that uses it gets that same component inserted by the template parse, so a
+ *     long hover block used by a dozen formats is parsed once and kept in memory once.
+ * </p>
+ * <p>
+ *     Fragments with PlaceholderAPI placeholders can't be parsed ahead of time, since
+ *     the placeholders have to be filled in per player first. Those are pasted into the
+ *     format text instead, before placeholders are set, and go through the template
+ *     cache like any other format text.
+ * </p>
+ */
+public final class FormatFragments {
+    /** No fragments. */
+    public static final FormatFragments EMPTY = new FormatFragments(Map.of(), Map.of());
+
+    static final String TAG = "fragment";
+    private static final String OPEN = "<" + TAG + ":";
+    private static final Pattern VALID_NAME = Pattern.compile("[a-z0-9_\\-]+");
+    private static final Pattern PLACEHOLDER = Pattern.compile("%[^%\\s]+%");
+
+    private final Map<String, Component> compiled;
+    private final Map<String, String> inlined;
+    private final TagResolver resolver;
+
+    private FormatFragments(Map<String, Component> compiled, Map<String, String> inlined) {
+        this.compiled = compiled;
+        this.inlined = inlined;
+        this.resolver = TagResolver.resolver(TAG, (args, context) -> {
+            String name = args.popOr("fragment name expected").lowerValue();
+            Component fragment = compiled.get(name);
+            if (fragment == null) {
+                throw context.newException("Unknown fragment " + name, args);
+            }
+            return Tag.selfClosingInserting(fragment);
+        });
+    }
+
+    /**
+     * Compiles the fragment table.
+     *
+     * @param fragments fragment name to MiniMessage
+     * @param invalid receives names that were skipped because they aren't lowercase
+     *                letters, digits, {@code _} or {@code -}; may be null
+     * @return the fragments, {@link #EMPTY} if nothing usable was given
+     */
+    public static FormatFragments compile(Map<String, String> fragments, List<String> invalid) {
+        Map<String, Component> compiled = new HashMap<>();
+        Map<String, String> inlined = new HashMap<>();
+        for (Map.Entry<String, String> entry : fragments.entrySet()) {
+            String name = entry.getKey().toLowerCase(Locale.ROOT);
+            if (!VALID_NAME.matcher(name).matches() || entry.getValue() == null) {
+                if (invalid != null) {
+                    invalid.add(entry.getKey());
+                }
+                continue;
+            }
+            if (PLACEHOLDER.matcher(entry.getValue()).find()) {
+                inlined.put(name, entry.getValue());
+            } else {
+                compiled.put(name, ColorUtil.parseMiniMessage(entry.getValue()));
+            }
+        }
+        if (compiled.isEmpty() && inlined.isEmpty()) {
+            return EMPTY;
+        }
+        return new FormatFragments(Map.copyOf(compiled), Map.copyOf(inlined));
+    }
+
+    /**
+     * @return number of fragments
+     */
+    public int size() {
+        return compiled.size() + inlined.size();
+    }
+
+    /**
+     * Gets a fragment that was parsed ahead of time.
+     *
+     * @param name the fragment name
+     * @return the shared component, or null if there's no such fragment or it has placeholders
+     */
+    public Component compiled(String name) {
+        return compiled.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Pastes fragments with placeholders into a format's text. Fragments without
+     * placeholders are left as tags for {@link #resolver()}.
+     *
+     * @param template the format text
+     * @return the format text with those fragments pasted in, or {@code template} itself if there were none
+     */
+    public String inline(String template) {
+        if (inlined.isEmpty() || template == null) {
+            return template;
+        }
+        int at = template.indexOf(OPEN);
+        if (at < 0) {
+            return template;
+        }
+        StringBuilder out = null;
+        int copied = 0;
+        while (at >= 0) {
+            int nameStart = at + OPEN.length();
+            int close = template.indexOf('>', nameStart);
+            if (close < 0) {
+                break;
+            }
+            int nameEnd = close > nameStart && template.charAt(close - 1) == '/' ? close - 1 : close;
+            String text = inlined.get(template.substring(nameStart, nameEnd).toLowerCase(Locale.ROOT));
+            if (text != null) {
+                if (out == null) {
+                    out = new StringBuilder(template.length() + text.length());
+                }
+                out.append(template, copied, at).append(text);
+                copied = close + 1;
+            }
+            at = template.indexOf(OPEN, close + 1);
+        }
+        if (out == null) {
+            return template;
+        }
+        return out.append(template, copied, template.length()).toString();
+    }
+
+    /**
+     * @return the resolver for {@code <fragment:name>} tags; pass it to the template parse
+     */
+    public TagResolver resolver() {
+        return resolver;
+    }
+}
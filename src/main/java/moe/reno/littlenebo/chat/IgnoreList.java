@@ -0,0 +1,316 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Who ignores whom, for players whose lists are loaded.
+ * <p>
+ *     Every UUID is interned to a small int the first time it's seen, and each player's
+ *     ignore set is a sorted {@code int[]}, so a lookup is a binary search over a few
+ *     ints instead of hashing UUIDs. A reverse index keeps, for every ignored player,
+ *     the loaded players ignoring them. That's what chat needs: when someone talks,
+ *     only their ignorers get removed from the audience, however many viewers there are.
+ * </p>
+ * <p>
+ *     Ids are reference counted: one for a player whose list is loaded, plus one for
+ *     every loaded list they're on. When that drops to zero the UUID is forgotten and
+ *     its id is reused, so the tables only ever hold players who are online or ignored
+ *     by someone who is.
+ * </p>
+ * <p>
+ *     Reads never lock. Changes take the lock and swap in fresh arrays, which is fine
+ *     since people don't run /ignore very often. The UUID table is copied rather than
+ *     written in place whenever a slot is freed or reused, so a reader that fetched it
+ *     first never sees a slot change meaning under it.
+ * </p>
+ */
+public class IgnoreList {
+    private static final int[] NONE = new int[0];
+
+    private final Map<UUID, Integer> ids = new ConcurrentHashMap<>();
+    private volatile UUID[] uuids = new UUID[64];
+    // Only touched under the lock
+    private int[] refs = new int[64];
+    private int[] free = new int[16];
+    private int freeCount;
+    private int nextId;
+    // viewer id -> sorted ids they ignore, only for loaded viewers
+    private final Map<Integer, int[]> ignoring = new ConcurrentHashMap<>();
+    // target id -> sorted ids of loaded viewers ignoring them
+    private final Map<Integer, int[]> ignoredBy = new ConcurrentHashMap<>();
+
+    /**
+     * Sets a player's ignore list, usually once it has been read from disk on join.
+     * Replaces whatever was loaded for them before.
+     *
+     * @param viewer the player
+     * @param ignored who they ignore
+     */
+    public synchronized void load(UUID viewer, Collection<UUID> ignored) {
+        unload(viewer);
+        int viewerId = intern(viewer);
+        refs[viewerId]++;
+        int[] targets = new int[ignored.size()];
+        int count = 0;
+        for (UUID target : ignored) {
+            targets[count++] = intern(target);
+        }
+        Arrays.sort(targets, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || targets[distinct - 1] != targets[i]) {
+                targets[distinct++] = targets[i];
+            }
+        }
+        targets = Arrays.copyOf(targets, distinct);
+        ignoring.put(viewerId, targets);
+        for (int target : targets) {
+            refs[target]++;
+            ignoredBy.put(target, insert(ignoredBy.getOrDefault(target, NONE), viewerId));
+        }
+    }
+
+    /**
+     * Forgets a player's list, e.g. when they quit. Their id is released too,
+     * unless someone still loaded ignores them.
+     *
+     * @param viewer the player
+     */
+    public synchronized void unload(UUID viewer) {
+        Integer viewerId = ids.get(viewer);
+        if (viewerId == null) {
+            return;
+        }
+        int[] targets = ignoring.remove(viewerId);
+        if (targets == null) {
+            return;
+        }
+        for (int target : targets) {
+            unlinkIgnorer(target, viewerId);
+            release(target);
+        }
+        release(viewerId);
+    }
+
+    /**
+     * @param viewer the player
+     * @return true if the player's list has been loaded
+     */
+    public boolean isLoaded(UUID viewer) {
+        Integer viewerId = ids.get(viewer);
+        return viewerId != null && ignoring.containsKey(viewerId);
+    }
+
+    /**
+     * Adds someone to a loaded player's ignore list.
+     *
+     * @param viewer the player doing the ignoring
+     * @param target the player to ignore
+     * @return true if the list changed, false if already ignored or not loaded
+     */
+    public synchronized boolean add(UUID viewer, UUID target) {
+        Integer viewerId = ids.get(viewer);
+        int[] targets = viewerId != null ? ignoring.get(viewerId) : null;
+        if (targets == null) {
+            return false;
+        }
+        int targetId = intern(target);
+        int[] updated = insert(targets, targetId);
+        if (updated == targets) {
+            return false;
+        }
+        ignoring.put(viewerId, updated);
+        refs[targetId]++;
+        ignoredBy.put(targetId, insert(ignoredBy.getOrDefault(targetId, NONE), viewerId));
+        return true;
+    }
+
+    /**
+     * Removes someone from a loaded player's ignore list.
+     *
+     * @param viewer the player doing the ignoring
+     * @param target the player to stop ignoring
+     * @return true if the list changed
+     */
+    public synchronized boolean remove(UUID viewer, UUID target) {
+        Integer viewerId = ids.get(viewer);
+        Integer targetId = ids.get(target);
+        int[] targets = viewerId != null ? ignoring.get(viewerId) : null;
+        if (targets == null || targetId == null) {
+            return false;
+        }
+        int[] updated = delete(targets, targetId);
+        if (updated == targets) {
+            return false;
+        }
+        ignoring.put(viewerId, updated);
+        unlinkIgnorer(targetId, viewerId);
+        release(targetId);
+        return true;
+    }
+
+    /**
+     * @param viewer the player who might be ignoring
+     * @param target the player who might be ignored
+     * @return true if {@code viewer} has {@code target} on their loaded list
+     */
+    public boolean isIgnoring(UUID viewer, UUID target) {
+        Integer viewerId = ids.get(viewer);
+        Integer targetId = ids.get(target);
+        if (viewerId == null || targetId == null) {
+            return false;
+        }
+        int[] targets = ignoring.get(viewerId);
+        return targets != null && Arrays.binarySearch(targets, targetId) >= 0;
+    }
+
+    /**
+     * Gets a copy of a player's ignore list, e.g. to save or show it.
+     *
+     * @param viewer the player
+     * @return who they ignore, empty if not loaded
+     */
+    public List<UUID> ignored(UUID viewer) {
+        UUID[] table = uuids;
+        Integer viewerId = ids.get(viewer);
+        int[] targets = viewerId != null ? ignoring.get(viewerId) : null;
+        if (targets == null) {
+            return List.of();
+        }
+        List<UUID> result = new ArrayList<>(targets.length);
+        for (int target : targets) {
+            UUID uuid = target < table.length ? table[target] : null;
+            if (uuid != null) {
+                result.add(uuid);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Calls {@code action} for every loaded player ignoring {@code sender}.
+     * Does nothing, and allocates nothing, if nobody does.
+     *
+     * @param sender the player talking
+     * @param action called with each ignorer's UUID
+     */
+    public void forEachIgnorer(UUID sender, Consumer<UUID> action) {
+        // Table first, then ids: a slot it has is either right or a player who just left
+        UUID[] table = uuids;
+        Integer senderId = ids.get(sender);
+        int[] viewers = senderId != null ? ignoredBy.get(senderId) : null;
+        if (viewers == null) {
+            return;
+        }
+        for (int viewer : viewers) {
+            UUID uuid = viewer < table.length ? table[viewer] : null;
+            if (uuid != null) {
+                action.accept(uuid);
+            }
+        }
+    }
+
+    /**
+     * @return how many UUIDs currently hold an id
+     */
+    int interned() {
+        return ids.size();
+    }
+
+    private int intern(UUID uuid) {
+        Integer existing = ids.get(uuid);
+        if (existing != null) {
+            return existing;
+        }
+        UUID[] table = uuids;
+        int id;
+        if (freeCount > 0) {
+            // Readers may still hold the old table, so a reused slot goes into a copy
+            id = free[--freeCount];
+            table = table.clone();
+        } else {
+            id = nextId++;
+            if (id == table.length) {
+                table = Arrays.copyOf(table, table.length * 2);
+                refs = Arrays.copyOf(refs, table.length);
+            }
+        }
+        table[id] = uuid;
+        // Publish the table before the id, so a reader holding the id can always resolve it
+        uuids = table;
+        ids.put(uuid, id);
+        return id;
+    }
+
+    /**
+     * Drops one reference to an id, forgetting the UUID once nothing refers to it.
+     */
+    private void release(int id) {
+        if (--refs[id] > 0) {
+            return;
+        }
+        UUID[] table = uuids.clone();
+        ids.remove(table[id]);
+        table[id] = null;
+        uuids = table;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = id;
+    }
+
+    private void unlinkIgnorer(int target, int viewer) {
+        int[] viewers = ignoredBy.get(target);
+        if (viewers == null) {
+            return;
+        }
+        int[] updated = delete(viewers, viewer);
+        if (updated.length == 0) {
+            ignoredBy.remove(target);
+        } else {
+            ignoredBy.put(target, updated);
+        }
+    }
+
+    /**
+     * @return a copy of {@code sorted} with {@code value} added, or {@code sorted} itself if already present
+     */
+    static int[] insert(int[] sorted, int value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index >= 0) {
+            return sorted;
+        }
+        index = -index - 1;
+        int[] result = new int[sorted.length + 1];
+        System.arraycopy(sorted, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(sorted, index, result, index + 1, sorted.length - index);
+        return result;
+    }
+
+    /**
+     * @return a copy of {@code sorted} without {@code value}, or {@code sorted} itself if absent
+     */
+    static int[] delete(int[] sorted, int value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index < 0) {
+            return sorted;
+        }
+        int[] result = new int[sorted.length - 1];
+        System.arraycopy(sorted, 0, result, 0, index);
+        System.arraycopy(sorted, index + 1, result, index, sorted.length - index - 1);
+        return result;
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Keeps ignore lists on disk, one small file per player with a UUID per line.
+ * <p>
+ *     All file access happens on one background thread, so chat and commands never wait
+ *     on the disk, and a save queued before a load for the same player is always
+ *     finished before that load reads the file.
+ * </p>
+ */
+public class IgnoreStore {
+    private final Path directory;
+    private final Logger logger;
+    private final ExecutorService executor;
+
+    /**
+     * @param directory where the files go, created on first save
+     * @param logger for read and write problems; may be null
+     */
+    public IgnoreStore(Path directory, Logger logger) {
+        this.directory = directory;
+        this.logger = logger;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "LittleNebo-Ignores");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reads a player's list in the background.
+     *
+     * @param viewer the player
+     * @param whenLoaded called on the store's thread with the list, empty if there's no file
+     */
+    public void load(UUID viewer, Consumer<List<UUID>> whenLoaded) {
+        submit(() -> whenLoaded.accept(read(file(viewer))));
+    }
+
+    /**
+     * Writes a player's list in the background. An empty list removes the file.
+     *
+     * @param viewer the player
+     * @param ignored a snapshot of who they ignore
+     */
+    public void save(UUID viewer, List<UUID> ignored) {
+        submit(() -> write(file(viewer), ignored));
+    }
+
+    /**
+     * Finishes queued saves, then stops the background thread.
+     */
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS) && logger != null) {
+                logger.warning("Timed out saving ignore lists");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Path file(UUID viewer) {
+        return directory.resolve(viewer + ".txt");
+    }
+
+    private void submit(IoTask task) {
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (IOException e) {
+                    if (logger != null) {
+                        logger.warning("Could not access ignore list: " + e.getMessage());
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            // Shutting down
+        }
+    }
+
+    /**
+     * Reads a list file, skipping lines that aren't UUIDs.
+     *
+     * @param file the file
+     * @return the UUIDs, empty if the file doesn't exist
+     * @throws IOException if the file can't be read
+     */
+    static List<UUID> read(Path file) throws IOException {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return List.of();
+        }
+        List<UUID> result = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            try {
+                result.add(UUID.fromString(line.trim()));
+            } catch (IllegalArgumentException ignored) {
+                // Blank or hand-edited line
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Replaces a list file atomically, or deletes it if the list is empty.
+     *
+     * @param file the file
+     * @param ignored the UUIDs
+     * @throws IOException if the file can't be written
+     */
+    static void write(Path file, List<UUID> ignored) throws IOException {
+        if (ignored.isEmpty()) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        Files.createDirectories(file.getParent());
+        StringBuilder out = new StringBuilder(ignored.size() * 37);
+        for (UUID uuid : ignored) {
+            out.append(uuid).append('\n');
+        }
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            Files.writeString(temp, out, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IoTask {
+        void run() throws IOException;
+    }
+}
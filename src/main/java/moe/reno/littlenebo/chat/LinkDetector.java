@@ -0,0 +1,253 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import moe.reno.littlenebo.config.LinkConfig;
+import moe.reno.littlenebo.util.ColorUtil;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.kyori.adventure.text.minimessage.tag.Tag;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Finds links in player messages and makes them clickable.
+ * <p>
+ *     Player input is parsed without {@code <click>}, so links would otherwise be dead
+ *     text. This is the trusted stage that adds them back: a hand-written scanner looks
+ *     for {@code http://}, {@code https://} and {@code www.} at word starts, in one pass
+ *     with no regex backtracking, and checks each host against the allow-list.
+ * </p>
+ * <p>
+ *     Each link is pulled out of the text and replaced with an internal
+ *     {@code <nebo_link:N>} tag, resolved to a click-wrapped component by the same
+ *     MiniMessage parse as the rest of the message. Taking the URL out of the text
+ *     also keeps legacy translation from turning {@code &c} in a query string into red.
+ *     Messages without a {@code .} are never scanned.
+ * </p>
+ */
+public final class LinkDetector {
+    /** Leaves every message alone. */
+    public static final LinkDetector DISABLED = new LinkDetector(LinkConfig.DISABLED);
+
+    static final String TAG = "nebo_link";
+
+    private final boolean enabled;
+    private final String[] allowedDomains;
+    private final Style style;
+
+    /**
+     * A message with its links swapped for tags.
+     *
+     * @param text the message text with {@code <nebo_link:N>} tags in place of links
+     * @param resolver resolves those tags to the clickable links
+     */
+    public record Links(String text, TagResolver resolver) {
+    }
+
+    /**
+     * @param config link settings
+     */
+    public LinkDetector(LinkConfig config) {
+        this.enabled = config.enabled();
+        this.allowedDomains = config.allowedDomains().stream()
+                .map(domain -> domain.toLowerCase(Locale.ROOT).trim())
+                .filter(domain -> !domain.isEmpty())
+                .toArray(String[]::new);
+        Style.Builder builder = Style.style().color(config.color());
+        if (config.underline()) {
+            builder.decoration(TextDecoration.UNDERLINED, true);
+        }
+        this.style = builder.build();
+    }
+
+    /**
+     * Finds the allowed links in a message.
+     *
+     * @param message the player message; may be null
+     * @return the rewritten message and its resolver, or null if there are no links
+     */
+    public Links detect(String message) {
+        if (!enabled || message == null || message.indexOf('.') < 0) {
+            return null;
+        }
+        List<Component> links = null;
+        StringBuilder out = null;
+        int copied = 0;
+        int n = message.length();
+        for (int i = 0; i < n; i++) {
+            char c = message.charAt(i);
+            if (c == '\\') {
+                // Escaped character, and nothing straight after a backslash starts a link
+                i++;
+                continue;
+            }
+            if (c == '<') {
+                // Skip over real tags only, so a "<3" doesn't hide every link after it
+                int tagEnd = ColorUtil.tagEnd(message, i);
+                if (tagEnd > 0) {
+                    i = tagEnd - 1;
+                }
+                continue;
+            }
+            if (i > 0 && Character.isLetterOrDigit(message.charAt(i - 1))) {
+                continue;
+            }
+            int hostStart = hostStart(message, i);
+            if (hostStart < 0) {
+                continue;
+            }
+            int end = linkEnd(message, i);
+            int hostEnd = hostEnd(message, hostStart, end);
+            // Whether or not it's allowed, carry on after it, so every character is looked at once
+            int next = end - 1;
+            if (hostEnd > 0 && isAllowed(message.substring(hostStart, hostEnd).toLowerCase(Locale.ROOT))) {
+                if (links == null) {
+                    links = new ArrayList<>(2);
+                    out = new StringBuilder(message.length() + 16);
+                }
+                String shown = message.substring(i, end);
+                String url = hostStart == i ? "https://" + shown : shown;
+                out.append(message, copied, i).append('<').append(TAG).append(':').append(links.size()).append('>');
+                links.add(Component.text(shown, style)
+                        .clickEvent(ClickEvent.openUrl(url))
+                        .hoverEvent(HoverEvent.showText(Component.text(url))));
+                copied = end;
+            }
+            i = next;
+        }
+        if (links == null) {
+            return null;
+        }
+        out.append(message, copied, n);
+        List<Component> found = links;
+        return new Links(out.toString(), TagResolver.resolver(TAG, (args, context) -> {
+            int id = args.popOr("link id expected").asInt().orElse(-1);
+            if (id < 0 || id >= found.size()) {
+                throw context.newException("Unknown link " + id, args);
+            }
+            return Tag.selfClosingInserting(found.get(id));
+        }));
+    }
+
+    /**
+     * @return where the host starts if a link starts at {@code i}, or -1
+     */
+    static int hostStart(String text, int i) {
+        if (startsWith(text, i, "https://")) {
+            return i + 8;
+        }
+        if (startsWith(text, i, "http://")) {
+            return i + 7;
+        }
+        if (startsWith(text, i, "www.")) {
+            return i;
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(String text, int i, String prefix) {
+        return text.regionMatches(true, i, prefix, 0, prefix.length());
+    }
+
+    /**
+     * Finds where a link ends: at whitespace or anything that can't be in chat URLs,
+     * minus trailing punctuation and unbalanced closing brackets.
+     *
+     * @return index just past the link
+     */
+    static int linkEnd(String text, int start) {
+        int end = start;
+        int open = 0;
+        int close = 0;
+        while (end < text.length()) {
+            char c = text.charAt(end);
+            if (Character.isWhitespace(c) || Character.isISOControl(c)
+                    || c == '<' || c == '>' || c == '"' || c == '\\' || c == '`') {
+                break;
+            }
+            if (c == '(') {
+                open++;
+            } else if (c == ')') {
+                close++;
+            }
+            end++;
+        }
+        while (end > start) {
+            char last = text.charAt(end - 1);
+            if (".,;:!?'*".indexOf(last) >= 0) {
+                end--;
+            } else if (last == ')' && close > open) {
+                close--;
+                end--;
+            } else {
+                break;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Finds where the host ends and checks it looks like a real domain: labels of
+     * letters, digits and hyphens, at least one dot, and a top-level domain of letters.
+     * User info ({@code user@host}) is rejected, since it's mostly used to disguise where a link goes.
+     *
+     * @return index just past the host, or -1 if it isn't a valid host
+     */
+    static int hostEnd(String text, int hostStart, int end) {
+        int i = hostStart;
+        int lastDot = -1;
+        char previous = '.';
+        while (i < end) {
+            char c = text.charAt(i);
+            if (c == '.') {
+                if (previous == '.' || previous == '-') {
+                    return -1;
+                }
+                lastDot = i;
+            } else if (c == '-') {
+                if (previous == '.') {
+                    return -1;
+                }
+            } else if (!Character.isLetterOrDigit(c)) {
+                break;
+            }
+            previous = c;
+            i++;
+        }
+        if (i < end && "/?#:".indexOf(text.charAt(i)) < 0) {
+            return -1;
+        }
+        if (lastDot < 0 || previous == '.' || previous == '-' || i - lastDot - 1 < 2) {
+            return -1;
+        }
+        for (int j = lastDot + 1; j < i; j++) {
+            if (!Character.isLetter(text.charAt(j))) {
+                return -1;
+            }
+        }
+        return i;
+    }
+
+    private boolean isAllowed(String host) {
+        if (allowedDomains.length == 0) {
+            return true;
+        }
+        for (String domain : allowedDomains) {
+            if (host.equals(domain)
+                    || (host.endsWith(domain) && host.charAt(host.length() - domain.length() - 1) == '.')) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
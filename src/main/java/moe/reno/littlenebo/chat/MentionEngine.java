@@ -0,0 +1,237 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import moe.reno.littlenebo.util.AhoCorasick;
+import moe.reno.littlenebo.util.ColorUtil;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextReplacementConfig;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Finds which online players a chat message mentions.
+ * <p>
+ *     Every online name and nickname goes into a single {@link AhoCorasick} automaton,
+ *     so a message is scanned once no matter how many players are online. Joins and
+ *     quits only mark the automaton dirty; it is rebuilt in a batch by
+ *     {@link #rebuildIfDirty(Collection)} on a timer and published as an immutable
+ *     snapshot that async chat threads read without locking.
+ * </p>
+ */
+public class MentionEngine implements Listener {
+    private static final int MIN_NICKNAME_LENGTH = 3;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile boolean bareNames = true;
+    private final AtomicBoolean dirty = new AtomicBoolean(true);
+
+    /**
+     * Sets whether names typed without an {@code @} count as mentions.
+     * Takes effect on the next rebuild.
+     *
+     * @param bareNames true to match bare names
+     */
+    public void setBareNames(boolean bareNames) {
+        this.bareNames = bareNames;
+        dirty.set(true);
+    }
+
+    /**
+     * Flags the automaton for a rebuild on the next {@link #rebuildIfDirty(Collection)}.
+     * Also used to pick up nickname changes, which don't fire an event.
+     */
+    public void markDirty() {
+        dirty.set(true);
+    }
+
+    /**
+     * Rebuilds the automaton if anything changed since the last build.
+     * Must be called on the main thread.
+     *
+     * @param online the currently online players
+     * @return true if a new snapshot was published
+     */
+    public boolean rebuildIfDirty(Collection<? extends Player> online) {
+        if (!dirty.getAndSet(false)) {
+            return false;
+        }
+        return rebuild(online);
+    }
+
+    /**
+     * Rebuilds the automaton from the online players' names and nicknames.
+     * Skipped if the name list is exactly what the current snapshot was built from.
+     *
+     * @param online the currently online players
+     * @return true if a new snapshot was published
+     */
+    public boolean rebuild(Collection<? extends Player> online) {
+        boolean bare = bareNames;
+        List<String> names = new ArrayList<>(online.size());
+        List<Player> owners = new ArrayList<>(online.size());
+        Map<UUID, List<String>> namesByPlayer = new HashMap<>();
+        for (Player player : online) {
+            List<String> own = new ArrayList<>(2);
+            own.add(player.getName());
+            String nickname = ColorUtil.componentToString(player.displayName());
+            if (nickname.length() >= MIN_NICKNAME_LENGTH && !nickname.equalsIgnoreCase(player.getName())) {
+                own.add(nickname);
+            }
+            for (String name : own) {
+                names.add(name);
+                owners.add(player);
+            }
+            namesByPlayer.put(player.getUniqueId(), own);
+        }
+
+        Snapshot current = snapshot;
+        if (current.bareNames == bare && current.names.equals(names) && current.owners.equals(owners)) {
+            return false;
+        }
+
+        AhoCorasick.Builder builder = AhoCorasick.builder();
+        for (String name : names) {
+            builder.add(name);
+        }
+        Map<UUID, Pattern> highlights = new HashMap<>();
+        for (Map.Entry<UUID, List<String>> entry : namesByPlayer.entrySet()) {
+            highlights.put(entry.getKey(), highlightPattern(entry.getValue(), bare));
+        }
+        snapshot = new Snapshot(builder.build(), List.copyOf(names), List.copyOf(owners), highlights, bare);
+        return true;
+    }
+
+    /**
+     * Finds every online player mentioned in a message, in one pass over the text.
+     *
+     * @param sender the player who sent the message; never counted as mentioned
+     * @param message the raw message
+     * @return mentioned players in order of first mention, empty if none
+     */
+    public Set<Player> findMentions(Player sender, String message) {
+        Snapshot current = snapshot;
+        if (message == null || message.isEmpty() || current.automaton.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<Player> found = new LinkedHashSet<>();
+        current.automaton.scan(message, (id, start, end) -> {
+            if (isBoundary(message, start, end, current.bareNames)) {
+                Player owner = current.owners.get(id);
+                if (!owner.equals(sender)) {
+                    found.add(owner);
+                }
+            }
+            return true;
+        });
+        return found.isEmpty() ? Collections.emptySet() : found;
+    }
+
+    /**
+     * Highlights a viewer's own name in a parsed message body. Pass the body on its own,
+     * not the whole formatted line, or names in the format's prefix and hover text light up too.
+     *
+     * @param body the parsed message body
+     * @param viewer the mentioned viewer
+     * @param color the highlight colour
+     * @return the body with the viewer's mentions highlighted, or {@code body} if unknown
+     */
+    public Component highlight(Component body, Player viewer, TextColor color) {
+        Pattern pattern = snapshot.highlights.get(viewer.getUniqueId());
+        if (pattern == null) {
+            return body;
+        }
+        return body.replaceText(TextReplacementConfig.builder()
+                .match(pattern)
+                .replacement((match, builder) -> builder.color(color).decorate(TextDecoration.BOLD))
+                .build());
+    }
+
+    /**
+     * @return number of names in the current automaton
+     */
+    public int size() {
+        return snapshot.names.size();
+    }
+
+    /**
+     * Marks the automaton dirty when a player joins.
+     *
+     * @param event the PlayerJoinEvent
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        markDirty();
+    }
+
+    /**
+     * Marks the automaton dirty when a player quits.
+     *
+     * @param event the PlayerQuitEvent
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        markDirty();
+    }
+
+    /**
+     * Checks a match isn't part of a longer word, and is prefixed with {@code @}
+     * when bare names are off.
+     */
+    private static boolean isBoundary(String message, int start, int end, boolean bareNames) {
+        if (end < message.length() && isWordChar(message.charAt(end))) {
+            return false;
+        }
+        if (start == 0) {
+            return bareNames;
+        }
+        char before = message.charAt(start - 1);
+        if (before == '@') {
+            return start == 1 || !isWordChar(message.charAt(start - 2));
+        }
+        return bareNames && !isWordChar(before);
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static Pattern highlightPattern(List<String> names, boolean bareNames) {
+        StringBuilder alternatives = new StringBuilder();
+        for (String name : names) {
+            if (!alternatives.isEmpty()) {
+                alternatives.append('|');
+            }
+            alternatives.append(Pattern.quote(name));
+        }
+        String prefix = bareNames ? "@?" : "@";
+        return Pattern.compile("(?<![\\p{L}\\p{N}_@])" + prefix + "(?:" + alternatives + ")(?![\\p{L}\\p{N}_])",
+                Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+
+    private record Snapshot(AhoCorasick automaton, List<String> names, List<Player> owners,
+                            Map<UUID, Pattern> highlights, boolean bareNames) {
+        private static final Snapshot EMPTY = new Snapshot(AhoCorasick.empty(), List.of(), List.of(), Map.of(), true);
+    }
+}
@@ -6,27 +6,29 @@
 package moe.reno.littlenebo.chat;
 
 import moe.reno.littlenebo.LittleNebo;
+import moe.reno.littlenebo.config.FormatConfig;
+import moe.reno.littlenebo.metrics.ChatMetrics;
 import io.papermc.paper.chat.ChatRenderer;
 import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.text.Component;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
 
 /**
- * A custom chat renderer for Paper that delegates chat formatting to the plugin's ChatManager.
+ * Custom chat rendering for Paper that delegates chat formatting to the plugin's ChatManager.
  * <p>
- * Stores the most recent raw player input message per-player, then uses that stored string
- * to generate a fully formatted {@link Component} for each viewer via {@link LittleNebo#getChatManager()}.
+ * Each message gets its own {@link ChatRenderer}, made by {@link #prepare} and handed to the
+ * chat event. It carries the raw player input and the sender's {@link ChatSession}, so rendering
+ * never has to look the sender up, and it goes away with the event.
+ * The formatted result does not depend on the viewer, so it is built once per message and
+ * shared by every viewer. Only players mentioned in the message get their own copy, with
+ * their name highlighted.
  * </p>
  */
-public class NeboChatRenderer implements ChatRenderer {
+public class NeboChatRenderer {
     private final LittleNebo plugin;
-    private final Map<UUID, String> lastMessages = new ConcurrentHashMap<>();
-    private static final int MAX_CACHE_SIZE = 500;
+    private final ChatMetrics metrics;
 
     /**
      * Constructs a new NeboChatRenderer bound to the main plugin instance.
@@ -34,67 +36,107 @@ public class NeboChatRenderer implements ChatRenderer {
      * @param plugin the LittleNebo plugin, used to access configuration and ChatManager
      */
     public NeboChatRenderer(LittleNebo plugin) {
+        this(plugin, new ChatMetrics());
+    }
+
+    /**
+     * Constructs a new NeboChatRenderer that reports into the given metrics.
+     *
+     * @param plugin the LittleNebo plugin, used to access configuration and ChatManager
+     * @param metrics where render counts and cache hits are recorded
+     */
+    public NeboChatRenderer(LittleNebo plugin, ChatMetrics metrics) {
         this.plugin = plugin;
+        this.metrics = metrics;
     }
 
     /**
-     * Renders a chat message for a given viewer.
+     * Makes the renderer for one message.
      * <p>
-     * Looks up the previously stored raw message for the source player and passes it to
-     * {@code plugin.getChatManager().formatMessage(...)} to produce the final message component.
-     * Also logs debug information if debug mode is enabled.
+     * This should be called when the AsyncChatEvent is processed, and the result passed to
+     * {@code event.renderer(...)}.
      * </p>
      *
-     * @param source the player who sent the chat message
-     * @param sourceDisplayName the original display name component (unused by this renderer)
-     * @param message the original message component (unused by this renderer)
-     * @param viewer the audience (player or console) receiving the message
-     * @return a formatted {@link Component} to be shown to the viewer
+     * @param session the sender's session
+     * @param message the raw plain-text message without formatting applied
+     * @param parsed the message already parsed by {@link ChatManager#parse}, or null to parse it on render
+     * @param format the format to render with, or null to pick one by permission
+     * @param mentioned players who get a highlighted render instead of the shared one
+     * @param console the console render, or null to give the console the shared one
+     * @param rendered the shared render if it has already been made, or null to format it on first view
+     * @return the renderer for this message
      */
-    @Override
-    public @NotNull Component render(@NotNull Player source, @NotNull Component sourceDisplayName, @NotNull Component message, @NotNull Audience viewer) {
-        // Get the message string from our stored messages
-        String messageStr = lastMessages.getOrDefault(source.getUniqueId(), "");
+    public ChatRenderer prepare(ChatSession session, String message, ChatManager.ParsedMessage parsed,
+                                FormatConfig format, Set<Player> mentioned, Component console, Component rendered) {
+        PendingMessage pending = new PendingMessage(session, message, parsed, format, mentioned, console);
+        pending.rendered = rendered;
+        return pending;
+    }
 
-        // Format the message using our chat manager
-        Component formatted = plugin.getChatManager().formatMessage(source, messageStr);
+    /**
+     * Renders a message for a given viewer.
+     * <p>
+     * The first viewer pays for the format; everyone after reuses it.
+     * Also logs debug information if debug mode is enabled.
+     * </p>
+     */
+    private Component render(PendingMessage pending, Audience viewer) {
+        if (pending.console != null && !(viewer instanceof Player)) {
+            // The console has its own render, made once when the message was sent
+            return pending.console;
+        }
+
+        Component formatted = pending.rendered;
+        if (formatted != null) {
+            metrics.recordRender(true);
+        } else {
+            // Two viewers racing here both format; harmless, the result is identical
+            metrics.recordRender(false);
+            formatted = pending.parsed != null
+                    ? plugin.getChatManager().formatChat(pending.session, pending.raw, pending.parsed, pending.format)
+                    : plugin.getChatManager().formatChat(pending.session, pending.raw, pending.format);
+            pending.rendered = formatted;
+        }
+
+        if (!pending.mentioned.isEmpty() && viewer instanceof Player player && pending.mentioned.contains(player)) {
+            formatted = plugin.getChatManager().formatMention(pending.session, pending.raw, pending.parsed,
+                    pending.format, player);
+        }
 
         // Debug info
-        plugin.debug("Rendering chat message for " + source.getName() + " to viewer " +
+        plugin.debug(() -> "Rendering chat message for " + pending.session.player().getName() + " to viewer " +
                 (viewer instanceof Player ? ((Player) viewer).getName() : "Console"));
 
         return formatted;
     }
 
     /**
-     * Stores the raw text of a player's message to be used by {@link #render}.
-     * <p>
-     * This should be called when the AsyncChatEvent is processed, before setting the renderer.
-     * </p>
-     *
-     * @param player the player who sent the message
-     * @param message the raw plain-text message without formatting applied
+     * The raw text of one message and its parsed body, who sent it, the format it was sent with, who it
+     * mentions, its console render and, once the first viewer has been rendered, the shared formatted component.
      */
-    public void setLastMessage(Player player, String message) {
-        // Add the new message to the map
-        lastMessages.put(player.getUniqueId(), message);
-        
-        // Clean up if the cache gets too large
-        if (lastMessages.size() > MAX_CACHE_SIZE) {
-            Iterator<Map.Entry<UUID, String>> it = lastMessages.entrySet().iterator();
-            for (int i = 0; i < 100 && it.hasNext(); i++) {
-                it.next();
-                it.remove();
-            }
+    private final class PendingMessage implements ChatRenderer {
+        private final ChatSession session;
+        private final String raw;
+        private final ChatManager.ParsedMessage parsed;
+        private final FormatConfig format;
+        private final Set<Player> mentioned;
+        private final Component console;
+        private volatile Component rendered;
+
+        private PendingMessage(ChatSession session, String raw, ChatManager.ParsedMessage parsed, FormatConfig format,
+                               Set<Player> mentioned, Component console) {
+            this.session = session;
+            this.raw = raw;
+            this.parsed = parsed;
+            this.format = format;
+            this.mentioned = mentioned;
+            this.console = console;
         }
-    }
 
-    /**
-      * Removes the last message for a player from the cache.
-      * 
-      * @param player the player whose last message should be removed
-      */
-    public void removeLastMessage(Player player) {
-        lastMessages.remove(player.getUniqueId());
+        @Override
+        public @NotNull Component render(@NotNull Player source, @NotNull Component sourceDisplayName,
+                                         @NotNull Component message, @NotNull Audience viewer) {
+            return NeboChatRenderer.this.render(this, viewer);
+        }
     }
-}
\ No newline at end of file
+}
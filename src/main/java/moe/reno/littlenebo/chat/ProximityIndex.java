@@ -0,0 +1,168 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-world uniform grid of positions for ranged chat.
+ * <p>
+ *     The grid is rebuilt from a position snapshot on a scheduled tick and published
+ *     as an immutable view, so async chat threads can query it without locking and
+ *     without reading live entity positions. With the cell size set to the chat radius,
+ *     a query only looks at the 3x3 cells around the sender, so its cost depends on how
+ *     many players are nearby rather than how many are online.
+ * </p>
+ *
+ * @param <T> the indexed value, usually a Player
+ */
+public class ProximityIndex<T> {
+    private static final Grid<?> EMPTY = new Grid<>(16.0, Collections.emptyMap(), Collections.emptyMap());
+
+    private volatile Grid<T> grid;
+
+    @SuppressWarnings("unchecked")
+    public ProximityIndex() {
+        this.grid = (Grid<T>) EMPTY;
+    }
+
+    /**
+     * Starts a new snapshot. Add every position, then {@link Builder#publish()} it.
+     *
+     * @param cellSize grid cell size in blocks, ideally the largest chat radius
+     * @return a builder for the next snapshot
+     */
+    public Builder<T> rebuild(double cellSize) {
+        return new Builder<>(this, Math.max(1.0, cellSize));
+    }
+
+    /**
+     * Collects everything within {@code radius} blocks of where {@code center}
+     * was at the last snapshot, including {@code center} itself.
+     *
+     * @param center the value to search around
+     * @param radius search radius in blocks
+     * @param out where matches are added
+     * @return false if {@code center} wasn't in the last snapshot
+     */
+    public boolean collectNearby(T center, double radius, Collection<? super T> out) {
+        Grid<T> current = grid;
+        Entry<T> origin = current.positions.get(center);
+        if (origin == null) {
+            return false;
+        }
+        collectNearby(origin.world, origin.x, origin.y, origin.z, radius, out);
+        return true;
+    }
+
+    /**
+     * Collects everything within {@code radius} blocks of a point.
+     *
+     * @param world the world to search
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @param radius search radius in blocks
+     * @param out where matches are added
+     */
+    public void collectNearby(UUID world, double x, double y, double z, double radius, Collection<? super T> out) {
+        Grid<T> current = grid;
+        Map<Long, List<Entry<T>>> cells = current.worlds.get(world);
+        if (cells == null) {
+            return;
+        }
+        double radiusSquared = radius * radius;
+        int minX = cell(x - radius, current.cellSize);
+        int maxX = cell(x + radius, current.cellSize);
+        int minZ = cell(z - radius, current.cellSize);
+        int maxZ = cell(z + radius, current.cellSize);
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cz = minZ; cz <= maxZ; cz++) {
+                List<Entry<T>> bucket = cells.get(key(cx, cz));
+                if (bucket == null) {
+                    continue;
+                }
+                for (int i = 0, n = bucket.size(); i < n; i++) {
+                    Entry<T> entry = bucket.get(i);
+                    double dx = entry.x - x;
+                    double dy = entry.y - y;
+                    double dz = entry.z - z;
+                    if (dx * dx + dy * dy + dz * dz <= radiusSquared) {
+                        out.add(entry.value);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of positions in the current snapshot
+     */
+    public int size() {
+        return grid.positions.size();
+    }
+
+    private static int cell(double coordinate, double cellSize) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xffffffffL);
+    }
+
+    /**
+     * Collects positions for the next snapshot. Not thread-safe; build on one thread.
+     *
+     * @param <T> the indexed value
+     */
+    public static final class Builder<T> {
+        private final ProximityIndex<T> index;
+        private final double cellSize;
+        private final Map<UUID, Map<Long, List<Entry<T>>>> worlds = new HashMap<>();
+        private final Map<T, Entry<T>> positions = new HashMap<>();
+
+        private Builder(ProximityIndex<T> index, double cellSize) {
+            this.index = index;
+            this.cellSize = cellSize;
+        }
+
+        /**
+         * Adds a position to the snapshot.
+         *
+         * @param value the value at this position
+         * @param world the world it is in
+         * @param x the x coordinate
+         * @param y the y coordinate
+         * @param z the z coordinate
+         * @return this builder
+         */
+        public Builder<T> add(T value, UUID world, double x, double y, double z) {
+            Entry<T> entry = new Entry<>(value, world, x, y, z);
+            worlds.computeIfAbsent(world, id -> new HashMap<>())
+                    .computeIfAbsent(key(cell(x, cellSize), cell(z, cellSize)), k -> new ArrayList<>(4))
+                    .add(entry);
+            positions.put(value, entry);
+            return this;
+        }
+
+        /**
+         * Replaces the index's current snapshot with this one.
+         */
+        public void publish() {
+            index.grid = new Grid<>(cellSize, worlds, positions);
+        }
+    }
+
+    private record Entry<T>(T value, UUID world, double x, double y, double z) {}
+
+    private record Grid<T>(double cellSize, Map<UUID, Map<Long, List<Entry<T>>>> worlds, Map<T, Entry<T>> positions) {}
+}
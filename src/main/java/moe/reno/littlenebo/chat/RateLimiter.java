@@ -0,0 +1,76 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-player token bucket for chat flood control.
+ * <p>
+ *     Each bucket is a single {@link AtomicLong} holding the time at which the bucket
+ *     will be full again (the "theoretical arrival time" form of a token bucket).
+ *     Taking a token is one CAS on that long, with no locks and no allocation, so it's
+ *     cheap enough to run before any message parsing. Buckets live on each player's
+ *     {@link ChatSession}, so they go away when the player does.
+ * </p>
+ */
+public class RateLimiter {
+    private static final long EMPTY_BUCKET = Long.MIN_VALUE;
+    private volatile Limits limits;
+
+    /**
+     * @param burst how many messages can be sent back to back
+     * @param perSecond how many messages per second are allowed once the burst is used up
+     */
+    public RateLimiter(int burst, double perSecond) {
+        configure(burst, perSecond);
+    }
+
+    /**
+     * Changes the bucket size and refill rate. Existing buckets keep their state.
+     *
+     * @param burst how many messages can be sent back to back, at least 1
+     * @param perSecond refill rate in messages per second, must be positive
+     */
+    public void configure(int burst, double perSecond) {
+        long interval = (long) (1_000_000_000L / Math.max(0.001, perSecond));
+        limits = new Limits(interval, interval * (Math.max(1, burst) - 1));
+    }
+
+    /**
+     * Takes a token from a player's bucket.
+     *
+     * @param bucket a bucket from {@link #newBucket()}
+     * @param nowNanos the current {@link System#nanoTime()}
+     * @return true if the message is allowed
+     */
+    public boolean tryAcquire(AtomicLong bucket, long nowNanos) {
+        Limits current = limits;
+        while (true) {
+            long tat = bucket.get();
+            long start = tat == EMPTY_BUCKET || tat - nowNanos < 0 ? nowNanos : tat;
+            if (start - nowNanos > current.tolerance) {
+                return false;
+            }
+            if (bucket.compareAndSet(tat, start + current.interval)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return a new, full bucket
+     */
+    public static AtomicLong newBucket() {
+        return new AtomicLong(EMPTY_BUCKET);
+    }
+
+    /**
+     * @param interval nanoseconds one token takes to refill
+     * @param tolerance how far ahead of now the bucket may run, i.e. the burst
+     */
+    private record Limits(long interval, long tolerance) {}
+}
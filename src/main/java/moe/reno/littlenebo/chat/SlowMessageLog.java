@@ -0,0 +1,82 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded store of messages that took longer than the configured threshold to format.
+ * <p>
+ *     Recording only happens for messages that were already slow, so a plain
+ *     synchronized deque is plenty; the fast path never touches it.
+ * </p>
+ */
+public class SlowMessageLog {
+    /** Names of the stages timed by {@link ChatManager#formatMessage}, in order. */
+    public static final String[] STAGES = {"lookup", "parse", "placeholders", "template", "replace"};
+
+    /**
+     * One captured slow message.
+     *
+     * @param timeMillis when it was formatted
+     * @param player name of the sender
+     * @param formatKey config key of the format that was used
+     * @param rawInput the player's message as it entered formatMessage
+     * @param stageNanos time spent in each of {@link #STAGES}
+     * @param totalNanos total formatMessage time
+     * @param componentCount number of nodes in the resulting component tree
+     */
+    public record SlowMessage(long timeMillis, String player, String formatKey, String rawInput,
+                              long[] stageNanos, long totalNanos, int componentCount) {}
+
+    private final ArrayDeque<SlowMessage> entries = new ArrayDeque<>();
+    private volatile int capacity;
+
+    /**
+     * @param capacity maximum number of slow messages to keep
+     */
+    public SlowMessageLog(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Changes how many entries are kept, dropping the oldest if needed.
+     *
+     * @param capacity maximum number of slow messages to keep
+     */
+    public synchronized void setCapacity(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        while (entries.size() > this.capacity) {
+            entries.pollFirst();
+        }
+    }
+
+    /**
+     * Adds a slow message, evicting the oldest if full.
+     *
+     * @param message the captured message
+     */
+    public synchronized void record(SlowMessage message) {
+        if (entries.size() >= capacity) {
+            entries.pollFirst();
+        }
+        entries.addLast(message);
+    }
+
+    /**
+     * @return a snapshot of captured messages, oldest first
+     */
+    public synchronized List<SlowMessage> snapshot() {
+        return new ArrayList<>(entries);
+    }
+
+    /** Drops every captured message. */
+    public synchronized void clear() {
+        entries.clear();
+    }
+}
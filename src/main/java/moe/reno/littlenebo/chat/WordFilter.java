@@ -0,0 +1,335 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import moe.reno.littlenebo.config.FilterConfig;
+import moe.reno.littlenebo.util.AhoCorasick;
+import moe.reno.littlenebo.util.ColorUtil;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Compiled word filter.
+ * <p>
+ *     Every configured word, across all actions, goes into one {@link AhoCorasick}
+ *     automaton, so a message is checked in a single linear pass however long the
+ *     lists are. The message is scanned through a view that folds case and common
+ *     leetspeak ({@code 4 → a}, {@code 3 → e}, {@code $ → s}...) one character at a time.
+ * </p>
+ * <p>
+ *     What's scanned is the text the message will actually show: MiniMessage tags,
+ *     {@literal &} codes and escapes are taken out first, so a word split up with formatting
+ *     that renders to nothing ({@code sh<b></b>it}, {@code sh&rit}) still matches. Each
+ *     character remembers where it came from, so censoring masks the original in place
+ *     and leaves the formatting alone. Messages without any of that are scanned as they are.
+ * </p>
+ * <p>
+ *     Instances are immutable apart from the hit counters, and cheap to swap out,
+ *     so {@link #compile(FilterConfig)} can run off the main thread on reload.
+ * </p>
+ */
+public final class WordFilter {
+    /**
+     * What happens when a word matches, strongest first.
+     */
+    public enum Action {
+        BLOCK, CENSOR, FLAG;
+
+        /** @return lower-case name, used for metric labels */
+        public String label() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * Outcome of filtering a message.
+     *
+     * @param action the strongest action that fired
+     * @param text the message to send, with censored words masked
+     * @param matched the configured word that decided the action
+     */
+    public record Result(Action action, String text, String matched) {}
+
+    /** Filter with no words, never matches. */
+    public static final WordFilter EMPTY = new WordFilter(AhoCorasick.empty(), new String[0], new Action[0], true, '*');
+
+    private final AhoCorasick automaton;
+    private final String[] words;
+    private final Action[] actions;
+    private final boolean wholeWords;
+    private final char censorChar;
+    private final AtomicLongArray hits;
+
+    private WordFilter(AhoCorasick automaton, String[] words, Action[] actions, boolean wholeWords, char censorChar) {
+        this.automaton = automaton;
+        this.words = words;
+        this.actions = actions;
+        this.wholeWords = wholeWords;
+        this.censorChar = censorChar;
+        this.hits = new AtomicLongArray(words.length);
+    }
+
+    /**
+     * Compiles the configured word lists. Safe to call off the main thread.
+     *
+     * @param config the filter settings
+     * @return the compiled filter, or {@link #EMPTY} if filtering is off
+     */
+    public static WordFilter compile(FilterConfig config) {
+        if (config == null || !config.enabled()) {
+            return EMPTY;
+        }
+        AhoCorasick.Builder builder = AhoCorasick.builder();
+        List<String> words = new ArrayList<>();
+        List<Action> actions = new ArrayList<>();
+        addAll(builder, words, actions, config.block(), Action.BLOCK);
+        addAll(builder, words, actions, config.censor(), Action.CENSOR);
+        addAll(builder, words, actions, config.flag(), Action.FLAG);
+        if (words.isEmpty()) {
+            return EMPTY;
+        }
+        return new WordFilter(builder.build(), words.toArray(new String[0]), actions.toArray(new Action[0]),
+                config.wholeWords(), config.censorChar());
+    }
+
+    private static void addAll(AhoCorasick.Builder builder, List<String> words, List<Action> actions,
+                               List<String> list, Action action) {
+        for (String word : list) {
+            if (word == null || word.isBlank()) {
+                continue;
+            }
+            String normalised = normalise(word.trim());
+            if (builder.add(normalised) >= 0) {
+                words.add(word.trim());
+                actions.add(action);
+            }
+        }
+    }
+
+    /**
+     * Filters a message in one pass.
+     *
+     * @param message the raw message
+     * @return what fired, or null if the message is clean
+     */
+    public Result apply(String message) {
+        if (message == null || message.isEmpty() || automaton.isEmpty()) {
+            return null;
+        }
+        Plain plain = Plain.of(message);
+        Scan scan = new Scan(plain);
+        automaton.scan(new Normalised(plain), scan);
+        if (scan.best < 0) {
+            return null;
+        }
+        Action action = actions[scan.best];
+        String text = action == Action.CENSOR ? new String(scan.censored) : message;
+        return new Result(action, text, words[scan.best]);
+    }
+
+    /**
+     * @return true if there are no words to filter
+     */
+    public boolean isEmpty() {
+        return automaton.isEmpty();
+    }
+
+    /**
+     * @return number of compiled words
+     */
+    public int size() {
+        return words.length;
+    }
+
+    /**
+     * Lists the words that fired most since this filter was compiled.
+     *
+     * @param limit how many to return
+     * @return word and hit count pairs, most hits first
+     */
+    public List<Map.Entry<String, Long>> topHits(int limit) {
+        List<Map.Entry<String, Long>> out = new ArrayList<>();
+        for (int i = 0; i < words.length; i++) {
+            long count = hits.get(i);
+            if (count > 0) {
+                out.add(Map.entry(actions[i].label() + ":" + words[i], count));
+            }
+        }
+        out.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+        return out.size() > limit ? out.subList(0, limit) : out;
+    }
+
+    /**
+     * Collects matches, keeps the strongest action and masks censored words as it goes.
+     */
+    private final class Scan implements AhoCorasick.MatchListener {
+        private final Plain plain;
+        private int best = -1;
+        private char[] censored;
+
+        private Scan(Plain plain) {
+            this.plain = plain;
+        }
+
+        @Override
+        public boolean onMatch(int id, int start, int end) {
+            if (wholeWords && !isWholeWord(plain, start, end)) {
+                return true;
+            }
+            hits.incrementAndGet(id);
+            if (best < 0 || actions[id].ordinal() < actions[best].ordinal()) {
+                best = id;
+            }
+            if (actions[id] == Action.BLOCK) {
+                return false;
+            }
+            if (actions[id] == Action.CENSOR) {
+                if (censored == null) {
+                    censored = plain.original.toCharArray();
+                }
+                for (int i = start; i < end; i++) {
+                    int at = plain.originalIndex(i);
+                    if (!Character.isWhitespace(censored[at])) {
+                        censored[at] = censorChar;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    private static boolean isWholeWord(CharSequence message, int start, int end) {
+        return (start == 0 || !Character.isLetterOrDigit(message.charAt(start - 1)))
+                && (end == message.length() || !Character.isLetterOrDigit(message.charAt(end)));
+    }
+
+    /**
+     * Folds one character: lower case, then leetspeak to the letter it stands in for.
+     *
+     * @param c the character
+     * @return the folded character
+     */
+    static char fold(char c) {
+        return switch (c) {
+            case '0' -> 'o';
+            case '1', '!', '|' -> 'i';
+            case '3' -> 'e';
+            case '4', '@' -> 'a';
+            case '5', '$' -> 's';
+            case '7', '+' -> 't';
+            case '8' -> 'b';
+            default -> Character.toLowerCase(c);
+        };
+    }
+
+    static String normalise(String text) {
+        char[] out = new char[text.length()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = fold(text.charAt(i));
+        }
+        return new String(out);
+    }
+
+    /**
+     * The text a message shows once tags, {@literal &} codes and escapes are gone, with the
+     * index in the original each character came from.
+     */
+    static final class Plain implements CharSequence {
+        private final String original;
+        private final char[] chars;
+        // Null when nothing was taken out, so indices are the same as the original's
+        private final int[] from;
+        private final int length;
+
+        private Plain(String original, char[] chars, int[] from, int length) {
+            this.original = original;
+            this.chars = chars;
+            this.from = from;
+            this.length = length;
+        }
+
+        static Plain of(String message) {
+            int n = message.length();
+            if (ColorUtil.isPlainText(message, true)) {
+                return new Plain(message, null, null, n);
+            }
+            char[] chars = new char[n];
+            int[] from = new int[n];
+            int length = 0;
+            int i = 0;
+            while (i < n) {
+                char c = message.charAt(i);
+                int skip = c == '<' ? ColorUtil.tagEnd(message, i)
+                        : c == '&' ? ColorUtil.legacyCodeEnd(message, i)
+                        : -1;
+                if (skip > 0) {
+                    i = skip;
+                    continue;
+                }
+                if (c == '\\' && i + 1 < n && (message.charAt(i + 1) == '<' || message.charAt(i + 1) == '\\')) {
+                    // Escaped, so the next character shows as itself and the backslash doesn't show
+                    i++;
+                }
+                chars[length] = message.charAt(i);
+                from[length++] = i++;
+            }
+            return new Plain(message, chars, from, length);
+        }
+
+        int originalIndex(int index) {
+            return from == null ? index : from[index];
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return chars == null ? original.charAt(index) : chars[index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return chars == null ? original : new String(chars, 0, length);
+        }
+    }
+
+    /**
+     * Read-only folded view of a message; same length and indices as the text it wraps.
+     */
+    private record Normalised(CharSequence text) implements CharSequence {
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return fold(text.charAt(index));
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return normalise(text.subSequence(start, end).toString());
+        }
+
+        @Override
+        public String toString() {
+            return normalise(text.toString());
+        }
+    }
+}
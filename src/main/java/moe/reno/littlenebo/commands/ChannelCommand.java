@@ -0,0 +1,89 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.commands;
+
+import moe.reno.littlenebo.LittleNebo;
+import moe.reno.littlenebo.chat.ChannelManager;
+import moe.reno.littlenebo.chat.ChatChannel;
+import moe.reno.littlenebo.util.Messages;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Handles the /channel (alias /ch) command for listing and switching chat channels.
+ */
+public class ChannelCommand implements CommandExecutor, TabCompleter {
+    private final LittleNebo plugin;
+
+    public ChannelCommand(LittleNebo plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        if (!(sender instanceof Player player)) {
+            sender.sendMessage(Messages.error("Only players can switch channels."));
+            return true;
+        }
+
+        ChannelManager channels = plugin.getChatManager().getChannelManager();
+        if (!channels.isEnabled()) {
+            sender.sendMessage(Messages.info("Channels aren't enabled on this server."));
+            return true;
+        }
+
+        if (args.length == 0) {
+            sendChannelList(player, channels);
+            return true;
+        }
+
+        String name = args[0].toLowerCase(Locale.ROOT);
+        if (channels.setActiveChannel(player, name)) {
+            sender.sendMessage(Messages.success("You are now talking in " + name + "."));
+        } else {
+            sender.sendMessage(Messages.error("You can't join channel: " + args[0]));
+            sender.sendMessage(Messages.info("Usage: /" + label + " [channel]"));
+        }
+        return true;
+    }
+
+    /**
+     * Lists the channels a player can use, marking the one they're in.
+     *
+     * @param player the player asking
+     * @param channels the channel manager
+     */
+    private void sendChannelList(Player player, ChannelManager channels) {
+        ChatChannel active = channels.getActiveChannel(player);
+        player.sendMessage(Messages.title("Channels:"));
+        for (ChatChannel channel : channels.getChannels()) {
+            if (channel.canUse(player)) {
+                player.sendMessage(Messages.info((channel == active ? " » " : " • ") + channel.getName()));
+            }
+        }
+    }
+
+    @Override
+    public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
+        List<String> names = new ArrayList<>();
+        if (args.length == 1 && sender instanceof Player player) {
+            for (ChatChannel channel : plugin.getChatManager().getChannelManager().getChannels()) {
+                if (channel.getName().startsWith(args[0].toLowerCase(Locale.ROOT)) && channel.canUse(player)) {
+                    names.add(channel.getName());
+                }
+            }
+        }
+        return names;
+    }
+}
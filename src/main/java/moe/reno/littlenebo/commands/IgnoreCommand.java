@@ -0,0 +1,127 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.commands;
+
+import moe.reno.littlenebo.LittleNebo;
+import moe.reno.littlenebo.chat.ChatManager;
+import moe.reno.littlenebo.chat.IgnoreList;
+import moe.reno.littlenebo.util.Messages;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Handles the /ignore command: with a name it toggles ignoring that player,
+ * without one it lists who you ignore.
+ */
+public class IgnoreCommand implements CommandExecutor, TabCompleter {
+    private static final String EXEMPT_PERMISSION = "littlenebo.ignore.exempt";
+
+    private final LittleNebo plugin;
+
+    public IgnoreCommand(LittleNebo plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        if (!(sender instanceof Player player)) {
+            sender.sendMessage(Messages.error("Only players can ignore people."));
+            return true;
+        }
+
+        ChatManager chatManager = plugin.getChatManager();
+        IgnoreList ignores = chatManager.getIgnores();
+        if (!ignores.isLoaded(player.getUniqueId())) {
+            sender.sendMessage(Messages.info("Your ignore list is still loading, try again in a moment."));
+            return true;
+        }
+
+        if (args.length == 0) {
+            sendIgnoreList(player, ignores);
+            return true;
+        }
+
+        OfflinePlayer target = findPlayer(args[0]);
+        if (target == null) {
+            sender.sendMessage(Messages.error("No player called " + args[0] + " has been here."));
+            sender.sendMessage(Messages.info("Usage: /" + label + " [player]"));
+            return true;
+        }
+        UUID targetId = target.getUniqueId();
+        String name = target.getName() != null ? target.getName() : args[0];
+        if (targetId.equals(player.getUniqueId())) {
+            sender.sendMessage(Messages.error("You can't ignore yourself."));
+            return true;
+        }
+
+        if (ignores.remove(player.getUniqueId(), targetId)) {
+            sender.sendMessage(Messages.success("You are no longer ignoring " + name + "."));
+        } else {
+            Player online = target.getPlayer();
+            if (online != null && online.hasPermission(EXEMPT_PERMISSION)) {
+                sender.sendMessage(Messages.error(name + " can't be ignored."));
+                return true;
+            }
+            ignores.add(player.getUniqueId(), targetId);
+            sender.sendMessage(Messages.success("You are now ignoring " + name + "."));
+        }
+        chatManager.saveIgnores(player.getUniqueId());
+        return true;
+    }
+
+    /**
+     * Finds a player by name, online or not, without a blocking profile lookup.
+     *
+     * @param name the name typed
+     * @return the player, or null if they've never joined
+     */
+    private OfflinePlayer findPlayer(String name) {
+        Player online = plugin.getServer().getPlayerExact(name);
+        return online != null ? online : plugin.getServer().getOfflinePlayerIfCached(name);
+    }
+
+    /**
+     * Lists who a player is ignoring.
+     *
+     * @param player the player asking
+     * @param ignores the ignore lists
+     */
+    private void sendIgnoreList(Player player, IgnoreList ignores) {
+        List<UUID> ignored = ignores.ignored(player.getUniqueId());
+        if (ignored.isEmpty()) {
+            player.sendMessage(Messages.info("You aren't ignoring anyone."));
+            return;
+        }
+        player.sendMessage(Messages.title("Ignoring:"));
+        for (UUID uuid : ignored) {
+            String name = plugin.getServer().getOfflinePlayer(uuid).getName();
+            player.sendMessage(Messages.info(" • " + (name != null ? name : uuid.toString())));
+        }
+    }
+
+    @Override
+    public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
+        List<String> names = new ArrayList<>();
+        if (args.length == 1 && sender instanceof Player player) {
+            String prefix = args[0].toLowerCase();
+            for (Player online : plugin.getServer().getOnlinePlayers()) {
+                if (online != player && online.getName().toLowerCase().startsWith(prefix)) {
+                    names.add(online.getName());
+                }
+            }
+        }
+        return names;
+    }
+}
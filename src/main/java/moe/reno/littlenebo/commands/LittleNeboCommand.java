@@ -6,9 +6,17 @@
 package moe.reno.littlenebo.commands;
 
 import moe.reno.littlenebo.LittleNebo;
+import moe.reno.littlenebo.chat.ChatHistory;
+import moe.reno.littlenebo.chat.SlowMessageLog;
+import moe.reno.littlenebo.chat.WordFilter;
 import moe.reno.littlenebo.config.ConfigManager;
+import moe.reno.littlenebo.log.ChatLogSearch;
+import moe.reno.littlenebo.log.LogLine;
+import moe.reno.littlenebo.util.DebugTracer;
 import moe.reno.littlenebo.util.Messages;
 import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -16,9 +24,18 @@ import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -27,7 +44,7 @@ import java.util.stream.Collectors;
  */
 public class LittleNeboCommand implements CommandExecutor, TabCompleter {
     private final LittleNebo plugin;
-    private final List<String> subcommands = Arrays.asList("reload", "debug");
+    private final List<String> subcommands = Arrays.asList("reload", "debug", "history", "search");
 
     public LittleNeboCommand(LittleNebo plugin) {
         this.plugin = plugin;
@@ -50,6 +67,8 @@ public class LittleNeboCommand implements CommandExecutor, TabCompleter {
         switch (subCommand) {
             case "reload" -> handleReload(sender);
             case "debug" -> handleDebugCommand(sender, args);
+            case "history" -> handleHistory(sender, args);
+            case "search" -> handleSearch(sender, args);
             default -> sendUnknownSubcommand(sender, label, subCommand);
         }
         return true;
@@ -66,7 +85,7 @@ public class LittleNeboCommand implements CommandExecutor, TabCompleter {
      */
     private void sendPluginInfo(CommandSender sender, String label) {
         sender.sendMessage(Messages.title("Little Nebo v" + plugin.getPluginMeta().getVersion()));
-        sender.sendMessage(Messages.info("Usage: /" + label + " <reload | debug>"));
+        sender.sendMessage(Messages.info("Usage: /" + label + " <reload | debug | history | search>"));
     }
 
     /**
@@ -76,7 +95,7 @@ public class LittleNeboCommand implements CommandExecutor, TabCompleter {
      */
     private void handleReload(CommandSender sender) {
         try {
-            plugin.getConfigManager().loadConfig();
+            plugin.reload();
             sender.sendMessage(Messages.success("LittleNebo: Configuration reloaded."));
         } catch (Exception e) {
             sender.sendMessage(Messages.error("LittleNebo: Failed to reload configuration!"));
@@ -103,6 +122,8 @@ public class LittleNeboCommand implements CommandExecutor, TabCompleter {
                 sender.sendMessage(Messages.title("Little Nebo Config:"));
                 sender.sendMessage(Messages.info(" • debug: " + cm.isDebugEnabled()));
                 sender.sendMessage(Messages.info(" • parse-player-colors: " + cm.isPlayerLegacyColorsEnabled()));
+                sender.sendMessage(Messages.info(" • metrics: " + (cm.isMetricsEnabled()
+                        ? cm.getMetricsBindAddress() + ":" + cm.getMetricsPort() : "disabled")));
             }
             case "test" -> {
                 /* Not as helpful, but good for server admins to test formats on live servers
@@ -121,13 +142,276 @@ public class LittleNeboCommand implements CommandExecutor, TabCompleter {
                 sender.sendMessage(Messages.title("Preview:"));
                 sender.sendMessage(formatted);
             }
+            case "dump" -> handleDebugDump(sender, args);
+            case "slow" -> handleDebugSlow(sender, args);
+            case "filter" -> handleDebugFilter(sender);
             default -> {
                 sender.sendMessage(Messages.error("Unknown debug subcommand: " + args[1]));
-                sender.sendMessage(Messages.info("Usage: /littlenebo debug [config|test <message>]"));
+                sender.sendMessage(Messages.info("Usage: /littlenebo debug [config|test <message>|dump [count|clear]|slow [clear]|filter]"));
             }
         }
     }
 
+    /**
+     * Shows the most recent buffered debug traces.
+     *
+     * @param sender the command sender
+     * @param args   the command arguments, optionally a count or "clear"
+     */
+    private void handleDebugDump(CommandSender sender, String[] args) {
+        DebugTracer tracer = plugin.getTracer();
+        if (args.length >= 3 && args[2].equalsIgnoreCase("clear")) {
+            tracer.clear();
+            sender.sendMessage(Messages.success("Debug trace buffer cleared."));
+            return;
+        }
+        int count = 20;
+        if (args.length >= 3) {
+            try {
+                count = Math.max(1, Integer.parseInt(args[2]));
+            } catch (NumberFormatException e) {
+                sender.sendMessage(Messages.error("Not a number: " + args[2]));
+                return;
+            }
+        }
+        List<DebugTracer.Entry> entries = tracer.recent(count);
+        if (entries.isEmpty()) {
+            sender.sendMessage(Messages.info("No debug traces recorded. Is debug mode on?"));
+            return;
+        }
+        SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss.SSS");
+        sender.sendMessage(Messages.title("Last " + entries.size() + " debug traces:"));
+        for (DebugTracer.Entry entry : entries) {
+            sender.sendMessage(Messages.info(time.format(new Date(entry.timeMillis()))
+                    + " [" + entry.thread() + "] " + entry.message()));
+        }
+    }
+
+    /**
+     * Lists messages that took longer than the slow message threshold to format.
+     *
+     * @param sender the command sender
+     * @param args   the command arguments, optionally "clear"
+     */
+    private void handleDebugSlow(CommandSender sender, String[] args) {
+        SlowMessageLog log = plugin.getChatManager().getSlowMessages();
+        if (args.length >= 3 && args[2].equalsIgnoreCase("clear")) {
+            log.clear();
+            sender.sendMessage(Messages.success("Slow message log cleared."));
+            return;
+        }
+        if (plugin.getConfigManager().getSlowMessageThresholdMs() <= 0) {
+            sender.sendMessage(Messages.info("Slow message capture is off. Set slow-messages.threshold-ms to enable it."));
+        }
+        List<SlowMessageLog.SlowMessage> entries = log.snapshot();
+        if (entries.isEmpty()) {
+            sender.sendMessage(Messages.info("No slow messages captured."));
+            return;
+        }
+        SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss");
+        sender.sendMessage(Messages.title("Slow messages (" + entries.size() + "):"));
+        for (SlowMessageLog.SlowMessage entry : entries) {
+            StringBuilder stages = new StringBuilder();
+            for (int i = 0; i < SlowMessageLog.STAGES.length; i++) {
+                if (i > 0) {
+                    stages.append(", ");
+                }
+                stages.append(SlowMessageLog.STAGES[i]).append('=').append(formatMillis(entry.stageNanos()[i]));
+            }
+            sender.sendMessage(Messages.info(time.format(new Date(entry.timeMillis())) + " " + entry.player()
+                    + " [" + entry.formatKey() + "] " + formatMillis(entry.totalNanos())
+                    + ", " + entry.componentCount() + " components"));
+            sender.sendMessage(Messages.info("   " + stages));
+            sender.sendMessage(Messages.info("   input: " + entry.rawInput()));
+        }
+    }
+
+    /**
+     * Shows recent chat, optionally for one player.
+     * Entries are only decoded and formatted here, on read.
+     *
+     * @param sender the command sender
+     * @param args   the command arguments: [player] [count]
+     */
+    private void handleHistory(CommandSender sender, String[] args) {
+        ChatHistory history = plugin.getChatManager().getHistory();
+        if (history == null) {
+            sender.sendMessage(Messages.info("Chat history is off. Set chat-history.size to enable it."));
+            return;
+        }
+        UUID filter = null;
+        int count = 20;
+        for (int i = 1; i < args.length; i++) {
+            try {
+                count = Math.max(1, Integer.parseInt(args[i]));
+                continue;
+            } catch (NumberFormatException ignored) {
+                // Not a count, so it's a player name
+            }
+            OfflinePlayer target = Bukkit.getOfflinePlayerIfCached(args[i]);
+            if (target == null) {
+                sender.sendMessage(Messages.error("Unknown player: " + args[i]));
+                return;
+            }
+            filter = target.getUniqueId();
+        }
+        List<ChatHistory.Entry> entries = history.recent(filter, count);
+        if (entries.isEmpty()) {
+            sender.sendMessage(Messages.info("No chat history found."));
+            return;
+        }
+        SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss");
+        sender.sendMessage(Messages.title("Last " + entries.size() + " messages:"));
+        for (ChatHistory.Entry entry : entries) {
+            String name = Bukkit.getOfflinePlayer(entry.player()).getName();
+            sender.sendMessage(Messages.info(time.format(new Date(entry.timeMillis()))
+                    + (entry.channel() != null ? " [" + entry.channel() + "]" : "")
+                    + " " + (name != null ? name : entry.player()) + ": " + entry.message()));
+        }
+    }
+
+    /**
+     * Searches the chat log. The search itself runs off the main thread and
+     * the results are sent back on it.
+     *
+     * @param sender the command sender
+     * @param args   the command arguments: terms plus optional player:, since: and page:
+     */
+    private void handleSearch(CommandSender sender, String[] args) {
+        List<String> terms = new ArrayList<>();
+        UUID player = null;
+        long since = 0;
+        int page = 1;
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            String lower = arg.toLowerCase();
+            if (lower.startsWith("player:")) {
+                OfflinePlayer target = Bukkit.getOfflinePlayerIfCached(arg.substring(7));
+                if (target == null) {
+                    sender.sendMessage(Messages.error("Unknown player: " + arg.substring(7)));
+                    return;
+                }
+                player = target.getUniqueId();
+            } else if (lower.startsWith("since:")) {
+                long duration = parseDuration(lower.substring(6));
+                if (duration <= 0) {
+                    sender.sendMessage(Messages.error("Not a duration: " + arg.substring(6) + " (try 30m, 12h or 7d)"));
+                    return;
+                }
+                since = System.currentTimeMillis() - duration;
+            } else if (lower.startsWith("page:")) {
+                try {
+                    page = Math.max(1, Integer.parseInt(arg.substring(5)));
+                } catch (NumberFormatException e) {
+                    sender.sendMessage(Messages.error("Not a number: " + arg.substring(5)));
+                    return;
+                }
+            } else {
+                terms.add(arg);
+            }
+        }
+        if (terms.isEmpty() && player == null) {
+            sender.sendMessage(Messages.error("Usage: /littlenebo search <words…> [player:<name>] [since:<7d>] [page:<n>]"));
+            return;
+        }
+
+        Path directory = plugin.getDataFolder().toPath().resolve(plugin.getConfigManager().getChatLog().directory());
+        if (!Files.isDirectory(directory)) {
+            sender.sendMessage(Messages.info("There are no chat logs to search. Set chat-log.enabled to start logging."));
+            return;
+        }
+        ChatLogSearch.Query query = new ChatLogSearch.Query(terms, player, since, page, 10);
+        ChatLogSearch search = new ChatLogSearch(directory, ZoneId.systemDefault(), plugin.getChatLog());
+        int shownPage = page;
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            long start = System.nanoTime();
+            ChatLogSearch.Page result;
+            try {
+                result = search.search(query);
+            } catch (IOException e) {
+                plugin.getServer().getScheduler().runTask(plugin,
+                        () -> sender.sendMessage(Messages.error("Search failed: " + e.getMessage())));
+                return;
+            }
+            long nanos = System.nanoTime() - start;
+            plugin.getServer().getScheduler().runTask(plugin, () -> sendSearchPage(sender, result, shownPage, nanos));
+        });
+    }
+
+    private void sendSearchPage(CommandSender sender, ChatLogSearch.Page result, int page, long nanos) {
+        if (result.lines().isEmpty()) {
+            sender.sendMessage(Messages.info(page > 1 ? "No more results." : "No matching messages found."));
+            return;
+        }
+        SimpleDateFormat time = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+        sender.sendMessage(Messages.title("Search results, page " + page + " (" + formatMillis(nanos) + "):"));
+        for (LogLine line : result.lines()) {
+            sender.sendMessage(Messages.info(time.format(new Date(line.timeMillis()))
+                    + (line.channel() != null ? " [" + line.channel() + "]" : "")
+                    + " " + line.playerName() + ": " + line.message()));
+        }
+        if (result.more()) {
+            sender.sendMessage(Messages.info("More results: add page:" + (page + 1)));
+        }
+    }
+
+    /**
+     * Parses a duration like {@code 45s}, {@code 30m}, {@code 12h}, {@code 7d} or {@code 2w}.
+     *
+     * @param value the duration
+     * @return milliseconds, or 0 if it can't be parsed
+     */
+    private static long parseDuration(String value) {
+        if (value.length() < 2) {
+            return 0;
+        }
+        long amount;
+        try {
+            amount = Long.parseLong(value.substring(0, value.length() - 1));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> TimeUnit.SECONDS.toMillis(amount);
+            case 'm' -> TimeUnit.MINUTES.toMillis(amount);
+            case 'h' -> TimeUnit.HOURS.toMillis(amount);
+            case 'd' -> TimeUnit.DAYS.toMillis(amount);
+            case 'w' -> TimeUnit.DAYS.toMillis(amount * 7);
+            default -> 0;
+        };
+    }
+
+    /**
+     * Shows which filter words have fired since the last reload.
+     *
+     * @param sender the command sender
+     */
+    private void handleDebugFilter(CommandSender sender) {
+        WordFilter filter = plugin.getChatManager().getWordFilter();
+        if (filter.isEmpty()) {
+            sender.sendMessage(Messages.info("The word filter is off or has no words."));
+            return;
+        }
+        List<Map.Entry<String, Long>> hits = filter.topHits(10);
+        sender.sendMessage(Messages.title("Word filter: " + filter.size() + " words"));
+        if (hits.isEmpty()) {
+            sender.sendMessage(Messages.info("Nothing has been caught since the last reload."));
+        }
+        for (Map.Entry<String, Long> hit : hits) {
+            sender.sendMessage(Messages.info(" • " + hit.getKey() + ": " + hit.getValue()));
+        }
+    }
+
+    /**
+     * Formats nanoseconds as milliseconds with two decimals.
+     *
+     * @param nanos the duration
+     * @return e.g. "12.34ms"
+     */
+    private static String formatMillis(long nanos) {
+        return String.format("%.2fms", nanos / 1_000_000.0);
+    }
+
     /**
      * Sends an error message to the sender for an unknown subcommand.
      *
@@ -137,7 +421,7 @@ public class LittleNeboCommand implements CommandExecutor, TabCompleter {
      */
     private void sendUnknownSubcommand(CommandSender sender, String label, String subCommand) {
         sender.sendMessage(Messages.error("Unknown subcommand: " + subCommand));
-        sender.sendMessage(Messages.info("Usage: /" + label + " <reload | debug>"));
+        sender.sendMessage(Messages.info("Usage: /" + label + " <reload | debug | history | search>"));
     }
 
     @Override
@@ -148,10 +432,28 @@ public class LittleNeboCommand implements CommandExecutor, TabCompleter {
                 .collect(Collectors.toList());
         } else if (args.length == 2) {
             if (args[0].equalsIgnoreCase("debug")) {
-                return Arrays.asList("config", "test").stream()
+                return Arrays.asList("config", "test", "dump", "slow", "filter").stream()
                     .filter(s -> s.startsWith(args[1].toLowerCase()))
                     .collect(Collectors.toList());
             }
+            if (args[0].equalsIgnoreCase("history")) {
+                return Bukkit.getOnlinePlayers().stream()
+                    .map(Player::getName)
+                    .filter(name -> name.toLowerCase().startsWith(args[1].toLowerCase()))
+                    .collect(Collectors.toList());
+            }
+        }
+        if (args.length >= 2 && args[0].equalsIgnoreCase("search")) {
+            String last = args[args.length - 1].toLowerCase();
+            if (last.startsWith("player:")) {
+                return Bukkit.getOnlinePlayers().stream()
+                    .map(p -> "player:" + p.getName())
+                    .filter(name -> name.toLowerCase().startsWith(last))
+                    .collect(Collectors.toList());
+            }
+            return Arrays.asList("player:", "since:", "page:").stream()
+                .filter(s -> !last.isEmpty() && s.startsWith(last))
+                .collect(Collectors.toList());
         }
     return new ArrayList<>();
     }
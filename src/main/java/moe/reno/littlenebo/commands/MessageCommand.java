@@ -0,0 +1,72 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.commands;
+
+import moe.reno.littlenebo.LittleNebo;
+import moe.reno.littlenebo.util.Messages;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Handles the /msg command: sends a private message to an online player.
+ */
+public class MessageCommand implements CommandExecutor, TabCompleter {
+    private final LittleNebo plugin;
+
+    public MessageCommand(LittleNebo plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        if (!(sender instanceof Player player)) {
+            sender.sendMessage(Messages.error("Only players can send private messages."));
+            return true;
+        }
+        if (!plugin.getConfigManager().getMessaging().enabled()) {
+            sender.sendMessage(Messages.error("Private messages are turned off."));
+            return true;
+        }
+        if (args.length < 2) {
+            sender.sendMessage(Messages.info("Usage: /" + label + " <player> <message>"));
+            return true;
+        }
+
+        Player target = plugin.getServer().getPlayerExact(args[0]);
+        if (target == null || !player.canSee(target)) {
+            sender.sendMessage(Messages.error(args[0] + " isn't online."));
+            return true;
+        }
+        if (target == player) {
+            sender.sendMessage(Messages.error("You can't message yourself."));
+            return true;
+        }
+        plugin.getChatManager().sendPrivate(player, target, String.join(" ", Arrays.copyOfRange(args, 1, args.length)));
+        return true;
+    }
+
+    @Override
+    public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
+        List<String> names = new ArrayList<>();
+        if (args.length == 1 && sender instanceof Player player) {
+            String prefix = args[0].toLowerCase();
+            for (Player online : plugin.getServer().getOnlinePlayers()) {
+                if (online != player && player.canSee(online) && online.getName().toLowerCase().startsWith(prefix)) {
+                    names.add(online.getName());
+                }
+            }
+        }
+        return names;
+    }
+}
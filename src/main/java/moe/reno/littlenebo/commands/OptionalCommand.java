@@ -0,0 +1,69 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.commands;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginIdentifiableCommand;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * A command registered at startup only when its feature is turned on, instead of in plugin.yml.
+ * <p>
+ *     Used for names other plugins (or vanilla) also own, like {@code /msg}: anything in
+ *     plugin.yml is claimed whether the feature is on or not, so with it off the player
+ *     would get our "turned off" message instead of the command they were used to.
+ * </p>
+ */
+public class OptionalCommand extends Command implements PluginIdentifiableCommand {
+    private final Plugin plugin;
+    private final CommandExecutor executor;
+
+    /**
+     * @param plugin the owning plugin
+     * @param name the command name, without aliases
+     * @param description shown in /help
+     * @param usage shown in /help
+     * @param permission needed to run it
+     * @param executor runs it, and tab completes it too if it's a {@link TabCompleter}
+     */
+    public OptionalCommand(Plugin plugin, String name, String description, String usage, String permission,
+                           CommandExecutor executor) {
+        super(name, description, usage, List.of());
+        this.plugin = plugin;
+        this.executor = executor;
+        setPermission(permission);
+    }
+
+    @Override
+    public boolean execute(@NotNull CommandSender sender, @NotNull String label, @NotNull String[] args) {
+        if (!testPermission(sender)) {
+            return true;
+        }
+        return executor.onCommand(sender, this, label, args);
+    }
+
+    @Override
+    public @NotNull List<String> tabComplete(@NotNull CommandSender sender, @NotNull String alias, @NotNull String[] args) {
+        if (executor instanceof TabCompleter completer) {
+            List<String> completions = completer.onTabComplete(sender, this, alias, args);
+            if (completions != null) {
+                return completions;
+            }
+        }
+        return super.tabComplete(sender, alias, args);
+    }
+
+    @Override
+    public @NotNull Plugin getPlugin() {
+        return plugin;
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.commands;
+
+import moe.reno.littlenebo.LittleNebo;
+import moe.reno.littlenebo.chat.ChatManager;
+import moe.reno.littlenebo.chat.ChatSession;
+import moe.reno.littlenebo.util.Messages;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Handles the /reply command: answers whoever you last messaged or were messaged by.
+ */
+public class ReplyCommand implements CommandExecutor {
+    private final LittleNebo plugin;
+
+    public ReplyCommand(LittleNebo plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        if (!(sender instanceof Player player)) {
+            sender.sendMessage(Messages.error("Only players can reply to private messages."));
+            return true;
+        }
+        if (!plugin.getConfigManager().getMessaging().enabled()) {
+            sender.sendMessage(Messages.error("Private messages are turned off."));
+            return true;
+        }
+        if (args.length == 0) {
+            sender.sendMessage(Messages.info("Usage: /" + label + " <message>"));
+            return true;
+        }
+
+        ChatManager chatManager = plugin.getChatManager();
+        ChatSession target = chatManager.getSessions().get(player).replyTarget();
+        if (target == null) {
+            sender.sendMessage(Messages.error("There's nobody to reply to."));
+            return true;
+        }
+        chatManager.sendPrivate(player, target.player(), String.join(" ", args));
+        return true;
+    }
+}
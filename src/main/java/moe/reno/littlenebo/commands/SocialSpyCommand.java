@@ -0,0 +1,47 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.commands;
+
+import moe.reno.littlenebo.LittleNebo;
+import moe.reno.littlenebo.chat.ChatSession;
+import moe.reno.littlenebo.chat.ChatSessions;
+import moe.reno.littlenebo.util.Messages;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Handles the /socialspy command: toggles seeing other players' private messages.
+ */
+public class SocialSpyCommand implements CommandExecutor {
+    /** Needed to turn social spy on, and to keep it on. */
+    public static final String PERMISSION = "littlenebo.socialspy";
+
+    private final LittleNebo plugin;
+
+    public SocialSpyCommand(LittleNebo plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        if (!(sender instanceof Player player)) {
+            sender.sendMessage(Messages.error("Only players can use social spy."));
+            return true;
+        }
+
+        ChatSessions sessions = plugin.getChatManager().getSessions();
+        ChatSession session = sessions.get(player);
+        boolean spy = !session.isSocialSpy();
+        sessions.setSocialSpy(session, spy);
+        sender.sendMessage(spy
+                ? Messages.success("Social spy on, you'll see other players' private messages.")
+                : Messages.success("Social spy off."));
+        return true;
+    }
+}
@@ -0,0 +1,23 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.config;
+
+import java.util.List;
+
+/**
+ * Handles scheduled broadcast settings. These are loaded from the {@code announcements} section of the plugin conf.
+ *
+ * @param enabled whether announcements are sent
+ * @param intervalSeconds time between announcements
+ * @param random pick announcements at random instead of in order
+ * @param batchSize players handled per tick when an announcement has placeholders
+ * @param messages the announcement templates (MiniMessage, PlaceholderAPI, fragments)
+ */
+public record AnnouncementConfig(boolean enabled, long intervalSeconds, boolean random, int batchSize,
+                                 List<String> messages) {
+    /** No announcements. */
+    public static final AnnouncementConfig DISABLED = new AnnouncementConfig(false, 300, false, 50, List.of());
+}
@@ -0,0 +1,29 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.config;
+
+/**
+ * Handles chat channel settings. These are loaded from the {@code channels} section of the plugin conf.
+ *
+ * @param name the channel's config key, also what players type in {@code /channel}
+ * @param scope who hears the channel: {@code global}, {@code world} or {@code local}
+ * @param permission permission needed to see and talk in the channel; empty for everyone
+ * @param format the channel's own chat format, or null to use the player's permission format
+ * @param isDefault true if players start in this channel
+ * @param radius how far {@code local} messages reach, in blocks
+ */
+public record ChannelConfig(String name, String scope, String permission, FormatConfig format, boolean isDefault,
+                            double radius) {
+
+    /**
+     * Checks if this channel is permission-gated.
+     *
+     * @return true if a permission is required
+     */
+    public boolean hasPermission() {
+        return permission != null && !permission.isEmpty();
+    }
+}
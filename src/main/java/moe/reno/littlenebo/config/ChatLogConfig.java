@@ -0,0 +1,24 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.config;
+
+/**
+ * Handles chat log settings. These are loaded from the {@code chat-log} section of the plugin conf.
+ *
+ * @param enabled whether chat is written to disk
+ * @param directory log directory, relative to the plugin folder
+ * @param queueSize how many messages can wait for the writer thread
+ * @param blockWhenFull true to make chat threads wait for space, false to drop messages
+ * @param rotateDaily true to start a new file each day
+ * @param maxBytes size at which the file is rotated, 0 for no limit
+ * @param gzip true to compress rotated files
+ * @param index true to write a search index next to each rotated file
+ */
+public record ChatLogConfig(boolean enabled, String directory, int queueSize, boolean blockWhenFull,
+                            boolean rotateDaily, long maxBytes, boolean gzip, boolean index) {
+    /** No chat log. */
+    public static final ChatLogConfig DISABLED = new ChatLogConfig(false, "logs", 8192, false, true, 0, true, true);
+}
@@ -6,6 +6,12 @@
 package moe.reno.littlenebo.config;
 
 import moe.reno.littlenebo.LittleNebo;
+import moe.reno.littlenebo.util.InputBudget;
+import net.kyori.adventure.key.InvalidKeyException;
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.sound.Sound;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextColor;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -17,7 +23,12 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -27,8 +38,47 @@ public class ConfigManager {
     private final LittleNebo plugin;
     private boolean debug = false; // Default to false
     private boolean legacyPlayerColors;
+    private InputBudget inputBudget = InputBudget.UNLIMITED;
+    private int proximityUpdateTicks = 10;
+    private long placeholderCacheMillis = 1000;
+    private boolean metricsEnabled = false;
+    private String metricsBindAddress = "127.0.0.1";
+    private int metricsPort = 9464;
+    private double debugSampleRate = 1.0;
+    private int debugBufferSize = 256;
+    private boolean debugLogToConsole = true;
+    private long slowMessageThresholdMs = 0;
+    private int slowMessageKeep = 50;
+    private boolean mentionsEnabled = false;
+    private boolean mentionBareNames = true;
+    private TextColor mentionColor = NamedTextColor.YELLOW;
+    private Sound mentionSound = null;
+    private FilterConfig filter = FilterConfig.DISABLED;
+    private ChatLogConfig chatLog = ChatLogConfig.DISABLED;
+    private RelayConfig relay = RelayConfig.DISABLED;
+    private WebhookConfig webhook = WebhookConfig.DISABLED;
+    private AnnouncementConfig announcements = AnnouncementConfig.DISABLED;
+    private MessagingConfig messaging = MessagingConfig.DEFAULTS;
+    private Map<String, String> emojiShortcodes = Map.of();
+    private Map<String, String> fragments = Map.of();
+    private LinkConfig links = LinkConfig.DISABLED;
+    private String consoleFormat = "{display_name}: {message}";
+    private boolean consolePlain = false;
+    private boolean rateLimitEnabled = false;
+    private int rateLimitBurst = 5;
+    private double rateLimitPerSecond = 1.0;
+    private String rateLimitBypassPermission = "littlenebo.ratelimit.bypass";
+    private String rateLimitMessage = "";
+    private int historySize = 1000;
+    private int historyMessageBytes = 256;
+    private boolean duplicatesEnabled = false;
+    private int duplicateHistory = 5;
+    private long duplicateWindowMillis = 30_000;
+    private double duplicateSimilarity = 0.75;
+    private String duplicateMessage = "";
     private final Map<String, FormatConfig> formats = new HashMap<>();
     private FormatConfig defaultFormat;
+    private final List<ChannelConfig> channels = new ArrayList<>();
 
     /**
      * @param plugin The plugin instance
@@ -71,8 +121,176 @@ public class ConfigManager {
         
         ConfigurationSection settings = config.getConfigurationSection("settings");
         legacyPlayerColors = settings != null && settings.getBoolean("parse-player-colors", true);
+        proximityUpdateTicks = settings != null ? Math.max(1, settings.getInt("proximity-update-ticks", 10)) : 10;
+        placeholderCacheMillis = settings != null ? Math.max(0, settings.getLong("placeholder-cache-ms", 1000)) : 1000;
+        ConfigurationSection budget = settings != null ? settings.getConfigurationSection("input-budget") : null;
+        inputBudget = budget == null ? InputBudget.UNLIMITED : new InputBudget(
+                budget.getInt("max-tags", 0),
+                budget.getInt("max-nesting", 0),
+                budget.getInt("max-components", 0));
+
+        ConfigurationSection metrics = config.getConfigurationSection("metrics");
+        metricsEnabled = metrics != null && metrics.getBoolean("enabled", false);
+        metricsBindAddress = metrics != null ? metrics.getString("bind-address", "127.0.0.1") : "127.0.0.1";
+        metricsPort = metrics != null ? metrics.getInt("port", 9464) : 9464;
+
+        ConfigurationSection tracing = config.getConfigurationSection("debug-tracing");
+        debugSampleRate = tracing != null ? tracing.getDouble("sample-rate", 1.0) : 1.0;
+        debugBufferSize = tracing != null ? tracing.getInt("buffer-size", 256) : 256;
+        debugLogToConsole = tracing == null || tracing.getBoolean("log-to-console", true);
+
+        ConfigurationSection slow = config.getConfigurationSection("slow-messages");
+        slowMessageThresholdMs = slow != null ? Math.max(0, slow.getLong("threshold-ms", 0)) : 0;
+        slowMessageKeep = slow != null ? slow.getInt("keep", 50) : 50;
+
+        ConfigurationSection mentions = config.getConfigurationSection("mentions");
+        mentionsEnabled = mentions != null && mentions.getBoolean("enabled", true);
+        mentionBareNames = mentions == null || mentions.getBoolean("bare-names", true);
+        mentionColor = parseColor(mentions != null ? mentions.getString("color", "yellow") : "yellow",
+                "mention", NamedTextColor.YELLOW);
+        mentionSound = parseSound(mentions != null ? mentions.getString("sound", "") : "");
+
+        ConfigurationSection emoji = config.getConfigurationSection("emoji");
+        ConfigurationSection shortcodes = emoji != null && emoji.getBoolean("enabled", true)
+                ? emoji.getConfigurationSection("shortcodes")
+                : null;
+        Map<String, String> loadedShortcodes = new LinkedHashMap<>();
+        if (shortcodes != null) {
+            for (String name : shortcodes.getKeys(false)) {
+                String replacement = shortcodes.getString(name);
+                if (replacement != null) {
+                    loadedShortcodes.put(name, replacement);
+                }
+            }
+        }
+        emojiShortcodes = Collections.unmodifiableMap(loadedShortcodes);
+
+        ConfigurationSection fragmentSection = config.getConfigurationSection("fragments");
+        Map<String, String> loadedFragments = new LinkedHashMap<>();
+        if (fragmentSection != null) {
+            for (String name : fragmentSection.getKeys(false)) {
+                String fragment = fragmentSection.getString(name);
+                if (fragment != null) {
+                    loadedFragments.put(name, fragment);
+                }
+            }
+        }
+        fragments = Collections.unmodifiableMap(loadedFragments);
+
+        ConfigurationSection console = config.getConfigurationSection("console");
+        consoleFormat = console != null ? console.getString("format", "{display_name}: {message}") : "{display_name}: {message}";
+        if (!consoleFormat.contains("{message}")) {
+            plugin.getLogger().warning("console.format has no {message}, using the default");
+            consoleFormat = "{display_name}: {message}";
+        }
+        consolePlain = console != null && console.getBoolean("plain", false);
+
+        ConfigurationSection linkSection = config.getConfigurationSection("links");
+        links = linkSection == null ? LinkConfig.DISABLED : new LinkConfig(
+                linkSection.getBoolean("enabled", true),
+                List.copyOf(linkSection.getStringList("allowed-domains")),
+                parseColor(linkSection.getString("color", "aqua"), "link", NamedTextColor.AQUA),
+                linkSection.getBoolean("underline", true));
+
+        ConfigurationSection rateLimit = config.getConfigurationSection("rate-limit");
+        rateLimitEnabled = rateLimit != null && rateLimit.getBoolean("enabled", false);
+        rateLimitBurst = rateLimit != null ? Math.max(1, rateLimit.getInt("burst", 5)) : 5;
+        rateLimitPerSecond = rateLimit != null ? rateLimit.getDouble("per-second", 1.0) : 1.0;
+        if (rateLimitPerSecond <= 0) {
+            plugin.getLogger().warning("rate-limit.per-second must be above 0, using 1.0");
+            rateLimitPerSecond = 1.0;
+        }
+        rateLimitBypassPermission = rateLimit != null
+                ? rateLimit.getString("bypass-permission", "littlenebo.ratelimit.bypass")
+                : "littlenebo.ratelimit.bypass";
+        rateLimitMessage = rateLimit != null ? rateLimit.getString("message", "") : "";
+
+        ConfigurationSection history = config.getConfigurationSection("chat-history");
+        historySize = history != null ? Math.max(0, history.getInt("size", 1000)) : 1000;
+        historyMessageBytes = history != null ? Math.max(16, history.getInt("max-message-bytes", 256)) : 256;
+
+        ConfigurationSection duplicates = config.getConfigurationSection("duplicates");
+        duplicatesEnabled = duplicates != null && duplicates.getBoolean("enabled", false);
+        duplicateHistory = duplicates != null ? Math.max(1, duplicates.getInt("history", 5)) : 5;
+        duplicateWindowMillis = duplicates != null ? Math.max(0, duplicates.getLong("window-seconds", 30)) * 1000L : 30_000L;
+        duplicateSimilarity = duplicates != null ? duplicates.getDouble("similarity", 0.75) : 0.75;
+        duplicateMessage = duplicates != null ? duplicates.getString("message", "") : "";
+
+        ConfigurationSection log = config.getConfigurationSection("chat-log");
+        if (log == null) {
+            chatLog = ChatLogConfig.DISABLED;
+        } else {
+            String overflow = log.getString("overflow", "drop");
+            if (!"drop".equalsIgnoreCase(overflow) && !"block".equalsIgnoreCase(overflow)) {
+                plugin.getLogger().warning("chat-log.overflow must be drop or block, using drop");
+            }
+            chatLog = new ChatLogConfig(
+                    log.getBoolean("enabled", false),
+                    log.getString("directory", "logs"),
+                    Math.max(16, log.getInt("queue-size", 8192)),
+                    "block".equalsIgnoreCase(overflow),
+                    log.getBoolean("rotate-daily", true),
+                    Math.max(0, log.getLong("max-size-mb", 0)) * 1024L * 1024L,
+                    log.getBoolean("gzip", true),
+                    log.getBoolean("index", true));
+        }
+
+        ConfigurationSection relaySection = config.getConfigurationSection("relay");
+        relay = relaySection == null ? RelayConfig.DISABLED : new RelayConfig(
+                relaySection.getBoolean("enabled", false),
+                relaySection.getString("server-id", "server"),
+                relaySection.getString("host", "127.0.0.1"),
+                relaySection.getInt("port", 25590),
+                relaySection.getBoolean("run-hub", false),
+                Math.max(0, relaySection.getLong("linger-ms", 5)),
+                Math.max(1, relaySection.getInt("max-batch", 256)),
+                Math.max(16, relaySection.getInt("queue-size", 4096)));
+
+        ConfigurationSection webhookSection = config.getConfigurationSection("webhook");
+        webhook = webhookSection == null ? WebhookConfig.DISABLED : new WebhookConfig(
+                webhookSection.getBoolean("enabled", false),
+                webhookSection.getString("url", ""),
+                webhookSection.getString("authorization", ""),
+                Math.max(1, webhookSection.getInt("batch-size", 100)),
+                Math.max(10, webhookSection.getLong("flush-interval-ms", 1000)),
+                Math.max(16, webhookSection.getInt("backlog", 10_000)),
+                Math.max(0, webhookSection.getInt("max-retries", 3)),
+                Math.max(100, webhookSection.getLong("timeout-ms", 5000)));
+
+        ConfigurationSection announcementSection = config.getConfigurationSection("announcements");
+        announcements = announcementSection == null ? AnnouncementConfig.DISABLED : new AnnouncementConfig(
+                announcementSection.getBoolean("enabled", false),
+                Math.max(1, announcementSection.getLong("interval-seconds", 300)),
+                announcementSection.getBoolean("random", false),
+                Math.max(1, announcementSection.getInt("batch-size", 50)),
+                List.copyOf(announcementSection.getStringList("messages")));
+
+        ConfigurationSection messagingSection = config.getConfigurationSection("messaging");
+        MessagingConfig defaults = MessagingConfig.DEFAULTS;
+        messaging = messagingSection == null ? defaults : new MessagingConfig(
+                messagingSection.getBoolean("enabled", false),
+                messagingFormat(messagingSection, "sender-format", defaults.senderFormat()),
+                messagingFormat(messagingSection, "receiver-format", defaults.receiverFormat()),
+                messagingFormat(messagingSection, "spy-format", defaults.spyFormat()));
+
+        ConfigurationSection filterSection = config.getConfigurationSection("filter");
+        if (filterSection == null) {
+            filter = FilterConfig.DISABLED;
+        } else {
+            String censorChar = filterSection.getString("censor-char", "*");
+            filter = new FilterConfig(
+                    filterSection.getBoolean("enabled", false),
+                    filterSection.getStringList("block"),
+                    filterSection.getStringList("censor"),
+                    filterSection.getStringList("flag"),
+                    filterSection.getBoolean("whole-words", true),
+                    censorChar == null || censorChar.isEmpty() ? '*' : censorChar.charAt(0),
+                    filterSection.getString("notify-permission", "littlenebo.filter.notify"),
+                    filterSection.getString("blocked-message", ""));
+        }
         
         loadChatFormats(config);
+        loadChannels(config);
         
         plugin.getLogger().info("Loaded " + formats.size() + " chat formats");
         } catch (Exception e) {
@@ -106,6 +324,36 @@ public class ConfigManager {
         setupDefaultFormat();
     }
 
+    /**
+     * Parses a named colour or {@code #rrggbb}, falling back to yellow.
+     */
+    private TextColor parseColor(String value, String setting, NamedTextColor fallback) {
+        TextColor color = value == null ? null : value.startsWith("#")
+                ? TextColor.fromHexString(value)
+                : NamedTextColor.NAMES.value(value.toLowerCase());
+        if (color == null) {
+            plugin.getLogger().warning("Unknown " + setting + " colour '" + value + "', using " + fallback);
+            return fallback;
+        }
+        return color;
+    }
+
+    /**
+     * Parses a sound key like {@code minecraft:entity.experience_orb.pickup}.
+     * @return the sound, or null if blank or invalid
+     */
+    private Sound parseSound(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Sound.sound(Key.key(value), Sound.Source.PLAYER, 1.0f, 1.0f);
+        } catch (InvalidKeyException e) {
+            plugin.getLogger().warning("Invalid mention sound '" + value + "': " + e.getMessage());
+            return null;
+        }
+    }
+
     /**
     * Loads chat formats from configuration
     */
@@ -125,7 +373,7 @@ public class ConfigManager {
                 ConfigurationSection formatSection = formatsSection.getConfigurationSection(key);
                 if (formatSection != null) {
                     String format = formatSection.getString("format", "");
-                    String legacyFormat = formatSection.getString("legacy-format", "");
+                    String legacyFormat = legacyFormat(formatSection, "formats." + key);
                     String permission = formatSection.getString("permission", "");
     
                     FormatConfig formatConfig = new FormatConfig(format, legacyFormat, permission);
@@ -148,6 +396,66 @@ public class ConfigManager {
         }
     }
 
+    /**
+     * Loads chat channels from configuration.
+     * No {@code channels} section means plain global chat.
+     */
+    private void loadChannels(FileConfiguration config) {
+        channels.clear();
+
+        ConfigurationSection channelsSection = config.getConfigurationSection("channels");
+        if (channelsSection == null) {
+            return;
+        }
+
+        for (String key : channelsSection.getKeys(false)) {
+            try {
+                ConfigurationSection channelSection = channelsSection.getConfigurationSection(key);
+                if (channelSection != null) {
+                    String format = channelSection.getString("format", "");
+                    // Looked up lower case everywhere (/channel, relays), so "Staff:" has to be joinable as staff
+                    channels.add(new ChannelConfig(
+                            key.toLowerCase(Locale.ROOT),
+                            channelSection.getString("scope", "global"),
+                            channelSection.getString("permission", ""),
+                            format.isEmpty() ? null : FormatConfig.createValidated(format,
+                                    legacyFormat(channelSection, "channels." + key), ""),
+                            channelSection.getBoolean("default", false),
+                            channelSection.getDouble("radius", 100.0)));
+                }
+            } catch (Exception e) {
+                plugin.getLogger().warning("Error loading channel '" + key + "': " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads one of the private message formats, falling back to the default without {@code {message}}.
+     */
+    private String messagingFormat(ConfigurationSection section, String key, String fallback) {
+        String format = section.getString(key, fallback);
+        if (!format.contains("{message}")) {
+            plugin.getLogger().warning("messaging." + key + " has no {message}, using the default");
+            return fallback;
+        }
+        return format;
+    }
+
+    /**
+     * Reads a {@code legacy-format} setting, warning about values that aren't a serialiser.
+     *
+     * @return the normalised value, empty for none
+     */
+    private String legacyFormat(ConfigurationSection section, String path) {
+        String value = section.getString("legacy-format", "");
+        String valid = FormatConfig.validLegacyFormat(value);
+        if (valid.isEmpty() && !value.isBlank()) {
+            plugin.getLogger().warning(path + ".legacy-format should be section or ampersand, not '"
+                    + value + "'. Legacy output is off for it.");
+        }
+        return valid;
+    }
+
     /**
      * Sets up a default format if none is found in the config.
      */
@@ -221,6 +529,310 @@ public class ConfigManager {
         return legacyPlayerColors;
     }
 
+    /**
+     * Gets the complexity limits applied to player MiniMessage.
+     * @return the input budget, never null
+     */
+    public InputBudget getInputBudget() {
+        return inputBudget;
+    }
+
+    /**
+     * Gets how often player positions are snapshotted for local channels.
+     * @return interval in ticks
+     */
+    public int getProximityUpdateTicks() {
+        return proximityUpdateTicks;
+    }
+
+    /**
+     * Gets how long a player's format, with PlaceholderAPI placeholders filled in, is reused.
+     * @return milliseconds, 0 to fill placeholders for every message
+     */
+    public long getPlaceholderCacheMillis() {
+        return placeholderCacheMillis;
+    }
+
+    /**
+     * Gets the fraction of debug traces that are kept.
+     * @return sample rate between 0.0 and 1.0
+     */
+    public double getDebugSampleRate() {
+        return debugSampleRate;
+    }
+
+    /**
+     * Gets how many debug traces are kept in memory for {@code /nebo debug dump}.
+     * @return ring buffer capacity
+     */
+    public int getDebugBufferSize() {
+        return debugBufferSize;
+    }
+
+    /**
+     * Checks if kept debug traces are also written to the console.
+     * @return true to log traces as well as buffering them
+     */
+    public boolean isDebugLogToConsole() {
+        return debugLogToConsole;
+    }
+
+    /**
+     * Gets the formatting time above which a message is captured as slow.
+     * @return threshold in milliseconds, 0 when capture is disabled
+     */
+    public long getSlowMessageThresholdMs() {
+        return slowMessageThresholdMs;
+    }
+
+    /**
+     * Gets how many slow messages are kept for {@code /nebo debug slow}.
+     * @return number of slow messages to keep
+     */
+    public int getSlowMessageKeep() {
+        return slowMessageKeep;
+    }
+
+    /**
+     * Checks if player mentions are highlighted.
+     * @return true if enabled in config
+     */
+    public boolean isMentionsEnabled() {
+        return mentionsEnabled;
+    }
+
+    /**
+     * Checks if names typed without an {@code @} count as mentions.
+     * @return true to match bare names
+     */
+    public boolean isMentionBareNames() {
+        return mentionBareNames;
+    }
+
+    /**
+     * Gets the colour a mentioned player sees their name in.
+     * @return the highlight colour, never null
+     */
+    public TextColor getMentionColor() {
+        return mentionColor;
+    }
+
+    /**
+     * Gets the sound played to a mentioned player.
+     * @return the sound, or null for none
+     */
+    public Sound getMentionSound() {
+        return mentionSound;
+    }
+
+    /**
+     * Gets the emoji shortcode table.
+     * @return shortcode name (without colons) to MiniMessage replacement, empty when emoji are off
+     */
+    public Map<String, String> getEmojiShortcodes() {
+        return emojiShortcodes;
+    }
+
+    /**
+     * Gets the format fragments.
+     * @return fragment name to MiniMessage, used in formats as {@code <fragment:name>}
+     */
+    public Map<String, String> getFragments() {
+        return fragments;
+    }
+
+    /**
+     * Gets the template chat is shown with in the console.
+     * @return MiniMessage template with {name}, {display_name}, {channel} and {message}
+     */
+    public String getConsoleFormat() {
+        return consoleFormat;
+    }
+
+    /**
+     * Checks if the console gets chat without colours.
+     * @return true for plain text
+     */
+    public boolean isConsolePlain() {
+        return consolePlain;
+    }
+
+    /**
+     * Gets the clickable link settings.
+     * @return the link settings, never null
+     */
+    public LinkConfig getLinks() {
+        return links;
+    }
+
+    /**
+     * Checks if chat is rate limited.
+     * @return true if enabled in config
+     */
+    public boolean isRateLimitEnabled() {
+        return rateLimitEnabled;
+    }
+
+    /**
+     * Gets how many messages a player can send back to back.
+     * @return the bucket size
+     */
+    public int getRateLimitBurst() {
+        return rateLimitBurst;
+    }
+
+    /**
+     * Gets how fast the rate limit bucket refills.
+     * @return messages per second
+     */
+    public double getRateLimitPerSecond() {
+        return rateLimitPerSecond;
+    }
+
+    /**
+     * Gets the permission that skips the rate limit.
+     * @return the bypass permission
+     */
+    public String getRateLimitBypassPermission() {
+        return rateLimitBypassPermission;
+    }
+
+    /**
+     * Gets the MiniMessage shown to rate limited players.
+     * @return the message, empty for the default
+     */
+    public String getRateLimitMessage() {
+        return rateLimitMessage;
+    }
+
+    /**
+     * Gets how many recent messages are kept for {@code /nebo history}.
+     * @return number of messages, 0 when history is off
+     */
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    /**
+     * Gets how many UTF-8 bytes of each message are kept in history.
+     * @return bytes per message
+     */
+    public int getHistoryMessageBytes() {
+        return historyMessageBytes;
+    }
+
+    /**
+     * Checks if repeated messages are suppressed.
+     * @return true if enabled in config
+     */
+    public boolean isDuplicatesEnabled() {
+        return duplicatesEnabled;
+    }
+
+    /**
+     * Gets how many recent messages are remembered per player for duplicate checks.
+     * @return number of messages
+     */
+    public int getDuplicateHistory() {
+        return duplicateHistory;
+    }
+
+    /**
+     * Gets how long a message counts as recent for duplicate checks.
+     * @return window in milliseconds
+     */
+    public long getDuplicateWindowMillis() {
+        return duplicateWindowMillis;
+    }
+
+    /**
+     * Gets how similar two messages must be to count as a repeat.
+     * @return similarity between 0.0 and 1.0
+     */
+    public double getDuplicateSimilarity() {
+        return duplicateSimilarity;
+    }
+
+    /**
+     * Gets the MiniMessage shown when a repeated message is dropped.
+     * @return the message, empty for the default
+     */
+    public String getDuplicateMessage() {
+        return duplicateMessage;
+    }
+
+    /**
+     * Gets the word filter settings. The lists are compiled by the ChatManager, not here.
+     * @return the filter settings, never null
+     */
+    public FilterConfig getFilter() {
+        return filter;
+    }
+
+    /**
+     * Gets the chat log settings.
+     * @return the chat log settings, never null
+     */
+    public ChatLogConfig getChatLog() {
+        return chatLog;
+    }
+
+    /**
+     * Gets the cross-server relay settings.
+     * @return the relay settings, never null
+     */
+    public RelayConfig getRelay() {
+        return relay;
+    }
+
+    /**
+     * Gets the chat webhook settings.
+     * @return the webhook settings, never null
+     */
+    public WebhookConfig getWebhook() {
+        return webhook;
+    }
+
+    /**
+     * Gets the scheduled announcement settings.
+     * @return the announcement settings, never null
+     */
+    public AnnouncementConfig getAnnouncements() {
+        return announcements;
+    }
+
+    /**
+     * Gets the private message settings.
+     * @return the messaging settings, never null
+     */
+    public MessagingConfig getMessaging() {
+        return messaging;
+    }
+
+    /**
+     * Checks if the Prometheus metrics exporter should be running.
+     * @return true if enabled in config
+     */
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * Gets the address the metrics exporter binds to.
+     * @return bind address, defaults to loopback
+     */
+    public String getMetricsBindAddress() {
+        return metricsBindAddress;
+    }
+
+    /**
+     * Gets the port the metrics exporter listens on.
+     * @return the port
+     */
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
     /**
      * Gets format for a specific player.
      * @param player the player
@@ -230,10 +842,41 @@ public class ConfigManager {
         for (Map.Entry<String, FormatConfig> entry : formats.entrySet()) {
             FormatConfig format = entry.getValue();
 
-            if (format.hasPermission() && player.hasPermission(format.groupPermission())) {
+            if (format.hasPermission() && player != null && player.hasPermission(format.groupPermission())) {
                 return format;
             }
         }
         return defaultFormat;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets every loaded format by config key.
+     * @return an unmodifiable view of the formats
+     */
+    public Map<String, FormatConfig> getFormats() {
+        return Collections.unmodifiableMap(formats);
+    }
+
+    /**
+     * Gets the configured chat channels, in config order.
+     * @return an unmodifiable view of the channels; empty if channels aren't used
+     */
+    public List<ChannelConfig> getChannels() {
+        return Collections.unmodifiableList(channels);
+    }
+
+    /**
+     * Finds the config key a format was loaded from.
+     * This is a linear scan, so keep it off the hot path.
+     * @param format the format to look up
+     * @return the key, or "unknown" if it isn't a loaded format
+     */
+    public String getFormatKey(FormatConfig format) {
+        for (Map.Entry<String, FormatConfig> entry : formats.entrySet()) {
+            if (entry.getValue() == format) {
+                return entry.getKey();
+            }
+        }
+        return "unknown";
+    }
+}
@@ -0,0 +1,27 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.config;
+
+import java.util.List;
+
+/**
+ * Handles word filter settings. These are loaded from the {@code filter} section of the plugin conf.
+ *
+ * @param enabled whether messages are filtered at all
+ * @param block words that stop a message from being sent
+ * @param censor words that are masked out with {@code censorChar}
+ * @param flag words that let the message through but notify staff
+ * @param wholeWords true to only match whole words, so "ass" doesn't fire on "class"
+ * @param censorChar the character censored words are replaced with
+ * @param notifyPermission who is told about blocked and flagged messages
+ * @param blockedMessage MiniMessage shown to a player whose message was blocked
+ */
+public record FilterConfig(boolean enabled, List<String> block, List<String> censor, List<String> flag,
+                           boolean wholeWords, char censorChar, String notifyPermission, String blockedMessage) {
+    /** No filtering. */
+    public static final FilterConfig DISABLED = new FilterConfig(false, List.of(), List.of(), List.of(),
+            true, '*', "littlenebo.filter.notify", "");
+}
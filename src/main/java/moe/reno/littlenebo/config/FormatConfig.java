@@ -5,10 +5,23 @@
  */
 package moe.reno.littlenebo.config;
 
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+
+import java.util.Locale;
+
 /**
  * Handles format settings. These are loaded from the plugin conf.
+ * <p>
+ *     {@code legacyFormat} asks for a legacy string of every message sent with this format,
+ *     for bridges and proxies that can't take components: {@code "section"} for
+ *     {@code §} codes, {@code "ampersand"} for {@code &} codes, or empty for none.
+ * </p>
  */
 public record FormatConfig (String format, String legacyFormat, String groupPermission) {
+    /** Legacy output with {@code §} codes. */
+    public static final String LEGACY_SECTION = "section";
+    /** Legacy output with {@code &} codes. */
+    public static final String LEGACY_AMPERSAND = "ampersand";
 
     /**
      * Creates a validated FormatConfig with fallback to default if invalid.
@@ -22,8 +35,25 @@ public record FormatConfig (String format, String legacyFormat, String groupPerm
         if (format == null || !format.contains("{message}")) {
             return new FormatConfig("{display_name}: {message}", "", "");
         }
-        legacyFormat = ""; // remove as it is deprecated
-        return new FormatConfig(format, legacyFormat, groupPermission);
+        return new FormatConfig(format, validLegacyFormat(legacyFormat), groupPermission);
+    }
+
+    /**
+     * Normalises a legacy-format setting. Anything unknown (like an old-style legacy
+     * template from before this was a serialiser choice) turns legacy output off.
+     *
+     * @param value the configured value; may be null
+     * @return {@link #LEGACY_SECTION}, {@link #LEGACY_AMPERSAND} or {@code ""}
+     */
+    public static String validLegacyFormat(String value) {
+        if (value == null) {
+            return "";
+        }
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case LEGACY_SECTION, "§" -> LEGACY_SECTION;
+            case LEGACY_AMPERSAND, "&" -> LEGACY_AMPERSAND;
+            default -> "";
+        };
     }
 
     /**
@@ -34,4 +64,19 @@ public record FormatConfig (String format, String legacyFormat, String groupPerm
     public boolean hasPermission() {
         return groupPermission != null && !groupPermission.isEmpty();
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the serialiser for this format's legacy output.
+     *
+     * @return the serialiser, or null if this format doesn't produce legacy output
+     */
+    public LegacyComponentSerializer legacySerializer() {
+        if (LEGACY_SECTION.equals(legacyFormat)) {
+            return LegacyComponentSerializer.legacySection();
+        }
+        if (LEGACY_AMPERSAND.equals(legacyFormat)) {
+            return LegacyComponentSerializer.legacyAmpersand();
+        }
+        return null;
+    }
+}
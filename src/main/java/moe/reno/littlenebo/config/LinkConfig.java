@@ -0,0 +1,24 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.config;
+
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextColor;
+
+import java.util.List;
+
+/**
+ * Clickable link settings, loaded from the {@code links} section of the plugin conf.
+ *
+ * @param enabled whether links in player messages are made clickable
+ * @param allowedDomains domains (and their subdomains) links may point to; empty allows any
+ * @param color colour of clickable links
+ * @param underline whether clickable links are underlined
+ */
+public record LinkConfig(boolean enabled, List<String> allowedDomains, TextColor color, boolean underline) {
+    /** Links stay plain text. */
+    public static final LinkConfig DISABLED = new LinkConfig(false, List.of(), NamedTextColor.AQUA, true);
+}
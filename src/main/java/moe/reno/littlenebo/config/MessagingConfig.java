@@ -0,0 +1,22 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.config;
+
+/**
+ * Handles private message settings. These are loaded from the {@code messaging} section of the plugin conf.
+ *
+ * @param enabled whether /msg and /reply are registered; off by default, since they take over other plugins' /msg
+ * @param senderFormat what the sender sees
+ * @param receiverFormat what the receiver sees
+ * @param spyFormat what social spies see
+ */
+public record MessagingConfig(boolean enabled, String senderFormat, String receiverFormat, String spyFormat) {
+    /** The formats used when the config doesn't set them. */
+    public static final MessagingConfig DEFAULTS = new MessagingConfig(false,
+            "<gray>[me → {receiver}]</gray> <white>{message}</white>",
+            "<gray>[{sender} → me]</gray> <white>{message}</white>",
+            "<dark_gray>[Spy] {sender} → {receiver}:</dark_gray> <gray>{message}</gray>");
+}
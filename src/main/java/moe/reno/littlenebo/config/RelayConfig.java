@@ -0,0 +1,24 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.config;
+
+/**
+ * Handles cross-server relay settings. These are loaded from the {@code relay} section of the plugin conf.
+ *
+ * @param enabled whether chat is shared with other servers
+ * @param serverId this server's name on the relay, must be unique per backend
+ * @param host address of the relay hub
+ * @param port port of the relay hub
+ * @param runHub true if this server hosts the hub itself
+ * @param lingerMillis how long to wait for more messages before sending a batch
+ * @param maxBatch most messages sent in one batch
+ * @param queueSize how many messages can wait to be sent before new ones are dropped
+ */
+public record RelayConfig(boolean enabled, String serverId, String host, int port, boolean runHub,
+                          long lingerMillis, int maxBatch, int queueSize) {
+    /** No relay. */
+    public static final RelayConfig DISABLED = new RelayConfig(false, "server", "127.0.0.1", 25590, false, 5, 256, 4096);
+}
@@ -0,0 +1,24 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.config;
+
+/**
+ * Handles chat export settings. These are loaded from the {@code webhook} section of the plugin conf.
+ *
+ * @param enabled whether chat is posted to the webhook
+ * @param url where batches are POSTed
+ * @param authorization value for the Authorization header, empty for none
+ * @param batchSize most messages per POST; a full batch is sent straight away
+ * @param flushIntervalMillis how long a partial batch may wait before it is sent
+ * @param backlog how many messages may wait to be sent before new ones are dropped
+ * @param maxRetries how many times a failed POST is retried
+ * @param timeoutMillis request timeout
+ */
+public record WebhookConfig(boolean enabled, String url, String authorization, int batchSize,
+                            long flushIntervalMillis, int backlog, int maxRetries, long timeoutMillis) {
+    /** No export. */
+    public static final WebhookConfig DISABLED = new WebhookConfig(false, "", "", 100, 1000, 10_000, 3, 5000);
+}
@@ -0,0 +1,237 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.export;
+
+import moe.reno.littlenebo.chat.ChatRecord;
+import moe.reno.littlenebo.chat.ChatSink;
+import moe.reno.littlenebo.config.WebhookConfig;
+import moe.reno.littlenebo.metrics.ChatMetrics;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Mirrors chat to an external service as batched JSON POSTs.
+ * <p>
+ *     Chat threads only enqueue, never touching the network. One executor thread
+ *     coalesces messages into a JSON array and POSTs it once a batch fills up or the
+ *     flush interval passes, whichever is first. Each message's JSON comes from
+ *     {@link ChatRecord#json()}, so it is serialised once however many sinks use it.
+ * </p>
+ * <p>
+ *     A failed POST (network error, 429 or 5xx) is retried with exponential backoff.
+ *     Other 4xx responses mean the request itself is wrong, so those batches are
+ *     given up on straight away. While the executor is retrying, new messages
+ *     wait in the backlog. Once the backlog is full they are dropped and counted,
+ *     so a dead endpoint can't eat memory.
+ * </p>
+ */
+public class WebhookExporter implements ChatSink {
+    private static final long BASE_BACKOFF_MILLIS = 250;
+
+    private final WebhookConfig config;
+    private final ChatMetrics metrics;
+    private final Logger logger;
+    private final HttpClient client;
+    private final URI uri;
+    private final ConcurrentLinkedQueue<ChatRecord> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService executor;
+    private final StringBuilder body = new StringBuilder(8192);
+    private volatile boolean running = true;
+    private boolean warned;
+
+    /**
+     * Creates the exporter and starts its flush timer.
+     *
+     * @param config webhook settings
+     * @param metrics where sent, dropped and failed messages are counted
+     * @param logger for delivery problems; may be null
+     * @throws IllegalArgumentException if the URL isn't an http or https URL with a host
+     */
+    public WebhookExporter(WebhookConfig config, ChatMetrics metrics, Logger logger) {
+        this.config = config;
+        this.metrics = metrics;
+        this.logger = logger;
+        this.uri = URI.create(config.url());
+        // Checked here, since HttpRequest would only refuse it on the executor, where nobody sees it
+        String scheme = uri.getScheme();
+        if (scheme == null || !(scheme.equalsIgnoreCase("http") || scheme.equalsIgnoreCase("https"))
+                || uri.getHost() == null) {
+            throw new IllegalArgumentException("Webhook URL must be an http or https URL: " + config.url());
+        }
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "LittleNebo-Webhook");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(config.timeoutMillis()))
+                .build();
+        long interval = Math.max(10, config.flushIntervalMillis());
+        executor.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a message for export. Never blocks.
+     *
+     * @param record the message
+     */
+    @Override
+    public void accept(ChatRecord record) {
+        int batchSize = Math.max(1, config.batchSize());
+        while (true) {
+            int current = depth.get();
+            if (current >= config.backlog() || !running) {
+                metrics.recordWebhookDropped(1);
+                return;
+            }
+            if (depth.compareAndSet(current, current + 1)) {
+                queue.offer(record);
+                if (current + 1 >= batchSize && flushScheduled.compareAndSet(false, true)) {
+                    // A full batch doesn't wait for the timer
+                    try {
+                        executor.execute(this::flush);
+                    } catch (RejectedExecutionException e) {
+                        flushScheduled.set(false);
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sends what is queued (one attempt per batch, no retries), then stops.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            executor.execute(this::flush);
+        } catch (RejectedExecutionException ignored) {
+            // Already closed
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(config.timeoutMillis() + 1000, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        // Whatever the executor didn't get to is gone
+        int left = depth.getAndSet(0);
+        queue.clear();
+        if (left > 0) {
+            metrics.recordWebhookDropped(left);
+        }
+    }
+
+    /** @return messages waiting to be sent */
+    public int backlog() {
+        return depth.get();
+    }
+
+    /**
+     * Sends everything waiting, in batches. Runs on the executor.
+     */
+    private void flush() {
+        flushScheduled.set(false);
+        int batchSize = Math.max(1, config.batchSize());
+        do {
+            body.setLength(0);
+            body.append('[');
+            int count = 0;
+            ChatRecord record;
+            while (count < batchSize && (record = queue.poll()) != null) {
+                depth.decrementAndGet();
+                if (count > 0) {
+                    body.append(',');
+                }
+                body.append(record.json());
+                count++;
+            }
+            if (count == 0) {
+                return;
+            }
+            body.append(']');
+            try {
+                post(body.toString(), count);
+            } catch (RuntimeException e) {
+                // Thrown out of here, it would cancel the flush timer and every later message would be dropped
+                metrics.recordWebhookFailed(count);
+                if (logger != null) {
+                    logger.log(Level.WARNING, "Chat webhook batch failed, " + count + " messages lost", e);
+                }
+            }
+        } while (depth.get() > 0);
+    }
+
+    private void post(String json, int count) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(config.timeoutMillis()))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (!config.authorization().isEmpty()) {
+            builder.header("Authorization", config.authorization());
+        }
+        HttpRequest request = builder.build();
+        int attempts = running ? 1 + Math.max(0, config.maxRetries()) : 1;
+        String failure = null;
+        for (int attempt = 0; attempt < attempts; attempt++) {
+            if (attempt > 0) {
+                metrics.recordWebhookRetry();
+                try {
+                    Thread.sleep(BASE_BACKOFF_MILLIS << Math.min(attempt - 1, 6));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            long start = System.nanoTime();
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                metrics.recordWebhookLatency(System.nanoTime() - start);
+                if (status >= 200 && status < 300) {
+                    metrics.recordWebhookSent(count);
+                    warned = false;
+                    return;
+                }
+                failure = "HTTP " + status;
+                if (status != 429 && status < 500) {
+                    break;
+                }
+            } catch (IOException e) {
+                failure = e.getMessage();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        metrics.recordWebhookFailed(count);
+        if (!warned && logger != null) {
+            // Once per outage is plenty, the counters show the rest
+            logger.warning("Chat webhook failed (" + failure + "), " + count + " messages lost");
+            warned = true;
+        }
+    }
+}
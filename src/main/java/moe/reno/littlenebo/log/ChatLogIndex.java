@@ -0,0 +1,575 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Inverted index for one chat log segment, stored next to it as {@code .idx}.
+ * <p>
+ *     Maps token hashes and player UUIDs to the line numbers they appear on, and every
+ *     line number to its byte offset and time. The file is a flat big-endian layout that
+ *     is read through a memory map, with tables sorted so lookups are binary searches
+ *     and nothing has to be loaded up front:
+ * </p>
+ * <pre>
+ *     header   magic, version, first time, last time, line/token/player counts
+ *     lines    [offset long, time long] per line
+ *     tokens   [hash int, start int, count int] sorted by hash
+ *     players  [msb long, lsb long, start int, count int] sorted by UUID
+ *     postings ascending line numbers, as ints
+ * </pre>
+ * <p>
+ *     Tokens are hashed, not stored, so a lookup can return the odd false positive.
+ *     Search re-checks every candidate line against the text anyway.
+ * </p>
+ */
+public final class ChatLogIndex implements LineIndex {
+    private static final int MAGIC = 0x4E494458; // "NIDX"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 36;
+    private static final int LINE_BYTES = 16;
+    private static final int TOKEN_BYTES = 12;
+    private static final int PLAYER_BYTES = 24;
+    private static final int[] NO_LINES = new int[0];
+
+    private final ByteBuffer data;
+    private final long firstTime;
+    private final long lastTime;
+    private final int lines;
+    private final int tokens;
+    private final int players;
+    private final int tokenTable;
+    private final int playerTable;
+    private final int postings;
+
+    ChatLogIndex(ByteBuffer data) throws IOException {
+        this.data = data;
+        if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IOException("Not a chat log index");
+        }
+        firstTime = data.getLong(8);
+        lastTime = data.getLong(16);
+        lines = data.getInt(24);
+        tokens = data.getInt(28);
+        players = data.getInt(32);
+        tokenTable = HEADER_BYTES + lines * LINE_BYTES;
+        playerTable = tokenTable + tokens * TOKEN_BYTES;
+        postings = playerTable + players * PLAYER_BYTES;
+        if (postings > data.capacity()) {
+            throw new IOException("Truncated chat log index");
+        }
+    }
+
+    /**
+     * Memory maps an index file.
+     *
+     * @param file the {@code .idx} file
+     * @return the index
+     * @throws IOException if it can't be read or isn't an index
+     */
+    public static ChatLogIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new ChatLogIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /** @return number of indexed lines */
+    @Override
+    public int lineCount() {
+        return lines;
+    }
+
+    /** @return time of the first line, 0 if empty */
+    public long firstTime() {
+        return firstTime;
+    }
+
+    /** @return time of the last line, 0 if empty */
+    @Override
+    public long lastTime() {
+        return lastTime;
+    }
+
+    /**
+     * @param line line number
+     * @return byte offset of the line in the log
+     */
+    @Override
+    public long offset(int line) {
+        return data.getLong(HEADER_BYTES + line * LINE_BYTES);
+    }
+
+    /**
+     * @param line line number
+     * @return when the line's message was sent
+     */
+    @Override
+    public long time(int line) {
+        return data.getLong(HEADER_BYTES + line * LINE_BYTES + 8);
+    }
+
+    /**
+     * Finds the lines that may contain a token.
+     *
+     * @param hash the token's {@link #hash}
+     * @return ascending line numbers, empty if none
+     */
+    @Override
+    public int[] tokenLines(int hash) {
+        int low = 0;
+        int high = tokens - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int at = tokenTable + mid * TOKEN_BYTES;
+            int found = data.getInt(at);
+            if (found < hash) {
+                low = mid + 1;
+            } else if (found > hash) {
+                high = mid - 1;
+            } else {
+                return postings(data.getInt(at + 4), data.getInt(at + 8));
+            }
+        }
+        return NO_LINES;
+    }
+
+    /**
+     * Finds the lines sent by a player.
+     *
+     * @param player the player's UUID
+     * @return ascending line numbers, empty if none
+     */
+    @Override
+    public int[] playerLines(UUID player) {
+        long msb = player.getMostSignificantBits();
+        long lsb = player.getLeastSignificantBits();
+        int low = 0;
+        int high = players - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int at = playerTable + mid * PLAYER_BYTES;
+            int cmp = Long.compare(data.getLong(at), msb);
+            if (cmp == 0) {
+                cmp = Long.compare(data.getLong(at + 8), lsb);
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return postings(data.getInt(at + 16), data.getInt(at + 20));
+            }
+        }
+        return NO_LINES;
+    }
+
+    private int[] postings(int start, int count) {
+        int[] result = new int[count];
+        int at = postings + start * 4;
+        for (int i = 0; i < count; i++) {
+            result[i] = data.getInt(at + i * 4);
+        }
+        return result;
+    }
+
+    /**
+     * Receives tokens from {@link #tokenize}.
+     */
+    @FunctionalInterface
+    interface TokenSink {
+        /**
+         * @param hash the token's hash
+         * @param start start of the token in the text
+         * @param end end of the token in the text, exclusive
+         */
+        void token(int hash, int start, int end);
+    }
+
+    /**
+     * Splits text into lower-cased runs of letters and digits, hashing each one
+     * without creating substrings.
+     *
+     * @param text the text
+     * @param sink receives each token
+     */
+    static void tokenize(CharSequence text, TokenSink sink) {
+        int start = -1;
+        int hash = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (start < 0) {
+                    start = i;
+                    hash = 0x811c9dc5;
+                }
+                hash = (hash ^ Character.toLowerCase(c)) * 0x01000193;
+            } else if (start >= 0) {
+                sink.token(hash, start, i);
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * Hashes a single token the same way {@link #tokenize} does.
+     *
+     * @param token the token
+     * @return its hash
+     */
+    static int hash(CharSequence token) {
+        int hash = 0x811c9dc5;
+        for (int i = 0; i < token.length(); i++) {
+            hash = (hash ^ Character.toLowerCase(token.charAt(i))) * 0x01000193;
+        }
+        return hash;
+    }
+
+    /**
+     * Collects lines for an index as they're written, then lays them out in one go.
+     * <p>
+     *     Postings are packed as {@code hash << 32 | line} into a single long array, so
+     *     sorting it once groups each token's lines in order with no per-token objects.
+     *     Only the owning thread may touch a builder, anyone else goes through a
+     *     {@link #snapshot()}.
+     * </p>
+     */
+    public static final class Builder {
+        private long[] offsets = new long[1024];
+        private long[] times = new long[1024];
+        private int[] playerOf = new int[1024];
+        private long[] pairs = new long[8192];
+        private int pairCount;
+        private int lines;
+        private final Map<UUID, Integer> playerIds = new HashMap<>();
+        private UUID[] playerList = new UUID[64];
+        private int playerCount;
+
+        /**
+         * Adds a line.
+         *
+         * @param offset byte offset of the line in the log
+         * @param time when the message was sent
+         * @param player the sender
+         * @param message the message text
+         */
+        public void add(long offset, long time, UUID player, CharSequence message) {
+            if (lines == offsets.length) {
+                int grown = lines * 2;
+                offsets = Arrays.copyOf(offsets, grown);
+                times = Arrays.copyOf(times, grown);
+                playerOf = Arrays.copyOf(playerOf, grown);
+            }
+            int line = lines++;
+            offsets[line] = offset;
+            times[line] = time;
+            Integer id = playerIds.get(player);
+            if (id == null) {
+                if (playerCount == playerList.length) {
+                    playerList = Arrays.copyOf(playerList, playerCount * 2);
+                }
+                id = playerCount;
+                playerIds.put(player, id);
+                playerList[playerCount++] = player;
+            }
+            playerOf[line] = id;
+            tokenize(message, (hash, start, end) -> {
+                if (pairCount == pairs.length) {
+                    pairs = Arrays.copyOf(pairs, pairCount * 2);
+                }
+                pairs[pairCount++] = ((long) hash << 32) | line;
+            });
+        }
+
+        /** @return lines added so far */
+        public int lines() {
+            return lines;
+        }
+
+        /**
+         * Lays the index out in the on-disk format.
+         *
+         * @return a heap buffer holding the whole index
+         */
+        ByteBuffer toBuffer() {
+            long[] sorted = Arrays.copyOf(pairs, pairCount);
+            Arrays.sort(sorted);
+            // Drop repeats of a token within the same line and count distinct tokens
+            int unique = 0;
+            int tokenCount = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i > 0 && sorted[i] == sorted[i - 1]) {
+                    continue;
+                }
+                if (unique == 0 || (int) (sorted[i] >>> 32) != (int) (sorted[unique - 1] >>> 32)) {
+                    tokenCount++;
+                }
+                sorted[unique++] = sorted[i];
+            }
+
+            int size = HEADER_BYTES + lines * LINE_BYTES + tokenCount * TOKEN_BYTES
+                    + playerCount * PLAYER_BYTES + (unique + lines) * 4;
+            ByteBuffer out = ByteBuffer.allocate(size);
+            out.putInt(MAGIC).putInt(VERSION)
+                    .putLong(lines > 0 ? times[0] : 0)
+                    .putLong(lines > 0 ? times[lines - 1] : 0)
+                    .putInt(lines).putInt(tokenCount).putInt(playerCount);
+            for (int i = 0; i < lines; i++) {
+                out.putLong(offsets[i]).putLong(times[i]);
+            }
+
+            int tokenTable = out.position();
+            int playerTable = tokenTable + tokenCount * TOKEN_BYTES;
+            int postingsStart = playerTable + playerCount * PLAYER_BYTES;
+
+            // Token table and postings
+            int entry = tokenTable;
+            int i = 0;
+            while (i < unique) {
+                int hash = (int) (sorted[i] >>> 32);
+                int start = i;
+                while (i < unique && (int) (sorted[i] >>> 32) == hash) {
+                    out.putInt(postingsStart + i * 4, (int) sorted[i]);
+                    i++;
+                }
+                out.putInt(entry, hash).putInt(entry + 4, start).putInt(entry + 8, i - start);
+                entry += TOKEN_BYTES;
+            }
+
+            // Player postings follow the token postings, grouped by player in line order
+            int[] counts = new int[playerCount + 1];
+            for (int line = 0; line < lines; line++) {
+                counts[playerOf[line] + 1]++;
+            }
+            for (int p = 0; p < playerCount; p++) {
+                counts[p + 1] += counts[p];
+            }
+            int[] starts = Arrays.copyOf(counts, playerCount);
+            int[] fill = Arrays.copyOf(counts, playerCount);
+            for (int line = 0; line < lines; line++) {
+                out.putInt(postingsStart + (unique + fill[playerOf[line]]++) * 4, line);
+            }
+            Integer[] order = new Integer[playerCount];
+            for (int p = 0; p < playerCount; p++) {
+                order[p] = p;
+            }
+            Arrays.sort(order, (a, b) -> {
+                UUID left = playerList[a];
+                UUID right = playerList[b];
+                int cmp = Long.compare(left.getMostSignificantBits(), right.getMostSignificantBits());
+                return cmp != 0 ? cmp : Long.compare(left.getLeastSignificantBits(), right.getLeastSignificantBits());
+            });
+            entry = playerTable;
+            for (int p : order) {
+                UUID player = playerList[p];
+                out.putLong(entry, player.getMostSignificantBits())
+                        .putLong(entry + 8, player.getLeastSignificantBits())
+                        .putInt(entry + 16, unique + starts[p])
+                        .putInt(entry + 20, counts[p + 1] - counts[p]);
+                entry += PLAYER_BYTES;
+            }
+            out.clear();
+            return out;
+        }
+
+        /**
+         * Freezes what has been added so far into a view that other threads can read
+         * while this builder keeps going. Costs one small object: arrays are only ever
+         * appended to, and replaced rather than resized, so the view just keeps the
+         * current ones and the counts.
+         * <p>
+         *     Hand the snapshot over through a volatile or other safe publication.
+         * </p>
+         *
+         * @return a read-only view of the lines added so far
+         */
+        public Snapshot snapshot() {
+            return new Snapshot(this, offsets, times, playerOf, pairs, pairCount, lines, playerList, playerCount);
+        }
+
+        /**
+         * @return a readable index over what has been added so far
+         */
+        ChatLogIndex build() {
+            try {
+                return new ChatLogIndex(toBuffer());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Writes the index to disk. Goes through a temp file so readers never
+         * see half an index, and two writers of the same index can't collide.
+         *
+         * @param file where to write it
+         * @throws IOException if writing fails
+         */
+        public void writeTo(Path file) throws IOException {
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            ByteBuffer buffer = toBuffer();
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        /**
+         * Indexes an existing log, e.g. one written before indexing was turned on.
+         * A trailing line without its newline is still being written and is skipped.
+         *
+         * @param log the log contents
+         * @param zone time zone the log was written in
+         * @return a builder holding every complete line
+         */
+        public static Builder scan(ByteBuffer log, ZoneId zone) {
+            Builder builder = new Builder();
+            byte[] bytes = new byte[512];
+            int start = 0;
+            int limit = log.limit();
+            for (int i = 0; i < limit; i++) {
+                if (log.get(i) != '\n') {
+                    continue;
+                }
+                int length = i - start;
+                if (length > bytes.length) {
+                    bytes = new byte[Math.max(length, bytes.length * 2)];
+                }
+                log.get(start, bytes, 0, length);
+                LogLine line = LogLine.parse(new String(bytes, 0, length, StandardCharsets.UTF_8), zone);
+                if (line != null) {
+                    builder.add(start, line.timeMillis(), line.playerId(), line.message());
+                }
+                start = i + 1;
+            }
+            return builder;
+        }
+    }
+
+    /**
+     * A frozen view of a {@link Builder}, for searching the segment that is still being
+     * written without re-reading it from disk.
+     * <p>
+     *     Nothing is sorted, so lookups scan the postings rather than binary searching.
+     *     That's a pass over one long array per term, far cheaper than laying out a
+     *     whole index on every search.
+     * </p>
+     */
+    public static final class Snapshot implements LineIndex {
+        private final Builder source;
+        private final long[] offsets;
+        private final long[] times;
+        private final int[] playerOf;
+        private final long[] pairs;
+        private final int pairCount;
+        private final int lines;
+        private final UUID[] players;
+        private final int playerCount;
+
+        private Snapshot(Builder source, long[] offsets, long[] times, int[] playerOf, long[] pairs, int pairCount,
+                         int lines, UUID[] players, int playerCount) {
+            this.source = source;
+            this.offsets = offsets;
+            this.times = times;
+            this.playerOf = playerOf;
+            this.pairs = pairs;
+            this.pairCount = pairCount;
+            this.lines = lines;
+            this.players = players;
+            this.playerCount = playerCount;
+        }
+
+        /**
+         * @param other another snapshot, may be null
+         * @return true if both were taken from the same builder, i.e. the same log file
+         */
+        boolean sameSegment(Snapshot other) {
+            return other != null && other.source == source;
+        }
+
+        @Override
+        public int lineCount() {
+            return lines;
+        }
+
+        @Override
+        public long lastTime() {
+            return lines > 0 ? times[lines - 1] : 0;
+        }
+
+        @Override
+        public long offset(int line) {
+            return offsets[line];
+        }
+
+        @Override
+        public long time(int line) {
+            return times[line];
+        }
+
+        @Override
+        public int[] tokenLines(int hash) {
+            int[] result = new int[16];
+            int n = 0;
+            for (int i = 0; i < pairCount; i++) {
+                long pair = pairs[i];
+                if ((int) (pair >>> 32) != hash) {
+                    continue;
+                }
+                // Added in line order, so repeats within a line are next to each other
+                int line = (int) pair;
+                if (n > 0 && result[n - 1] == line) {
+                    continue;
+                }
+                if (n == result.length) {
+                    result = Arrays.copyOf(result, n * 2);
+                }
+                result[n++] = line;
+            }
+            return n == 0 ? NO_LINES : Arrays.copyOf(result, n);
+        }
+
+        @Override
+        public int[] playerLines(UUID player) {
+            int id = -1;
+            for (int p = 0; p < playerCount; p++) {
+                if (players[p].equals(player)) {
+                    id = p;
+                    break;
+                }
+            }
+            if (id < 0) {
+                return NO_LINES;
+            }
+            int[] result = new int[16];
+            int n = 0;
+            for (int line = 0; line < lines; line++) {
+                if (playerOf[line] != id) {
+                    continue;
+                }
+                if (n == result.length) {
+                    result = Arrays.copyOf(result, n * 2);
+                }
+                result[n++] = line;
+            }
+            return Arrays.copyOf(result, n);
+        }
+    }
+}
@@ -0,0 +1,316 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Answers searches over the chat log directory, newest first.
+ * <p>
+ *     Rotated segments are looked up through their {@code .idx} file, so only lines that
+ *     can match are ever read. A segment without one (written before indexing was on, or
+ *     cut short by a crash) gets indexed on first search and the index is kept. The live
+ *     {@code chat.log} is looked up through the writer's {@link ChatLogWriter#liveIndex()
+ *     snapshot}, and only indexed in memory when there is no writer to ask.
+ * </p>
+ * <p>
+ *     Plain logs are read through a memory map. Gzipped segments are only inflated when
+ *     the index says they have a candidate line. Blocking I/O throughout, so call it off
+ *     the main thread.
+ * </p>
+ */
+public class ChatLogSearch {
+    private static final Pattern SEGMENT = Pattern.compile("chat-(\\d{4}-\\d{2}-\\d{2})-(\\d+)\\.log(\\.gz)?");
+
+    private final Path directory;
+    private final ZoneId zone;
+    private final ChatLogWriter writer;
+
+    /**
+     * @param directory the chat log directory
+     * @param zone time zone the logs were written in
+     */
+    public ChatLogSearch(Path directory, ZoneId zone) {
+        this(directory, zone, null);
+    }
+
+    /**
+     * @param directory the chat log directory
+     * @param zone time zone the logs were written in
+     * @param writer the writer currently appending to {@code directory}, or null if none
+     */
+    public ChatLogSearch(Path directory, ZoneId zone, ChatLogWriter writer) {
+        this.directory = directory;
+        this.zone = zone;
+        this.writer = writer;
+    }
+
+    /**
+     * What to look for.
+     *
+     * @param terms words that must all appear, case-insensitive; may be empty
+     * @param player only lines from this player, or null for anyone
+     * @param sinceMillis only lines at or after this time, 0 for all
+     * @param page 1-based page number
+     * @param pageSize results per page
+     */
+    public record Query(List<String> terms, UUID player, long sinceMillis, int page, int pageSize) {
+    }
+
+    /**
+     * One page of results.
+     *
+     * @param lines matching lines, newest first
+     * @param more true if there is another page
+     */
+    public record Page(List<LogLine> lines, boolean more) {
+    }
+
+    /**
+     * A log segment on disk, newest first by date then sequence.
+     */
+    private record Segment(Path log, Path index, String date, int sequence, boolean gzip) {
+    }
+
+    /**
+     * Runs a search.
+     *
+     * @param query what to look for
+     * @return the requested page
+     * @throws IOException if the log directory can't be listed
+     */
+    public Page search(Query query) throws IOException {
+        Set<String> words = new HashSet<>();
+        for (String term : query.terms()) {
+            ChatLogIndex.tokenize(term, (hash, start, end) -> words.add(term.substring(start, end).toLowerCase(Locale.ROOT)));
+        }
+        int[] hashes = words.stream().mapToInt(ChatLogIndex::hash).toArray();
+        int skip = (Math.max(1, query.page()) - 1) * query.pageSize();
+        int wanted = skip + query.pageSize() + 1;
+
+        List<LogLine> found = new ArrayList<>();
+        Path active = directory.resolve(ChatLogWriter.ACTIVE_FILE);
+        if (Files.exists(active)) {
+            ChatLogIndex.Snapshot live = writer != null ? writer.liveIndex() : null;
+            ByteBuffer log = map(active);
+            LineIndex index = live;
+            // A different snapshot now means chat.log was rotated under us, so the map may be the new file
+            if (live == null || !live.sameSegment(writer.liveIndex())) {
+                index = ChatLogIndex.Builder.scan(log, zone).build();
+            }
+            if (collect(index, log, null, hashes, words, query, found, wanted)) {
+                return page(found, skip, query.pageSize());
+            }
+        }
+        for (Segment segment : segments()) {
+            try {
+                ChatLogIndex index = openIndex(segment);
+                if (index.lineCount() > 0 && index.lastTime() < query.sinceMillis()) {
+                    // Segments only get older from here
+                    break;
+                }
+                if (collect(index, null, segment, hashes, words, query, found, wanted)) {
+                    break;
+                }
+            } catch (NoSuchFileException e) {
+                // Rotated or compressed while we were looking, it'll be there next time
+            }
+        }
+        return page(found, skip, query.pageSize());
+    }
+
+    /**
+     * Adds matching lines from one segment, newest first.
+     *
+     * @param log the log contents if already loaded, else read from {@code segment} on demand
+     * @return true once enough lines have been found
+     */
+    private boolean collect(LineIndex index, ByteBuffer log, Segment segment, int[] hashes, Set<String> words,
+                            Query query, List<LogLine> found, int wanted) throws IOException {
+        int[] candidates = candidates(index, hashes, query.player());
+        int count = candidates != null ? candidates.length : index.lineCount();
+        byte[] bytes = new byte[512];
+        for (int i = count - 1; i >= 0; i--) {
+            int line = candidates != null ? candidates[i] : i;
+            if (index.time(line) < query.sinceMillis()) {
+                break;
+            }
+            if (log == null) {
+                log = segment.gzip() ? inflate(segment.log()) : map(segment.log());
+            }
+            long offset = index.offset(line);
+            if (offset >= log.limit()) {
+                // Indexed but never made it to disk
+                continue;
+            }
+            int start = (int) offset;
+            int end = start;
+            while (end < log.limit() && log.get(end) != '\n') {
+                end++;
+            }
+            int length = end - start;
+            if (length > bytes.length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            log.get(start, bytes, 0, length);
+            LogLine parsed = LogLine.parse(new String(bytes, 0, length, StandardCharsets.UTF_8), zone);
+            if (parsed != null && matches(parsed, words, query.player())) {
+                found.add(parsed);
+                if (found.size() >= wanted) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Intersects the posting lists for every term and the player.
+     *
+     * @return ascending candidate lines, or null if nothing narrows it down
+     */
+    private static int[] candidates(LineIndex index, int[] hashes, UUID player) {
+        int[] result = player != null ? index.playerLines(player) : null;
+        for (int hash : hashes) {
+            int[] lines = index.tokenLines(hash);
+            result = result == null ? lines : intersect(result, lines);
+            if (result.length == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Checks a candidate for real, since index hashes can collide.
+     */
+    private static boolean matches(LogLine line, Set<String> words, UUID player) {
+        if (player != null && !player.equals(line.playerId())) {
+            return false;
+        }
+        if (words.isEmpty()) {
+            return true;
+        }
+        Set<String> present = new HashSet<>();
+        String message = line.message();
+        ChatLogIndex.tokenize(message, (hash, start, end) -> present.add(message.substring(start, end).toLowerCase(Locale.ROOT)));
+        return present.containsAll(words);
+    }
+
+    private ChatLogIndex openIndex(Segment segment) throws IOException {
+        if (Files.exists(segment.index())) {
+            try {
+                return ChatLogIndex.open(segment.index());
+            } catch (IOException e) {
+                // Damaged, rebuild it below
+            }
+        }
+        ByteBuffer log = segment.gzip() ? inflate(segment.log()) : map(segment.log());
+        ChatLogIndex.Builder builder = ChatLogIndex.Builder.scan(log, zone);
+        builder.writeTo(segment.index());
+        return ChatLogIndex.open(segment.index());
+    }
+
+    /**
+     * Lists rotated segments, newest first.
+     */
+    private List<Segment> segments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<Segment> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Matcher matcher = SEGMENT.matcher(file.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                boolean gzip = matcher.group(3) != null;
+                // Mid-compression both exist briefly, the plain one is complete so prefer it
+                if (gzip && Files.exists(file.resolveSibling(file.getFileName().toString().replace(".gz", "")))) {
+                    continue;
+                }
+                String date = matcher.group(1);
+                int sequence = Integer.parseInt(matcher.group(2));
+                segments.add(new Segment(file, indexFile(directory, date, sequence), date, sequence, gzip));
+            }
+        }
+        segments.sort(Comparator.comparing(Segment::date).thenComparingInt(Segment::sequence).reversed());
+        return segments;
+    }
+
+    /**
+     * @return the index path for a rotated segment
+     */
+    static Path indexFile(Path directory, String date, int sequence) {
+        return directory.resolve("chat-" + date + "-" + sequence + ".idx");
+    }
+
+    private static Page page(List<LogLine> found, int skip, int pageSize) {
+        if (skip >= found.size()) {
+            return new Page(List.of(), false);
+        }
+        int end = Math.min(found.size(), skip + pageSize);
+        return new Page(List.copyOf(found.subList(skip, end)), found.size() > end);
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                // Only a log from before segments were capped can be this big
+                throw new IOException(file.getFileName() + " is too big to search");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    private static ByteBuffer inflate(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file), 64 * 1024)) {
+            return ByteBuffer.wrap(in.readAllBytes());
+        }
+    }
+}
@@ -0,0 +1,441 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.log;
+
+import moe.reno.littlenebo.chat.ChatRecord;
+import moe.reno.littlenebo.chat.ChatSink;
+import moe.reno.littlenebo.config.ChatLogConfig;
+import moe.reno.littlenebo.metrics.ChatMetrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only chat log written by a single background thread.
+ * <p>
+ *     Chat threads only push the shared {@link ChatRecord} onto a lock-free queue, bounded
+ *     by an atomic counter. When it's full the message is either dropped or the chat thread
+ *     waits briefly for space, depending on config. The writer thread drains whatever is
+ *     queued into one direct buffer and hands it to the {@link FileChannel} in a single
+ *     write, so a burst of chat costs one syscall rather than one per line. Lines are
+ *     encoded straight into that buffer with a reused encoder, no byte array per line.
+ * </p>
+ * <p>
+ *     A record that can't be written is counted as dropped and logged, and the thread
+ *     carries on with the next one, so one bad record never stops the log.
+ * </p>
+ * <p>
+ *     The active file is {@code chat.log}. It is rotated to {@code chat-<date>-<n>.log}
+ *     when the day changes or it grows past the size limit, and rotated files can be
+ *     gzipped on a separate thread so compression never holds up writing.
+ * </p>
+ * <p>
+ *     With indexing on, each line is added to a {@link ChatLogIndex.Builder} as it is
+ *     written, so rotation only has to lay the index out and save it as
+ *     {@code chat-<date>-<n>.idx}, again on the background thread. After each write a
+ *     snapshot of that builder is published for {@link ChatLogSearch}, so searching the
+ *     live file never has to re-read and re-index it.
+ * </p>
+ */
+public class ChatLogWriter implements ChatSink {
+    static final String ACTIVE_FILE = "chat.log";
+    private static final int BATCH_SIZE = 1024;
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long BLOCK_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1);
+    /**
+     * Segments rotate at this size even without a limit configured. Search memory maps
+     * segments and the index format uses int positions, both of which stop at 2 GB.
+     */
+    static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    private final Path directory;
+    private final ChatLogConfig config;
+    private final ChatMetrics metrics;
+    private final Logger logger;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final ConcurrentLinkedQueue<ChatRecord> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final StringBuilder line = new StringBuilder(256);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final Thread thread;
+    private final ExecutorService background;
+    private volatile boolean running = true;
+    private volatile ChatLogIndex.Snapshot live;
+
+    // Only touched by the writer thread
+    private CharBuffer chars = CharBuffer.allocate(256);
+    private FileChannel channel;
+    private LocalDate fileDate;
+    private long fileSize;
+    private ChatLogIndex.Builder index;
+
+    /**
+     * Creates the writer and starts its thread.
+     *
+     * @param directory where log files go
+     * @param config chat log settings
+     * @param metrics where queue depth, drops and write latency are recorded
+     * @param logger for write errors; may be null
+     */
+    public ChatLogWriter(Path directory, ChatLogConfig config, ChatMetrics metrics, Logger logger) {
+        this.directory = directory;
+        this.config = config;
+        this.metrics = metrics;
+        this.logger = logger;
+        this.background = Executors.newSingleThreadExecutor(runnable -> {
+            Thread backgroundThread = new Thread(runnable, "LittleNebo-ChatLog-Rotate");
+            backgroundThread.setDaemon(true);
+            return backgroundThread;
+        });
+        metrics.setChatLogQueueDepth(depth::get);
+        this.thread = new Thread(this::run, "LittleNebo-ChatLog");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues a message for writing. Never touches the disk.
+     *
+     * @param record the message
+     */
+    @Override
+    public void accept(ChatRecord record) {
+        int capacity = Math.max(1, config.queueSize());
+        long deadline = 0;
+        while (true) {
+            int current = depth.get();
+            if (current < capacity) {
+                if (depth.compareAndSet(current, current + 1)) {
+                    queue.offer(record);
+                    if (current == 0) {
+                        LockSupport.unpark(thread);
+                    }
+                    return;
+                }
+                continue;
+            }
+            if (!config.blockWhenFull() || !running) {
+                metrics.recordChatLogDropped();
+                return;
+            }
+            // Block policy: wait for the writer, but never forever in case it has died
+            long now = System.nanoTime();
+            if (deadline == 0) {
+                deadline = now + BLOCK_TIMEOUT_NANOS;
+            } else if (now - deadline > 0) {
+                metrics.recordChatLogDropped();
+                return;
+            }
+            LockSupport.unpark(thread);
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    /**
+     * Writes out everything still queued, then stops the writer thread.
+     * Blocks for up to a few seconds while the last writes finish.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Let a pending index write or compression finish so the files are whole
+        background.shutdown();
+        try {
+            background.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        metrics.setChatLogQueueDepth(() -> 0);
+    }
+
+    /**
+     * @return messages waiting to be written
+     */
+    public int queueDepth() {
+        return depth.get();
+    }
+
+    /**
+     * Gets the index of {@code chat.log} as of the last write. Every line in it is
+     * already on disk.
+     *
+     * @return the live index, or null if indexing is off or the file is mid-rotation
+     */
+    public ChatLogIndex.Snapshot liveIndex() {
+        return live;
+    }
+
+    private void run() {
+        try {
+            while (running || depth.get() > 0) {
+                if (drain() == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        } finally {
+            closeChannel();
+        }
+    }
+
+    /**
+     * Encodes up to one batch of queued messages and writes them.
+     *
+     * @return number of messages taken off the queue
+     */
+    private int drain() {
+        int taken = 0;
+        ChatRecord record;
+        while (taken < BATCH_SIZE && (record = queue.poll()) != null) {
+            depth.decrementAndGet();
+            taken++;
+            try {
+                append(record);
+                metrics.recordChatLogWritten();
+            } catch (IOException | RuntimeException e) {
+                metrics.recordChatLogDropped();
+                warn("Could not write chat log", e);
+            }
+        }
+        if (taken > 0) {
+            try {
+                flush();
+                if (index != null) {
+                    live = index.snapshot();
+                }
+            } catch (IOException | RuntimeException e) {
+                warn("Could not write chat log", e);
+                buffer.clear();
+            }
+        }
+        return taken;
+    }
+
+    private void append(ChatRecord record) throws IOException {
+        LocalDate date = LocalDate.ofInstant(Instant.ofEpochMilli(record.timeMillis()), zone);
+        line.setLength(0);
+        LogLine.format(record, zone, line);
+        int length = utf8Length(line);
+
+        rotateIfNeeded(date, length);
+        if (length > buffer.remaining()) {
+            flush();
+        }
+        long offset = fileSize + buffer.position();
+        if (length > buffer.capacity()) {
+            // Longer than the whole buffer, rare enough to just allocate
+            writeFully(ByteBuffer.wrap(line.toString().getBytes(StandardCharsets.UTF_8)));
+        } else {
+            encode(line);
+        }
+        // Only indexed once it's really in the file
+        if (index != null) {
+            index.add(offset, record.timeMillis(), record.playerId(), record.message());
+        }
+    }
+
+    /**
+     * Encodes a line into the write buffer, which must have room for it. On failure the
+     * buffer is left as it was, so no half line gets written.
+     */
+    private void encode(StringBuilder text) {
+        int length = text.length();
+        if (chars.capacity() < length) {
+            chars = CharBuffer.allocate(Math.max(length, chars.capacity() * 2));
+        }
+        text.getChars(0, length, chars.array(), 0);
+        chars.clear().limit(length);
+        int mark = buffer.position();
+        encoder.reset();
+        if (encoder.encode(chars, buffer, true).isError() || encoder.flush(buffer).isError()) {
+            buffer.position(mark);
+            throw new IllegalStateException("line did not fit the write buffer");
+        }
+    }
+
+    /**
+     * Counts the bytes a line takes in UTF-8, without encoding it. Unpaired surrogates
+     * count as the one byte they're replaced with.
+     */
+    static int utf8Length(CharSequence text) {
+        int bytes = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    private void rotateIfNeeded(LocalDate date, int incoming) throws IOException {
+        if (channel == null) {
+            open(date);
+        }
+        long pending = fileSize + buffer.position();
+        boolean newDay = config.rotateDaily() && !date.equals(fileDate);
+        long limit = config.maxBytes() > 0 ? Math.min(config.maxBytes(), MAX_SEGMENT_BYTES) : MAX_SEGMENT_BYTES;
+        boolean tooBig = pending > 0 && pending + incoming > limit;
+        if (!newDay && !tooBig) {
+            return;
+        }
+        flush();
+        closeChannel();
+        // Searches must stop trusting the old snapshot before chat.log is a new file
+        live = null;
+        Path active = directory.resolve(ACTIVE_FILE);
+        String day = fileDate.toString();
+        int sequence = nextSequence(day);
+        Path rotated = directory.resolve("chat-" + day + "-" + sequence + ".log");
+        Files.move(active, rotated, StandardCopyOption.ATOMIC_MOVE);
+        ChatLogIndex.Builder finished = index;
+        if (finished != null) {
+            background.execute(() -> writeIndex(finished, ChatLogSearch.indexFile(directory, day, sequence)));
+        }
+        if (config.gzip()) {
+            background.execute(() -> gzip(rotated));
+        }
+        open(date);
+    }
+
+    private void open(LocalDate today) throws IOException {
+        Files.createDirectories(directory);
+        Path active = directory.resolve(ACTIVE_FILE);
+        channel = FileChannel.open(active, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        // Only this thread writes the file, so appending is just starting at the end
+        fileSize = channel.size();
+        channel.position(fileSize);
+        // A file left over from before a restart keeps the date it was last written on
+        fileDate = fileSize > 0
+                ? LocalDate.ofInstant(Files.getLastModifiedTime(active).toInstant(), zone)
+                : today;
+        index = null;
+        // Too big to map means it's left over from before the size cap and rotates on the next line
+        if (config.index() && fileSize <= MAX_SEGMENT_BYTES) {
+            // Pick up lines written before a restart so the segment's index is complete
+            if (fileSize > 0) {
+                MappedByteBuffer existing = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+                index = ChatLogIndex.Builder.scan(existing, zone);
+            } else {
+                index = new ChatLogIndex.Builder();
+            }
+        }
+        live = index != null ? index.snapshot() : null;
+    }
+
+    private int nextSequence(String day) {
+        for (int n = 0; ; n++) {
+            String base = "chat-" + day + "-" + n + ".log";
+            if (!Files.exists(directory.resolve(base)) && !Files.exists(directory.resolve(base + ".gz"))) {
+                return n;
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        long start = System.nanoTime();
+        fileSize += writeFully(buffer);
+        metrics.recordChatLogWrite(System.nanoTime() - start);
+        buffer.clear();
+    }
+
+    private int writeFully(ByteBuffer source) throws IOException {
+        int written = 0;
+        while (source.hasRemaining()) {
+            written += channel.write(source);
+        }
+        return written;
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            flush();
+            channel.close();
+        } catch (IOException e) {
+            warn("Could not close chat log", e);
+        }
+        channel = null;
+    }
+
+    private void writeIndex(ChatLogIndex.Builder builder, Path file) {
+        try {
+            builder.writeTo(file);
+        } catch (IOException e) {
+            warn("Could not write chat log index " + file.getFileName(), e);
+        }
+    }
+
+    private void gzip(Path file) {
+        Path target = file.resolveSibling(file.getFileName() + ".gz");
+        try (InputStream in = Files.newInputStream(file);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(target), BUFFER_BYTES)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            warn("Could not compress " + file.getFileName(), e);
+            return;
+        }
+        try {
+            Files.delete(file);
+        } catch (IOException e) {
+            warn("Could not delete " + file.getFileName() + " after compressing it", e);
+        }
+    }
+
+    private void warn(String message, Exception e) {
+        if (logger != null) {
+            logger.warning(message + ": " + (e instanceof IOException ? e.getMessage() : e.toString()));
+        }
+    }
+}
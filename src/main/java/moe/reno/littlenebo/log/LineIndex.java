@@ -0,0 +1,45 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.log;
+
+import java.util.UUID;
+
+/**
+ * What search needs from an index: where each line is, when it was sent, and which
+ * lines a token or player appears on. Backed by a saved {@link ChatLogIndex} for rotated
+ * segments and by a {@link ChatLogIndex.Snapshot} for the live one.
+ */
+interface LineIndex {
+    /** @return number of indexed lines */
+    int lineCount();
+
+    /** @return time of the last line, 0 if empty */
+    long lastTime();
+
+    /**
+     * @param line line number
+     * @return byte offset of the line in the log
+     */
+    long offset(int line);
+
+    /**
+     * @param line line number
+     * @return when the line's message was sent
+     */
+    long time(int line);
+
+    /**
+     * @param hash the token's {@link ChatLogIndex#hash}
+     * @return ascending line numbers that may contain it, empty if none
+     */
+    int[] tokenLines(int hash);
+
+    /**
+     * @param player the player's UUID
+     * @return ascending line numbers sent by them, empty if none
+     */
+    int[] playerLines(UUID player);
+}
@@ -0,0 +1,102 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.log;
+
+import moe.reno.littlenebo.chat.ChatRecord;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.UUID;
+
+/**
+ * One line of the chat log, {@code [yyyy-MM-dd HH:mm:ss.SSS] [channel] Name (uuid): message}.
+ * <p>
+ *     Writing and reading live together here so the indexer and search always agree
+ *     with the writer about the format.
+ * </p>
+ *
+ * @param timeMillis when the message was sent
+ * @param channel the channel, or null without channels
+ * @param playerName the sender's name
+ * @param playerId the sender's UUID
+ * @param message the message text
+ */
+public record LogLine(long timeMillis, String channel, String playerName, UUID playerId, String message) {
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final int TIME_END = 24;
+    private static final int UUID_LENGTH = 36;
+
+    /**
+     * Appends a record as a log line, including the trailing newline.
+     * Newlines inside the message are flattened so one message is always one line.
+     *
+     * @param record the message
+     * @param zone time zone for the timestamp
+     * @param out where to append
+     */
+    public static void format(ChatRecord record, ZoneId zone, StringBuilder out) {
+        out.append('[');
+        TIME.formatTo(Instant.ofEpochMilli(record.timeMillis()).atZone(zone), out);
+        out.append("] ");
+        if (record.channel() != null) {
+            out.append('[').append(record.channel()).append("] ");
+        }
+        out.append(record.playerName()).append(" (").append(record.playerId()).append("): ");
+        String message = record.message();
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            out.append(c == '\n' || c == '\r' ? ' ' : c);
+        }
+        out.append('\n');
+    }
+
+    /**
+     * Parses a line written by {@link #format}.
+     *
+     * @param line the line, without its newline
+     * @param zone time zone the timestamp was written in
+     * @return the parsed line, or null if it isn't a chat log line
+     */
+    public static LogLine parse(String line, ZoneId zone) {
+        if (line.length() < TIME_END + 2 || line.charAt(0) != '[' || line.charAt(TIME_END) != ']') {
+            return null;
+        }
+        long time;
+        try {
+            time = LocalDateTime.parse(line.substring(1, TIME_END), TIME).atZone(zone).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+        int cursor = TIME_END + 2;
+        String channel = null;
+        if (cursor < line.length() && line.charAt(cursor) == '[') {
+            int close = line.indexOf("] ", cursor);
+            if (close < 0) {
+                return null;
+            }
+            channel = line.substring(cursor + 1, close);
+            cursor = close + 2;
+        }
+        // Names can't contain "): " and messages come after the UUID, so the first match is ours
+        int end = line.indexOf("): ", cursor);
+        while (end >= 0) {
+            int open = end - UUID_LENGTH - 1;
+            if (open - 1 >= cursor && line.charAt(open) == '(' && line.charAt(open - 1) == ' ') {
+                try {
+                    UUID id = UUID.fromString(line.substring(open + 1, end));
+                    return new LogLine(time, channel, line.substring(cursor, open - 1), id, line.substring(end + 3));
+                } catch (IllegalArgumentException ignored) {
+                    // Not a UUID, keep looking
+                }
+            }
+            end = line.indexOf("): ", end + 1);
+        }
+        return null;
+    }
+}
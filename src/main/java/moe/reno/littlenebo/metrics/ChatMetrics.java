@@ -0,0 +1,546 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Counters and histograms for the chat pipeline.
+ * <p>
+ *     Everything here is a monotonic counter; per-second rates and hit ratios are
+ *     expected to be derived by the scraper (e.g. {@code rate(littlenebo_messages_total[1m])}).
+ *     Recording is contention-free so it is safe to call from async chat threads.
+ * </p>
+ */
+public class ChatMetrics {
+    private static final byte[] MESSAGES_HEADER = ExpositionWriter.header(
+            "littlenebo_messages_total", "counter", "Chat messages handled");
+    private static final byte[] MESSAGES = ExpositionWriter.ascii("littlenebo_messages_total ");
+    private static final byte[] RENDERS_HEADER = ExpositionWriter.header(
+            "littlenebo_renders_total", "counter", "Per-viewer render calls");
+    private static final byte[] RENDERS = ExpositionWriter.ascii("littlenebo_renders_total ");
+    private static final byte[] RENDER_CACHE_HEADER = ExpositionWriter.header(
+            "littlenebo_render_cache_total", "counter", "Shared render cache lookups by result");
+    private static final byte[] RENDER_CACHE_HIT = ExpositionWriter.ascii("littlenebo_render_cache_total{result=\"hit\"} ");
+    private static final byte[] RENDER_CACHE_MISS = ExpositionWriter.ascii("littlenebo_render_cache_total{result=\"miss\"} ");
+    private static final byte[] TEMPLATE_CACHE_HEADER = ExpositionWriter.header(
+            "littlenebo_template_cache_total", "counter", "Compiled format template cache lookups by result");
+    private static final byte[] TEMPLATE_CACHE_HIT = ExpositionWriter.ascii("littlenebo_template_cache_total{result=\"hit\"} ");
+    private static final byte[] TEMPLATE_CACHE_MISS = ExpositionWriter.ascii("littlenebo_template_cache_total{result=\"miss\"} ");
+    private static final byte[] PARSE_HEADER = ExpositionWriter.header(
+            "littlenebo_parse_total", "counter", "Player message parses by path");
+    private static final byte[] PARSE_FAST = ExpositionWriter.ascii("littlenebo_parse_total{path=\"fast\"} ");
+    private static final byte[] PARSE_FULL = ExpositionWriter.ascii("littlenebo_parse_total{path=\"full\"} ");
+    private static final byte[] BUDGET_HEADER = ExpositionWriter.header(
+            "littlenebo_budget_rejections_total", "counter", "Player messages shown as plain text for exceeding the input budget");
+    private static final byte[] BUDGET = ExpositionWriter.ascii("littlenebo_budget_rejections_total ");
+    private static final byte[] MENTIONS_HEADER = ExpositionWriter.header(
+            "littlenebo_mentions_total", "counter", "Players mentioned in chat messages");
+    private static final byte[] MENTIONS = ExpositionWriter.ascii("littlenebo_mentions_total ");
+    private static final byte[] RATE_LIMITED_HEADER = ExpositionWriter.header(
+            "littlenebo_rate_limited_total", "counter", "Messages cancelled by the rate limiter");
+    private static final byte[] RATE_LIMITED = ExpositionWriter.ascii("littlenebo_rate_limited_total ");
+    private static final byte[] DUPLICATES_HEADER = ExpositionWriter.header(
+            "littlenebo_duplicates_total", "counter", "Messages dropped as repeats of a recent message");
+    private static final byte[] DUPLICATES = ExpositionWriter.ascii("littlenebo_duplicates_total ");
+    private static final byte[] FILTER_HEADER = ExpositionWriter.header(
+            "littlenebo_filter_total", "counter", "Messages caught by the word filter by action");
+    private static final byte[] FILTER_BLOCK = ExpositionWriter.ascii("littlenebo_filter_total{action=\"block\"} ");
+    private static final byte[] FILTER_CENSOR = ExpositionWriter.ascii("littlenebo_filter_total{action=\"censor\"} ");
+    private static final byte[] FILTER_FLAG = ExpositionWriter.ascii("littlenebo_filter_total{action=\"flag\"} ");
+    private static final byte[] CHATLOG_RECORDS_HEADER = ExpositionWriter.header(
+            "littlenebo_chatlog_records_total", "counter", "Messages written to the chat log");
+    private static final byte[] CHATLOG_RECORDS = ExpositionWriter.ascii("littlenebo_chatlog_records_total ");
+    private static final byte[] CHATLOG_DROPPED_HEADER = ExpositionWriter.header(
+            "littlenebo_chatlog_dropped_total", "counter", "Messages the chat log could not keep up with or write");
+    private static final byte[] CHATLOG_DROPPED = ExpositionWriter.ascii("littlenebo_chatlog_dropped_total ");
+    private static final byte[] CHATLOG_DEPTH_HEADER = ExpositionWriter.header(
+            "littlenebo_chatlog_queue_depth", "gauge", "Messages waiting for the chat log writer");
+    private static final byte[] CHATLOG_DEPTH = ExpositionWriter.ascii("littlenebo_chatlog_queue_depth ");
+    private static final byte[] CHATLOG_WRITE_HEADER = ExpositionWriter.header(
+            "littlenebo_chatlog_write_seconds", "histogram", "Time spent writing a batch to the chat log");
+    private static final byte[] CHATLOG_WRITE = ExpositionWriter.ascii("littlenebo_chatlog_write_seconds");
+    private static final byte[] RELAY_HEADER = ExpositionWriter.header(
+            "littlenebo_relay_messages_total", "counter", "Messages exchanged with other servers by direction");
+    private static final byte[] RELAY_SENT = ExpositionWriter.ascii("littlenebo_relay_messages_total{direction=\"sent\"} ");
+    private static final byte[] RELAY_RECEIVED = ExpositionWriter.ascii("littlenebo_relay_messages_total{direction=\"received\"} ");
+    private static final byte[] RELAY_BATCHES_HEADER = ExpositionWriter.header(
+            "littlenebo_relay_batches_total", "counter", "Batches published to the relay");
+    private static final byte[] RELAY_BATCHES = ExpositionWriter.ascii("littlenebo_relay_batches_total ");
+    private static final byte[] RELAY_DROPPED_HEADER = ExpositionWriter.header(
+            "littlenebo_relay_dropped_total", "counter", "Messages not relayed because the queue was full or the relay was down");
+    private static final byte[] RELAY_DROPPED = ExpositionWriter.ascii("littlenebo_relay_dropped_total ");
+    private static final byte[] WEBHOOK_HEADER = ExpositionWriter.header(
+            "littlenebo_webhook_messages_total", "counter", "Messages handled by the chat webhook by result");
+    private static final byte[] WEBHOOK_SENT = ExpositionWriter.ascii("littlenebo_webhook_messages_total{result=\"sent\"} ");
+    private static final byte[] WEBHOOK_DROPPED = ExpositionWriter.ascii("littlenebo_webhook_messages_total{result=\"dropped\"} ");
+    private static final byte[] WEBHOOK_FAILED = ExpositionWriter.ascii("littlenebo_webhook_messages_total{result=\"failed\"} ");
+    private static final byte[] WEBHOOK_RETRIES_HEADER = ExpositionWriter.header(
+            "littlenebo_webhook_retries_total", "counter", "Webhook POSTs retried after a failure");
+    private static final byte[] WEBHOOK_RETRIES = ExpositionWriter.ascii("littlenebo_webhook_retries_total ");
+    private static final byte[] WEBHOOK_POST_HEADER = ExpositionWriter.header(
+            "littlenebo_webhook_post_seconds", "histogram", "Time spent on one webhook POST");
+    private static final byte[] WEBHOOK_POST = ExpositionWriter.ascii("littlenebo_webhook_post_seconds");
+    private static final byte[] PRIVATE_MESSAGES_HEADER = ExpositionWriter.header(
+            "littlenebo_private_messages_total", "counter", "Private messages sent with /msg or /reply");
+    private static final byte[] PRIVATE_MESSAGES = ExpositionWriter.ascii("littlenebo_private_messages_total ");
+    private static final byte[] ANNOUNCEMENT_DELIVERIES_HEADER = ExpositionWriter.header(
+            "littlenebo_announcement_deliveries_total", "counter", "Announcements sent to players");
+    private static final byte[] ANNOUNCEMENT_DELIVERIES = ExpositionWriter.ascii("littlenebo_announcement_deliveries_total ");
+    private static final byte[] ANNOUNCEMENT_RENDERS_HEADER = ExpositionWriter.header(
+            "littlenebo_announcement_renders_total", "counter", "Announcement renders built; other deliveries reused one");
+    private static final byte[] ANNOUNCEMENT_RENDERS = ExpositionWriter.ascii("littlenebo_announcement_renders_total ");
+    private static final byte[] RENDER_LATENCY_HEADER = ExpositionWriter.header(
+            "littlenebo_render_seconds", "histogram", "Time spent formatting a message");
+    private static final byte[] RENDER_LATENCY = ExpositionWriter.ascii("littlenebo_render_seconds");
+    private static final byte[] RELOAD_HEADER = ExpositionWriter.header(
+            "littlenebo_reload_seconds", "histogram", "Time spent reloading configuration");
+    private static final byte[] RELOAD = ExpositionWriter.ascii("littlenebo_reload_seconds");
+
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder renders = new LongAdder();
+    private final LongAdder renderCacheHits = new LongAdder();
+    private final LongAdder renderCacheMisses = new LongAdder();
+    private final LongAdder templateCacheHits = new LongAdder();
+    private final LongAdder templateCacheMisses = new LongAdder();
+    private final LongAdder parseFast = new LongAdder();
+    private final LongAdder parseFull = new LongAdder();
+    private final LongAdder budgetRejections = new LongAdder();
+    private final LongAdder mentions = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder filterBlocked = new LongAdder();
+    private final LongAdder filterCensored = new LongAdder();
+    private final LongAdder filterFlagged = new LongAdder();
+    private final LongAdder chatLogRecords = new LongAdder();
+    private final LongAdder chatLogDropped = new LongAdder();
+    private volatile IntSupplier chatLogDepth = () -> 0;
+    private final LatencyHistogram chatLogWrite = new LatencyHistogram();
+    private final LongAdder relaySent = new LongAdder();
+    private final LongAdder relayReceived = new LongAdder();
+    private final LongAdder relayBatches = new LongAdder();
+    private final LongAdder relayDropped = new LongAdder();
+    private final LongAdder webhookSent = new LongAdder();
+    private final LongAdder webhookDropped = new LongAdder();
+    private final LongAdder webhookFailed = new LongAdder();
+    private final LongAdder webhookRetries = new LongAdder();
+    private final LatencyHistogram webhookPost = new LatencyHistogram();
+    private final LongAdder privateMessages = new LongAdder();
+    private final LongAdder announcementDeliveries = new LongAdder();
+    private final LongAdder announcementRenders = new LongAdder();
+    private final LatencyHistogram renderLatency = new LatencyHistogram();
+    private final LatencyHistogram reloadDuration = new LatencyHistogram();
+
+    /** Counts a chat message entering the pipeline. */
+    public void recordMessage() {
+        messages.increment();
+    }
+
+    /**
+     * Counts a per-viewer render and whether it was served from the shared render.
+     *
+     * @param cacheHit true if the viewer reused an already formatted component
+     */
+    public void recordRender(boolean cacheHit) {
+        renders.increment();
+        if (cacheHit) {
+            renderCacheHits.increment();
+        } else {
+            renderCacheMisses.increment();
+        }
+    }
+
+    /**
+     * Counts a compiled template lookup.
+     *
+     * @param hit true if the template was already compiled
+     */
+    public void recordTemplateCache(boolean hit) {
+        if (hit) {
+            templateCacheHits.increment();
+        } else {
+            templateCacheMisses.increment();
+        }
+    }
+
+    /**
+     * Counts a player message parse.
+     *
+     * @param fastPath true if the message was plain text and skipped MiniMessage
+     */
+    public void recordParse(boolean fastPath) {
+        if (fastPath) {
+            parseFast.increment();
+        } else {
+            parseFull.increment();
+        }
+    }
+
+    /** Counts a player message that exceeded the input budget. */
+    public void recordBudgetRejection() {
+        budgetRejections.increment();
+    }
+
+    /**
+     * Counts players mentioned in a message.
+     *
+     * @param count number of distinct players mentioned
+     */
+    public void recordMentions(int count) {
+        mentions.add(count);
+    }
+
+    /** Counts a message cancelled by the rate limiter. */
+    public void recordRateLimited() {
+        rateLimited.increment();
+    }
+
+    /** Counts a message dropped as a repeat. */
+    public void recordDuplicate() {
+        duplicates.increment();
+    }
+
+    /**
+     * Counts a message caught by the word filter.
+     *
+     * @param action the action taken, one of block, censor or flag
+     */
+    public void recordFilter(String action) {
+        switch (action) {
+            case "block" -> filterBlocked.increment();
+            case "censor" -> filterCensored.increment();
+            default -> filterFlagged.increment();
+        }
+    }
+
+    /** Counts a message written to the chat log. */
+    public void recordChatLogWritten() {
+        chatLogRecords.increment();
+    }
+
+    /** Counts a message the chat log dropped. */
+    public void recordChatLogDropped() {
+        chatLogDropped.increment();
+    }
+
+    /**
+     * Records how long one batched chat log write took.
+     *
+     * @param nanos duration in nanoseconds
+     */
+    public void recordChatLogWrite(long nanos) {
+        chatLogWrite.record(nanos);
+    }
+
+    /**
+     * Sets where the chat log queue depth gauge is read from.
+     *
+     * @param depth supplier of the current depth
+     */
+    public void setChatLogQueueDepth(IntSupplier depth) {
+        chatLogDepth = depth;
+    }
+
+    /**
+     * Counts a batch published to the relay.
+     *
+     * @param messages messages in the batch
+     */
+    public void recordRelaySent(int messages) {
+        relayBatches.increment();
+        relaySent.add(messages);
+    }
+
+    /**
+     * Counts messages shown from other servers.
+     *
+     * @param messages number of messages
+     */
+    public void recordRelayReceived(int messages) {
+        relayReceived.add(messages);
+    }
+
+    /**
+     * Counts messages that couldn't be relayed.
+     *
+     * @param messages number of messages
+     */
+    public void recordRelayDropped(int messages) {
+        relayDropped.add(messages);
+    }
+
+    /**
+     * Counts messages the webhook accepted.
+     *
+     * @param messages number of messages
+     */
+    public void recordWebhookSent(int messages) {
+        webhookSent.add(messages);
+    }
+
+    /**
+     * Counts messages dropped because the webhook backlog was full.
+     *
+     * @param messages number of messages
+     */
+    public void recordWebhookDropped(int messages) {
+        webhookDropped.add(messages);
+    }
+
+    /**
+     * Counts messages given up on after every attempt failed.
+     *
+     * @param messages number of messages
+     */
+    public void recordWebhookFailed(int messages) {
+        webhookFailed.add(messages);
+    }
+
+    /** Counts a webhook POST being retried. */
+    public void recordWebhookRetry() {
+        webhookRetries.increment();
+    }
+
+    /**
+     * Records how long one webhook POST took.
+     *
+     * @param nanos duration in nanoseconds
+     */
+    public void recordWebhookLatency(long nanos) {
+        webhookPost.record(nanos);
+    }
+
+    /** Counts a private message being sent. */
+    public void recordPrivateMessage() {
+        privateMessages.increment();
+    }
+
+    /**
+     * Counts announcement deliveries and how many renders they needed.
+     *
+     * @param deliveries players the announcement was sent to
+     * @param renders renders built for them; the rest were shared
+     */
+    public void recordAnnouncement(int deliveries, int renders) {
+        announcementDeliveries.add(deliveries);
+        announcementRenders.add(renders);
+    }
+
+    /**
+     * Records how long a single {@code formatMessage} took.
+     *
+     * @param nanos duration in nanoseconds
+     */
+    public void recordRenderLatency(long nanos) {
+        renderLatency.record(nanos);
+    }
+
+    /**
+     * Records how long a configuration reload took, from reading the file to the last
+     * rebuilt component.
+     *
+     * @param nanos duration in nanoseconds
+     */
+    public void recordReload(long nanos) {
+        reloadDuration.record(nanos);
+    }
+
+    /** @return total messages seen */
+    public long messages() {
+        return messages.sum();
+    }
+
+    /** @return total per-viewer renders */
+    public long renders() {
+        return renders.sum();
+    }
+
+    /** @return number of render latencies recorded */
+    public long renderLatencySamples() {
+        return renderLatency.count();
+    }
+
+    /** @return number of fast-path parses */
+    public long fastPathParses() {
+        return parseFast.sum();
+    }
+
+    /** @return number of messages rejected by the input budget */
+    public long budgetRejections() {
+        return budgetRejections.sum();
+    }
+
+    /** @return total players mentioned */
+    public long mentions() {
+        return mentions.sum();
+    }
+
+    /** @return number of messages cancelled by the rate limiter */
+    public long rateLimited() {
+        return rateLimited.sum();
+    }
+
+    /** @return number of messages dropped as repeats */
+    public long duplicates() {
+        return duplicates.sum();
+    }
+
+    /** @return number of messages blocked by the word filter */
+    public long filterBlocked() {
+        return filterBlocked.sum();
+    }
+
+    /** @return number of messages the chat log dropped */
+    public long chatLogDropped() {
+        return chatLogDropped.sum();
+    }
+
+    /** @return number of messages published to the relay */
+    public long relaySent() {
+        return relaySent.sum();
+    }
+
+    /** @return number of relayed messages rendered for this server */
+    public long relayReceived() {
+        return relayReceived.sum();
+    }
+
+    /** @return number of relay batches published */
+    public long relayBatches() {
+        return relayBatches.sum();
+    }
+
+    /** @return number of messages that couldn't be relayed */
+    public long relayDropped() {
+        return relayDropped.sum();
+    }
+
+    /** @return number of messages the webhook accepted */
+    public long webhookSent() {
+        return webhookSent.sum();
+    }
+
+    /** @return number of messages dropped because the webhook backlog was full */
+    public long webhookDropped() {
+        return webhookDropped.sum();
+    }
+
+    /** @return number of messages the webhook gave up on */
+    public long webhookFailed() {
+        return webhookFailed.sum();
+    }
+
+    /** @return number of webhook POSTs retried */
+    public long webhookRetries() {
+        return webhookRetries.sum();
+    }
+
+    /** @return number of private messages sent */
+    public long privateMessages() {
+        return privateMessages.sum();
+    }
+
+    /** @return number of announcements sent to players */
+    public long announcementDeliveries() {
+        return announcementDeliveries.sum();
+    }
+
+    /** @return number of announcement renders built */
+    public long announcementRenders() {
+        return announcementRenders.sum();
+    }
+
+    /**
+     * Writes every metric in Prometheus text format.
+     *
+     * @param out the writer to append to
+     */
+    public void writeTo(ExpositionWriter out) {
+        out.write(MESSAGES_HEADER);
+        out.sample(MESSAGES, messages.sum());
+
+        out.write(RENDERS_HEADER);
+        out.sample(RENDERS, renders.sum());
+
+        out.write(RENDER_CACHE_HEADER);
+        out.sample(RENDER_CACHE_HIT, renderCacheHits.sum());
+        out.sample(RENDER_CACHE_MISS, renderCacheMisses.sum());
+
+        out.write(TEMPLATE_CACHE_HEADER);
+        out.sample(TEMPLATE_CACHE_HIT, templateCacheHits.sum());
+        out.sample(TEMPLATE_CACHE_MISS, templateCacheMisses.sum());
+
+        out.write(PARSE_HEADER);
+        out.sample(PARSE_FAST, parseFast.sum());
+        out.sample(PARSE_FULL, parseFull.sum());
+
+        out.write(BUDGET_HEADER);
+        out.sample(BUDGET, budgetRejections.sum());
+
+        out.write(MENTIONS_HEADER);
+        out.sample(MENTIONS, mentions.sum());
+
+        out.write(RATE_LIMITED_HEADER);
+        out.sample(RATE_LIMITED, rateLimited.sum());
+
+        out.write(DUPLICATES_HEADER);
+        out.sample(DUPLICATES, duplicates.sum());
+
+        out.write(FILTER_HEADER);
+        out.sample(FILTER_BLOCK, filterBlocked.sum());
+        out.sample(FILTER_CENSOR, filterCensored.sum());
+        out.sample(FILTER_FLAG, filterFlagged.sum());
+
+        out.write(CHATLOG_RECORDS_HEADER);
+        out.sample(CHATLOG_RECORDS, chatLogRecords.sum());
+
+        out.write(CHATLOG_DROPPED_HEADER);
+        out.sample(CHATLOG_DROPPED, chatLogDropped.sum());
+
+        out.write(CHATLOG_DEPTH_HEADER);
+        out.sample(CHATLOG_DEPTH, chatLogDepth.getAsInt());
+
+        out.write(CHATLOG_WRITE_HEADER);
+        out.histogram(CHATLOG_WRITE, chatLogWrite);
+
+        out.write(RELAY_HEADER);
+        out.sample(RELAY_SENT, relaySent.sum());
+        out.sample(RELAY_RECEIVED, relayReceived.sum());
+
+        out.write(RELAY_BATCHES_HEADER);
+        out.sample(RELAY_BATCHES, relayBatches.sum());
+
+        out.write(RELAY_DROPPED_HEADER);
+        out.sample(RELAY_DROPPED, relayDropped.sum());
+
+        out.write(WEBHOOK_HEADER);
+        out.sample(WEBHOOK_SENT, webhookSent.sum());
+        out.sample(WEBHOOK_DROPPED, webhookDropped.sum());
+        out.sample(WEBHOOK_FAILED, webhookFailed.sum());
+
+        out.write(WEBHOOK_RETRIES_HEADER);
+        out.sample(WEBHOOK_RETRIES, webhookRetries.sum());
+
+        out.write(WEBHOOK_POST_HEADER);
+        out.histogram(WEBHOOK_POST, webhookPost);
+
+        out.write(PRIVATE_MESSAGES_HEADER);
+        out.sample(PRIVATE_MESSAGES, privateMessages.sum());
+
+        out.write(ANNOUNCEMENT_DELIVERIES_HEADER);
+        out.sample(ANNOUNCEMENT_DELIVERIES, announcementDeliveries.sum());
+
+        out.write(ANNOUNCEMENT_RENDERS_HEADER);
+        out.sample(ANNOUNCEMENT_RENDERS, announcementRenders.sum());
+
+        out.write(RENDER_LATENCY_HEADER);
+        out.histogram(RENDER_LATENCY, renderLatency);
+
+        out.write(RELOAD_HEADER);
+        out.histogram(RELOAD, reloadDuration);
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.metrics;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes the Prometheus text exposition format into a reusable byte buffer.
+ * <p>
+ *     Metric names, help text and bucket labels are encoded once up front, and numbers
+ *     are written digit by digit, so a scrape only allocates if the buffer has to grow.
+ *     Not thread-safe; the exporter only ever uses it from its single handler thread.
+ * </p>
+ */
+public class ExpositionWriter {
+    private static final byte[] LE_INF = ascii("_bucket{le=\"+Inf\"} ");
+    private static final byte[][] LE_BOUNDS = new byte[LatencyHistogram.BOUNDS_NANOS.length][];
+
+    static {
+        for (int i = 0; i < LE_BOUNDS.length; i++) {
+            String seconds = BigDecimal.valueOf(LatencyHistogram.BOUNDS_NANOS[i], 9)
+                    .stripTrailingZeros().toPlainString();
+            LE_BOUNDS[i] = ascii("_bucket{le=\"" + seconds + "\"} ");
+        }
+    }
+
+    private static final byte[] SUM = ascii("_sum ");
+    private static final byte[] COUNT = ascii("_count ");
+
+    private final byte[] digits = new byte[20];
+    private byte[] buf;
+    private int len;
+
+    /**
+     * @param initialCapacity starting buffer size in bytes
+     */
+    public ExpositionWriter(int initialCapacity) {
+        this.buf = new byte[Math.max(64, initialCapacity)];
+    }
+
+    /**
+     * Encodes a string as ASCII bytes. Intended for one-off setup, not the scrape path.
+     *
+     * @param text the text to encode
+     * @return the encoded bytes
+     */
+    public static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Builds the pre-encoded {@code # HELP} / {@code # TYPE} header for a metric family.
+     *
+     * @param name metric name
+     * @param type prometheus type (counter, gauge, histogram)
+     * @param help help text
+     * @return the encoded header
+     */
+    public static byte[] header(String name, String type, String help) {
+        return ascii("# HELP " + name + " " + help + "\n# TYPE " + name + " " + type + "\n");
+    }
+
+    /** Discards the current contents, keeping the buffer. */
+    public void reset() {
+        len = 0;
+    }
+
+    /** @return the backing buffer; only the first {@link #size()} bytes are valid */
+    public byte[] buffer() {
+        return buf;
+    }
+
+    /** @return number of valid bytes in the buffer */
+    public int size() {
+        return len;
+    }
+
+    /**
+     * Appends raw pre-encoded bytes.
+     *
+     * @param bytes the bytes to append
+     */
+    public void write(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, len, bytes.length);
+        len += bytes.length;
+    }
+
+    /**
+     * Writes a single {@code name value} sample line.
+     *
+     * @param name pre-encoded metric name followed by a space
+     * @param value the sample value
+     */
+    public void sample(byte[] name, long value) {
+        write(name);
+        writeLong(value);
+        writeByte('\n');
+    }
+
+    /**
+     * Writes the bucket, sum and count lines of a histogram.
+     *
+     * @param name pre-encoded metric name (without suffix or trailing space)
+     * @param histogram the histogram to export
+     */
+    public void histogram(byte[] name, LatencyHistogram histogram) {
+        long cumulative = 0;
+        for (int i = 0; i < LE_BOUNDS.length; i++) {
+            cumulative += histogram.bucketCount(i);
+            write(name);
+            write(LE_BOUNDS[i]);
+            writeLong(cumulative);
+            writeByte('\n');
+        }
+        cumulative += histogram.bucketCount(LE_BOUNDS.length);
+        write(name);
+        write(LE_INF);
+        writeLong(cumulative);
+        writeByte('\n');
+
+        write(name);
+        write(SUM);
+        writeSeconds(histogram.sumNanos());
+        writeByte('\n');
+
+        write(name);
+        write(COUNT);
+        writeLong(cumulative);
+        writeByte('\n');
+    }
+
+    /**
+     * Writes a nanosecond value as decimal seconds without going through a double.
+     *
+     * @param nanos the value in nanoseconds
+     */
+    void writeSeconds(long nanos) {
+        if (nanos < 0) {
+            writeByte('-');
+            nanos = -nanos;
+        }
+        writeLong(nanos / 1_000_000_000L);
+        writeByte('.');
+        long fraction = nanos % 1_000_000_000L;
+        ensure(9);
+        for (int i = 8; i >= 0; i--) {
+            buf[len + i] = (byte) ('0' + (fraction % 10));
+            fraction /= 10;
+        }
+        len += 9;
+    }
+
+    /**
+     * Writes a long in decimal.
+     *
+     * @param value the value to write
+     */
+    void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            write(ascii(Long.toString(value)));
+            return;
+        }
+        if (value < 0) {
+            writeByte('-');
+            value = -value;
+        }
+        int pos = digits.length;
+        do {
+            digits[--pos] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        int count = digits.length - pos;
+        ensure(count);
+        System.arraycopy(digits, pos, buf, len, count);
+        len += count;
+    }
+
+    private void writeByte(char c) {
+        ensure(1);
+        buf[len++] = (byte) c;
+    }
+
+    private void ensure(int extra) {
+        if (len + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + extra));
+        }
+    }
+}
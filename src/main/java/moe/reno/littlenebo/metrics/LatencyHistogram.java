@@ -0,0 +1,80 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram.
+ * <p>
+ *     Buckets are cumulative on export (Prometheus style) but stored per-bucket so
+ *     recording is a single {@link LongAdder} increment. Quantiles are left to the
+ *     scraper, e.g. {@code histogram_quantile(0.99, ...)}.
+ * </p>
+ */
+public class LatencyHistogram {
+    /** Upper bucket bounds in nanoseconds. The implicit last bucket is +Inf. */
+    static final long[] BOUNDS_NANOS = {
+            50_000L, 100_000L, 250_000L, 500_000L,
+            1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L,
+            25_000_000L, 50_000_000L, 100_000_000L, 250_000_000L,
+            1_000_000_000L
+    };
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_NANOS.length + 1];
+    private final LongAdder sumNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one observation.
+     *
+     * @param nanos the observed duration in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        int i = 0;
+        while (i < BOUNDS_NANOS.length && nanos > BOUNDS_NANOS[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        sumNanos.add(nanos);
+    }
+
+    /**
+     * Gets the raw (non-cumulative) count for a bucket.
+     *
+     * @param index bucket index, {@code BOUNDS_NANOS.length} being +Inf
+     * @return the count of observations that landed in that bucket
+     */
+    long bucketCount(int index) {
+        return buckets[index].sum();
+    }
+
+    /**
+     * @return total observed time in nanoseconds
+     */
+    long sumNanos() {
+        return sumNanos.sum();
+    }
+
+    /**
+     * @return total number of observations
+     */
+    public long count() {
+        long total = 0;
+        for (LongAdder bucket : buckets) {
+            total += bucket.sum();
+        }
+        return total;
+    }
+}
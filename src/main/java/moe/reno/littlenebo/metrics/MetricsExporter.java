@@ -0,0 +1,106 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves {@link ChatMetrics} over HTTP for Prometheus to scrape.
+ * <p>
+ *     Uses the JDK's built-in {@link HttpServer} with its own single daemon thread,
+ *     so scrapes never touch the server thread. Each start gets a fresh thread and
+ *     {@link ExpositionWriter} buffer, so a scrape still finishing on a stopped server
+ *     can't interleave with one on its replacement.
+ * </p>
+ */
+public class MetricsExporter {
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final ChatMetrics metrics;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * @param metrics the metrics to publish
+     */
+    public MetricsExporter(ChatMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Binds and starts the HTTP server. Serves {@code /metrics}.
+     *
+     * @param bindAddress address to bind to, usually {@code 127.0.0.1}
+     * @param port port to listen on
+     * @throws IOException if the port cannot be bound
+     */
+    public synchronized void start(String bindAddress, int port) throws IOException {
+        if (server != null) {
+            return;
+        }
+        HttpServer created = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "LittleNebo-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        created.setExecutor(executor);
+        // Only ever used from this server's single thread
+        ExpositionWriter writer = new ExpositionWriter(4096);
+        created.createContext("/metrics", exchange -> handle(exchange, writer));
+        created.start();
+        server = created;
+    }
+
+    /**
+     * Stops the HTTP server if it is running.
+     */
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        executor.shutdownNow();
+        server = null;
+        executor = null;
+    }
+
+    /**
+     * @return true if the HTTP server is currently bound
+     */
+    public synchronized boolean isRunning() {
+        return server != null;
+    }
+
+    private void handle(HttpExchange exchange, ExpositionWriter writer) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            writer.reset();
+            metrics.writeTo(writer);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if ("HEAD".equals(method)) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, writer.size());
+            OutputStream body = exchange.getResponseBody();
+            body.write(writer.buffer(), 0, writer.size());
+        } finally {
+            exchange.close();
+        }
+    }
+}
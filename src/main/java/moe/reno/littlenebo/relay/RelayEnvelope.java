@@ -0,0 +1,106 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.relay;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A chat message as it crosses between servers.
+ * <p>
+ *     Only what the receiver needs to render the message with its own templates is sent:
+ *     who, where, which format and the raw input. A binary envelope is a few dozen bytes
+ *     plus the text, where the rendered Component as JSON would be several times that.
+ * </p>
+ * <p>
+ *     A batch is a version byte, a message count, then the envelopes back to back. Strings
+ *     use {@link DataOutput#writeUTF}, which length-prefixes them, so no separators are needed.
+ * </p>
+ *
+ * @param origin id of the server the message was sent on
+ * @param timeMillis when it was sent
+ * @param senderId the sender's UUID
+ * @param senderName the sender's name
+ * @param displayName the sender's display name
+ * @param channel the channel name, or null without channels
+ * @param formatKey the sender's permission format key on the origin server, or null
+ * @param message the processed message text
+ */
+public record RelayEnvelope(String origin, long timeMillis, UUID senderId, String senderName, String displayName,
+                            String channel, String formatKey, String message) {
+    /** Bumped whenever the layout changes, so mixed versions ignore each other instead of misreading. */
+    static final int VERSION = 1;
+
+    /**
+     * Writes the start of a batch.
+     *
+     * @param out where to write
+     * @param count number of envelopes that follow
+     * @throws IOException if the output fails
+     */
+    static void writeBatchHeader(DataOutput out, int count) throws IOException {
+        out.writeByte(VERSION);
+        out.writeShort(count);
+    }
+
+    /**
+     * Writes one envelope.
+     *
+     * @param out where to write
+     * @throws IOException if the output fails
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeUTF(origin);
+        out.writeLong(timeMillis);
+        out.writeLong(senderId.getMostSignificantBits());
+        out.writeLong(senderId.getLeastSignificantBits());
+        out.writeUTF(senderName);
+        out.writeUTF(displayName);
+        out.writeUTF(channel != null ? channel : "");
+        out.writeUTF(formatKey != null ? formatKey : "");
+        out.writeUTF(message);
+    }
+
+    /**
+     * Reads every envelope in a batch.
+     *
+     * @param batch the batch bytes
+     * @return the envelopes, in send order
+     * @throws IOException if the batch is malformed or from another version
+     */
+    public static List<RelayEnvelope> readBatch(byte[] batch) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(batch));
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported relay batch version " + version);
+        }
+        int count = in.readUnsignedShort();
+        List<RelayEnvelope> envelopes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            envelopes.add(read(in));
+        }
+        return envelopes;
+    }
+
+    private static RelayEnvelope read(DataInput in) throws IOException {
+        String origin = in.readUTF();
+        long time = in.readLong();
+        UUID sender = new UUID(in.readLong(), in.readLong());
+        String name = in.readUTF();
+        String displayName = in.readUTF();
+        String channel = in.readUTF();
+        String formatKey = in.readUTF();
+        String message = in.readUTF();
+        return new RelayEnvelope(origin, time, sender, name, displayName,
+                channel.isEmpty() ? null : channel, formatKey.isEmpty() ? null : formatKey, message);
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.relay;
+
+import moe.reno.littlenebo.chat.ChatRecord;
+import moe.reno.littlenebo.chat.ChatSink;
+import moe.reno.littlenebo.config.RelayConfig;
+import moe.reno.littlenebo.metrics.ChatMetrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publishes this server's chat to the relay in small batches.
+ * <p>
+ *     Chat threads only enqueue. The publisher thread wakes on the first message, lingers
+ *     a few milliseconds so a busy moment goes out as one batch instead of a packet per
+ *     line, then encodes and hands the batch to the transport. The queue is bounded; when
+ *     the relay can't keep up, new messages are dropped and counted rather than piling up.
+ * </p>
+ */
+public class RelayPublisher implements ChatSink {
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final RelayTransport transport;
+    private final String serverId;
+    private final long lingerNanos;
+    private final int maxBatch;
+    private final int queueSize;
+    private final ChatMetrics metrics;
+    private final ConcurrentLinkedQueue<ChatRecord> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+    private final DataOutputStream out = new DataOutputStream(bytes);
+    private final List<ChatRecord> batch = new ArrayList<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    /**
+     * Creates the publisher and starts its thread.
+     *
+     * @param transport where batches go
+     * @param config relay settings
+     * @param metrics where sent and dropped messages are counted
+     */
+    public RelayPublisher(RelayTransport transport, RelayConfig config, ChatMetrics metrics) {
+        this.transport = transport;
+        this.serverId = config.serverId();
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, config.lingerMillis()));
+        this.maxBatch = Math.max(1, Math.min(config.maxBatch(), 0xFFFF));
+        this.queueSize = Math.max(1, config.queueSize());
+        this.metrics = metrics;
+        this.thread = new Thread(this::run, "LittleNebo-RelayPublisher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues a message for the relay.
+     *
+     * @param record the message
+     */
+    @Override
+    public void accept(ChatRecord record) {
+        while (true) {
+            int current = depth.get();
+            if (current >= queueSize || !running) {
+                metrics.recordRelayDropped(1);
+                return;
+            }
+            if (depth.compareAndSet(current, current + 1)) {
+                queue.offer(record);
+                if (current == 0 || current + 1 == maxBatch) {
+                    LockSupport.unpark(thread);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sends whatever is still queued, then stops the publisher thread.
+     * Doesn't close the transport.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (running || depth.get() > 0) {
+            if (depth.get() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            // Give the rest of a burst a moment to arrive, unless a full batch is already waiting
+            long deadline = System.nanoTime() + lingerNanos;
+            long remaining;
+            while (running && depth.get() < maxBatch && (remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+            }
+            drain();
+        }
+    }
+
+    private void drain() {
+        batch.clear();
+        ChatRecord record;
+        while (batch.size() < maxBatch && (record = queue.poll()) != null) {
+            depth.decrementAndGet();
+            batch.add(record);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        byte[] encoded;
+        try {
+            encoded = encode(serverId, batch, bytes, out);
+        } catch (IOException e) {
+            // Only a string over 64KB can do this, which chat can't produce
+            metrics.recordRelayDropped(batch.size());
+            return;
+        }
+        if (transport.publish(encoded)) {
+            metrics.recordRelaySent(batch.size());
+        } else {
+            metrics.recordRelayDropped(batch.size());
+        }
+    }
+
+    /**
+     * Encodes messages as one batch, reusing the caller's buffer.
+     *
+     * @param serverId this server's relay id
+     * @param records the messages
+     * @param bytes reused buffer
+     * @param out stream over {@code bytes}
+     * @return the encoded batch
+     * @throws IOException if a field is too long to encode
+     */
+    static byte[] encode(String serverId, List<ChatRecord> records, ByteArrayOutputStream bytes,
+                         DataOutputStream out) throws IOException {
+        bytes.reset();
+        RelayEnvelope.writeBatchHeader(out, records.size());
+        for (ChatRecord record : records) {
+            new RelayEnvelope(serverId, record.timeMillis(), record.playerId(), record.playerName(),
+                    record.displayName(), record.channel(), record.formatKey(), record.message()).writeTo(out);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+}
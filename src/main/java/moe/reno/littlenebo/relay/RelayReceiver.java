@@ -0,0 +1,141 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.relay;
+
+import moe.reno.littlenebo.LittleNebo;
+import moe.reno.littlenebo.chat.ChatChannel;
+import moe.reno.littlenebo.chat.ChatManager;
+import moe.reno.littlenebo.config.FormatConfig;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Shows chat relayed from other servers.
+ * <p>
+ *     Each message is rendered here with this server's own templates, picked by channel
+ *     if this server has the channel and otherwise by the sender's format key. Rendering
+ *     happens on the transport thread; only handing the results to players is done on
+ *     the main thread, once per batch.
+ * </p>
+ * <p>
+ *     World and local channels don't mean anything across servers, so messages in
+ *     channels this server scopes that way are skipped. So are messages in channels this
+ *     server doesn't have at all: a staff channel on one backend must not turn into
+ *     public chat on another. Players here who ignore the sender don't get a copy.
+ * </p>
+ * <p>
+ *     A message that fails to render or deliver is skipped with a debug line. The rest of
+ *     its batch still goes through and the transport keeps reading.
+ * </p>
+ */
+public class RelayReceiver implements Consumer<byte[]> {
+    private final LittleNebo plugin;
+    private final String serverId;
+
+    /**
+     * @param plugin the plugin
+     * @param serverId this server's relay id, so our own messages are never shown twice
+     */
+    public RelayReceiver(LittleNebo plugin, String serverId) {
+        this.plugin = plugin;
+        this.serverId = serverId;
+    }
+
+    @Override
+    public void accept(byte[] batch) {
+        List<RelayEnvelope> envelopes;
+        try {
+            envelopes = RelayEnvelope.readBatch(batch);
+        } catch (IOException e) {
+            plugin.debug("Ignoring relay batch: " + e.getMessage());
+            return;
+        }
+        ChatManager chatManager = plugin.getChatManager();
+        List<Runnable> deliveries = new ArrayList<>(envelopes.size());
+        for (RelayEnvelope envelope : envelopes) {
+            if (serverId.equals(envelope.origin())) {
+                continue;
+            }
+            try {
+                Runnable delivery = prepare(chatManager, envelope);
+                if (delivery != null) {
+                    deliveries.add(delivery);
+                }
+            } catch (RuntimeException e) {
+                // We're on the transport's reader thread, one bad message must not stop the relay
+                plugin.debug(() -> "Skipping relayed message from " + envelope.origin() + ": " + e);
+            }
+        }
+        chatManager.getMetrics().recordRelayReceived(deliveries.size());
+        if (!deliveries.isEmpty()) {
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                for (Runnable delivery : deliveries) {
+                    try {
+                        delivery.run();
+                    } catch (RuntimeException e) {
+                        plugin.debug(() -> "Could not deliver a relayed message: " + e);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Renders one envelope for this server.
+     *
+     * @return what to run on the main thread to show it, or null if it isn't shown here
+     */
+    private Runnable prepare(ChatManager chatManager, RelayEnvelope envelope) {
+        ChatChannel channel = envelope.channel() != null
+                ? chatManager.getChannelManager().getChannel(envelope.channel())
+                : null;
+        if (envelope.channel() != null && channel == null) {
+            // We don't know who may read it here, so nobody does
+            return null;
+        }
+        if (channel != null && channel.getScope() != ChatChannel.Scope.GLOBAL) {
+            return null;
+        }
+        Component rendered = chatManager.formatRemote(envelope.senderName(), envelope.displayName(),
+                envelope.message(), resolveFormat(channel, envelope.formatKey()));
+        UUID sender = envelope.senderId();
+        return () -> deliver(channel, sender, rendered);
+    }
+
+    private FormatConfig resolveFormat(ChatChannel channel, String formatKey) {
+        if (channel != null && channel.getFormat() != null) {
+            return channel.getFormat();
+        }
+        // Null (unknown key) lets formatRemote fall back to the default format
+        return formatKey != null ? plugin.getConfigManager().getFormats().get(formatKey) : null;
+    }
+
+    private void deliver(ChatChannel channel, UUID sender, Component rendered) {
+        Set<UUID> ignorers = new HashSet<>();
+        plugin.getChatManager().getIgnores().forEachIgnorer(sender, ignorers::add);
+        boolean open = channel == null || channel.isOpenToEveryone();
+        if (open && ignorers.isEmpty()) {
+            plugin.getServer().sendMessage(rendered);
+            return;
+        }
+        // Only global channels get here, and their audience doesn't depend on the sender
+        Iterable<? extends Player> audience = open ? plugin.getServer().getOnlinePlayers() : channel.audienceFor(null);
+        for (Player member : audience) {
+            if (!ignorers.contains(member.getUniqueId())) {
+                member.sendMessage(rendered);
+            }
+        }
+        plugin.getServer().getConsoleSender().sendMessage(rendered);
+    }
+}
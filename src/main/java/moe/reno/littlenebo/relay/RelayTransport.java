@@ -0,0 +1,41 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.relay;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Moves encoded batches between servers.
+ * <p>
+ *     A transport only deals in opaque batches; batching, encoding and rendering happen
+ *     on either side of it. The TCP hub is the one that ships, a broker (Redis, NATS...)
+ *     can be swapped in by implementing this.
+ * </p>
+ */
+public interface RelayTransport {
+    /**
+     * Connects and starts delivering incoming batches.
+     *
+     * @param receiver called with each batch from another server, on the transport's own thread
+     * @throws IOException if the transport can't be set up at all
+     */
+    void start(Consumer<byte[]> receiver) throws IOException;
+
+    /**
+     * Sends a batch to every other server.
+     * Only called from the publisher thread, one batch at a time.
+     *
+     * @param batch the encoded batch
+     * @return true if it was handed off, false if it was dropped (e.g. not connected)
+     */
+    boolean publish(byte[] batch);
+
+    /**
+     * Disconnects and stops delivering.
+     */
+    void close();
+}
@@ -0,0 +1,187 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.relay;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * A tiny fan-out hub: every batch a server sends is forwarded to every other connected server.
+ * <p>
+ *     It stands in for a real broker on small networks, hosted by one of the backends.
+ *     It never looks inside a batch, and uses one thread per connected server, which is
+ *     fine for the handful of backends a network has.
+ * </p>
+ * <p>
+ *     On the wire each batch is a frame: an int length followed by that many bytes.
+ * </p>
+ */
+public class TcpRelayHub {
+    /** Frames larger than this are treated as a broken connection. */
+    static final int MAX_FRAME_BYTES = 4 * 1024 * 1024;
+
+    private final Logger logger;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private volatile ServerSocket server;
+
+    /**
+     * @param logger for connection problems; may be null
+     */
+    public TcpRelayHub(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Starts listening.
+     *
+     * @param bindAddress address to listen on
+     * @param port port to listen on, 0 for any free port
+     * @throws IOException if the port can't be bound
+     */
+    public void start(String bindAddress, int port) throws IOException {
+        ServerSocket socket = new ServerSocket();
+        socket.setReuseAddress(true);
+        socket.bind(new InetSocketAddress(bindAddress, port));
+        server = socket;
+        Thread acceptor = new Thread(this::acceptLoop, "LittleNebo-RelayHub");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /** @return the port actually bound, or -1 if not running */
+    public int port() {
+        ServerSocket socket = server;
+        return socket != null ? socket.getLocalPort() : -1;
+    }
+
+    /** @return number of servers currently connected */
+    public int connectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * Stops listening and drops every connection.
+     */
+    public void close() {
+        ServerSocket socket = server;
+        server = null;
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Closing anyway
+            }
+        }
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+
+    private void acceptLoop() {
+        ServerSocket socket = server;
+        while (socket != null && !socket.isClosed()) {
+            try {
+                Socket client = socket.accept();
+                client.setTcpNoDelay(true);
+                Connection connection = new Connection(client);
+                connections.add(connection);
+                Thread reader = new Thread(() -> forwardLoop(connection),
+                        "LittleNebo-RelayHub-" + client.getRemoteSocketAddress());
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                if (!socket.isClosed() && logger != null) {
+                    logger.warning("Relay hub could not accept a connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void forwardLoop(Connection from) {
+        try {
+            while (true) {
+                byte[] frame = readFrame(from.in);
+                for (Connection to : connections) {
+                    if (to != from) {
+                        to.send(frame);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Disconnected, the server will reconnect on its own
+        } finally {
+            from.close();
+        }
+    }
+
+    /**
+     * Reads one length-prefixed frame.
+     *
+     * @param in the stream
+     * @return the frame
+     * @throws IOException on disconnect or an oversized frame
+     */
+    static byte[] readFrame(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_FRAME_BYTES) {
+            throw new IOException("Bad relay frame length " + length);
+        }
+        byte[] frame = new byte[length];
+        in.readFully(frame);
+        return frame;
+    }
+
+    /**
+     * Writes one length-prefixed frame and flushes it.
+     *
+     * @param out the stream
+     * @param frame the frame
+     * @throws IOException if the write fails
+     */
+    static void writeFrame(DataOutputStream out, byte[] frame) throws IOException {
+        out.writeInt(frame.length);
+        out.write(frame);
+        out.flush();
+    }
+
+    private final class Connection {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        synchronized void send(byte[] frame) {
+            try {
+                writeFrame(out, frame);
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        void close() {
+            connections.remove(this);
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Closing anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.relay;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Connects to a {@link TcpRelayHub}, reconnecting with backoff if the connection drops.
+ * <p>
+ *     Batches published while disconnected are dropped rather than queued, chat that is
+ *     seconds old isn't worth replaying.
+ * </p>
+ */
+public class TcpRelayTransport implements RelayTransport {
+    private static final int CONNECT_TIMEOUT_MILLIS = 3000;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final String host;
+    private final int port;
+    private final Logger logger;
+    private final Object writeLock = new Object();
+    private volatile boolean running;
+    private volatile Socket socket;
+    private volatile DataOutputStream out;
+    private Thread reader;
+
+    /**
+     * @param host hub address
+     * @param port hub port
+     * @param logger for connection problems; may be null
+     */
+    public TcpRelayTransport(String host, int port, Logger logger) {
+        this.host = host;
+        this.port = port;
+        this.logger = logger;
+    }
+
+    @Override
+    public void start(Consumer<byte[]> receiver) {
+        running = true;
+        reader = new Thread(() -> readLoop(receiver), "LittleNebo-Relay");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /** @return true while connected to the hub */
+    public boolean isConnected() {
+        return out != null;
+    }
+
+    @Override
+    public boolean publish(byte[] batch) {
+        DataOutputStream stream = out;
+        if (stream == null) {
+            return false;
+        }
+        synchronized (writeLock) {
+            try {
+                TcpRelayHub.writeFrame(stream, batch);
+                return true;
+            } catch (IOException e) {
+                disconnect();
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        disconnect();
+        if (reader != null) {
+            LockSupport.unpark(reader);
+        }
+    }
+
+    private void readLoop(Consumer<byte[]> receiver) {
+        long backoff = 1000;
+        boolean warned = false;
+        while (running) {
+            try {
+                Socket connection = new Socket();
+                connection.setTcpNoDelay(true);
+                connection.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+                socket = connection;
+                out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+                if (logger != null) {
+                    logger.info("Connected to chat relay at " + host + ":" + port);
+                }
+                backoff = 1000;
+                warned = false;
+                while (running) {
+                    receiver.accept(TcpRelayHub.readFrame(in));
+                }
+            } catch (IOException e) {
+                if (running && !warned && logger != null) {
+                    logger.warning("Chat relay at " + host + ":" + port + " unavailable: " + e.getMessage()
+                            + ". Retrying in the background.");
+                    warned = true;
+                }
+            }
+            disconnect();
+            if (running) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoff));
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private void disconnect() {
+        out = null;
+        Socket current = socket;
+        socket = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException ignored) {
+                // Closing anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable Aho-Corasick automaton for finding many patterns in one pass.
+ * <p>
+ *     Built once (e.g. on config load or a batch of joins) and then scanned from any
+ *     thread. A scan is linear in the text length plus the number of matches, no
+ *     matter how many patterns there are. Matching is case-insensitive; patterns and
+ *     text are folded with {@link Character#toLowerCase(char)}.
+ * </p>
+ */
+public final class AhoCorasick {
+    /**
+     * Receives matches during a scan.
+     */
+    @FunctionalInterface
+    public interface MatchListener {
+        /**
+         * Called for every match, in order of end position.
+         *
+         * @param patternId the id given to the pattern when it was added
+         * @param start index of the first matched character
+         * @param end index just past the last matched character
+         * @return false to stop scanning
+         */
+        boolean onMatch(int patternId, int start, int end);
+    }
+
+    private static final int[] NO_OUTPUT = new int[0];
+    private static final AhoCorasick EMPTY = new Builder().build();
+
+    // Per node: sorted transition chars and the matching child node
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] fail;
+    // Pattern ids ending at this node, including those inherited through fail links
+    private final int[][] outputs;
+    private final int[] patternLengths;
+
+    private AhoCorasick(char[][] edgeChars, int[][] edgeTargets, int[] fail, int[][] outputs, int[] patternLengths) {
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.outputs = outputs;
+        this.patternLengths = patternLengths;
+    }
+
+    /**
+     * @return an automaton that never matches
+     */
+    public static AhoCorasick empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @return a builder for a new automaton
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return true if there are no patterns
+     */
+    public boolean isEmpty() {
+        return patternLengths.length == 0;
+    }
+
+    /**
+     * Scans text for every pattern.
+     *
+     * @param text the text to scan
+     * @param listener receives each match
+     */
+    public void scan(CharSequence text, MatchListener listener) {
+        if (patternLengths.length == 0) {
+            return;
+        }
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int next;
+            while ((next = step(state, c)) < 0 && state != 0) {
+                state = fail[state];
+            }
+            state = Math.max(next, 0);
+            for (int id : outputs[state]) {
+                if (!listener.onMatch(id, i + 1 - patternLengths[id], i + 1)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private int step(int state, char c) {
+        char[] chars = edgeChars[state];
+        int index = Arrays.binarySearch(chars, c);
+        return index >= 0 ? edgeTargets[state][index] : -1;
+    }
+
+    /**
+     * Collects patterns and builds the automaton.
+     */
+    public static final class Builder {
+        private final List<Map<Character, Integer>> children = new ArrayList<>();
+        private final List<List<Integer>> ends = new ArrayList<>();
+        private final List<Integer> lengths = new ArrayList<>();
+
+        private Builder() {
+            newNode();
+        }
+
+        /**
+         * Adds a pattern. Ids are assigned in order starting at 0.
+         *
+         * @param pattern the text to find; empty patterns are ignored
+         * @return the pattern id, or -1 if ignored
+         */
+        public int add(String pattern) {
+            if (pattern == null || pattern.isEmpty()) {
+                return -1;
+            }
+            int node = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = Character.toLowerCase(pattern.charAt(i));
+                Integer child = children.get(node).get(c);
+                if (child == null) {
+                    child = newNode();
+                    children.get(node).put(c, child);
+                }
+                node = child;
+            }
+            int id = lengths.size();
+            lengths.add(pattern.length());
+            ends.get(node).add(id);
+            return id;
+        }
+
+        /**
+         * Computes fail links and freezes the automaton.
+         *
+         * @return the built automaton
+         */
+        public AhoCorasick build() {
+            int size = children.size();
+            char[][] edgeChars = new char[size][];
+            int[][] edgeTargets = new int[size][];
+            for (int node = 0; node < size; node++) {
+                Map<Character, Integer> edges = children.get(node);
+                char[] chars = new char[edges.size()];
+                int i = 0;
+                for (char c : edges.keySet()) {
+                    chars[i++] = c;
+                }
+                Arrays.sort(chars);
+                int[] targets = new int[chars.length];
+                for (i = 0; i < chars.length; i++) {
+                    targets[i] = edges.get(chars[i]);
+                }
+                edgeChars[node] = chars;
+                edgeTargets[node] = targets;
+            }
+
+            int[] fail = new int[size];
+            int[][] outputs = new int[size][];
+            outputs[0] = toArray(ends.get(0));
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int child : edgeTargets[0]) {
+                fail[child] = 0;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                int[] inherited = outputs[fail[node]];
+                int[] own = toArray(ends.get(node));
+                if (inherited.length == 0) {
+                    outputs[node] = own;
+                } else {
+                    int[] merged = Arrays.copyOf(own, own.length + inherited.length);
+                    System.arraycopy(inherited, 0, merged, own.length, inherited.length);
+                    outputs[node] = merged;
+                }
+                for (int i = 0; i < edgeChars[node].length; i++) {
+                    char c = edgeChars[node][i];
+                    int child = edgeTargets[node][i];
+                    int f = fail[node];
+                    int target;
+                    while (true) {
+                        int index = Arrays.binarySearch(edgeChars[f], c);
+                        if (index >= 0) {
+                            target = edgeTargets[f][index];
+                            break;
+                        }
+                        if (f == 0) {
+                            target = 0;
+                            break;
+                        }
+                        f = fail[f];
+                    }
+                    fail[child] = target;
+                    queue.add(child);
+                }
+            }
+
+            int[] patternLengths = new int[lengths.size()];
+            for (int i = 0; i < patternLengths.length; i++) {
+                patternLengths[i] = lengths.get(i);
+            }
+            return new AhoCorasick(edgeChars, edgeTargets, fail, outputs, patternLengths);
+        }
+
+        private int newNode() {
+            children.add(new HashMap<>());
+            ends.add(new ArrayList<>(1));
+            return children.size() - 1;
+        }
+
+        private static int[] toArray(List<Integer> values) {
+            if (values.isEmpty()) {
+                return NO_OUTPUT;
+            }
+            int[] out = new int[values.size()];
+            for (int i = 0; i < out.length; i++) {
+                out[i] = values.get(i);
+            }
+            return out;
+        }
+    }
+}
@@ -30,6 +30,9 @@ import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -174,6 +177,20 @@ public class ColorUtil {
         return unsafeMiniMessage.deserialize(text);
     }
 
+    /**
+     * Parse trusted MiniMessage with extra resolvers, e.g. the plugin's format fragments.
+     *
+     * @param text a String containing MiniMessage tags
+     * @param extra additional trusted resolvers
+     * @return a formatted Component; never null
+     */
+    public static Component parseMiniMessage(String text, TagResolver extra) {
+        if (text == null) {
+            return Component.empty();
+        }
+        return unsafeMiniMessage.deserialize(text, extra);
+    }
+
     /**
      * Serializes a MiniMessage Component into its string with formatting.
      *
@@ -199,6 +216,18 @@ public class ColorUtil {
      * @return a formatted Component, restricted to safe styling; never null
      */
     public static Component parseMixedFormattingComponent(String text) {
+        return parseMixedFormattingComponent(text, TagResolver.empty());
+    }
+
+    /**
+     * Same as {@link #parseMixedFormattingComponent(String)}, with extra tags resolved
+     * in the same parse (e.g. the plugin's own emoji tags).
+     *
+     * @param text a String containing both '{@literal &}' codes and MiniMessage tags
+     * @param extra additional trusted resolvers
+     * @return a formatted Component; never null
+     */
+    public static Component parseMixedFormattingComponent(String text, TagResolver extra) {
         if (text == null) {
             return Component.empty();
         }
@@ -206,7 +235,7 @@ public class ColorUtil {
         for (Map.Entry<String, String> entry : LEGACY_CODES.entrySet()) {
             text = text.replace(entry.getKey(), entry.getValue());
         }
-        return safeMiniMessage.deserialize(text);
+        return safeMiniMessage.deserialize(text, extra);
     }
 
     /**
@@ -232,6 +261,125 @@ public class ColorUtil {
         return text;
     }
 
+    /**
+     * Copies a component tree with every click and hover event removed, e.g. for the
+     * console, which can't use them.
+     *
+     * @param component the root component
+     * @return the tree without click or hover events
+     */
+    public static Component withoutEvents(Component component) {
+        List<Component> children = component.children();
+        List<Component> stripped = new ArrayList<>(children.size());
+        for (Component child : children) {
+            stripped.add(withoutEvents(child));
+        }
+        return component.clickEvent(null).hoverEvent(null).children(stripped);
+    }
+
+    /**
+     * Counts the nodes in a component tree, including the root.
+     *
+     * @param component the root component; may be null
+     * @param limit stop counting once this many nodes have been seen
+     * @return the node count, capped at {@code limit}
+     */
+    public static int countComponents(Component component, int limit) {
+        if (component == null) {
+            return 0;
+        }
+        int count = 0;
+        ArrayDeque<Component> stack = new ArrayDeque<>();
+        stack.push(component);
+        while (!stack.isEmpty() && count < limit) {
+            Component current = stack.pop();
+            count++;
+            for (Component child : current.children()) {
+                stack.push(child);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether a player message can skip MiniMessage entirely.
+     * <p>
+     *     Most chat is plain text. If there is no tag opener, no escape and (when legacy codes
+     *     are enabled) no {@literal &}, parsing would just produce a single text component.
+     * </p>
+     *
+     * @param text the message to check; may be null
+     * @param legacyCodes true if {@literal &} codes would be translated
+     * @return true if {@code Component.text(text)} is equivalent to a full parse
+     */
+    public static boolean isPlainText(String text, boolean legacyCodes) {
+        if (text == null) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '<' || c == '\\' || (legacyCodes && c == '&')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds where a MiniMessage tag starting at {@code start} ends.
+     * <p>
+     *     A {@code <} only opens a tag if a {@code >} follows with no whitespace (or another
+     *     {@code <}) in between, which is what separates {@code <red>} from chat like
+     *     {@code i <3 you} or {@code x < y}.
+     * </p>
+     *
+     * @param text the text
+     * @param start index of a {@code <}
+     * @return index just past the closing {@code >}, or -1 if this isn't a tag
+     */
+    public static int tagEnd(CharSequence text, int start) {
+        if (start >= text.length() || text.charAt(start) != '<') {
+            return -1;
+        }
+        for (int i = start + 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '>') {
+                return i > start + 1 ? i + 1 : -1;
+            }
+            if (c == '<' || Character.isWhitespace(c)) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds where a legacy {@literal &} code starting at {@code start} ends, for codes
+     * like {@literal &c} and {@literal &#ff00aa}.
+     *
+     * @param text the text
+     * @param start index of a {@literal &}
+     * @return index just past the code, or -1 if this isn't one
+     */
+    public static int legacyCodeEnd(CharSequence text, int start) {
+        if (start + 1 >= text.length() || text.charAt(start) != '&') {
+            return -1;
+        }
+        char code = Character.toLowerCase(text.charAt(start + 1));
+        if (code == '#') {
+            if (start + 8 > text.length()) {
+                return -1;
+            }
+            for (int i = start + 2; i < start + 8; i++) {
+                if (Character.digit(text.charAt(i), 16) < 0) {
+                    return -1;
+                }
+            }
+            return start + 8;
+        }
+        return "0123456789abcdefklmnor".indexOf(code) >= 0 ? start + 2 : -1;
+    }
+
     /**
      * Parses a MiniMessage String with only safe styling tags (color, gradient, rainbow, pride, decorations).
      *<p>
@@ -242,10 +390,21 @@ public class ColorUtil {
      * @return a formatted Component with only safe tags; never null
      */
     public static Component parseSafeMiniMessage(String text) {
+        return parseSafeMiniMessage(text, TagResolver.empty());
+    }
+
+    /**
+     * Same as {@link #parseSafeMiniMessage(String)}, with extra tags resolved in the same parse.
+     *
+     * @param text a String containing MiniMessage styling tags
+     * @param extra additional trusted resolvers
+     * @return a formatted Component; never null
+     */
+    public static Component parseSafeMiniMessage(String text, TagResolver extra) {
         if (text == null) {
             return Component.empty();
         }
-        return safeMiniMessage.deserialize(text);
+        return safeMiniMessage.deserialize(text, extra);
     }
 
 }
@@ -0,0 +1,121 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Lazy, sampled debug tracing with an in-memory ring buffer.
+ * <p>
+ *     Messages are passed as {@link Supplier}s and only built if the trace is actually
+ *     kept, so call sites cost a branch and a random roll when tracing is on and nothing
+ *     at all when it's off. The most recent traces are kept for {@code /nebo debug dump}.
+ * </p>
+ */
+public class DebugTracer {
+    /**
+     * A single recorded trace line.
+     *
+     * @param timeMillis wall clock time the trace was recorded
+     * @param thread name of the recording thread
+     * @param message the formatted message
+     */
+    public record Entry(long timeMillis, String thread, String message) {}
+
+    private final Logger logger;
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile AtomicReferenceArray<Entry> ring;
+    private volatile double sampleRate = 1.0;
+    private volatile boolean logToConsole = true;
+
+    /**
+     * @param logger where emitted traces are logged; may be null to only buffer
+     * @param capacity number of traces to keep
+     */
+    public DebugTracer(Logger logger, int capacity) {
+        this.logger = logger;
+        this.ring = new AtomicReferenceArray<>(Math.max(1, capacity));
+    }
+
+    /**
+     * Applies new settings. Resizing clears the buffer.
+     *
+     * @param sampleRate fraction of traces to keep, 0.0 to 1.0
+     * @param capacity number of traces to keep
+     * @param logToConsole whether kept traces are also written to the logger
+     */
+    public void configure(double sampleRate, int capacity, boolean logToConsole) {
+        this.sampleRate = Math.max(0.0, Math.min(1.0, sampleRate));
+        this.logToConsole = logToConsole;
+        capacity = Math.max(1, capacity);
+        if (capacity != ring.length()) {
+            ring = new AtomicReferenceArray<>(capacity);
+            sequence.set(0);
+        }
+    }
+
+    /**
+     * Records a trace if it survives sampling. The supplier is not called otherwise.
+     *
+     * @param message supplies the trace text
+     */
+    public void trace(Supplier<String> message) {
+        double rate = sampleRate;
+        if (rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate) {
+            return;
+        }
+        record(message.get());
+    }
+
+    /**
+     * Records an already built trace, bypassing sampling.
+     *
+     * @param message the trace text
+     */
+    public void record(String message) {
+        AtomicReferenceArray<Entry> buffer = ring;
+        long seq = sequence.getAndIncrement();
+        buffer.set((int) (seq % buffer.length()),
+                new Entry(System.currentTimeMillis(), Thread.currentThread().getName(), message));
+        if (logToConsole && logger != null) {
+            logger.info("[DEBUG] " + message);
+        }
+    }
+
+    /**
+     * Returns the most recent traces, oldest first.
+     *
+     * @param limit maximum number of traces to return
+     * @return a snapshot of recent traces
+     */
+    public List<Entry> recent(int limit) {
+        AtomicReferenceArray<Entry> buffer = ring;
+        long end = sequence.get();
+        long start = Math.max(0, end - Math.min(limit, buffer.length()));
+        List<Entry> out = new ArrayList<>((int) (end - start));
+        for (long seq = start; seq < end; seq++) {
+            Entry entry = buffer.get((int) (seq % buffer.length()));
+            if (entry != null) {
+                out.add(entry);
+            }
+        }
+        return out;
+    }
+
+    /** Drops all buffered traces. */
+    public void clear() {
+        AtomicReferenceArray<Entry> buffer = ring;
+        for (int i = 0; i < buffer.length(); i++) {
+            buffer.set(i, null);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.util;
+
+/**
+ * Complexity limits for untrusted player MiniMessage.
+ * <p>
+ *     Checked with a single linear scan before the message is handed to MiniMessage,
+ *     so over-budget input never pays for a parse. Styled components are estimated
+ *     as one per tag plus one per visible character inside a gradient or rainbow,
+ *     since those split their content into a component per character.
+ *     A limit of 0 or less means unlimited.
+ * </p>
+ *
+ * @param maxTags maximum number of tags (legacy codes count as tags)
+ * @param maxNesting maximum depth of unclosed tags
+ * @param maxComponents maximum estimated number of styled components
+ */
+public record InputBudget(int maxTags, int maxNesting, int maxComponents) {
+    /** A budget that allows anything. */
+    public static final InputBudget UNLIMITED = new InputBudget(0, 0, 0);
+
+    /**
+     * Checks a message against this budget.
+     *
+     * @param text the player message, after pride tags have been converted
+     * @param legacyCodes true if {@literal &} codes will be translated into tags
+     * @return true if the message is within budget
+     */
+    public boolean allows(String text, boolean legacyCodes) {
+        if (text == null || (maxTags <= 0 && maxNesting <= 0 && maxComponents <= 0)) {
+            return true;
+        }
+        int tags = 0;
+        int depth = 0;
+        int maxDepth = 0;
+        int spanDepth = 0;
+        int spanChars = 0;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < length) {
+                // Escaped character, counts as visible text
+                if (spanDepth > 0) {
+                    spanChars++;
+                }
+                i += 2;
+                continue;
+            }
+            int codeEnd = legacyCodes && c == '&' ? ColorUtil.legacyCodeEnd(text, i) : -1;
+            if (codeEnd > 0) {
+                tags++;
+                if (Character.toLowerCase(text.charAt(i + 1)) == 'r') {
+                    depth = 0;
+                    spanDepth = 0;
+                } else {
+                    depth++;
+                }
+                maxDepth = Math.max(maxDepth, depth);
+                i = codeEnd;
+                continue;
+            }
+            if (c == '<') {
+                // Same idea of a tag as the emoji, link and filter stages
+                int end = ColorUtil.tagEnd(text, i);
+                if (end > 0) {
+                    tags++;
+                    boolean closing = text.charAt(i + 1) == '/';
+                    boolean selfClosing = text.charAt(end - 2) == '/';
+                    boolean span = startsWithIgnoreCase(text, closing ? i + 2 : i + 1, "gradient")
+                            || startsWithIgnoreCase(text, closing ? i + 2 : i + 1, "rainbow");
+                    if (startsWithIgnoreCase(text, i + 1, "reset")) {
+                        depth = 0;
+                        spanDepth = 0;
+                    } else if (closing) {
+                        depth = Math.max(0, depth - 1);
+                        if (span) {
+                            spanDepth = Math.max(0, spanDepth - 1);
+                        }
+                    } else if (!selfClosing) {
+                        depth++;
+                        if (span) {
+                            spanDepth++;
+                        }
+                    }
+                    maxDepth = Math.max(maxDepth, depth);
+                    if ((maxTags > 0 && tags > maxTags) || (maxNesting > 0 && maxDepth > maxNesting)) {
+                        return false;
+                    }
+                    i = end;
+                    continue;
+                }
+            }
+            if (spanDepth > 0 && !Character.isWhitespace(c)) {
+                spanChars++;
+            }
+            i++;
+        }
+        return (maxTags <= 0 || tags <= maxTags)
+                && (maxNesting <= 0 || maxDepth <= maxNesting)
+                && (maxComponents <= 0 || tags + spanChars <= maxComponents);
+    }
+
+    private static boolean startsWithIgnoreCase(String text, int offset, String prefix) {
+        return text.regionMatches(true, offset, prefix, 0, prefix.length());
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.announce;
+
+import moe.reno.littlenebo.chat.FormatFragments;
+import moe.reno.littlenebo.util.ColorUtil;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for compiled announcements
+ */
+class AnnouncementTest {
+
+    @Test
+    void placeholders_findsEachOnceInOrder() {
+        assertArrayEquals(new String[] {"%player_name%", "%server_online%"},
+                Announcement.placeholders("Hi %player_name%, %server_online% online. Bye %player_name%! 100% fun"));
+    }
+
+    @Test
+    void render_withoutPlaceholders_isTheSameComponentForEveryone() {
+        Announcement announcement = Announcement.compile("<gold>Tip:</gold> be nice", FormatFragments.EMPTY);
+        assertTrue(announcement.isShared());
+        assertSame(announcement.template(), announcement.render(List.of(), new HashMap<>()));
+    }
+
+    @Test
+    void render_sharesRendersForEqualValues() {
+        Announcement announcement = Announcement.compile("<gold>Hi %player_name%</gold>, %server_online% online",
+                FormatFragments.EMPTY);
+        Map<List<String>, Component> renders = new HashMap<>();
+
+        Component alice = announcement.render(List.of("Alice", "3"), renders);
+        Component alsoAlice = announcement.render(List.of("Alice", "3"), renders);
+        Component bob = announcement.render(List.of("§cBob", "3"), renders);
+
+        assertSame(alice, alsoAlice);
+        assertEquals(2, renders.size());
+        assertEquals("Hi Alice, 3 online", ColorUtil.componentToString(alice));
+        assertEquals("Hi Bob, 3 online", ColorUtil.componentToString(bob));
+    }
+
+    @Test
+    void render_fillsPlaceholdersInsideTagsBeforeParsing() {
+        Announcement announcement = Announcement.compile(
+                "<click:run_command:'/warp %player_name%'><color:%rank_color%>Warp home, %player_name%</color></click>",
+                FormatFragments.EMPTY);
+        Map<List<String>, Component> renders = new HashMap<>();
+
+        Component alice = announcement.render(List.of("Alice", "#ff0000"), renders);
+        Component alsoAlice = announcement.render(List.of("Alice", "#ff0000"), renders);
+
+        assertSame(alice, alsoAlice);
+        assertEquals("Warp home, Alice", ColorUtil.componentToString(alice));
+        String serialised = ColorUtil.serialiseMiniMessage(alice);
+        assertTrue(serialised.contains("/warp Alice"), serialised);
+        assertTrue(serialised.contains("#ff0000"), serialised);
+    }
+
+    @Test
+    void render_keepsPlaceholderValuesFromClosingTheTag() {
+        Announcement announcement = Announcement.compile("<click:run_command:'/warp %player_name%'>Go</click>",
+                FormatFragments.EMPTY);
+
+        Component rendered = announcement.render(List.of("x'><red>§cEvil"), new HashMap<>());
+
+        assertEquals("Go", ColorUtil.componentToString(rendered));
+        assertTrue(ColorUtil.serialiseMiniMessage(rendered).contains("/warp xredEvil"));
+    }
+
+    @Test
+    void hasPlaceholderInTag_onlyLooksInsideTags() {
+        assertTrue(Announcement.hasPlaceholderInTag("<hover:show_text:'Hi %player_name%'>x</hover>"));
+        assertFalse(Announcement.hasPlaceholderInTag("<gold>Hi %player_name%</gold> <3"));
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import moe.reno.littlenebo.config.ChannelConfig;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ChannelManager audience tracking using MockBukkit
+ */
+class ChannelManagerTest {
+    private ServerMock server;
+    private Plugin permissionPlugin;
+    private ChannelManager channelManager;
+    private PlayerMock staff;
+    private PlayerMock member;
+
+    @BeforeEach
+    void setUp() {
+        server = MockBukkit.mock();
+        permissionPlugin = MockBukkit.createMockPlugin();
+
+        staff = server.addPlayer("Staff");
+        staff.addAttachment(permissionPlugin, "littlenebo.channel.staff", true);
+        member = server.addPlayer("Member");
+
+        channelManager = new ChannelManager();
+        channelManager.load(List.of(
+                new ChannelConfig("global", "global", "", null, true, 100),
+                new ChannelConfig("staff", "global", "littlenebo.channel.staff", null, false, 100)
+        ), server.getOnlinePlayers());
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void load_permissionChannel_onlyContainsPermittedPlayers() {
+        ChatChannel staffChannel = channelManager.getChannel("staff");
+
+        assertTrue(staffChannel.audienceFor(staff).contains(staff));
+        assertFalse(staffChannel.audienceFor(staff).contains(member));
+        assertEquals(2, channelManager.getChannel("global").audienceFor(member).size());
+    }
+
+    @Test
+    void getActiveChannel_defaultsAndSwitches() {
+        assertEquals("global", channelManager.getActiveChannel(staff).getName());
+
+        assertTrue(channelManager.setActiveChannel(staff, "staff"));
+        assertEquals("staff", channelManager.getActiveChannel(staff).getName());
+
+        assertFalse(channelManager.setActiveChannel(member, "staff"));
+        assertEquals("global", channelManager.getActiveChannel(member).getName());
+    }
+
+    @Test
+    void refresh_afterPermissionGranted_joinsAudience() {
+        member.addAttachment(permissionPlugin, "littlenebo.channel.staff", true);
+        channelManager.refresh(member);
+
+        assertTrue(channelManager.getChannel("staff").audienceFor(staff).contains(member));
+    }
+
+    @Test
+    void onQuit_removesFromEveryAudience() {
+        channelManager.setActiveChannel(staff, "staff");
+        @SuppressWarnings("deprecation")
+        PlayerQuitEvent event = new PlayerQuitEvent(staff, Component.text(""));
+
+        channelManager.onQuit(event);
+
+        assertFalse(channelManager.getChannel("staff").audienceFor(member).contains(staff));
+        assertFalse(channelManager.getChannel("global").audienceFor(member).contains(staff));
+    }
+
+    @Test
+    void worldChannel_followsWorldChangeEventsNotTheEntity() {
+        channelManager.load(List.of(new ChannelConfig("world", "world", "", null, true, 100)),
+                server.getOnlinePlayers());
+        ChatChannel channel = channelManager.getChannel("world");
+        World from = member.getWorld();
+        World other = server.addSimpleWorld("other");
+
+        member.setLocation(new Location(other, 0, 64, 0));
+        // No event yet, so chat still sees the world they were last known to be in
+        assertTrue(channel.audienceFor(staff).contains(member));
+
+        channelManager.onWorldChange(new PlayerChangedWorldEvent(member, from));
+
+        assertFalse(channel.audienceFor(staff).contains(member));
+        assertEquals(1, channel.audienceFor(member).size());
+        assertTrue(channel.isMember(member));
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the ChatHistory ring buffer
+ */
+class ChatHistoryTest {
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+
+    @Test
+    void recent_returnsNewestEntriesOldestFirst() {
+        ChatHistory history = new ChatHistory(3, 64);
+        history.record(1, alice, "global", "one");
+        history.record(2, bob, null, "two");
+        history.record(3, alice, "staff", "three");
+        history.record(4, bob, "global", "four");
+
+        List<ChatHistory.Entry> entries = history.recent(null, 10);
+
+        assertEquals(List.of("two", "three", "four"), entries.stream().map(ChatHistory.Entry::message).toList());
+        assertNull(entries.get(0).channel());
+        assertEquals("staff", entries.get(1).channel());
+        assertEquals(alice, entries.get(1).player());
+    }
+
+    @Test
+    void recent_filtersByPlayerAndLimit() {
+        ChatHistory history = new ChatHistory(10, 64);
+        for (int i = 0; i < 6; i++) {
+            history.record(i, i % 2 == 0 ? alice : bob, null, "msg" + i);
+        }
+
+        assertEquals(List.of("msg2", "msg4"),
+                history.recent(alice, 2).stream().map(ChatHistory.Entry::message).toList());
+    }
+
+    @Test
+    void record_truncatesWithoutSplittingCharacters() {
+        ChatHistory history = new ChatHistory(1, 16);
+        history.record(1, alice, null, "héllo wörld ✨✨✨");
+
+        String stored = history.recent(null, 1).get(0).message();
+
+        assertEquals("héllo wörld ", stored);
+        assertEquals(0, ChatHistory.encode("✨", new byte[8], 0, 2));
+    }
+
+    @Test
+    void record_concurrentWritersNeverProduceTornEntries() throws InterruptedException {
+        ChatHistory history = new ChatHistory(64, 64);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            UUID player = UUID.randomUUID();
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    history.record(i, player, null, player + ":" + i);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (int i = 0; i < 200; i++) {
+            for (ChatHistory.Entry entry : history.recent(null, 64)) {
+                assertEquals(entry.player() + ":" + entry.timeMillis(), entry.message());
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(64, history.recent(null, 100).size());
+    }
+}
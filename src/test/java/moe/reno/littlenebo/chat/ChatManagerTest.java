@@ -30,16 +30,32 @@ import io.papermc.paper.event.player.AsyncChatEvent;
 import moe.reno.littlenebo.LittleNebo;
 import moe.reno.littlenebo.config.ConfigManager;
 import moe.reno.littlenebo.config.FormatConfig;
+import moe.reno.littlenebo.config.MessagingConfig;
+import moe.reno.littlenebo.metrics.ChatMetrics;
 import moe.reno.littlenebo.util.ColorUtil;
+import moe.reno.littlenebo.util.InputBudget;
+import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import io.papermc.paper.chat.ChatRenderer;
 import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -85,6 +101,7 @@ class ChatManagerTest {
         // Create a test player
         player = server.addPlayer("TestPlayer");
         player.displayName(Component.text("TestPlayer"));
+        chatManager.onPlayerJoin(new PlayerJoinEvent(player, Component.empty()));
         
         // Access the chatRenderer directly from ChatManager
         try {
@@ -121,6 +138,18 @@ class ChatManagerTest {
         assertTrue(content.contains("Colored") && content.contains("message"));
     }
     
+    @Test
+    void formatConsole_usesTheConsoleTemplate() {
+        Component result = chatManager.formatConsole(player, chatManager.parse("&cHello https://example.com").body(), null);
+        assertEquals("TestPlayer: Hello https://example.com", ColorUtil.componentToString(result));
+    }
+
+    @Test
+    void fillConsole_replacesEachPlaceholderOnce() {
+        assertEquals("[trade] {message}: hi {x}",
+                ChatManager.fillConsole("[{channel}] {name}: {message} {x}", "{message}", "Nick", "trade", "hi"));
+    }
+
     @Test
     void formatMessage_withNullPlayer_usesConsoleAsDisplayName() {
         // Test formatting with null player (represents console)
@@ -142,13 +171,13 @@ class ChatManagerTest {
         when(event.isCancelled()).thenReturn(false);
         
         // Mock the renderer setting
-        Mockito.doNothing().when(event).renderer(Mockito.any(NeboChatRenderer.class));
+        Mockito.doNothing().when(event).renderer(Mockito.any(ChatRenderer.class));
         
         // Call the handler
         chatManager.onChat(event);
         
         // Verify renderer was set
-        Mockito.verify(event).renderer(Mockito.any(NeboChatRenderer.class));
+        Mockito.verify(event).renderer(Mockito.any(ChatRenderer.class));
         
         // Instead of using the renderer directly to verify message storage,
         // call formatMessage again and check its output since that's what the renderer uses
@@ -157,16 +186,149 @@ class ChatManagerTest {
         assertTrue(content.contains("TestPlayer") && content.contains("Test message"));
     }
 
+    @Test
+    void onChat_removesPlayersIgnoringTheSender() {
+        PlayerMock grumpy = server.addPlayer("Grumpy");
+        PlayerMock friendly = server.addPlayer("Friendly");
+        chatManager.onPlayerJoin(new PlayerJoinEvent(grumpy, Component.empty()));
+        chatManager.getIgnores().load(grumpy.getUniqueId(), List.of(player.getUniqueId()));
+        Set<Audience> viewers = new HashSet<>(List.of(player, grumpy, friendly));
+
+        AsyncChatEvent event = Mockito.mock(AsyncChatEvent.class);
+        when(event.getPlayer()).thenReturn(player);
+        when(event.message()).thenReturn(Component.text("hello"));
+        when(event.viewers()).thenReturn(viewers);
+        chatManager.onChat(event);
+
+        assertFalse(viewers.contains(grumpy));
+        assertTrue(viewers.contains(friendly));
+        assertTrue(viewers.contains(player));
+    }
+
+    @Test
+    void onChat_givesSinksTheLegacyRender() {
+        when(configManager.getFormatForPlayer(Mockito.any()))
+                .thenReturn(new FormatConfig("<red>{display_name}</red>: {message}", "section", ""));
+        List<ChatRecord> records = new ArrayList<>();
+        chatManager.addSink(records::add);
+
+        AsyncChatEvent event = Mockito.mock(AsyncChatEvent.class);
+        when(event.getPlayer()).thenReturn(player);
+        when(event.message()).thenReturn(Component.text("hello"));
+        when(event.viewers()).thenReturn(new HashSet<>(List.of(player)));
+        chatManager.onChat(event);
+        chatManager.onChatDelivered(event);
+
+        assertEquals(1, records.size());
+        String legacy = records.get(0).legacyText();
+        assertNotNull(legacy);
+        assertTrue(legacy.startsWith("§cTestPlayer") && legacy.endsWith(": hello"), legacy);
+    }
+
+    @Test
+    void onChat_parsesTheMessageOnceForTheConsoleAndEveryPlayer() {
+        AsyncChatEvent event = Mockito.mock(AsyncChatEvent.class);
+        when(event.getPlayer()).thenReturn(player);
+        when(event.message()).thenReturn(Component.text("<red>hi</red> there"));
+        when(event.viewers()).thenReturn(new HashSet<>(List.of(player)));
+        ArgumentCaptor<ChatRenderer> renderer = ArgumentCaptor.forClass(ChatRenderer.class);
+
+        Component toPlayer;
+        Component toConsole;
+        try (MockedStatic<ColorUtil> util = mockStatic(ColorUtil.class, CALLS_REAL_METHODS)) {
+            chatManager.onChat(event);
+            verify(event).renderer(renderer.capture());
+            toPlayer = renderer.getValue().render(player, Component.empty(), Component.empty(), player);
+            toConsole = renderer.getValue().render(player, Component.empty(), Component.empty(),
+                    server.getConsoleSender());
+
+            util.verify(() -> ColorUtil.parseMixedFormattingComponent(anyString(), any(TagResolver.class)), times(1));
+        }
+        assertEquals("TestPlayer: hi there", ColorUtil.componentToString(toPlayer));
+        assertEquals("TestPlayer: hi there", ColorUtil.componentToString(toConsole));
+    }
+
+    @Test
+    void sendPrivate_setsReplySlotsAndSharesOneSpyRender() {
+        when(configManager.getMessaging()).thenReturn(MessagingConfig.DEFAULTS);
+        Player alice = mockPlayer("Alice");
+        Player bob = mockPlayer("Bob");
+        Player spy1 = mockPlayer("Spy1");
+        Player spy2 = mockPlayer("Spy2");
+        ChatSessions sessions = chatManager.getSessions();
+        sessions.setSocialSpy(sessions.get(spy1), true);
+        sessions.setSocialSpy(sessions.get(spy2), true);
+
+        assertTrue(chatManager.sendPrivate(alice, bob, "psst"));
+
+        assertSame(sessions.get(bob), sessions.get(alice).replyTarget());
+        assertSame(sessions.get(alice), sessions.get(bob).replyTarget());
+        ArgumentCaptor<Component> first = ArgumentCaptor.forClass(Component.class);
+        ArgumentCaptor<Component> second = ArgumentCaptor.forClass(Component.class);
+        verify(spy1).sendMessage(first.capture());
+        verify(spy2).sendMessage(second.capture());
+        assertSame(first.getValue(), second.getValue());
+        assertEquals("[Spy] Alice → Bob: psst", ColorUtil.componentToString(first.getValue()));
+
+        // Once Bob leaves, Alice has nobody to reply to
+        sessions.close(bob);
+        assertNull(sessions.get(alice).replyTarget());
+    }
+
+    @Test
+    void sendPrivate_goesThroughTheRateLimitAndRepeatCheck() {
+        when(configManager.getMessaging()).thenReturn(MessagingConfig.DEFAULTS);
+        when(configManager.isDuplicatesEnabled()).thenReturn(true);
+        Player alice = mockPlayer("Alice");
+        Player bob = mockPlayer("Bob");
+
+        assertTrue(chatManager.sendPrivate(alice, bob, "hi bob"));
+        assertFalse(chatManager.sendPrivate(alice, bob, "hi bob"));
+        assertEquals(1, chatManager.getMetrics().duplicates());
+
+        // Near repeats aren't what this part is about
+        when(configManager.isDuplicatesEnabled()).thenReturn(false);
+        when(configManager.isRateLimitEnabled()).thenReturn(true);
+        int sent = 0;
+        for (int i = 0; i < 10; i++) {
+            if (chatManager.sendPrivate(alice, bob, "message number " + i)) {
+                sent++;
+            }
+        }
+        // The default bucket holds 5, and hardly any of it refills during the loop
+        assertTrue(sent >= 5 && sent < 10, "sent " + sent);
+        assertTrue(chatManager.getMetrics().rateLimited() > 0);
+    }
+
+    @Test
+    void sendPrivate_refusesWhenTheReceiverIgnoresTheSender() {
+        when(configManager.getMessaging()).thenReturn(MessagingConfig.DEFAULTS);
+        Player alice = mockPlayer("Alice");
+        Player bob = mockPlayer("Bob");
+        chatManager.getIgnores().load(bob.getUniqueId(), List.of(alice.getUniqueId()));
+
+        assertFalse(chatManager.sendPrivate(alice, bob, "hello?"));
+        verify(bob, never()).sendMessage(Mockito.any(Component.class));
+        assertNull(chatManager.getSessions().get(alice).replyTarget());
+    }
+
+    private static Player mockPlayer(String name) {
+        Player mock = Mockito.mock(Player.class);
+        when(mock.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(mock.getName()).thenReturn(name);
+        when(mock.displayName()).thenReturn(Component.text(name));
+        return mock;
+    }
+
     @Test
     void chatRenderer_formatsMessageCorrectly() {
-        // Store a test message in the renderer
-        chatRenderer.setLastMessage(player, "Test renderer message");
-        
-        // Create expected output by using chatManager directly
-        Component expected = chatManager.formatMessage(player, "Test renderer message");
-        String expectedContent = ColorUtil.componentToString(expected);
-        
-        assertTrue(expectedContent.contains("TestPlayer") && expectedContent.contains("Test renderer message"));
+        ChatSession session = chatManager.getSessions().find(player.getUniqueId());
+        ChatRenderer renderer = chatRenderer.prepare(session, "Test renderer message", null, null, Set.of(), null, null);
+
+        Component rendered = renderer.render(player, Component.empty(), Component.empty(), player);
+        String content = ColorUtil.componentToString(rendered);
+
+        assertTrue(content.contains("TestPlayer") && content.contains("Test renderer message"));
     }
 
     @Test
@@ -205,28 +367,48 @@ class ChatManagerTest {
     }
 
     @Test
-    void onPlayerQuit_removesLastMessage() {
-        // First store a message
-        chatRenderer.setLastMessage(player, "Test message");
-        
-        // Create quit event with a non-deprecated constructor
+    void onPlayerQuit_closesTheSession() {
+        ChatSession session = chatManager.getSessions().find(player.getUniqueId());
+
         @SuppressWarnings("deprecation")
         PlayerQuitEvent event = new PlayerQuitEvent(player, Component.text(""));
-        
-        // Call the handler
         chatManager.onPlayerQuit(event);
-        
-        // We can't directly test the internal state of chatRenderer,
-        // but the message should be removed from the cache.
-        // Let's use reflection to check
-        try {
-            Field messagesField = NeboChatRenderer.class.getDeclaredField("lastMessages");
-            messagesField.setAccessible(true);
-            java.util.Map<?, ?> messages = (java.util.Map<?, ?>)messagesField.get(chatRenderer);
-            assertFalse(messages.containsKey(player.getUniqueId()));
-        } catch (Exception e) {
-            fail("Could not access lastMessages field: " + e.getMessage());
-        }
+
+        assertFalse(session.isOpen());
+        assertNull(chatManager.getSessions().find(player.getUniqueId()));
+    }
+
+    @Test
+    void onChat_afterQuit_dropsTheMessageWithoutReopeningTheSession() {
+        @SuppressWarnings("deprecation")
+        PlayerQuitEvent quit = new PlayerQuitEvent(player, Component.text(""));
+        chatManager.onPlayerQuit(quit);
+
+        AsyncChatEvent event = Mockito.mock(AsyncChatEvent.class);
+        when(event.getPlayer()).thenReturn(player);
+        when(event.message()).thenReturn(Component.text("bye"));
+        chatManager.onChat(event);
+
+        verify(event).setCancelled(true);
+        verify(event, never()).renderer(Mockito.any());
+        assertEquals(0, chatManager.getSessions().size());
+    }
+
+    @Test
+    void onChat_usesTheFormatCachedOnTheSessionUntilItsRefreshed() {
+        AsyncChatEvent event = Mockito.mock(AsyncChatEvent.class);
+        when(event.getPlayer()).thenReturn(player);
+        when(event.message()).thenReturn(Component.text("hello"));
+        when(event.viewers()).thenReturn(new HashSet<>(List.of(player)));
+        chatManager.onChat(event);
+        chatManager.onChat(event);
+        verify(configManager, times(1)).getFormatForPlayer(player);
+
+        FormatConfig staff = new FormatConfig("<red>{display_name}</red>: {message}", "", "");
+        when(configManager.getFormatForPlayer(player)).thenReturn(staff);
+        ChatSession session = chatManager.getSessions().find(player.getUniqueId());
+        chatManager.getSessions().refresh(session, configManager);
+        assertSame(staff, session.format());
     }
 
     @Test
@@ -274,4 +456,105 @@ class ChatManagerTest {
         String content = ColorUtil.componentToString(result);
         assertTrue(content.contains("TestPlayer") && content.contains("Placeholder test"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void formatMessage_overInputBudget_fallsBackToPlainText() {
+        when(configManager.getInputBudget()).thenReturn(new InputBudget(2, 0, 0));
+
+        Component result = chatManager.formatMessage(player, "<red>a</red><blue>b</blue>");
+
+        String content = ColorUtil.componentToString(result);
+        assertTrue(content.contains("<red>a</red><blue>b</blue>"));
+        assertEquals(1, chatManager.getMetrics().budgetRejections());
+    }
+
+    @Test
+    void warmUp_leavesMetricsAndSlowLogAlone() {
+        // Cold renders are slow, so a 1ms threshold would catch them if they were logged
+        when(configManager.getSlowMessageThresholdMs()).thenReturn(1L);
+
+        chatManager.warmUp();
+
+        ChatMetrics metrics = chatManager.getMetrics();
+        assertEquals(0, metrics.fastPathParses());
+        assertEquals(0, metrics.budgetRejections());
+        assertEquals(0, metrics.renderLatencySamples());
+        assertTrue(chatManager.getSlowMessages().snapshot().isEmpty());
+    }
+
+    @Test
+    void formatMessage_overTheSlowThreshold_isCapturedWithItsStages() {
+        when(configManager.getSlowMessageThresholdMs()).thenReturn(1L);
+        when(configManager.getFormatKey(Mockito.any())).thenReturn("default");
+        // The legacy colour lookup happens in the parse stage, so stalling it makes every message slow
+        when(configManager.isPlayerLegacyColorsEnabled()).thenAnswer(invocation -> {
+            Thread.sleep(2);
+            return true;
+        });
+        chatManager.getSlowMessages().setCapacity(2);
+
+        chatManager.formatMessage(player, "first");
+        chatManager.formatMessage(player, "second");
+        chatManager.formatMessage(player, "<red>third</red>");
+
+        List<SlowMessageLog.SlowMessage> slow = chatManager.getSlowMessages().snapshot();
+        assertEquals(2, slow.size());
+        assertEquals("second", slow.get(0).rawInput());
+        SlowMessageLog.SlowMessage last = slow.get(1);
+        assertEquals("TestPlayer", last.player());
+        assertEquals("default", last.formatKey());
+        assertEquals("<red>third</red>", last.rawInput());
+        assertEquals(SlowMessageLog.STAGES.length, last.stageNanos().length);
+        assertTrue(last.stageNanos()[1] >= 2_000_000L);
+        assertTrue(last.totalNanos() >= last.stageNanos()[1]);
+    }
+
+    @Test
+    void formatMention_highlightsOnlyTheMessageBody() {
+        PlayerMock admin = server.addPlayer("Admin");
+        chatManager.getMentionEngine().rebuildIfDirty(server.getOnlinePlayers());
+        when(configManager.getMentionColor()).thenReturn(NamedTextColor.YELLOW);
+        FormatConfig staffFormat = new FormatConfig("<gray>[Admin]</gray> {display_name}: {message}", "", "");
+        ChatSession session = chatManager.getSessions().find(player.getUniqueId());
+
+        Component result = chatManager.formatMention(session, "hi admin", chatManager.parse("hi admin"), staffFormat, admin);
+
+        assertEquals("[Admin] TestPlayer: hi admin", ColorUtil.componentToString(result));
+        List<String> highlighted = new ArrayList<>();
+        collectColored(result, NamedTextColor.YELLOW, highlighted);
+        assertEquals(List.of("admin"), highlighted);
+    }
+
+    private static void collectColored(Component component, NamedTextColor color, List<String> out) {
+        if (color.equals(component.color()) && component instanceof TextComponent text && !text.content().isEmpty()) {
+            out.add(text.content());
+        }
+        for (Component child : component.children()) {
+            collectColored(child, color, out);
+        }
+    }
+
+    @Test
+    void onChat_onlyPublishesTheRecordOnceTheMessageIsDelivered() {
+        List<ChatRecord> records = new ArrayList<>();
+        chatManager.addSink(records::add);
+        AsyncChatEvent cancelled = Mockito.mock(AsyncChatEvent.class);
+        when(cancelled.getPlayer()).thenReturn(player);
+        when(cancelled.message()).thenReturn(Component.text("cancelled by someone else"));
+        when(cancelled.viewers()).thenReturn(new HashSet<>(List.of(player)));
+
+        // Another plugin cancels it after us, so MONITOR never sees it
+        chatManager.onChat(cancelled);
+        assertTrue(records.isEmpty());
+
+        AsyncChatEvent delivered = Mockito.mock(AsyncChatEvent.class);
+        when(delivered.getPlayer()).thenReturn(player);
+        when(delivered.message()).thenReturn(Component.text("this one arrives"));
+        when(delivered.viewers()).thenReturn(new HashSet<>(List.of(player)));
+        chatManager.onChat(delivered);
+        chatManager.onChatDelivered(delivered);
+
+        assertEquals(1, records.size());
+        assertEquals("this one arrives", records.get(0).message());
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for what a chat session caches for its player
+ */
+class ChatSessionTest {
+
+    private static Player player(Component displayName) {
+        Player player = mock(Player.class);
+        when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(player.displayName()).thenReturn(displayName);
+        return player;
+    }
+
+    @Test
+    void displayNameText_onlyChangesWhenTheDisplayNameDoes() {
+        Player player = player(Component.text("Alice"));
+        ChatSession session = new ChatSessions().get(player);
+        String first = session.displayNameText();
+        assertEquals("Alice", first);
+        assertSame(first, session.displayNameText());
+
+        when(player.displayName()).thenReturn(Component.text("Ally"));
+        assertEquals("Ally", session.displayNameText());
+    }
+
+    @Test
+    void placeholders_areReusedUntilTheyExpireOrTheTemplateChanges() {
+        ChatSession session = new ChatSessions().get(player(Component.text("Alice")));
+        assertNull(session.placeholders("[%world%] {message}", 0));
+
+        session.snapshotPlaceholders("[%world%] {message}", "[nether] {message}", 1_000);
+        assertEquals("[nether] {message}", session.placeholders("[%world%] {message}", 999));
+        assertNull(session.placeholders("[%world%] {message}", 1_001));
+        assertNull(session.placeholders("<red>[%world%]</red> {message}", 999));
+    }
+
+    @Test
+    void close_dropsTheReplyTargetAndSnapshot() {
+        Player player = player(Component.text("Alice"));
+        ChatSessions sessions = new ChatSessions();
+        ChatSession session = sessions.open(player);
+        session.setReplyTarget(sessions.open(player(Component.text("Bob"))));
+        session.snapshotPlaceholders("a", "b", Long.MAX_VALUE);
+
+        sessions.close(player);
+
+        assertFalse(session.isOpen());
+        assertNull(session.replyTarget());
+        assertNull(session.placeholders("a", 0));
+        assertNull(sessions.find(player.getUniqueId()));
+    }
+}
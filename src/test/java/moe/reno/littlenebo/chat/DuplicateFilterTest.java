@@ -0,0 +1,116 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for DuplicateFilter fingerprinting
+ */
+class DuplicateFilterTest {
+    private final DuplicateFilter.History player = DuplicateFilter.newHistory();
+
+    @Test
+    void isDuplicate_exactRepeatWithinWindow() {
+        DuplicateFilter filter = new DuplicateFilter(3, 30_000, 0.75);
+
+        assertFalse(filter.isDuplicate(player, "anyone want to trade?", 1_000));
+        assertTrue(filter.isDuplicate(player, "anyone want to trade?", 2_000));
+        assertFalse(filter.isDuplicate(player, "anyone want to trade?", 40_000));
+    }
+
+    @Test
+    void isDuplicate_normalisedVariantsCountAsRepeats() {
+        DuplicateFilter filter = new DuplicateFilter(3, 30_000, 0.75);
+
+        assertFalse(filter.isDuplicate(player, "Buy at my shop!", 1_000));
+        assertTrue(filter.isDuplicate(player, "BUY AT MY SHOOOOP!!!", 2_000));
+        assertTrue(filter.isDuplicate(player, "buy @t my sh0p", 3_000));
+    }
+
+    @Test
+    void isDuplicate_nearRepeatCaughtButDifferentMessagePasses() {
+        DuplicateFilter filter = new DuplicateFilter(3, 30_000, 0.5);
+
+        assertFalse(filter.isDuplicate(player, "come visit my amazing shop at spawn for cheap diamonds", 1_000));
+        assertTrue(filter.isDuplicate(player, "come visit my amazing shop at spawn for cheap diamonds x", 2_000));
+        assertFalse(filter.isDuplicate(player, "has anyone seen the ender dragon today", 3_000));
+    }
+
+    @Test
+    void isDuplicate_onlyRemembersConfiguredHistory() {
+        DuplicateFilter filter = new DuplicateFilter(2, 30_000, 1.0);
+
+        assertFalse(filter.isDuplicate(player, "first message", 1_000));
+        assertFalse(filter.isDuplicate(player, "second thing", 2_000));
+        assertFalse(filter.isDuplicate(player, "third line", 3_000));
+        assertFalse(filter.isDuplicate(player, "first message", 4_000));
+    }
+
+    @Test
+    void isDuplicate_doubledLettersKeepWordsApart() {
+        DuplicateFilter filter = new DuplicateFilter(3, 30_000, 0.75);
+
+        assertFalse(filter.isDuplicate(player, "good", 1_000));
+        assertFalse(filter.isDuplicate(player, "god", 2_000));
+        assertTrue(filter.isDuplicate(player, "goooood", 3_000));
+    }
+
+    @Test
+    void isDuplicate_shortMessagesOnlyCountAsExactRecentRepeats() {
+        DuplicateFilter filter = new DuplicateFilter(3, 30_000, 0.5);
+
+        assertFalse(filter.isDuplicate(player, "gg", 1_000));
+        assertTrue(filter.isDuplicate(player, "GG.", 2_000));
+        assertFalse(filter.isDuplicate(player, "gg", 10_000));
+        assertFalse(filter.isDuplicate(player, "ggs", 11_000));
+    }
+
+    @Test
+    void configure_newHistorySize_startsAfresh() {
+        DuplicateFilter filter = new DuplicateFilter(3, 30_000, 0.75);
+        filter.isDuplicate(player, "anyone want to trade?", 1_000);
+
+        filter.configure(5, 30_000, 0.75);
+
+        assertFalse(filter.isDuplicate(player, "anyone want to trade?", 2_000));
+    }
+
+    @Test
+    void isDuplicate_keepsOneHistoryWhenMessagesRace() throws Exception {
+        DuplicateFilter filter = new DuplicateFilter(3, 30_000, 0.75);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return filter.isDuplicate(player, "same thing again", 1_000);
+            }));
+        }
+        start.countDown();
+        int kept = 0;
+        for (Future<Boolean> result : results) {
+            if (!result.get()) {
+                kept++;
+            }
+        }
+        pool.shutdown();
+
+        // Every thread saw the same history, so only the first copy got through
+        assertEquals(1, kept);
+    }
+}
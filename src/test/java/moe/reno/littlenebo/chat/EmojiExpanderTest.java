@@ -0,0 +1,88 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import moe.reno.littlenebo.util.ColorUtil;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for emoji shortcode expansion
+ */
+class EmojiExpanderTest {
+
+    private static EmojiExpander expander() {
+        Map<String, String> table = new LinkedHashMap<>();
+        table.put("heart", "<red>❤</red>");
+        table.put("shrug", "¯\\_(ツ)_/¯");
+        table.put("red", "🟥");
+        return EmojiExpander.compile(table, null);
+    }
+
+    @Test
+    void expand_swapsKnownShortcodesForTags() {
+        assertEquals("I <nebo_emoji:0> you <nebo_emoji:1>", expander().expand("I :heart: you :SHRUG:"));
+    }
+
+    @Test
+    void expand_returnsTheSameStringWhenNothingMatches() {
+        EmojiExpander emojis = expander();
+        String plain = "no shortcodes here";
+        String unknown = "what :is: this:";
+        assertSame(plain, emojis.expand(plain));
+        assertSame(unknown, emojis.expand(unknown));
+        assertNull(emojis.expand(null));
+    }
+
+    @Test
+    void expand_leavesTagsAndEscapesAlone() {
+        EmojiExpander emojis = expander();
+        String gradient = "<gradient:red:blue>hi</gradient>";
+        assertSame(gradient, emojis.expand(gradient));
+        assertEquals("<gradient:red:blue><nebo_emoji:2></gradient>", emojis.expand("<gradient:red:blue>:red:</gradient>"));
+        String escaped = "\\:heart:";
+        assertSame(escaped, emojis.expand(escaped));
+    }
+
+    @Test
+    void expand_afterALoneAngleBracket_stillExpands() {
+        EmojiExpander emojis = expander();
+        assertEquals("i <3 you <nebo_emoji:0>", emojis.expand("i <3 you :heart:"));
+        assertEquals("x < y <nebo_emoji:1>", emojis.expand("x < y :shrug:"));
+    }
+
+    @Test
+    void expand_skipsOverlappingMatches() {
+        assertEquals("<nebo_emoji:0>red:", expander().expand(":heart:red:"));
+    }
+
+    @Test
+    void compile_skipsInvalidNames() {
+        List<String> invalid = new ArrayList<>();
+        EmojiExpander emojis = EmojiExpander.compile(Map.of("has space", "x", "ok", "y"), invalid);
+        assertEquals(1, emojis.size());
+        assertEquals(List.of("has space"), invalid);
+        assertSame(EmojiExpander.EMPTY, EmojiExpander.compile(Map.of(), null));
+    }
+
+    @Test
+    void resolver_insertsTheCachedComponent() {
+        EmojiExpander emojis = expander();
+        Component parsed = ColorUtil.parseMixedFormattingComponent(emojis.expand("&aI :heart: it"), emojis.resolver());
+        assertEquals("I ❤ it", ColorUtil.componentToString(parsed));
+
+        // Typed by hand, an out of range id is just text
+        Component bogus = ColorUtil.parseSafeMiniMessage("<nebo_emoji:99>", emojis.resolver());
+        assertEquals("<nebo_emoji:99>", ColorUtil.componentToString(bogus));
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import moe.reno.littlenebo.util.ColorUtil;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for format fragments
+ */
+class FormatFragmentsTest {
+
+    private static FormatFragments fragments() {
+        Map<String, String> table = new LinkedHashMap<>();
+        table.put("badge", "<gray>[<aqua>D</aqua>]</gray>");
+        table.put("stats", "<hover:show_text:'Level %player_level%'>");
+        return FormatFragments.compile(table, null);
+    }
+
+    @Test
+    void inline_pastesOnlyFragmentsWithPlaceholders() {
+        FormatFragments fragments = fragments();
+        assertEquals("<fragment:badge> <hover:show_text:'Level %player_level%'>{display_name}</hover>: {message}",
+                fragments.inline("<fragment:badge> <fragment:STATS/>{display_name}</hover>: {message}"));
+    }
+
+    @Test
+    void inline_returnsTheSameStringWhenThereIsNothingToPaste() {
+        FormatFragments fragments = fragments();
+        String plain = "{display_name}: {message}";
+        String compiledOnly = "<fragment:badge> {message}";
+        String unknown = "<fragment:nope> {message}";
+        assertSame(plain, fragments.inline(plain));
+        assertSame(compiledOnly, fragments.inline(compiledOnly));
+        assertSame(unknown, fragments.inline(unknown));
+    }
+
+    @Test
+    void compile_skipsInvalidNames() {
+        List<String> invalid = new ArrayList<>();
+        FormatFragments fragments = FormatFragments.compile(Map.of("no spaces", "x", "ok", "y"), invalid);
+        assertEquals(1, fragments.size());
+        assertEquals(List.of("no spaces"), invalid);
+        assertSame(FormatFragments.EMPTY, FormatFragments.compile(Map.of(), null));
+    }
+
+    @Test
+    void resolver_insertsTheSharedComponent() {
+        FormatFragments fragments = fragments();
+        Component badge = fragments.compiled("badge");
+        assertNotNull(badge);
+        assertNull(fragments.compiled("stats"));
+
+        Component a = ColorUtil.parseMiniMessage("<fragment:badge> {message}", fragments.resolver());
+        Component b = ColorUtil.parseMiniMessage("<red>hi</red> <fragment:badge>", fragments.resolver());
+        assertEquals("[D] {message}", ColorUtil.componentToString(a));
+        assertEquals("hi [D]", ColorUtil.componentToString(b));
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ignore lists and their on-disk store
+ */
+class IgnoreListTest {
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final UUID carol = UUID.randomUUID();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void add_onlyWorksOnceLoaded() {
+        IgnoreList ignores = new IgnoreList();
+        assertFalse(ignores.add(alice, bob));
+        assertFalse(ignores.isLoaded(alice));
+
+        ignores.load(alice, List.of());
+        assertTrue(ignores.add(alice, bob));
+        assertFalse(ignores.add(alice, bob));
+        assertTrue(ignores.isIgnoring(alice, bob));
+        assertFalse(ignores.isIgnoring(bob, alice));
+    }
+
+    @Test
+    void forEachIgnorer_listsLoadedViewersIgnoringTheSender() {
+        IgnoreList ignores = new IgnoreList();
+        ignores.load(alice, List.of(carol));
+        ignores.load(bob, List.of(carol, alice, carol));
+
+        assertEquals(List.of(alice, bob), ignorersOf(ignores, carol));
+        assertEquals(List.of(bob), ignorersOf(ignores, alice));
+        assertEquals(List.of(), ignorersOf(ignores, bob));
+
+        ignores.remove(bob, carol);
+        assertEquals(List.of(alice), ignorersOf(ignores, carol));
+
+        ignores.unload(alice);
+        assertEquals(List.of(), ignorersOf(ignores, carol));
+        assertFalse(ignores.isLoaded(alice));
+    }
+
+    @Test
+    void load_replacesThePreviousList() {
+        IgnoreList ignores = new IgnoreList();
+        ignores.load(alice, List.of(bob));
+        ignores.load(alice, List.of(carol));
+
+        assertEquals(List.of(carol), ignores.ignored(alice));
+        assertEquals(List.of(), ignorersOf(ignores, bob));
+    }
+
+    @Test
+    void unload_forgetsIdsNobodyRefersToAndReusesThem() {
+        IgnoreList ignores = new IgnoreList();
+        ignores.load(alice, List.of(carol));
+        ignores.load(bob, List.of(carol));
+        assertEquals(3, ignores.interned());
+
+        ignores.unload(alice);
+        assertEquals(2, ignores.interned(), "carol is still on bob's list");
+        ignores.unload(bob);
+        assertEquals(0, ignores.interned());
+
+        for (int i = 0; i < 1000; i++) {
+            UUID viewer = UUID.randomUUID();
+            ignores.load(viewer, List.of(UUID.randomUUID(), alice));
+            ignores.unload(viewer);
+        }
+        assertEquals(0, ignores.interned());
+
+        ignores.load(bob, List.of(alice));
+        assertTrue(ignores.add(bob, carol));
+        assertTrue(ignores.remove(bob, alice));
+        assertEquals(2, ignores.interned());
+        assertEquals(List.of(carol), ignores.ignored(bob));
+        assertEquals(List.of(bob), ignorersOf(ignores, carol));
+        assertEquals(List.of(), ignorersOf(ignores, alice));
+    }
+
+    @Test
+    void sortedArrays_insertAndDeleteKeepOrder() {
+        int[] values = new int[0];
+        for (int value : new int[] {5, 1, 3, 3, 9}) {
+            values = IgnoreList.insert(values, value);
+        }
+        assertArrayEquals(new int[] {1, 3, 5, 9}, values);
+        assertSame(values, IgnoreList.delete(values, 4));
+        assertArrayEquals(new int[] {1, 5, 9}, IgnoreList.delete(values, 3));
+    }
+
+    @Test
+    void store_savesThenLoadsInOrder() throws Exception {
+        IgnoreStore store = new IgnoreStore(dir.resolve("ignores"), null);
+        store.save(alice, List.of(bob, carol));
+        AtomicReference<List<UUID>> loaded = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        store.load(alice, list -> {
+            loaded.set(list);
+            done.countDown();
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(bob, carol), loaded.get());
+
+        store.save(alice, List.of());
+        store.close();
+        assertFalse(Files.exists(dir.resolve("ignores").resolve(alice + ".txt")));
+    }
+
+    @Test
+    void store_skipsLinesThatArentUuids() throws IOException {
+        Path file = dir.resolve("hand-edited.txt");
+        Files.writeString(file, bob + "\n\nnot a uuid\n  " + carol + "  \n");
+        assertEquals(List.of(bob, carol), IgnoreStore.read(file));
+        assertEquals(List.of(), IgnoreStore.read(dir.resolve("missing.txt")));
+    }
+
+    private static List<UUID> ignorersOf(IgnoreList ignores, UUID sender) {
+        List<UUID> result = new ArrayList<>();
+        ignores.forEachIgnorer(sender, result::add);
+        return result;
+    }
+}
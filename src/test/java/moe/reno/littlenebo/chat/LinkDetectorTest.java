@@ -0,0 +1,102 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import moe.reno.littlenebo.config.LinkConfig;
+import moe.reno.littlenebo.util.ColorUtil;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for link detection
+ */
+class LinkDetectorTest {
+
+    private static LinkDetector detector(String... allowed) {
+        return new LinkDetector(new LinkConfig(true, List.of(allowed), NamedTextColor.AQUA, true));
+    }
+
+    private static String text(LinkDetector detector, String message) {
+        LinkDetector.Links links = detector.detect(message);
+        return links == null ? null : links.text();
+    }
+
+    @Test
+    void detect_swapsLinksForTags() {
+        LinkDetector links = detector();
+        assertEquals("see <nebo_link:0> and <nebo_link:1>.",
+                text(links, "see https://example.com/a?b=1&c=2 and www.Example.org/x."));
+        assertEquals("(<nebo_link:0>)", text(links, "(https://en.wikipedia.org/wiki/Foo_(bar))"));
+    }
+
+    @Test
+    void detect_ignoresThingsThatArentLinks() {
+        LinkDetector links = detector();
+        assertNull(text(links, "no dots here"));
+        assertNull(text(links, "version 1.2.3 is out"));
+        assertNull(text(links, "shttps://example.com"));
+        assertNull(text(links, "https://localhost/x"));
+        assertNull(text(links, "https://example.c0m"));
+        assertNull(text(links, "https://user@evil.com"));
+        assertNull(text(links, "<gradient:red:blue>hi</gradient> \\https://example.com"));
+        assertNull(LinkDetector.DISABLED.detect("https://example.com"));
+    }
+
+    @Test
+    void detect_afterALoneAngleBracket_stillFindsLinks() {
+        LinkDetector links = detector();
+        assertEquals("<3 check <nebo_link:0>", text(links, "<3 check https://example.com"));
+        assertEquals("x < y, see <nebo_link:0>", text(links, "x < y, see www.example.org"));
+        assertNull(text(links, "<click:open_url:https://example.com>hi"));
+    }
+
+    @Test
+    void detect_onlyAllowsListedDomains() {
+        LinkDetector links = detector("example.com");
+        assertNotNull(text(links, "https://example.com"));
+        assertNotNull(text(links, "https://cdn.example.com/img.png"));
+        assertNull(text(links, "https://badexample.com"));
+        assertEquals("<nebo_link:0> https://other.net", text(links, "www.example.com https://other.net"));
+    }
+
+    @Test
+    void linkEnd_trimsTrailingPunctuation() {
+        String text = "go to https://example.com/page?!, now";
+        int start = text.indexOf("https");
+        assertEquals("https://example.com/page", text.substring(start, LinkDetector.linkEnd(text, start)));
+    }
+
+    @Test
+    void resolver_insertsAClickableLink() {
+        LinkDetector.Links links = detector().detect("hi www.example.com &cthere");
+        Component parsed = ColorUtil.parseMixedFormattingComponent(links.text(), links.resolver());
+        assertEquals("hi www.example.com there", ColorUtil.componentToString(parsed));
+
+        Component link = findClickable(parsed);
+        assertNotNull(link);
+        assertEquals(ClickEvent.Action.OPEN_URL, link.clickEvent().action());
+        assertEquals("https://www.example.com", link.clickEvent().value());
+    }
+
+    private static Component findClickable(Component component) {
+        if (component.clickEvent() != null) {
+            return component;
+        }
+        for (Component child : component.children()) {
+            Component found = findClickable(child);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+}
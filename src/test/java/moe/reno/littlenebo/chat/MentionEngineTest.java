@@ -0,0 +1,91 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import moe.reno.littlenebo.util.ColorUtil;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for MentionEngine using MockBukkit
+ */
+class MentionEngineTest {
+    private ServerMock server;
+    private MentionEngine mentions;
+    private PlayerMock alice;
+    private PlayerMock bob;
+
+    @BeforeEach
+    void setUp() {
+        server = MockBukkit.mock();
+        alice = server.addPlayer("Alice");
+        bob = server.addPlayer("Bob_99");
+        mentions = new MentionEngine();
+        mentions.rebuildIfDirty(server.getOnlinePlayers());
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void findMentions_matchesAtAndBareNamesOnWordBoundaries() {
+        assertEquals(Set.of(bob), mentions.findMentions(alice, "hey @bob_99 how are you"));
+        assertEquals(Set.of(bob), mentions.findMentions(alice, "BOB_99!"));
+        assertTrue(mentions.findMentions(alice, "bob_999 and xbob_99").isEmpty());
+    }
+
+    @Test
+    void findMentions_ignoresSender() {
+        assertTrue(mentions.findMentions(alice, "talking to myself, alice").isEmpty());
+    }
+
+    @Test
+    void findMentions_bareNamesOff_requiresAt() {
+        mentions.setBareNames(false);
+        mentions.rebuildIfDirty(server.getOnlinePlayers());
+
+        assertTrue(mentions.findMentions(bob, "alice?").isEmpty());
+        assertEquals(Set.of(alice), mentions.findMentions(bob, "@Alice?"));
+    }
+
+    @Test
+    void rebuildIfDirty_onlyRebuildsWhenNamesChange() {
+        mentions.markDirty();
+        assertFalse(mentions.rebuildIfDirty(server.getOnlinePlayers()));
+
+        PlayerMock carol = server.addPlayer("Carol");
+        mentions.markDirty();
+        assertTrue(mentions.rebuildIfDirty(server.getOnlinePlayers()));
+        assertEquals(Set.of(carol), mentions.findMentions(alice, "@carol"));
+    }
+
+    @Test
+    void highlight_colorsOnlyTheViewersName() {
+        Component shared = Component.text("<Bob_99> hi alice and bob_99");
+
+        Component highlighted = mentions.highlight(shared, alice, NamedTextColor.YELLOW);
+
+        assertEquals(ColorUtil.componentToString(shared), ColorUtil.componentToString(highlighted));
+        assertTrue(highlighted.children().stream()
+                .anyMatch(child -> NamedTextColor.YELLOW.equals(child.color())
+                        && ColorUtil.componentToString(child).equals("alice")));
+        assertTrue(highlighted.children().stream()
+                .noneMatch(child -> ColorUtil.componentToString(child).contains("bob")
+                        && NamedTextColor.YELLOW.equals(child.color())));
+    }
+}
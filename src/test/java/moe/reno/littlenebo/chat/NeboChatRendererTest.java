@@ -26,6 +26,7 @@ package moe.reno.littlenebo.chat;
 import be.seeseemelk.mockbukkit.MockBukkit;
 import be.seeseemelk.mockbukkit.ServerMock;
 import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import io.papermc.paper.chat.ChatRenderer;
 import moe.reno.littlenebo.LittleNebo;
 import moe.reno.littlenebo.util.ColorUtil;
 import net.kyori.adventure.audience.Audience;
@@ -35,8 +36,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.util.Collections;
+
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 /**
  * Tests for NeboChatRenderer class using MockBukkit
@@ -48,6 +51,7 @@ class NeboChatRendererTest {
     private NeboChatRenderer chatRenderer;
     private PlayerMock sourcePlayer;
     private PlayerMock viewerPlayer;
+    private ChatSession session;
 
     @SuppressWarnings("deprecation")
     @BeforeEach
@@ -70,6 +74,7 @@ class NeboChatRendererTest {
         sourcePlayer.setDisplayName("SourcePlayer");
         
         viewerPlayer = server.addPlayer("ViewerPlayer");
+        session = new ChatSessions().open(sourcePlayer);
     }
 
     @AfterEach
@@ -78,84 +83,60 @@ class NeboChatRendererTest {
     }
 
     @Test
-    void render_withStoredMessage_usesFormattedMessage() {
-        // Setup: Store a message for the player
+    void render_usesFormattedMessage() {
         String testMessage = "Hello, world!";
-        chatRenderer.setLastMessage(sourcePlayer, testMessage);
-        
-        // Setup: Configure chat manager to return a specific component
+        ChatRenderer renderer = chatRenderer.prepare(session, testMessage, null, null, Collections.emptySet(), null, null);
+
         Component expectedComponent = Component.text("FORMATTED: " + testMessage);
-        when(chatManager.formatMessage(sourcePlayer, testMessage)).thenReturn(expectedComponent);
-        
-        // Test the render method
-        Component result = chatRenderer.render(
+        when(chatManager.formatChat(session, testMessage, null)).thenReturn(expectedComponent);
+
+        Component result = renderer.render(
             sourcePlayer,
             Component.text("Unused display name"),
             Component.text("Unused message"),
             (Audience) viewerPlayer
         );
-        
-        // Verify the result is what we expected
+
         assertEquals(
-            ColorUtil.componentToString(expectedComponent), 
+            ColorUtil.componentToString(expectedComponent),
             ColorUtil.componentToString(result)
         );
     }
-    
+
     @Test
-    void render_withNoStoredMessage_usesEmptyString() {
-        // Setup: Don't store any message (to test default behavior)
-        
-        // Setup: Configure chat manager to return a specific component for empty string
-        Component expectedComponent = Component.text("FORMATTED: ");
-        when(chatManager.formatMessage(sourcePlayer, "")).thenReturn(expectedComponent);
-        
-        // Test the render method
-        Component result = chatRenderer.render(
-            sourcePlayer,
-            Component.text("Unused display name"),
-            Component.text("Unused message"),
-            (Audience) viewerPlayer
-        );
-        
-        // Verify the result is what we expected
-        assertEquals(
-            ColorUtil.componentToString(expectedComponent), 
-            ColorUtil.componentToString(result)
-        );
+    void render_formatsOnceForEveryViewer() {
+        ChatRenderer renderer = chatRenderer.prepare(session, "hi", null, null, Collections.emptySet(), null, null);
+        when(chatManager.formatChat(session, "hi", null)).thenReturn(Component.text("FORMATTED: hi"));
+
+        Component first = renderer.render(sourcePlayer, Component.text(""), Component.text(""), (Audience) viewerPlayer);
+        Component second = renderer.render(sourcePlayer, Component.text(""), Component.text(""), (Audience) sourcePlayer);
+
+        assertSame(first, second);
+        verify(chatManager, times(1)).formatChat(session, "hi", null);
     }
-    
+
     @Test
-    void removeLastMessage_afterSetting_removesMessage() {
-        // Setup: Store a message for the player
-        String testMessage = "Test message";
-        chatRenderer.setLastMessage(sourcePlayer, testMessage);
-        
-        // Configure chat manager mocks for both checks
-        Component beforeComponent = Component.text("BEFORE: " + testMessage);
-        Component afterComponent = Component.text("AFTER: ");  // empty string response
-        when(chatManager.formatMessage(sourcePlayer, testMessage)).thenReturn(beforeComponent);
-        when(chatManager.formatMessage(sourcePlayer, "")).thenReturn(afterComponent);
-        
-        // Test 1: Verify the message is set
-        Component beforeResult = chatRenderer.render(
-            sourcePlayer,
-            Component.text(""),
-            Component.text(""),
-            (Audience) viewerPlayer
-        );
-        assertEquals(ColorUtil.componentToString(beforeComponent), ColorUtil.componentToString(beforeResult));
-        
-        // Remove the message
-        chatRenderer.removeLastMessage(sourcePlayer);
-        
-        // Test 2: Verify the message was removed
-        Component afterResult = chatRenderer.render(
-            sourcePlayer,
-            Component.text(""),
-            Component.text(""),
-            (Audience) viewerPlayer
-        );
-        assertEquals(ColorUtil.componentToString(afterComponent), ColorUtil.componentToString(afterResult));
+    void render_withAnEarlyRender_skipsFormatting() {
+        Component rendered = Component.text("ALREADY: hi");
+        ChatRenderer renderer = chatRenderer.prepare(session, "hi", null, null, Collections.emptySet(), null, rendered);
+
+        assertSame(rendered, renderer.render(sourcePlayer, Component.text(""), Component.text(""), (Audience) viewerPlayer));
+        verify(chatManager, never()).formatChat(Mockito.any(ChatSession.class), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void render_forTheConsole_usesTheConsoleRender() {
+        Component shared = Component.text("FORMATTED: hi");
+        Component console = Component.text("SourcePlayer: hi");
+        ChatRenderer renderer = chatRenderer.prepare(session, "hi", null, null, Collections.emptySet(), console, null);
+        when(chatManager.formatChat(session, "hi", null)).thenReturn(shared);
+
+        Component toConsole = renderer.render(sourcePlayer, Component.text(""), Component.text(""),
+                server.getConsoleSender());
+        Component toPlayer = renderer.render(sourcePlayer, Component.text(""), Component.text(""),
+                (Audience) viewerPlayer);
+
+        assertSame(console, toConsole);
+        assertEquals("FORMATTED: hi", ColorUtil.componentToString(toPlayer));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,83 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ProximityIndex
+ */
+class ProximityIndexTest {
+    private static final UUID OVERWORLD = UUID.randomUUID();
+    private static final UUID NETHER = UUID.randomUUID();
+
+    @Test
+    void collectNearby_findsOnlyPlayersInRangeAndWorld() {
+        ProximityIndex<String> index = new ProximityIndex<>();
+        index.rebuild(50)
+                .add("sender", OVERWORLD, 0, 64, 0)
+                .add("near", OVERWORLD, 30, 64, -30)
+                .add("acrossCell", OVERWORLD, -45, 64, 10)
+                .add("far", OVERWORLD, 200, 64, 0)
+                .add("otherWorld", NETHER, 1, 64, 1)
+                .publish();
+
+        Set<String> found = new HashSet<>();
+        assertTrue(index.collectNearby("sender", 50, found));
+
+        assertEquals(Set.of("sender", "near", "acrossCell"), found);
+    }
+
+    @Test
+    void collectNearby_unknownCenter_returnsFalse() {
+        ProximityIndex<String> index = new ProximityIndex<>();
+        List<String> found = new ArrayList<>();
+        assertFalse(index.collectNearby("nobody", 50, found));
+        assertTrue(found.isEmpty());
+    }
+
+    @Test
+    void collectNearby_500Players_matchesBruteForce() {
+        int players = 500;
+        double radius = 100;
+        Random random = new Random(42);
+        double[][] positions = new double[players][3];
+        ProximityIndex<Integer> index = new ProximityIndex<>();
+        ProximityIndex.Builder<Integer> builder = index.rebuild(radius);
+        for (int i = 0; i < players; i++) {
+            positions[i][0] = random.nextDouble() * 4000 - 2000;
+            positions[i][1] = random.nextDouble() * 100;
+            positions[i][2] = random.nextDouble() * 4000 - 2000;
+            builder.add(i, OVERWORLD, positions[i][0], positions[i][1], positions[i][2]);
+        }
+        builder.publish();
+
+        // Correctness against a straight distance scan
+        for (int sender = 0; sender < players; sender++) {
+            Set<Integer> expected = new HashSet<>();
+            for (int i = 0; i < players; i++) {
+                double dx = positions[i][0] - positions[sender][0];
+                double dy = positions[i][1] - positions[sender][1];
+                double dz = positions[i][2] - positions[sender][2];
+                if (dx * dx + dy * dy + dz * dz <= radius * radius) {
+                    expected.add(i);
+                }
+            }
+            Set<Integer> found = new HashSet<>();
+            index.collectNearby(sender, radius, found);
+            assertEquals(expected, found);
+        }
+    }
+}
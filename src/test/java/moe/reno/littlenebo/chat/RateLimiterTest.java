@@ -0,0 +1,59 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the RateLimiter token bucket
+ */
+class RateLimiterTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void tryAcquire_allowsBurstThenRefills() {
+        RateLimiter limiter = new RateLimiter(3, 1.0);
+        AtomicLong player = RateLimiter.newBucket();
+        long now = 42 * SECOND;
+
+        assertTrue(limiter.tryAcquire(player, now));
+        assertTrue(limiter.tryAcquire(player, now));
+        assertTrue(limiter.tryAcquire(player, now));
+        assertFalse(limiter.tryAcquire(player, now));
+
+        assertFalse(limiter.tryAcquire(player, now + SECOND / 2));
+        assertTrue(limiter.tryAcquire(player, now + SECOND));
+        assertFalse(limiter.tryAcquire(player, now + SECOND));
+    }
+
+    @Test
+    void tryAcquire_idleBucketNeverExceedsBurst() {
+        RateLimiter limiter = new RateLimiter(2, 10.0);
+        AtomicLong player = RateLimiter.newBucket();
+        long later = 3600 * SECOND;
+
+        assertTrue(limiter.tryAcquire(player, 0));
+        assertTrue(limiter.tryAcquire(player, later));
+        assertTrue(limiter.tryAcquire(player, later));
+        assertFalse(limiter.tryAcquire(player, later));
+    }
+
+    @Test
+    void tryAcquire_bucketsAreSeparate() {
+        RateLimiter limiter = new RateLimiter(1, 1.0);
+        AtomicLong spammer = RateLimiter.newBucket();
+        AtomicLong other = RateLimiter.newBucket();
+
+        assertTrue(limiter.tryAcquire(spammer, 0));
+        assertFalse(limiter.tryAcquire(spammer, 0));
+        assertTrue(limiter.tryAcquire(other, 0));
+        assertFalse(limiter.tryAcquire(other, 0));
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.chat;
+
+import moe.reno.littlenebo.config.FilterConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the compiled WordFilter
+ */
+class WordFilterTest {
+
+    private static WordFilter filter(boolean wholeWords) {
+        return WordFilter.compile(new FilterConfig(true,
+                List.of("scam"),
+                List.of("heck", "darn"),
+                List.of("free diamonds"),
+                wholeWords, '#', "littlenebo.filter.notify", ""));
+    }
+
+    @Test
+    void apply_cleanMessage_returnsNull() {
+        assertNull(filter(true).apply("hello there"));
+        assertNull(WordFilter.EMPTY.apply("scam"));
+    }
+
+    @Test
+    void apply_censorsEveryMatchKeepingLength() {
+        WordFilter.Result result = filter(true).apply("Oh HECK, d4rn it");
+
+        assertEquals(WordFilter.Action.CENSOR, result.action());
+        assertEquals("Oh ####, #### it", result.text());
+    }
+
+    @Test
+    void apply_blockWinsOverCensor() {
+        WordFilter.Result result = filter(true).apply("heck this $c4m");
+
+        assertEquals(WordFilter.Action.BLOCK, result.action());
+        assertEquals("scam", result.matched());
+    }
+
+    @Test
+    void apply_flagLeavesTextAlone() {
+        WordFilter.Result result = filter(true).apply("get FREE d1amonds here");
+
+        assertEquals(WordFilter.Action.FLAG, result.action());
+        assertEquals("get FREE d1amonds here", result.text());
+    }
+
+    @Test
+    void apply_wholeWords_ignoresWordsInsideOtherWords() {
+        assertNull(filter(true).apply("scampi for dinner"));
+        assertEquals(WordFilter.Action.BLOCK, filter(false).apply("scampi for dinner").action());
+    }
+
+    @Test
+    void apply_seesWordsSplitByTags() {
+        assertEquals(WordFilter.Action.BLOCK, filter(true).apply("sc<b></b>am").action());
+        assertEquals(WordFilter.Action.BLOCK, filter(true).apply("s<reset>cam").action());
+        assertEquals(WordFilter.Action.FLAG, filter(true).apply("free <red>diamonds</red>").action());
+    }
+
+    @Test
+    void apply_seesWordsSplitByLegacyCodes() {
+        assertEquals(WordFilter.Action.BLOCK, filter(true).apply("sc&ram").action());
+        assertEquals(WordFilter.Action.BLOCK, filter(true).apply("&csc&#ff00aaam").action());
+    }
+
+    @Test
+    void apply_censorsInPlaceAroundFormatting() {
+        WordFilter.Result result = filter(true).apply("oh <red>he&lck</red> no");
+
+        assertEquals(WordFilter.Action.CENSOR, result.action());
+        assertEquals("oh <red>##&l##</red> no", result.text());
+    }
+
+    @Test
+    void apply_leavesThingsThatArentTagsAlone() {
+        // Not tags, so nothing is taken out and the words stay apart
+        assertNull(filter(true).apply("sc <3 am"));
+        assertNull(filter(true).apply("sc\\<b>am"));
+    }
+
+    @Test
+    void topHits_countsWhatFired() {
+        WordFilter filter = filter(true);
+        filter.apply("heck");
+        filter.apply("heck darn");
+
+        assertEquals("censor:heck", filter.topHits(1).get(0).getKey());
+        assertEquals(2L, filter.topHits(1).get(0).getValue());
+    }
+
+    @Test
+    void compile_disabled_returnsEmpty() {
+        assertSame(WordFilter.EMPTY, WordFilter.compile(FilterConfig.DISABLED));
+    }
+}
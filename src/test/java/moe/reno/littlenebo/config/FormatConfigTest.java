@@ -61,6 +61,16 @@ class FormatConfigTest {
         assertEquals("", config.groupPermission());
     }
     
+    @Test
+    void createValidated_keepsKnownLegacyFormatsOnly() {
+        assertEquals("section", FormatConfig.createValidated("{message}", "Section", "").legacyFormat());
+        assertEquals("ampersand", FormatConfig.createValidated("{message}", "&", "").legacyFormat());
+        // An old-style legacy template isn't a serialiser, so legacy output stays off
+        FormatConfig old = FormatConfig.createValidated("{message}", "&7{display_name}: {message}", "");
+        assertEquals("", old.legacyFormat());
+        assertNull(old.legacySerializer());
+    }
+
     @Test
     void hasPermission_withGroupPermission_returnsTrue() {
         FormatConfig config = new FormatConfig("format", "", "permission.test");
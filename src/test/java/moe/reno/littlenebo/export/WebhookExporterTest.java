@@ -0,0 +1,172 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.export;
+
+import com.sun.net.httpserver.HttpServer;
+import moe.reno.littlenebo.chat.ChatRecord;
+import moe.reno.littlenebo.config.WebhookConfig;
+import moe.reno.littlenebo.metrics.ChatMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the chat webhook against a local HTTP stand-in
+ */
+class WebhookExporterTest {
+    private final UUID alice = UUID.fromString("00000000-0000-0000-0000-00000000a11c");
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+    private final List<String> auth = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private volatile int failStatus = 500;
+    private HttpServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void accept_postsAFullBatchWithoutWaitingForTheTimer() throws Exception {
+        start();
+        ChatMetrics metrics = new ChatMetrics();
+        WebhookExporter exporter = new WebhookExporter(config(3, 60_000, 1000, 0), metrics, null);
+        for (int i = 0; i < 3; i++) {
+            exporter.accept(record("hello " + i));
+        }
+        waitFor(() -> metrics.webhookSent() == 3);
+        exporter.close();
+
+        assertEquals(1, bodies.size());
+        String body = bodies.get(0);
+        assertTrue(body.startsWith("[{") && body.endsWith("}]"), body);
+        assertTrue(body.contains("\"message\":\"hello 2\""), body);
+        assertEquals("Bearer test", auth.get(0));
+    }
+
+    @Test
+    void accept_flushesAPartialBatchOnTheTimer() throws Exception {
+        start();
+        ChatMetrics metrics = new ChatMetrics();
+        WebhookExporter exporter = new WebhookExporter(config(100, 50, 1000, 0), metrics, null);
+        exporter.accept(record("just me"));
+        waitFor(() -> metrics.webhookSent() == 1);
+        exporter.close();
+
+        assertEquals(1, bodies.size());
+    }
+
+    @Test
+    void post_retriesServerErrorsThenSucceeds() throws Exception {
+        start();
+        failuresLeft.set(2);
+        ChatMetrics metrics = new ChatMetrics();
+        WebhookExporter exporter = new WebhookExporter(config(1, 60_000, 1000, 3), metrics, null);
+        exporter.accept(record("eventually"));
+        waitFor(() -> metrics.webhookSent() == 1);
+        exporter.close();
+
+        assertEquals(2, metrics.webhookRetries());
+        assertEquals(0, metrics.webhookFailed());
+    }
+
+    @Test
+    void post_givesUpOnClientErrorsWithoutRetrying() throws Exception {
+        start();
+        failStatus = 400;
+        failuresLeft.set(1);
+        ChatMetrics metrics = new ChatMetrics();
+        WebhookExporter exporter = new WebhookExporter(config(1, 60_000, 1000, 3), metrics, null);
+        exporter.accept(record("malformed?"));
+        waitFor(() -> metrics.webhookFailed() == 1);
+        exporter.close();
+
+        assertEquals(0, metrics.webhookRetries());
+        assertEquals(0, metrics.webhookSent());
+    }
+
+    @Test
+    void accept_dropsOnceTheBacklogIsFull() {
+        // Nothing listens here and the timer never fires, so messages only pile up
+        ChatMetrics metrics = new ChatMetrics();
+        WebhookExporter exporter = new WebhookExporter(
+                new WebhookConfig(true, "http://127.0.0.1:9/", "", 1000, 60_000, 16, 0, 200), metrics, null);
+        for (int i = 0; i < 20; i++) {
+            exporter.accept(record("spam " + i));
+        }
+
+        assertEquals(16, exporter.backlog());
+        assertEquals(4, metrics.webhookDropped());
+        exporter.close();
+    }
+
+    @Test
+    void constructor_rejectsUrlsItCouldNeverPostTo() {
+        for (String url : List.of("", "example.com/chat", "ftp://example.com/chat", "http:///chat")) {
+            WebhookConfig config = new WebhookConfig(true, url, "", 10, 1000, 16, 0, 200);
+            assertThrows(IllegalArgumentException.class, () -> new WebhookExporter(config, new ChatMetrics(), null), url);
+        }
+    }
+
+    @Test
+    void json_escapesQuotesAndControlCharacters() {
+        ChatRecord record = new ChatRecord(42, alice, "Alice", "Alice", null, null, "say \"hi\"\n\\o/", null, null);
+        assertEquals("{\"time\":42,\"uuid\":\"00000000-0000-0000-0000-00000000a11c\",\"name\":\"Alice\","
+                + "\"display_name\":\"Alice\",\"channel\":null,\"format\":null,"
+                + "\"message\":\"say \\\"hi\\\"\\n\\\\o/\",\"text\":null,\"legacy\":null}", record.json());
+        assertSame(record.json(), record.json());
+    }
+
+    private void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/chat", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                int status = 204;
+                if (failuresLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                    status = failStatus;
+                } else {
+                    bodies.add(body);
+                    auth.add(String.valueOf(exchange.getRequestHeaders().getFirst("Authorization")));
+                }
+                exchange.sendResponseHeaders(status, -1);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    private WebhookConfig config(int batchSize, long flushMillis, int backlog, int retries) {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/chat";
+        return new WebhookConfig(true, url, "Bearer test", batchSize, flushMillis, backlog, retries, 2000);
+    }
+
+    private ChatRecord record(String message) {
+        return new ChatRecord(System.currentTimeMillis(), alice, "Alice", "Alice", null, null, message, null, null);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.log;
+
+import moe.reno.littlenebo.chat.ChatRecord;
+import moe.reno.littlenebo.config.ChatLogConfig;
+import moe.reno.littlenebo.metrics.ChatMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the chat log index and search
+ */
+class ChatLogSearchTest {
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final long start = System.currentTimeMillis() - 200_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void search_findsWordsAcrossRotatedSegmentsNewestFirst() throws IOException {
+        writeLog(true);
+        assertTrue(countFiles(".idx") > 1, "expected several indexed segments");
+        assertTrue(countFiles(".log.gz") > 0, "expected compressed segments");
+
+        ChatLogSearch.Page first = search(List.of("DIAMOND"), null, 0, 1);
+        assertEquals(List.of("found a diamond #190", "found a diamond #180", "found a diamond #170"),
+                first.lines().stream().map(LogLine::message).toList());
+        assertTrue(first.more());
+
+        ChatLogSearch.Page last = search(List.of("diamond"), null, 0, 7);
+        assertEquals(List.of("found a diamond #10", "found a diamond #0"),
+                last.lines().stream().map(LogLine::message).toList());
+        assertFalse(last.more());
+    }
+
+    @Test
+    void search_filtersByPlayerAndTime() throws IOException {
+        writeLog(true);
+
+        ChatLogSearch.Page bobs = search(List.of(), bob, start + 150_000, 1);
+
+        assertEquals(List.of("chatting #199", "chatting #197", "chatting #195"),
+                bobs.lines().stream().map(LogLine::message).toList());
+        assertTrue(bobs.lines().stream().allMatch(line -> line.playerName().equals("Bob")));
+        assertEquals(25, new ChatLogSearch(dir, ZONE)
+                .search(new ChatLogSearch.Query(List.of(), bob, start + 150_000, 1, 100)).lines().size());
+    }
+
+    @Test
+    void search_requiresEveryWord() throws IOException {
+        writeLog(false);
+
+        assertEquals(1, search(List.of("diamond", "#50"), null, 0, 1).lines().size());
+        assertTrue(search(List.of("diamond", "chatting"), null, 0, 1).lines().isEmpty());
+    }
+
+    @Test
+    void search_rebuildsMissingIndexes() throws IOException {
+        writeLog(false);
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                if (file.toString().endsWith(".idx")) {
+                    Files.delete(file);
+                }
+            }
+        }
+
+        assertEquals(3, search(List.of("diamond"), alice, 0, 1).lines().size());
+        assertTrue(countFiles(".idx") > 1);
+    }
+
+    @Test
+    void search_readsTheLiveLogThroughTheWritersIndex() throws Exception {
+        ChatLogConfig config = new ChatLogConfig(true, "logs", 1024, false, false, 0, false, true);
+        ChatLogWriter writer = new ChatLogWriter(dir, config, new ChatMetrics(), null);
+        try {
+            for (int i = 0; i < 20; i++) {
+                writer.accept(new ChatRecord(start + i * 1000L, alice, "Alice", "Alice", null, null,
+                        "live diamond #" + i, null, null));
+            }
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (writer.liveIndex() == null || writer.liveIndex().lineCount() < 20) {
+                assertTrue(System.currentTimeMillis() < deadline, "writer never published its index");
+                Thread.sleep(10);
+            }
+            // Written behind the writer's back, so only a fresh scan of chat.log would see it
+            StringBuilder sneaky = new StringBuilder();
+            LogLine.format(new ChatRecord(start + 30_000, bob, "Bob", "Bob", null, null, "sneaky diamond", null, null),
+                    ZONE, sneaky);
+            Files.writeString(dir.resolve(ChatLogWriter.ACTIVE_FILE), sneaky, StandardOpenOption.APPEND);
+
+            ChatLogSearch.Page page = new ChatLogSearch(dir, ZONE, writer)
+                    .search(new ChatLogSearch.Query(List.of("diamond"), null, 0, 1, 3));
+
+            assertEquals(List.of("live diamond #19", "live diamond #18", "live diamond #17"),
+                    page.lines().stream().map(LogLine::message).toList());
+        } finally {
+            writer.close();
+        }
+    }
+
+    @Test
+    void snapshot_answersLikeTheBuiltIndexAndIgnoresLaterLines() {
+        ChatLogIndex.Builder builder = new ChatLogIndex.Builder();
+        for (int i = 0; i < 50; i++) {
+            builder.add(i * 100L, start + i, i % 3 == 0 ? alice : bob, "word" + (i % 7) + " again again");
+        }
+        ChatLogIndex.Snapshot snapshot = builder.snapshot();
+        ChatLogIndex built = builder.build();
+        for (int i = 0; i < 5000; i++) {
+            builder.add(i * 100L, start + i, alice, "word1 later");
+        }
+
+        assertEquals(50, snapshot.lineCount());
+        assertEquals(built.lastTime(), snapshot.lastTime());
+        assertEquals(built.offset(42), snapshot.offset(42));
+        for (int i = 0; i < 7; i++) {
+            assertArrayEquals(built.tokenLines(ChatLogIndex.hash("word" + i)),
+                    snapshot.tokenLines(ChatLogIndex.hash("WORD" + i)));
+        }
+        assertArrayEquals(built.tokenLines(ChatLogIndex.hash("again")), snapshot.tokenLines(ChatLogIndex.hash("again")));
+        assertArrayEquals(built.playerLines(alice), snapshot.playerLines(alice));
+        assertArrayEquals(built.playerLines(bob), snapshot.playerLines(bob));
+        assertEquals(0, snapshot.tokenLines(ChatLogIndex.hash("later")).length);
+        assertEquals(0, snapshot.playerLines(UUID.randomUUID()).length);
+    }
+
+    @Test
+    void logLine_roundTrips() {
+        StringBuilder out = new StringBuilder();
+        LogLine.format(new ChatRecord(start, alice, "Alice", "Alice", "global", null,
+                "hi (there): you\nagain", null, null), ZONE, out);
+        LogLine line = LogLine.parse(out.substring(0, out.length() - 1), ZONE);
+
+        assertNotNull(line);
+        assertEquals(start, line.timeMillis());
+        assertEquals("global", line.channel());
+        assertEquals("Alice", line.playerName());
+        assertEquals(alice, line.playerId());
+        assertEquals("hi (there): you again", line.message());
+        assertNull(LogLine.parse("not a chat line", ZONE));
+    }
+
+    @Test
+    void intersect_keepsCommonLines() {
+        assertArrayEquals(new int[]{3, 9}, ChatLogSearch.intersect(new int[]{1, 3, 5, 9}, new int[]{2, 3, 9, 11}));
+    }
+
+    /**
+     * Writes 200 messages a second apart, alternating Alice and Bob, with a diamond
+     * from Alice every tenth message. Small files so it spreads over several segments.
+     */
+    private void writeLog(boolean gzip) {
+        ChatLogConfig config = new ChatLogConfig(true, "logs", 1024, false, false, 2048, gzip, true);
+        ChatLogWriter writer = new ChatLogWriter(dir, config, new ChatMetrics(), null);
+        for (int i = 0; i < 200; i++) {
+            boolean fromAlice = i % 2 == 0;
+            String message = i % 10 == 0 ? "found a diamond #" + i : "chatting #" + i;
+            writer.accept(new ChatRecord(start + i * 1000L, fromAlice ? alice : bob, fromAlice ? "Alice" : "Bob",
+                    fromAlice ? "Alice" : "Bob", null, null, message, null, null));
+        }
+        writer.close();
+    }
+
+    private ChatLogSearch.Page search(List<String> terms, UUID player, long since, int page) throws IOException {
+        return new ChatLogSearch(dir, ZONE).search(new ChatLogSearch.Query(terms, player, since, page, 3));
+    }
+
+    private long countFiles(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.toString().endsWith(suffix)).count();
+        }
+    }
+}
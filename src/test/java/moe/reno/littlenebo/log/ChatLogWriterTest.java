@@ -0,0 +1,144 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.log;
+
+import moe.reno.littlenebo.chat.ChatRecord;
+import moe.reno.littlenebo.config.ChatLogConfig;
+import moe.reno.littlenebo.metrics.ChatMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the background chat log writer
+ */
+class ChatLogWriterTest {
+    private final UUID alice = UUID.randomUUID();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void close_writesEverythingQueued() throws IOException {
+        ChatMetrics metrics = new ChatMetrics();
+        ChatLogWriter writer = new ChatLogWriter(dir, config(1024, false, 0, false), metrics, null);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 500; i++) {
+            writer.accept(new ChatRecord(now, alice, "Alice", "Alice",
+                    i % 2 == 0 ? "global" : null, null, "hello " + i, null, null));
+        }
+        writer.close();
+
+        List<String> lines = Files.readAllLines(dir.resolve(ChatLogWriter.ACTIVE_FILE), StandardCharsets.UTF_8);
+        assertEquals(500, lines.size());
+        assertTrue(lines.get(0).endsWith("] [global] Alice (" + alice + "): hello 0"));
+        assertTrue(lines.get(1).endsWith("] Alice (" + alice + "): hello 1"));
+        assertEquals(0, writer.queueDepth());
+        assertEquals(0, metrics.chatLogDropped());
+    }
+
+    @Test
+    void accept_keepsEachMessageOnOneLine() throws IOException {
+        ChatLogWriter writer = new ChatLogWriter(dir, config(1024, false, 0, false), new ChatMetrics(), null);
+        writer.accept(new ChatRecord(System.currentTimeMillis(), alice, "Alice", "Alice", null, null,
+                "fake\n[00:00] Admin: hi", null, null));
+        writer.close();
+
+        assertEquals(1, Files.readAllLines(dir.resolve(ChatLogWriter.ACTIVE_FILE)).size());
+    }
+
+    @Test
+    void accept_badRecord_isDroppedAndTheWriterCarriesOn() throws IOException {
+        ChatMetrics metrics = new ChatMetrics();
+        ChatLogWriter writer = new ChatLogWriter(dir, config(1024, false, 0, false), metrics, null);
+        long now = System.currentTimeMillis();
+        writer.accept(new ChatRecord(now, alice, "Alice", "Alice", null, null, null, null, null));
+        writer.accept(new ChatRecord(now, alice, "Alice", "Alice", null, null, "still here ✨ \uD83D\uDE00", null, null));
+        writer.close();
+
+        List<String> lines = Files.readAllLines(dir.resolve(ChatLogWriter.ACTIVE_FILE), StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).endsWith("): still here ✨ \uD83D\uDE00"), lines.get(0));
+        assertEquals(1, metrics.chatLogDropped());
+    }
+
+    @Test
+    void utf8Length_matchesTheEncoder() {
+        for (String text : List.of("plain", "héllo", "✨ sparkle", "\uD83D\uDE00 emoji", "lone \uD83D surrogate")) {
+            assertEquals(text.getBytes(StandardCharsets.UTF_8).length, ChatLogWriter.utf8Length(text), text);
+        }
+    }
+
+    @Test
+    void accept_rotatesWhenTheFileGetsTooBig() throws IOException {
+        ChatLogWriter writer = new ChatLogWriter(dir, config(1024, false, 1024, false), new ChatMetrics(), null);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 100; i++) {
+            writer.accept(new ChatRecord(now, alice, "Alice", "Alice", null, null, "message number " + i, null, null));
+        }
+        writer.close();
+
+        int total = 0;
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                assertTrue(Files.size(file) <= 1024, file + " is too big");
+                total += Files.readAllLines(file).size();
+            }
+        }
+        assertEquals(100, total);
+        assertTrue(Files.exists(dir.resolve("chat-" + LocalDate.now(ZoneId.systemDefault()) + "-0.log")));
+    }
+
+    @Test
+    void accept_rotatesAndCompressesOnANewDay() throws Exception {
+        ChatLogWriter writer = new ChatLogWriter(dir, config(16, true, 0, true), new ChatMetrics(), null);
+        long yesterday = System.currentTimeMillis() - 86_400_000L;
+        writer.accept(new ChatRecord(yesterday, alice, "Alice", "Alice", null, null, "last night", null, null));
+        writer.accept(new ChatRecord(System.currentTimeMillis(), alice, "Alice", "Alice", null, null,
+                "good morning", null, null));
+        writer.close();
+
+        Path rotated = dir.resolve("chat-" + LocalDate.now(ZoneId.systemDefault()).minusDays(1) + "-0.log");
+        // Compression runs on its own thread; the plain file goes once the .gz is complete
+        for (int i = 0; i < 50 && Files.exists(rotated); i++) {
+            Thread.sleep(20);
+        }
+        try (GZIPInputStream in = new GZIPInputStream(Files.newInputStream(rotated.resolveSibling(rotated.getFileName() + ".gz")))) {
+            assertTrue(new String(in.readAllBytes(), StandardCharsets.UTF_8).contains("last night"));
+        }
+        assertTrue(Files.readString(dir.resolve(ChatLogWriter.ACTIVE_FILE)).contains("good morning"));
+    }
+
+    @Test
+    void accept_dropsWhenFullAndNotBlocking() {
+        ChatMetrics metrics = new ChatMetrics();
+        ChatLogWriter writer = new ChatLogWriter(dir, config(16, false, 0, false), metrics, null);
+        writer.close();
+        // Closed writer has no thread draining it, so the queue fills up
+        for (int i = 0; i < 20; i++) {
+            writer.accept(new ChatRecord(0, alice, "Alice", "Alice", null, null, "x", null, null));
+        }
+
+        assertEquals(16, writer.queueDepth());
+        assertEquals(4, metrics.chatLogDropped());
+    }
+
+    private static ChatLogConfig config(int queueSize, boolean daily, long maxBytes, boolean gzip) {
+        return new ChatLogConfig(true, "logs", queueSize, false, daily, maxBytes, gzip, false);
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ChatMetrics and its Prometheus exposition
+ */
+class ChatMetricsTest {
+
+    private static String expose(ChatMetrics metrics, ExpositionWriter writer) {
+        writer.reset();
+        metrics.writeTo(writer);
+        return new String(writer.buffer(), 0, writer.size(), StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    void writeTo_countsMessagesRendersAndParses() {
+        ChatMetrics metrics = new ChatMetrics();
+        metrics.recordMessage();
+        metrics.recordMessage();
+        metrics.recordRender(false);
+        metrics.recordRender(true);
+        metrics.recordRender(true);
+        metrics.recordParse(true);
+
+        String text = expose(metrics, new ExpositionWriter(64));
+
+        assertTrue(text.contains("littlenebo_messages_total 2\n"));
+        assertTrue(text.contains("littlenebo_renders_total 3\n"));
+        assertTrue(text.contains("littlenebo_render_cache_total{result=\"hit\"} 2\n"));
+        assertTrue(text.contains("littlenebo_render_cache_total{result=\"miss\"} 1\n"));
+        assertTrue(text.contains("littlenebo_parse_total{path=\"fast\"} 1\n"));
+        assertTrue(text.contains("littlenebo_parse_total{path=\"full\"} 0\n"));
+    }
+
+    @Test
+    void writeTo_histogramIsCumulative() {
+        ChatMetrics metrics = new ChatMetrics();
+        metrics.recordRenderLatency(40_000L);      // 40µs
+        metrics.recordRenderLatency(3_000_000L);   // 3ms
+        metrics.recordRenderLatency(5_000_000_000L); // 5s, +Inf
+
+        String text = expose(metrics, new ExpositionWriter(64));
+
+        assertTrue(text.contains("littlenebo_render_seconds_bucket{le=\"0.00005\"} 1\n"));
+        assertTrue(text.contains("littlenebo_render_seconds_bucket{le=\"0.005\"} 2\n"));
+        assertTrue(text.contains("littlenebo_render_seconds_bucket{le=\"+Inf\"} 3\n"));
+        assertTrue(text.contains("littlenebo_render_seconds_sum 5.003040000\n"));
+        assertTrue(text.contains("littlenebo_render_seconds_count 3\n"));
+    }
+
+    @Test
+    void writeTo_reusesBufferBetweenScrapes() {
+        ChatMetrics metrics = new ChatMetrics();
+        ExpositionWriter writer = new ExpositionWriter(8192);
+
+        expose(metrics, writer);
+        byte[] first = writer.buffer();
+        metrics.recordMessage();
+        String second = expose(metrics, writer);
+
+        assertSame(first, writer.buffer());
+        assertTrue(second.contains("littlenebo_messages_total 1\n"));
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.relay;
+
+import moe.reno.littlenebo.chat.ChatRecord;
+import moe.reno.littlenebo.config.RelayConfig;
+import moe.reno.littlenebo.metrics.ChatMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for relay batching and the binary envelope
+ */
+class RelayPublisherTest {
+    private final UUID alice = UUID.randomUUID();
+
+    @Test
+    void publish_lingersSoABurstGoesOutAsOneBatch() throws IOException {
+        FakeTransport transport = new FakeTransport(true);
+        ChatMetrics metrics = new ChatMetrics();
+        RelayPublisher publisher = new RelayPublisher(transport, config(200, 256), metrics);
+        for (int i = 0; i < 5; i++) {
+            publisher.accept(record("hello " + i));
+        }
+        publisher.close();
+
+        assertEquals(1, transport.batches.size());
+        List<RelayEnvelope> envelopes = RelayEnvelope.readBatch(transport.batches.get(0));
+        assertEquals(5, envelopes.size());
+        assertEquals("hello 4", envelopes.get(4).message());
+        assertEquals(5, metrics.relaySent());
+        assertEquals(1, metrics.relayBatches());
+    }
+
+    @Test
+    void publish_splitsAtMaxBatch() throws IOException {
+        FakeTransport transport = new FakeTransport(true);
+        RelayPublisher publisher = new RelayPublisher(transport, config(200, 2), new ChatMetrics());
+        for (int i = 0; i < 5; i++) {
+            publisher.accept(record("hello " + i));
+        }
+        publisher.close();
+
+        int total = 0;
+        for (byte[] batch : transport.batches) {
+            int size = RelayEnvelope.readBatch(batch).size();
+            assertTrue(size <= 2);
+            total += size;
+        }
+        assertEquals(5, total);
+    }
+
+    @Test
+    void publish_countsDropsWhenTheTransportIsDown() {
+        ChatMetrics metrics = new ChatMetrics();
+        RelayPublisher publisher = new RelayPublisher(new FakeTransport(false), config(0, 256), metrics);
+        publisher.accept(record("anyone there?"));
+        publisher.close();
+
+        assertEquals(1, metrics.relayDropped());
+        assertEquals(0, metrics.relaySent());
+    }
+
+    @Test
+    void envelope_roundTripsEveryField() throws IOException {
+        ChatRecord record = new ChatRecord(1234, alice, "Alice", "<rainbow>Ali</rainbow>", null, "admin",
+                "héllo ✨", null, null);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] batch = RelayPublisher.encode("survival", List.of(record), bytes, new DataOutputStream(bytes));
+
+        RelayEnvelope envelope = RelayEnvelope.readBatch(batch).get(0);
+
+        assertEquals(new RelayEnvelope("survival", 1234, alice, "Alice", "<rainbow>Ali</rainbow>", null, "admin", "héllo ✨"),
+                envelope);
+    }
+
+    @Test
+    void readBatch_rejectsOtherVersions() {
+        assertThrows(IOException.class, () -> RelayEnvelope.readBatch(new byte[] {99, 0, 0}));
+    }
+
+    private ChatRecord record(String message) {
+        return new ChatRecord(System.currentTimeMillis(), alice, "Alice", "Alice", "global", "default",
+                message, null, null);
+    }
+
+    private static RelayConfig config(long lingerMillis, int maxBatch) {
+        return new RelayConfig(true, "survival", "127.0.0.1", 0, false, lingerMillis, maxBatch, 1024);
+    }
+
+    private static final class FakeTransport implements RelayTransport {
+        private final boolean connected;
+        private final List<byte[]> batches = new CopyOnWriteArrayList<>();
+
+        FakeTransport(boolean connected) {
+            this.connected = connected;
+        }
+
+        @Override
+        public void start(Consumer<byte[]> receiver) {
+        }
+
+        @Override
+        public boolean publish(byte[] batch) {
+            if (connected) {
+                batches.add(batch);
+            }
+            return connected;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.relay;
+
+import moe.reno.littlenebo.LittleNebo;
+import moe.reno.littlenebo.chat.ChatManager;
+import moe.reno.littlenebo.metrics.ChatMetrics;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Server;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for rendering relayed chat
+ */
+class RelayReceiverTest {
+    @Test
+    void accept_skipsAnEnvelopeThatFailsToRenderAndKeepsTheRest() throws IOException {
+        LittleNebo plugin = mock(LittleNebo.class);
+        ChatManager chatManager = mock(ChatManager.class);
+        ChatMetrics metrics = new ChatMetrics();
+        Server server = mock(Server.class);
+        when(plugin.getChatManager()).thenReturn(chatManager);
+        when(plugin.getServer()).thenReturn(server);
+        when(server.getScheduler()).thenReturn(mock(BukkitScheduler.class));
+        when(chatManager.getMetrics()).thenReturn(metrics);
+        when(chatManager.formatRemote(anyString(), anyString(), anyString(), any()))
+                .thenAnswer(call -> Component.text((String) call.getArgument(2)));
+        when(chatManager.formatRemote(anyString(), anyString(), eq("boom"), any()))
+                .thenThrow(new IllegalArgumentException("bad input"));
+
+        RelayReceiver receiver = new RelayReceiver(plugin, "lobby");
+        receiver.accept(batch("hello", "boom", "still here"));
+
+        assertEquals(2, metrics.relayReceived());
+        verify(server.getScheduler()).runTask(eq(plugin), any(Runnable.class));
+        verify(plugin).debug(any(Supplier.class));
+    }
+
+    private static byte[] batch(String... messages) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        RelayEnvelope.writeBatchHeader(out, messages.length);
+        UUID sender = UUID.randomUUID();
+        for (String message : List.of(messages)) {
+            new RelayEnvelope("survival", 1234, sender, "Alice", "Alice", null, null, message).writeTo(out);
+        }
+        return bytes.toByteArray();
+    }
+}
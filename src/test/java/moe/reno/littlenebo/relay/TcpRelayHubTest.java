@@ -0,0 +1,71 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.relay;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the TCP relay hub and transport
+ */
+class TcpRelayHubTest {
+    private final TcpRelayHub hub = new TcpRelayHub(null);
+    private final List<TcpRelayTransport> transports = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        transports.forEach(TcpRelayTransport::close);
+        hub.close();
+    }
+
+    @Test
+    void publish_reachesEveryOtherServerButNotTheSender() throws Exception {
+        hub.start("127.0.0.1", 0);
+        List<byte[]> survival = new CopyOnWriteArrayList<>();
+        List<byte[]> creative = new CopyOnWriteArrayList<>();
+        List<byte[]> lobby = new CopyOnWriteArrayList<>();
+        TcpRelayTransport sender = connect(survival);
+        connect(creative);
+        connect(lobby);
+        waitFor(() -> hub.connectionCount() == 3);
+
+        assertTrue(sender.publish(new byte[] {1, 2, 3}));
+        waitFor(() -> creative.size() == 1 && lobby.size() == 1);
+
+        assertArrayEquals(new byte[] {1, 2, 3}, creative.get(0));
+        assertArrayEquals(new byte[] {1, 2, 3}, lobby.get(0));
+        assertTrue(survival.isEmpty());
+    }
+
+    @Test
+    void publish_dropsWhileDisconnected() {
+        TcpRelayTransport transport = new TcpRelayTransport("127.0.0.1", 1, null);
+        transports.add(transport);
+        transport.start(batch -> { });
+
+        assertFalse(transport.publish(new byte[] {1}));
+    }
+
+    private TcpRelayTransport connect(List<byte[]> received) throws InterruptedException {
+        TcpRelayTransport transport = new TcpRelayTransport("127.0.0.1", hub.port(), null);
+        transports.add(transport);
+        transport.start(received::add);
+        waitFor(transport::isConnected);
+        return transport;
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 200 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean(), "timed out");
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the AhoCorasick automaton
+ */
+class AhoCorasickTest {
+
+    private static List<String> matches(AhoCorasick automaton, String text) {
+        List<String> found = new ArrayList<>();
+        automaton.scan(text, (id, start, end) -> {
+            found.add(id + ":" + text.substring(start, end));
+            return true;
+        });
+        return found;
+    }
+
+    @Test
+    void scan_findsOverlappingPatternsCaseInsensitively() {
+        AhoCorasick.Builder builder = AhoCorasick.builder();
+        int he = builder.add("he");
+        int she = builder.add("she");
+        int hers = builder.add("HERS");
+        AhoCorasick automaton = builder.build();
+
+        assertEquals(List.of(she + ":She", he + ":he", hers + ":hers"), matches(automaton, "Shers"));
+    }
+
+    @Test
+    void scan_followsFailLinksAfterPartialMatch() {
+        AhoCorasick.Builder builder = AhoCorasick.builder();
+        builder.add("notch");
+        builder.add("otter");
+        AhoCorasick automaton = builder.build();
+
+        assertEquals(List.of("1:otter"), matches(automaton, "nootter notc"));
+    }
+
+    @Test
+    void scan_stopsWhenListenerReturnsFalse() {
+        AhoCorasick.Builder builder = AhoCorasick.builder();
+        builder.add("a");
+        AhoCorasick automaton = builder.build();
+        int[] calls = {0};
+
+        automaton.scan("aaaa", (id, start, end) -> ++calls[0] < 2);
+
+        assertEquals(2, calls[0]);
+    }
+
+    @Test
+    void empty_neverMatches() {
+        assertTrue(AhoCorasick.empty().isEmpty());
+        assertTrue(matches(AhoCorasick.empty(), "anything").isEmpty());
+        assertEquals(-1, AhoCorasick.builder().add(""));
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the DebugTracer class
+ */
+class DebugTracerTest {
+
+    @Test
+    void trace_withZeroSampleRate_neverBuildsMessage() {
+        DebugTracer tracer = new DebugTracer(null, 8);
+        tracer.configure(0.0, 8, false);
+        AtomicInteger built = new AtomicInteger();
+
+        for (int i = 0; i < 100; i++) {
+            tracer.trace(() -> "msg " + built.incrementAndGet());
+        }
+
+        assertEquals(0, built.get());
+        assertTrue(tracer.recent(8).isEmpty());
+    }
+
+    @Test
+    void recent_afterWrapping_keepsNewestInOrder() {
+        DebugTracer tracer = new DebugTracer(null, 3);
+        for (int i = 0; i < 5; i++) {
+            int n = i;
+            tracer.trace(() -> "msg " + n);
+        }
+
+        List<DebugTracer.Entry> entries = tracer.recent(10);
+        assertEquals(3, entries.size());
+        assertEquals("msg 2", entries.get(0).message());
+        assertEquals("msg 4", entries.get(2).message());
+    }
+
+    @Test
+    void clear_emptiesBuffer() {
+        DebugTracer tracer = new DebugTracer(null, 4);
+        tracer.record("hello");
+        tracer.clear();
+        assertTrue(tracer.recent(4).isEmpty());
+    }
+}
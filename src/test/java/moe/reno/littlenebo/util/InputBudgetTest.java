@@ -0,0 +1,65 @@
+/**
+ * MIT License
+ * Copyright (c) 2025 cutelilreno
+ * https://opensource.org/licenses/MIT
+ */
+package moe.reno.littlenebo.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the InputBudget record
+ */
+class InputBudgetTest {
+
+    @Test
+    void allows_unlimited_acceptsAnything() {
+        assertTrue(InputBudget.UNLIMITED.allows("<red>".repeat(1000), true));
+    }
+
+    @Test
+    void allows_tooManyTags_rejects() {
+        InputBudget budget = new InputBudget(3, 0, 0);
+        assertTrue(budget.allows("<red>a</red> <blue>b", false));
+        assertFalse(budget.allows("<red>a</red><blue>b</blue>", false));
+    }
+
+    @Test
+    void allows_legacyCodes_countAsTagsOnlyWhenEnabled() {
+        InputBudget budget = new InputBudget(2, 0, 0);
+        assertFalse(budget.allows("&aone &btwo &cthree", true));
+        assertTrue(budget.allows("&aone &btwo &cthree", false));
+    }
+
+    @Test
+    void allows_deepNesting_rejects() {
+        InputBudget budget = new InputBudget(0, 2, 0);
+        assertTrue(budget.allows("<red><bold>hi</bold></red><blue>x</blue>", false));
+        assertFalse(budget.allows("<red><bold><italic>hi", false));
+    }
+
+    @Test
+    void allows_longGradient_rejectsOnComponentEstimate() {
+        InputBudget budget = new InputBudget(0, 0, 20);
+        assertTrue(budget.allows("<gradient:red:blue>short</gradient>", false));
+        assertFalse(budget.allows("<gradient:red:blue>" + "x".repeat(50) + "</gradient>", false));
+    }
+
+    @Test
+    void allows_notATag_isPlainText() {
+        InputBudget budget = new InputBudget(1, 0, 0);
+        assertTrue(budget.allows("a < b and c > d, 1 <3 you", false));
+    }
+
+    @Test
+    void allows_countsTheSameTagsAsColorUtil() {
+        InputBudget budget = new InputBudget(2, 0, 0);
+        // A space means MiniMessage shows it as text, so it isn't charged as a tag
+        assertTrue(budget.allows("<red>hi</red> <not a tag>", false));
+        assertFalse(budget.allows("<red>hi</red><blue>", false));
+        assertTrue(budget.allows("&chi &#ff00aa there", true));
+        assertFalse(budget.allows("&chi &#ff00aa there &l!", true));
+    }
+}